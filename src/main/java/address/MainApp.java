@@ -7,8 +7,10 @@ import address.storage.StorageManager;
 import address.sync.RemoteManager;
 import address.sync.SyncManager;
 import address.sync.cloud.CloudSimulator;
+import address.sync.cloud.InMemoryCloudSimulator;
 import address.ui.Ui;
 import address.update.UpdateManager;
+import commons.PlatformExecUtil;
 import commons.Version;
 import address.util.*;
 
@@ -91,6 +93,7 @@ public class MainApp extends Application {
     }
 
     protected RemoteManager initRemoteManager(Config config) {
+        if (config.isCloudInMemory()) return new RemoteManager(new InMemoryCloudSimulator(config));
         return new RemoteManager(new CloudSimulator(config));
     }
 
@@ -103,7 +106,8 @@ public class MainApp extends Application {
     }
 
     protected StorageManager initStorageManager(ModelManager modelManager, Config config, UserPrefs userPrefs) {
-        return new StorageManager(modelManager::resetData, modelManager::getDefaultAddressBook, config, userPrefs);
+        return new StorageManager(modelManager::resetData, modelManager::appendData, modelManager::afterAppendedData,
+                                  modelManager::getDefaultAddressBook, config, userPrefs);
     }
 
     protected ModelManager initModelManager(Config config) {
@@ -115,8 +119,7 @@ public class MainApp extends Application {
         logger.info("Starting application: {}", MainApp.VERSION);
         ui.start(primaryStage);
         updateManager.start();
-        storageManager.start();
-        syncManager.start();
+        storageManager.start(() -> PlatformExecUtil.runLater(syncManager::start));
     }
 
     @Override
@@ -125,6 +128,7 @@ public class MainApp extends Application {
         ui.stop();
         storageManager.savePrefsToFile(userPrefs);
         syncManager.stop();
+        storageManager.stop();
         keyBindingsManager.stop();
         updateManager.stop();
         quit();
@@ -271,7 +271,7 @@ public class MainController extends UiController{
         dialogStage.setScene(scene);
 
         TagSelectionEditDialogController controller = loader.getController();
-        controller.setTags(modelManager.getTagsAsReadOnlyObservableList(), ReadOnlyPerson.getCommonTags(persons));
+        controller.setTags(modelManager.getTagsAsReadOnlyObservableList(), modelManager.getCommonTags(persons));
         controller.setDialogStage(dialogStage);
 
         dialogStage.showAndWait();
@@ -488,15 +488,24 @@ public class MainController extends UiController{
         return primaryStage;
     }
 
+    /**
+     * Large data files are partly loaded on a background thread, so the alert is shown on the FX thread
+     */
     @Subscribe
     private void handleFileOpeningExceptionEvent(FileOpeningExceptionEvent foee) {
-        showFileOperationAlertAndWait("Could not load data", "Could not load data from file", foee.file,
-                                      foee.exception);
+        PlatformExecUtil.runLater(() -> showFileOperationAlertAndWait("Could not load data",
+                                                                      "Could not load data from file", foee.file,
+                                                                      foee.exception));
     }
 
+    /**
+     * Saves are done on a background thread, so the alert is shown on the FX thread without blocking the saver
+     */
     @Subscribe
     private void handleFileSavingExceptionEvent(FileSavingExceptionEvent fsee) {
-        showFileOperationAlertAndWait("Could not save data", "Could not save data to file", fsee.file, fsee.exception);
+        PlatformExecUtil.runLater(() -> showFileOperationAlertAndWait("Could not save data",
+                                                                      "Could not save data to file", fsee.file,
+                                                                      fsee.exception));
     }
 
     private void showFileOperationAlertAndWait(String description, String details, File file, Throwable cause) {
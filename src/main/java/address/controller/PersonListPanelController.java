@@ -6,6 +6,8 @@ import static address.model.datatypes.person.ReadOnlyViewablePerson.ongoingComma
 import address.events.controller.JumpToListRequestEvent;
 import address.events.parser.FilterCommittedEvent;
 import address.model.ModelManager;
+import address.model.datatypes.ExtractableObservables;
+import address.model.datatypes.person.FuzzyIndex;
 import address.model.datatypes.person.ReadOnlyViewablePerson;
 import address.model.datatypes.person.Person;
 import address.model.datatypes.person.ReadOnlyPerson;
@@ -15,11 +17,13 @@ import address.parser.expr.Expr;
 import address.parser.expr.PredExpr;
 import address.parser.qualifier.TrueQualifier;
 import address.ui.PersonListViewCell;
+import address.util.collections.AsyncFilter;
 import address.util.collections.FilteredList;
 import address.util.AppLogger;
 import address.util.LoggerManager;
 import address.util.collections.ReorderedList;
 import com.google.common.eventbus.Subscribe;
+import commons.PlatformExecUtil;
 
 import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
@@ -31,8 +35,19 @@ import javafx.scene.control.*;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.input.KeyCombination;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 
 /**
  * Dialog to view the list of persons and their details
@@ -41,6 +56,11 @@ import java.util.Objects;
  */
 public class PersonListPanelController extends UiController {
     private static AppLogger logger = LoggerManager.getLogger(PersonListPanelController.class);
+    // how long the filter text must stay the same before filtering as the user types
+    private static final long FILTER_DEBOUNCE_MILLIS = 200;
+    // filter text starting with this searches for the persons best matching the words after it, allowing typos
+    private static final String FUZZY_SEARCH_PREFIX = "~";
+    private static final int FUZZY_SEARCH_LIMIT = 100;
     private final BooleanProperty shouldDisableEdit = new SimpleBooleanProperty(false);
     private final BooleanProperty shouldAllowRetry = new SimpleBooleanProperty(false);
 
@@ -54,11 +74,16 @@ public class PersonListPanelController extends UiController {
     private ListView<ReadOnlyViewablePerson> personListView;
     @FXML
     private TextField filterField;
+    @FXML
+    private Label filterStatusLabel;
 
     private MainController mainController;
     private ModelManager modelManager;
     private FilteredList<ReadOnlyViewablePerson> filteredPersonList;
+    private AsyncFilter<ReadOnlyViewablePerson> asyncFilter;
     private Parser parser;
+    private Expr currentFilter = PredExpr.TRUE; // null while showing the result of a fuzzy search
+    private Future<?> pendingFilterChange;
 
     public PersonListPanelController() {
         super();
@@ -70,16 +95,42 @@ public class PersonListPanelController extends UiController {
         this.mainController = mainController;
         this.modelManager = modelManager;
         filteredPersonList = new FilteredList<>(personList, new PredExpr(new TrueQualifier())::satisfies);
+        asyncFilter = new AsyncFilter<>(filteredPersonList, ForkJoinPool.commonPool(),
+                                      ExtractableObservables::extractFrom);
+        filterStatusLabel.visibleProperty().bind(asyncFilter.filteringProperty());
+        filterStatusLabel.managedProperty().bind(filterStatusLabel.visibleProperty());
 
-        ReorderedList<ReadOnlyViewablePerson> orderedList = new ReorderedList<>(filteredPersonList);
+        ReorderedList<ReadOnlyViewablePerson> orderedList = new ReorderedList<>(filteredPersonList,
+                                                                                ReadOnlyPerson.RANK_ORDER);
         personListView.setItems(orderedList);
-        personListView.setCellFactory(listView -> new PersonListViewCell(orderedList));
+        personListView.setCellFactory(listView -> new PersonListViewCell(orderedList, this::rankMovedPersons));
         loadGithubProfilePageWhenPersonIsSelected(mainController);
         setupListviewSelectionModelSettings();
         disableEditCommandForMultipleSelection();
         enableRetryCommandOnlyIfSelectionContainsFailedRequests();
     }
 
+    /**
+     * Ranks the persons just moved in the list between their new neighbours, so that the order is kept
+     * @param movedIndices indices of the moved persons, which are next to each other
+     */
+    private void rankMovedPersons(Collection<Integer> movedIndices) {
+        if (movedIndices.isEmpty()) return;
+        final ObservableList<ReadOnlyViewablePerson> items = personListView.getItems();
+        final int from = Collections.min(movedIndices);
+        final int to = Collections.max(movedIndices) + 1;
+        // the nearest neighbours with a rank, as pending persons have none yet
+        String rankBefore = null;
+        for (int i = from - 1; i >= 0 && rankBefore == null; i--) {
+            rankBefore = items.get(i).getRank();
+        }
+        String rankAfter = null;
+        for (int i = to; i < items.size() && rankAfter == null; i++) {
+            rankAfter = items.get(i).getRank();
+        }
+        modelManager.rankMovedPersons(items.subList(from, to), rankBefore, rankAfter);
+    }
+
     private void setupListviewSelectionModelSettings() {
         personListView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
         personListView.getItems().addListener((ListChangeListener<ReadOnlyViewablePerson>) c -> {
@@ -96,7 +147,13 @@ public class PersonListPanelController extends UiController {
     
     @Subscribe
     private void handleFilterCommittedEvent(FilterCommittedEvent fce) {
-        filteredPersonList.setPredicate(fce.filterExpression::satisfies);
+        final Expr filter = fce.filterExpression;
+        final Predicate<ReadOnlyViewablePerson> predicate = filter.compile(modelManager.getSearchIndexes());
+        // e.g. one more character typed: only the persons shown now can still match
+        asyncFilter.setPredicate(predicate, currentFilter != null && filter.narrows(currentFilter));
+        currentFilter = filter;
+        logger.debug("Filter committed: {}, {}, {}", filter, filteredPersonList.getStatistics(),
+                     asyncFilter.getStatistics());
     }
 
     private void loadGithubProfilePageWhenPersonIsSelected(MainController mainController) {
@@ -127,6 +184,7 @@ public class PersonListPanelController extends UiController {
     private void initialize() {
         personListView.setContextMenu(createContextMenu());
         editButton.disableProperty().bind(shouldDisableEdit);
+        filterField.textProperty().addListener((observable, oldValue, newValue) -> scheduleFilterTyped());
     }
 
     /**
@@ -206,17 +264,93 @@ public class PersonListPanelController extends UiController {
 
     @FXML
     private void handleFilterChanged() {
-        Expr filterExpression;
+        cancelFilterTyped();
+        if (isFuzzySearch()) {
+            applyFuzzySearch();
+            return;
+        }
+        raise(new FilterCommittedEvent(parseFilter().orElse(PredExpr.TRUE)));
+    }
+
+    /**
+     * Filters as the user types, once the filter text has stayed the same for a moment
+     */
+    private void scheduleFilterTyped() {
+        cancelFilterTyped();
+        pendingFilterChange = PlatformExecUtil.callLaterDelayed(Executors.callable(this::handleFilterTyped),
+                                                                FILTER_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelFilterTyped() {
+        if (pendingFilterChange != null) pendingFilterChange.cancel(false);
+        pendingFilterChange = null;
+    }
+
+    /**
+     * Unlike committing the filter, keeps the current one if the filter typed so far is invalid
+     */
+    private void handleFilterTyped() {
+        pendingFilterChange = null;
+        if (isFuzzySearch()) {
+            applyFuzzySearch();
+            return;
+        }
+        parseFilter().ifPresent(filterExpression -> raise(new FilterCommittedEvent(filterExpression)));
+    }
+
+    private boolean isFuzzySearch() {
+        return filterField.getText().startsWith(FUZZY_SEARCH_PREFIX);
+    }
+
+    /**
+     * Shows the persons best matching the words after the fuzzy search prefix, and selects the best one. The list
+     * keeps its order, so that the persons shown are the top matches but not sorted by how well they match.
+     * The index is searched in the background, and again whenever the persons change.
+     */
+    private void applyFuzzySearch() {
+        if (filterField.getStyleClass().contains("error")) filterField.getStyleClass().remove("error");
+        final String query = filterField.getText().substring(FUZZY_SEARCH_PREFIX.length());
+        if (query.trim().isEmpty()) {
+            raise(new FilterCommittedEvent(PredExpr.TRUE));
+            return;
+        }
+        final FuzzyIndex<? extends ReadOnlyViewablePerson> fuzzyIndex = modelManager.getSearchIndexes().getFuzzyIndex();
+        final AtomicReference<ReadOnlyViewablePerson> best = new AtomicReference<>();
+        asyncFilter.setPredicateOf(() -> {
+            final List<? extends FuzzyIndex.Match<? extends ReadOnlyViewablePerson>> matches =
+                    fuzzyIndex.search(query, FUZZY_SEARCH_LIMIT);
+            final Set<ReadOnlyViewablePerson> found = Collections.newSetFromMap(new IdentityHashMap<>());
+            matches.forEach(match -> found.add(match.getPerson()));
+            best.set(matches.isEmpty() ? null : matches.get(0).getPerson());
+            logger.debug("Fuzzy search '{}': {} matches, best {}", query, matches.size(),
+                         matches.isEmpty() ? null : matches.get(0));
+            return found::contains;
+        }, () -> {
+            if (best.get() != null) selectAndShow(best.get());
+        });
+        currentFilter = null;
+    }
+
+    private void selectAndShow(ReadOnlyViewablePerson person) {
+        final int index = personListView.getItems().indexOf(person);
+        if (index < 0) return;
+        personListView.getSelectionModel().clearAndSelect(index);
+        personListView.scrollTo(index);
+    }
+
+    /**
+     * @return empty if the filter is invalid, which is shown in the filter field
+     */
+    private Optional<Expr> parseFilter() {
         try {
-            filterExpression = parser.parse(filterField.getText());
+            final Expr filterExpression = parser.parse(filterField.getText());
             if (filterField.getStyleClass().contains("error")) filterField.getStyleClass().remove("error");
+            return Optional.of(filterExpression);
         } catch (ParseException e) {
             logger.debug("Invalid filter found: {}", e);
-            filterExpression = PredExpr.TRUE;
             if (!filterField.getStyleClass().contains("error")) filterField.getStyleClass().add("error");
+            return Optional.empty();
         }
-
-        raise(new FilterCommittedEvent(filterExpression));
     }
 
     private ContextMenu createContextMenu() {
@@ -2,6 +2,7 @@ package address.controller;
 
 import address.events.sync.SyncCompletedEvent;
 import address.events.sync.SyncFailedEvent;
+import address.events.sync.SyncScheduledEvent;
 import address.events.sync.SyncStartedEvent;
 import address.events.update.ApplicationUpdateFailedEvent;
 import address.events.update.ApplicationUpdateFinishedEvent;
@@ -25,6 +26,7 @@ public class StatusBarFooterController extends UiController {
     private static StatusBar syncStatusBar;
     private static StatusBar updaterStatusBar;
     private final Label secondaryStatusBarLabel;
+    private final Label syncScheduleLabel;
 
     @FXML
     private AnchorPane updaterStatusBarPane;
@@ -37,6 +39,7 @@ public class StatusBarFooterController extends UiController {
     public StatusBarFooterController() {
         super();
         this.secondaryStatusBarLabel = new Label("");
+        this.syncScheduleLabel = new Label("");
     }
 
     /**
@@ -58,19 +61,30 @@ public class StatusBarFooterController extends UiController {
     @Subscribe
     public void handleSyncCompletedEvent(SyncCompletedEvent sce) {
         Platform.runLater(() -> syncStatusBar.setText(sce.toString()));
-        if (timer.isStarted()) {
-            timer.restart();
-            if (timer.isPaused()) {
-                timer.resume();
-            }
-        } else {
-            timer.start();
-        }
+        restartSyncTimer();
     }
 
     @Subscribe
     public void handleSyncFailedEvent(SyncFailedEvent sfe) {
         Platform.runLater(() -> syncStatusBar.setText(sfe.toString()));
+        restartSyncTimer();
+    }
+
+    /**
+     * Counts down to the next sync as scheduled, and shows why it is then and the quota left
+     */
+    @Subscribe
+    public void handleSyncScheduledEvent(SyncScheduledEvent sse) {
+        updateIntervalInSecs = Math.max(1, DateTimeUtil.millisecsToSecs(sse.getDelayMillis()));
+        timer.restartTimer((int) updateIntervalInSecs);
+        restartSyncTimer();
+        Platform.runLater(() -> {
+            syncScheduleLabel.setText(sse.toString());
+            syncScheduleLabel.getTooltip().setText(sse.getSchedulerStatistics().toString());
+        });
+    }
+
+    private void restartSyncTimer() {
         if (timer.isStarted()) {
             timer.restart();
             if (timer.isPaused()) {
@@ -109,6 +123,8 @@ public class StatusBarFooterController extends UiController {
         FxViewUtil.applyAnchorBoundaryParameters(syncStatusBar, 0.0, 0.0, 0.0, 0.0);
         FxViewUtil.applyAnchorBoundaryParameters(updaterStatusBar, 0.0, 0.0, 0.0, 0.0);
         syncStatusBarPane.getChildren().add(syncStatusBar);
+        syncScheduleLabel.setTooltip(new Tooltip());
+        syncStatusBar.getRightItems().add(syncScheduleLabel);
         updaterStatusBarPane.getChildren().add(updaterStatusBar);
     }
 
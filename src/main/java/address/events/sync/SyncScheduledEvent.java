@@ -0,0 +1,39 @@
+package address.events.sync;
+
+import address.events.BaseEvent;
+import address.sync.SyncScheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An event triggered when the next sync has been scheduled.
+ *
+ * Contains the scheduler's decision, and the quota it was based on.
+ */
+public class SyncScheduledEvent extends BaseEvent {
+    SyncScheduler.Statistics schedulerStatistics;
+
+    public SyncScheduledEvent(SyncScheduler.Statistics schedulerStatistics) {
+        this.schedulerStatistics = schedulerStatistics;
+    }
+
+    public SyncScheduler.Statistics getSchedulerStatistics() {
+        return schedulerStatistics;
+    }
+
+    public long getDelayMillis() {
+        return schedulerStatistics.getDelayMillis();
+    }
+
+    @Override
+    public String toString() {
+        String stringToReturn = "Next sync in " + TimeUnit.MILLISECONDS.toSeconds(getDelayMillis()) + " secs ("
+                                + schedulerStatistics.getDecision() + ")";
+        if (schedulerStatistics.getQuotaLimit() > 0) {
+            stringToReturn += ", quota " + schedulerStatistics.getQuotaRemaining() + "/"
+                              + schedulerStatistics.getQuotaLimit() + " with "
+                              + schedulerStatistics.getUserRequestReserve() + " reserved";
+        }
+        return stringToReturn;
+    }
+}
@@ -12,7 +12,6 @@ import commons.PlatformExecUtil;
 import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -33,7 +32,7 @@ public class AddPersonCommand extends ChangePersonInModelCommand {
     private ReadOnlyPerson personDataSnapshot = null; // null if command terminated before input composed
 
     /**
-     * @param inputRetriever Will run on execution {@link #run()} thread. This should handle thread concurrency
+     * @param inputRetriever Will run on a {@link CommandEngine} thread. This should handle thread concurrency
      *                       logic (eg. {@link PlatformExecUtil#call(Callable)} within itself.
      *                       If the returned Optional is empty, the command will be cancelled.
      * @see super#ChangePersonInModelCommand(int, Supplier, int)
@@ -138,17 +137,15 @@ public class AddPersonCommand extends ChangePersonInModelCommand {
     }
 
     @Override
-    protected boolean requestRemoteChange() {
+    protected CompletableFuture<Boolean> requestRemoteChange() {
         assert input != null;
 
         final CompletableFuture<ReadOnlyPerson> responseHolder = new CompletableFuture<>();
         eventRaiser.accept(new CreatePersonOnRemoteRequestEvent(responseHolder, addressbookName, input));
-        try {
-            backingFromRemote = new Person(responseHolder.get());
+        return responseHolder.thenApply(created -> {
+            backingFromRemote = new Person(created);
             return true;
-        } catch (ExecutionException | InterruptedException e) {
-            return false;
-        }
+        });
     }
 
     @Override
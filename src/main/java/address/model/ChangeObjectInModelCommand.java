@@ -13,7 +13,9 @@ import static address.model.ChangeObjectInModelCommand.CommandState.*;
  * Framework-style superclass for all commands that would cause changes for single domain objects in the model,
  * and have it optimistically reflected on the UI. Internal logic approximates a finite state machine.
  *
- * Should be run OUTSIDE THE FX THREAD because the {@link #run()} method involves blocking calls.
+ * Commands are {@link #start(CommandEngine) started} on a {@link CommandEngine}, which runs each state on its
+ * small thread pool and continues with the next state once it is known, without blocking while the command waits.
+ * Input retrieval is the exception: it may hold an engine thread while the user fills in a dialog.
  */
 public abstract class ChangeObjectInModelCommand implements Runnable {
 
@@ -59,16 +61,19 @@ public abstract class ChangeObjectInModelCommand implements Runnable {
     protected final int gracePeriodDurationInSeconds;
     protected final Property<CommandState> state; // current state
 
-    private final CountDownLatch completionLatch; // blocking completion flag
-    private final CountDownLatch cancelledLatch; // blocking cancellation flag
-    private CountDownLatch pauseGracePeriodLatch;
-    private CountDownLatch resumeGracePeriodLatch;
-    
+    private final CompletableFuture<CommandState> completion; // completes with the terminal state
+    private final CompletableFuture<Void> cancelRequest; // irreversible flag
+    private CommandEngine engine;
+
+    // Grace period countdown, guarded by this command's monitor
+    private CompletableFuture<CommandState> gracePeriodEnd; // null until the grace period starts
+    private ScheduledFuture<?> nextTick;
+    private int secondsLeft;
+    private int pauseCount;
+
     {
-        completionLatch = new CountDownLatch(1); // irreversible flag
-        cancelledLatch = new CountDownLatch(1); // irreversible flag
-        pauseGracePeriodLatch = new CountDownLatch(1);
-        resumeGracePeriodLatch = new CountDownLatch(1);
+        completion = new CompletableFuture<>();
+        cancelRequest = new CompletableFuture<>();
         state = new SimpleObjectProperty<>(NEWLY_CREATED);
     }
 
@@ -81,11 +86,23 @@ public abstract class ChangeObjectInModelCommand implements Runnable {
         return commandId;
     }
 
+    /**
+     * @return completes with the terminal state once this command finishes execution, or exceptionally if handling
+     *         a state failed
+     */
+    public CompletableFuture<CommandState> getCompletion() {
+        return completion;
+    }
+
     /**
      * Blocks until this command finishes execution by reaching terminal state.
      */
     public void waitForCompletion() throws InterruptedException {
-        completionLatch.await();
+        try {
+            completion.get();
+        } catch (ExecutionException e) {
+            // failed commands are finished too
+        }
     }
 
     /**
@@ -93,29 +110,12 @@ public abstract class ChangeObjectInModelCommand implements Runnable {
      */
     public void cancelCommand() {
         pauseGracePeriod();
-        cancelledLatch.countDown();
+        cancelRequest.complete(null);
         resumeGracePeriod();
     }
 
-    /**
-     * Blocks till a Cancel Command request is received.
-     * @see CountDownLatch#await()
-     */
-    protected void waitForCancelRequest() throws InterruptedException {
-        cancelledLatch.await();
-    }
-
-    /**
-     * Blocks for the specified amount of time, or till a Cancel Command request is received.
-     * @see CountDownLatch#await(long, TimeUnit)
-     * @return true if cancel request has been received, false if timeout
-     */
-    protected boolean waitForCancelRequest(long timeout, TimeUnit unit) throws InterruptedException {
-        return cancelledLatch.await(timeout, unit);
-    }
-
     protected boolean isCancelRequested() {
-        return cancelledLatch.getCount() == 0;
+        return cancelRequest.isDone();
     }
 
     public CommandState getState() {
@@ -140,6 +140,24 @@ public abstract class ChangeObjectInModelCommand implements Runnable {
         // override to inject code
     }
 
+    /**
+     * Completes when this command may start running. Waited on without blocking before the target is
+     * {@link #claimTarget() claimed}.
+     */
+    protected CompletableFuture<?> getPrerequisite() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Claims this command's target, so that only one command runs on it at a time. Called after the prerequisite
+     * completes and right before {@link #before()}, and must check for and take ownership of the target in one step.
+     * @return null once claimed; otherwise completes when the current owner of the target finishes, after which
+     *         claiming is tried again without blocking
+     */
+    protected CompletableFuture<?> claimTarget() {
+        return null;
+    }
+
     /**
      * Setup hook (similar concept to junit {@code @Before})
      * Called first when this command starts running.
@@ -162,21 +180,80 @@ public abstract class ChangeObjectInModelCommand implements Runnable {
      */
     protected abstract void finishWithSuccess();
 
+    /**
+     * Starts running this command on the given engine and returns immediately.
+     * @return completes when this command finishes execution
+     * @see #getCompletion()
+     */
+    public final CompletableFuture<CommandState> start(CommandEngine engine) {
+        assert this.engine == null : "Command already started";
+        this.engine = engine;
+        getPrerequisite().whenCompleteAsync((ignored, error) -> runStep(this::claimTargetAndBegin), engine);
+        return completion;
+    }
+
+    /**
+     * Runs this command on the default {@link CommandEngine} and blocks until it finishes.
+     * Any exception thrown while handling a state is rethrown.
+     */
     @Override
     public final void run() {
-        before();
+        try {
+            start(CommandEngine.getDefault()).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
 
-        // Runs FSM till one of terminal states is reached.
-        while (!getState().isTerminal()) {
-            logger.debug("Handling state: " + getState().name());
-            setState(handleAndTransitionState(getState()));
+    private void runStep(Runnable step) {
+        try {
+            step.run();
+        } catch (RuntimeException | Error e) {
+            fail(e);
         }
+    }
 
-        logger.debug("Reached terminal state " + getState().name());
-        handleTerminalState();
+    private void claimTargetAndBegin() {
+        final CompletableFuture<?> ownerCompletion = claimTarget();
+        if (ownerCompletion != null) {
+            ownerCompletion.whenCompleteAsync((ignored, error) -> runStep(this::claimTargetAndBegin), engine);
+            return;
+        }
+        before();
+        handleCurrentState();
+    }
 
-        after();
-        completionLatch.countDown();
+    private void fail(Throwable error) {
+        logger.warn("Command {} failed in state {}: {}", commandId, getState(), error);
+        completion.completeExceptionally(error);
+    }
+
+    /**
+     * Handles the current state, then continues with the next one on the engine once it is known.
+     */
+    private void handleCurrentState() {
+        final CommandState current = getState();
+        if (current.isTerminal()) {
+            logger.debug("Reached terminal state " + current.name());
+            handleTerminalState();
+            after();
+            completion.complete(current);
+            return;
+        }
+        logger.debug("Handling state: " + current.name());
+        beforeState(current);
+        handleAndTransitionState(current).whenCompleteAsync((next, error) -> runStep(() -> {
+            if (error != null) {
+                fail(error);
+                return;
+            }
+            afterState(current);
+            setState(next);
+            handleCurrentState();
+        }), engine);
     }
 
     private void handleTerminalState() {
@@ -197,52 +274,42 @@ public abstract class ChangeObjectInModelCommand implements Runnable {
     /**
      * FSM engine to multiplex and run side-effect logic transition state
      * @param state state to be considered
-     * @return next state
+     * @return completes with the next state
      */
-    private CommandState handleAndTransitionState(CommandState state) {
-        beforeState(state);
-        final CommandState next;
+    private CompletableFuture<CommandState> handleAndTransitionState(CommandState state) {
         switch (state) {
         case NEWLY_CREATED :
-            next = RETRIEVING_INPUT;
-            break;
+            return CompletableFuture.completedFuture(RETRIEVING_INPUT);
 
         case RETRIEVING_INPUT :
-            next = retrieveValidInput() ? SIMULATING_RESULT : CANCELLED;
-            break;
+            return CompletableFuture.completedFuture(retrieveValidInput() ? SIMULATING_RESULT : CANCELLED);
 
         case SIMULATING_RESULT :
             simulateResult();
-            next = GRACE_PERIOD;
-            break;
+            return CompletableFuture.completedFuture(GRACE_PERIOD);
 
         case GRACE_PERIOD:
-            next = gracePeriodCountdownAndTransition();
-            break;
+            return gracePeriodCountdownAndTransition();
 
         case CHECKING_REMOTE_CONFLICT:
-            next = checkForRemoteConflict() ? CONFLICT_FOUND : REQUESTING_REMOTE_CHANGE;
-            break;
+            return CompletableFuture.completedFuture(checkForRemoteConflict() ? CONFLICT_FOUND
+                                                                              : REQUESTING_REMOTE_CHANGE);
 
         case CONFLICT_FOUND:
             handleRemoteConflict();
-            next = CANCELLED; // Any recovery should be done by spawning a new command
-            break;
+            return cancelRequest.thenApply(cancelled -> CANCELLED); // recovery should be done by a new command
 
         case REQUESTING_REMOTE_CHANGE :
-            next = requestRemoteChange() ? SUCCESSFUL : REQUEST_FAILED;
-            break;
+            return requestRemoteChange().handle((isSuccessful, error) ->
+                    error == null && isSuccessful ? SUCCESSFUL : REQUEST_FAILED);
 
         case REQUEST_FAILED:
             handleRequestFailed();
-            next = CANCELLED; // Any recovery should be done by spawning a new command
-            break;
+            return cancelRequest.thenApply(cancelled -> CANCELLED); // recovery should be done by a new command
 
         default :
             throw new AssertionError("Incomplete implementation!"); // Implement handling for any new states!
         }
-        afterState(state);
-        return next;
     }
 
     /**
@@ -263,42 +330,70 @@ public abstract class ChangeObjectInModelCommand implements Runnable {
      * This grace period phase allows the user to cancel the command with minimal cost.
      *
      * Updates {@link #handleChangeToSecondsLeftInGracePeriod(int)} whenever seconds remaining in the
-     * grace period countdown changes.
+     * grace period countdown changes. The countdown is driven by callbacks scheduled on the engine.
      *
      * @see #cancelCommand()
-     * @return next state
+     * @return completes with the next state
      */
-    protected CommandState gracePeriodCountdownAndTransition() {
-        // Countdown loop, checks for cancel signal
-        for (int i = gracePeriodDurationInSeconds; i > 0; i--) {
-            handleChangeToSecondsLeftInGracePeriod(i);
-            try {
-                // wait 1 second each time for interruptions
-                if (pauseGracePeriodLatch.await(1, TimeUnit.SECONDS)) {
-                    pauseGracePeriodLatch = new CountDownLatch(1); // reset for future pauses
-                    resumeGracePeriodLatch.await(); // wait to resume execution
-                    resumeGracePeriodLatch = new CountDownLatch(1); // reset for future pauses
-                    if (isCancelRequested()) {
-                        handleChangeToSecondsLeftInGracePeriod(0); // end grace period
-                        return CANCELLED;
-                    }
-                    i = gracePeriodDurationInSeconds; // unpaused but not cancelled, reset countdown
-                }
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+    protected synchronized CompletableFuture<CommandState> gracePeriodCountdownAndTransition() {
+        gracePeriodEnd = new CompletableFuture<>();
+        if (isCancelRequested()) {
+            endGracePeriod(CANCELLED);
+        } else if (gracePeriodDurationInSeconds <= 0) {
+            endGracePeriod(CHECKING_REMOTE_CONFLICT);
+        } else if (pauseCount == 0) {
+            restartCountdown();
         }
+        return gracePeriodEnd;
+    }
 
-        handleChangeToSecondsLeftInGracePeriod(0); // signify end of grace period
-        return CHECKING_REMOTE_CONFLICT; // not cancelled
+    protected synchronized void pauseGracePeriod() {
+        pauseCount++;
+        if (nextTick != null) {
+            nextTick.cancel(false);
+            nextTick = null;
+        }
+    }
+
+    /**
+     * Ends the grace period if cancellation was requested while paused, else restarts the countdown.
+     */
+    protected synchronized void resumeGracePeriod() {
+        assert pauseCount > 0 : "Grace period resumed without being paused";
+        pauseCount--;
+        if (pauseCount > 0 || !isInGracePeriod()) return;
+        if (isCancelRequested()) {
+            endGracePeriod(CANCELLED);
+        } else {
+            restartCountdown();
+        }
+    }
+
+    private boolean isInGracePeriod() {
+        return gracePeriodEnd != null && !gracePeriodEnd.isDone();
     }
 
-    protected void pauseGracePeriod() {
-        pauseGracePeriodLatch.countDown();
+    private void restartCountdown() {
+        secondsLeft = gracePeriodDurationInSeconds;
+        handleChangeToSecondsLeftInGracePeriod(secondsLeft);
+        nextTick = engine.schedule(this::countDown, 1, TimeUnit.SECONDS);
     }
 
-    protected void resumeGracePeriod() {
-        resumeGracePeriodLatch.countDown();
+    private synchronized void countDown() {
+        nextTick = null;
+        if (pauseCount > 0 || !isInGracePeriod()) return;
+        secondsLeft--;
+        if (secondsLeft > 0) {
+            handleChangeToSecondsLeftInGracePeriod(secondsLeft);
+            nextTick = engine.schedule(this::countDown, 1, TimeUnit.SECONDS);
+        } else {
+            endGracePeriod(CHECKING_REMOTE_CONFLICT);
+        }
+    }
+
+    private void endGracePeriod(CommandState next) {
+        handleChangeToSecondsLeftInGracePeriod(0); // signify end of grace period
+        gracePeriodEnd.complete(next);
     }
 
     /**
@@ -316,8 +411,8 @@ public abstract class ChangeObjectInModelCommand implements Runnable {
 
     /**
      * Runs when {@link CommandState#CONFLICT_FOUND} is reached.
-     * After this method completes, the command is {@link CommandState#CANCELLED}, perform all prompts and informing
-     * the user in this method, then recovery should utilise a new command.
+     * The command then stays in this state until cancelled and becomes {@link CommandState#CANCELLED}. Inform the
+     * user in this method, then recovery should utilise a new command.
      * @see #handleRequestFailed()
      */
     protected abstract void handleRemoteConflict();
@@ -326,18 +421,18 @@ public abstract class ChangeObjectInModelCommand implements Runnable {
      * State transition for {@link CommandState#REQUESTING_REMOTE_CHANGE}
      *
      * Sends a request for the change encapsulated by this command to be performed on the remote.
-     * Handles the response from the remote server.
+     * Handles the response from the remote server. Must not block; the command continues when the result completes.
      *
      * @see CommandState#SUCCESSFUL
      * @see CommandState#REQUEST_FAILED
-     * @return true if the change was successful, false otherwise
+     * @return completes with true if the change was successful, false (or exceptionally) otherwise
      */
-    protected abstract boolean requestRemoteChange();
+    protected abstract CompletableFuture<Boolean> requestRemoteChange();
 
     /**
      * Runs when {@link CommandState#REQUEST_FAILED} is reached.
-     * After this method completes, the command is {@link CommandState#CANCELLED}, perform all prompts and informing
-     * the user in this method, then recovery should utilise a new command.
+     * The command then stays in this state until cancelled and becomes {@link CommandState#CANCELLED}. Inform the
+     * user in this method, then recovery should utilise a new command.
      * @see #handleRemoteConflict()
      */
     protected abstract void handleRequestFailed();
@@ -30,7 +30,7 @@ public abstract class ChangePersonInModelCommand extends ChangeObjectInModelComm
     }
 
     /**
-     * @param inputRetriever Will run on execution {@link #run()} thread. This should handle thread concurrency
+     * @param inputRetriever Will run on a {@link CommandEngine} thread. This should handle thread concurrency
      *                       logic (eg. {@link PlatformExecUtil#call(Callable)} within itself. If the returned Optional
      *                       is empty, it means input could not be retrieved and the command will be cancelled.
      */
@@ -116,7 +116,7 @@ public abstract class ChangePersonInModelCommand extends ChangeObjectInModelComm
     @Override
     protected void beforeState(CommandState state) {
         if (target != null) {
-            PlatformExecUtil.runAndWait(() ->
+            PlatformExecUtil.runLater(() ->
                     target.setOngoingCommandState(ongoingCommandState.fromCommandState(state)));
         }
         super.beforeState(state);
@@ -136,7 +136,7 @@ public abstract class ChangePersonInModelCommand extends ChangeObjectInModelComm
     @Override
     protected void handleChangeToSecondsLeftInGracePeriod(int secondsLeft) {
         assert target != null;
-        PlatformExecUtil.runAndWait(() -> target.setSecondsLeftInPendingState(secondsLeft));
+        PlatformExecUtil.runLater(() -> target.setSecondsLeftInPendingState(secondsLeft));
     }
 
     @Override
@@ -158,11 +158,7 @@ public abstract class ChangePersonInModelCommand extends ChangeObjectInModelComm
      */
     @Override
     protected void handleRemoteConflict() {
-        try {
-            waitForCancelRequest();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        // the command waits in this state for one of the actions above
     }
 
     /**
@@ -172,10 +168,6 @@ public abstract class ChangePersonInModelCommand extends ChangeObjectInModelComm
      */
     @Override
     protected void handleRequestFailed() {
-        try {
-            waitForCancelRequest();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        // the command waits in this state for one of the actions above
     }
 }
@@ -0,0 +1,61 @@
+package address.model;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the state machines of {@link ChangeObjectInModelCommand}s on a small fixed pool of threads.
+ *
+ * Commands never park a thread while they wait: grace period countdowns are scheduled callbacks and the remaining
+ * states continue when the futures they wait on complete. The number of threads therefore stays the same no matter
+ * how many commands are pending.
+ */
+public class CommandEngine implements Executor {
+    private static final int MAX_DEFAULT_THREAD_COUNT = 4;
+    private static final int DEFAULT_THREAD_COUNT =
+            Math.min(MAX_DEFAULT_THREAD_COUNT, Math.max(2, Runtime.getRuntime().availableProcessors()));
+    private static final CommandEngine DEFAULT = new CommandEngine(DEFAULT_THREAD_COUNT);
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final AtomicInteger threadCounter;
+
+    {
+        threadCounter = new AtomicInteger(0);
+    }
+
+    public CommandEngine(int threadCount) {
+        executor = new ScheduledThreadPoolExecutor(threadCount, task -> {
+            final Thread thread = new Thread(task, "Command engine " + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * @return the engine shared by all models of this application
+     */
+    public static CommandEngine getDefault() {
+        return DEFAULT;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return executor.schedule(task, delay, unit);
+    }
+
+    /**
+     * @return number of threads started by this engine so far, never more than the size it was created with
+     */
+    public int getThreadCount() {
+        return executor.getPoolSize();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
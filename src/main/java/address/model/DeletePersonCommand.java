@@ -12,7 +12,6 @@ import commons.PlatformExecUtil;
 
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -50,16 +49,18 @@ public class DeletePersonCommand extends ChangePersonInModelCommand {
     }
 
     @Override
-    protected void before() {
+    protected CompletableFuture<?> getPrerequisite() {
         personDataBeforeExecution = new Person(target);
-        if (model.personHasOngoingChange(target)) {
-            try {
-                model.getOngoingChangeForPerson(target).waitForCompletion();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }
-        model.assignOngoingChangeToPerson(target.getId(), this);
+        return super.getPrerequisite();
+    }
+
+    @Override
+    protected CompletableFuture<?> claimTarget() {
+        return model.assignOrAwaitOngoingChange(target.getId(), this);
+    }
+
+    @Override
+    protected void before() {
         target.stopSyncingWithBackingObject();
     }
 
@@ -124,14 +125,10 @@ public class DeletePersonCommand extends ChangePersonInModelCommand {
     }
 
     @Override
-    protected boolean requestRemoteChange() {
+    protected CompletableFuture<Boolean> requestRemoteChange() {
         final CompletableFuture<Boolean> responseHolder = new CompletableFuture<>();
         eventRaiser.accept(new DeletePersonOnRemoteRequestEvent(responseHolder, addressbookName, target.getId()));
-        try {
-            return responseHolder.get();
-        } catch (ExecutionException | InterruptedException e) {
-            return false;
-        }
+        return responseHolder;
     }
 
     @Override
@@ -141,8 +138,9 @@ public class DeletePersonCommand extends ChangePersonInModelCommand {
 
     @Override
     protected void finishWithSuccess() {
-        // removing from backing will remove the front facing viewable too
-        PlatformExecUtil.runAndWait(() -> model.backingModel().removePerson(target));
+        // removing from backing will remove the front facing viewable too; batched with other deletes finishing
+        // now, and done before after() syncs the target on the FX thread
+        model.removePersonFromBackingModel(target);
     }
 
 }
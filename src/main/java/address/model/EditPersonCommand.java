@@ -13,7 +13,6 @@ import commons.PlatformExecUtil;
 import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -33,8 +32,10 @@ public class EditPersonCommand extends ChangePersonInModelCommand {
     private ReadOnlyPerson personDataBeforeExecution;
     private ReadOnlyPerson personDataAfterExecution;
 
+    private ReadOnlyPerson remoteVersion;
+
     /**
-     * @param inputRetriever Will run on execution {@link #run()} thread. This should handle thread concurrency
+     * @param inputRetriever Will run on a {@link CommandEngine} thread. This should handle thread concurrency
      *                       logic (eg. {@link PlatformExecUtil#call(Callable)} within itself.
      *                       If the returned Optional is empty, the command will be cancelled.
      * @see super#ChangePersonInModelCommand(int, Supplier, int)
@@ -55,18 +56,14 @@ public class EditPersonCommand extends ChangePersonInModelCommand {
         return getViewable().getId();
     }
 
+    @Override
+    protected CompletableFuture<?> claimTarget() {
+        return model.assignOrAwaitOngoingChange(target.getId(), this);
+    }
+
     @Override
     protected void before() {
-        if (model.personHasOngoingChange(target)) {
-            try {
-                model.getOngoingChangeForPerson(target).waitForCompletion();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-                assert false;
-            }
-        }
         PlatformExecUtil.runAndWait(() -> target.setOngoingCommandType(OngoingCommandType.EDITING));
-        model.assignOngoingChangeToPerson(target.getId(), this);
         target.stopSyncingWithBackingObject();
         personDataBeforeExecution = new Person(target);
     }
@@ -139,19 +136,16 @@ public class EditPersonCommand extends ChangePersonInModelCommand {
     }
 
     @Override
-    protected boolean requestRemoteChange() {
+    protected CompletableFuture<Boolean> requestRemoteChange() {
         assert input != null;
 
         final CompletableFuture<ReadOnlyPerson> responseHolder = new CompletableFuture<>();
         eventRaiser.accept(new UpdatePersonOnRemoteRequestEvent(responseHolder, addressbookName, target.getId(),
                                                                 input));
-        try {
-            final ReadOnlyPerson remoteVersion = responseHolder.get();
-            PlatformExecUtil.runAndWait(() -> target.getBacking().update(remoteVersion));
+        return responseHolder.thenApply(updated -> {
+            remoteVersion = updated;
             return true;
-        } catch (ExecutionException | InterruptedException e) {
-            return false;
-        }
+        });
     }
 
     @Override
@@ -161,7 +155,8 @@ public class EditPersonCommand extends ChangePersonInModelCommand {
 
     @Override
     protected void finishWithSuccess() {
-        // nothing to do, viewableperson's auto update will handle it
+        // viewableperson's auto update will handle the rest
+        PlatformExecUtil.runAndWait(() -> target.getBacking().update(remoteVersion));
     }
 
 }
@@ -21,11 +21,9 @@ import javafx.collections.ObservableList;
 
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 /**
  * Represents the in-memory model of the address book data.
@@ -37,19 +35,24 @@ public class ModelManager extends ComponentManager implements ReadOnlyAddressBoo
     private final AddressBook backingModel;
     private final ViewableAddressBook visibleModel;
 
-    private final Map<Integer, ChangePersonInModelCommand> personChangesInProgress;
-    private final Executor commandExecutor;
+    private final OngoingChangeRegistry<ChangePersonInModelCommand> personChangesInProgress;
+    private final CommandEngine commandEngine;
     private final AtomicInteger commandCounter;
+    private final AtomicInteger dataGeneration; // incremented on every reset, so that stale appends are dropped
+    private final Set<Integer> personIdsToRemove; // queued for the next batch removal, guards itself
 
     private String saveFilePath;
     private String addressBookNameToUse;
 
     public static final int GRACE_PERIOD_DURATION = 3;
+    private static final int SYNC_UPDATE_CHUNK_SIZE = 500; // persons updated per FX thread task during a sync
 
     {
-        personChangesInProgress = new HashMap<>();
-        commandExecutor = Executors.newCachedThreadPool();
+        personChangesInProgress = new OngoingChangeRegistry<>();
+        commandEngine = CommandEngine.getDefault();
         commandCounter = new AtomicInteger(0);
+        dataGeneration = new AtomicInteger(0);
+        personIdsToRemove = new HashSet<>();
     }
 
     /**
@@ -83,9 +86,41 @@ public class ModelManager extends ComponentManager implements ReadOnlyAddressBoo
      * Clears existing backing model and replaces with the provided new data.
      */
     public void resetData(ReadOnlyAddressBook newData) {
+        dataGeneration.incrementAndGet();
         backingModel.resetData(newData);
     }
 
+    /**
+     * Adds the provided data after the existing data in the backing model.
+     * Used together with {@link #resetData(ReadOnlyAddressBook)} to load data in chunks.
+     * If called from a background thread, the data is added later on the FX thread, unless the model has been
+     * reset in the meantime.
+     */
+    public void appendData(ReadOnlyAddressBook moreData) {
+        if (PlatformExecUtil.isFxThread()) {
+            backingModel.appendData(moreData);
+            return;
+        }
+        final int generation = dataGeneration.get();
+        PlatformExecUtil.runLater(() -> {
+            if (generation == dataGeneration.get()) {
+                backingModel.appendData(moreData);
+            }
+        });
+    }
+
+    /**
+     * Runs the task once the data passed to {@link #appendData(ReadOnlyAddressBook)} so far has been added,
+     * i.e. later on the FX thread if called from a background thread.
+     */
+    public void afterAppendedData(Runnable task) {
+        if (PlatformExecUtil.isFxThread()) {
+            task.run();
+            return;
+        }
+        PlatformExecUtil.runLater(task);
+    }
+
     public void initData(ReadOnlyAddressBook initialData) {
         resetData(initialData);
     }
@@ -132,6 +167,20 @@ public class ModelManager extends ComponentManager implements ReadOnlyAddressBoo
         return backingModel.getTagsAsReadOnlyObservableList();
     }
 
+    /**
+     * @return indexes of the persons in visible model, to be used on the FX thread
+     */
+    public SearchIndexes<? extends ReadOnlyViewablePerson> getSearchIndexes() {
+        return visibleModel.getSearchIndexes();
+    }
+
+    /**
+     * @return the tags all the given persons in visible model have
+     */
+    public List<Tag> getCommonTags(Collection<? extends ReadOnlyViewablePerson> persons) {
+        return visibleModel.getSearchIndexes().getTagIndex().getCommonTags(persons);
+    }
+
     /**
      * @return reference to the tags list inside backing model
      */
@@ -154,7 +203,7 @@ public class ModelManager extends ComponentManager implements ReadOnlyAddressBoo
      * period for cancellation, editing, or deleting.
      * @param userInputRetriever a callback to retrieve the user's input. Will be run on fx application thread
      */
-    public synchronized void createPersonThroughUI(Callable<Optional<ReadOnlyPerson>> userInputRetriever) {
+    public void createPersonThroughUI(Callable<Optional<ReadOnlyPerson>> userInputRetriever) {
         final Supplier<Optional<ReadOnlyPerson>> fxThreadInputRetriever = () ->
                 PlatformExecUtil.callAndWait(userInputRetriever, Optional.empty());
         execNewAddPersonCommand(fxThreadInputRetriever);
@@ -166,13 +215,13 @@ public class ModelManager extends ComponentManager implements ReadOnlyAddressBoo
      * @param target The Person to be changed.
      * @param userInputRetriever callback to retrieve user's input. Will be run on fx application thread
      */
-    public synchronized void editPersonThroughUI(ReadOnlyPerson target,
-                                                 Callable<Optional<ReadOnlyPerson>> userInputRetriever) {
+    public void editPersonThroughUI(ReadOnlyPerson target, Callable<Optional<ReadOnlyPerson>> userInputRetriever) {
         final Supplier<Optional<ReadOnlyPerson>> fxThreadInputRetriever = () ->
                 PlatformExecUtil.callAndWait(userInputRetriever, Optional.empty());
 
-        if (personHasOngoingChange(target)) {
-            getOngoingChangeForPerson(target.getId()).overrideWithEditPerson(fxThreadInputRetriever);
+        final ChangePersonInModelCommand ongoingCommand = getOngoingChangeForPerson(target.getId());
+        if (ongoingCommand != null) {
+            ongoingCommand.overrideWithEditPerson(fxThreadInputRetriever);
         } else {
             final ViewablePerson toEdit = visibleModel.findPerson(target).get();
             execNewEditPersonCommand(toEdit, fxThreadInputRetriever);
@@ -189,35 +238,21 @@ public class ModelManager extends ComponentManager implements ReadOnlyAddressBoo
     public void retagPersonsThroughUI(Collection<? extends ReadOnlyPerson> targets,
                                       Callable<Optional<? extends Collection<Tag>>> newTagsRetriever) {
 
-        final CompletableFuture<Optional<? extends Collection<Tag>>> chosenTags = new CompletableFuture<>();
-        final AtomicBoolean alreadyRetrieved = new AtomicBoolean(false);
+        // asked once up front instead of by the first command, so that the other commands need not wait for it
+        final Optional<? extends Collection<Tag>> chosenTags = PlatformExecUtil.callAndWait(newTagsRetriever,
+                                                                                            Optional.empty());
+        if (!chosenTags.isPresent()) return;
 
         final Function<ReadOnlyPerson, Supplier<Optional<ReadOnlyPerson>>> editInputRetrieverFactory = p -> () -> {
-            // run ui input retriever on this thread if no other thread did it yet
-            boolean shouldRunTagsRetriever = !alreadyRetrieved.getAndSet(true);
-            if (shouldRunTagsRetriever) {
-                chosenTags.complete(PlatformExecUtil.callAndWait(newTagsRetriever, Optional.empty()));
-            }
-
-            try {
-                Optional<? extends Collection<Tag>> chosenTagsInput = chosenTags.get();
-                if (!chosenTagsInput.isPresent()) {
-                    return Optional.empty();
-                }
-                Person afterRetag = new Person(p);
-                afterRetag.setTags(chosenTagsInput.get());
-                return Optional.of(afterRetag);
-
-            } catch (InterruptedException | ExecutionException e) {
-                e.printStackTrace();
-                return Optional.empty();
-            }
+            final Person afterRetag = new Person(p);
+            afterRetag.setTags(chosenTags.get());
+            return Optional.of(afterRetag);
         };
         // handle edit commands for each target
         targets.forEach(target -> {
-            if (personHasOngoingChange(target)) {
-                getOngoingChangeForPerson(
-                        target.getId()).overrideWithEditPerson(editInputRetrieverFactory.apply(target));
+            final ChangePersonInModelCommand ongoingCommand = getOngoingChangeForPerson(target.getId());
+            if (ongoingCommand != null) {
+                ongoingCommand.overrideWithEditPerson(editInputRetrieverFactory.apply(target));
             } else {
                 final ViewablePerson toEdit = visibleModel.findPerson(target).get();
                 execNewEditPersonCommand(toEdit, editInputRetrieverFactory.apply(target));
@@ -229,9 +264,10 @@ public class ModelManager extends ComponentManager implements ReadOnlyAddressBoo
      * Request to delete a person. Simulates the change optimistically until remote confirmation, and provides a grace
      * period for cancellation, editing, or deleting.
      */
-    public synchronized void deletePersonThroughUI(ReadOnlyPerson target) {
-        if (personHasOngoingChange(target)) {
-            getOngoingChangeForPerson(target.getId()).overrideWithDeletePerson();
+    public void deletePersonThroughUI(ReadOnlyPerson target) {
+        final ChangePersonInModelCommand ongoingCommand = getOngoingChangeForPerson(target.getId());
+        if (ongoingCommand != null) {
+            ongoingCommand.overrideWithDeletePerson();
         } else {
             final ViewablePerson toDelete = visibleModel.findPerson(target).get();
             execNewDeletePersonCommand(toDelete);
@@ -242,7 +278,7 @@ public class ModelManager extends ComponentManager implements ReadOnlyAddressBoo
      * Request to cancel any ongoing commands (add, edit, delete etc.) on the target person. Only works if the
      * ongoing command is in the pending state.
      */
-    public synchronized void cancelPersonCommand(ReadOnlyPerson target) {
+    public void cancelPersonCommand(ReadOnlyPerson target) {
         final ChangePersonInModelCommand ongoingCommand = getOngoingChangeForPerson(target.getId());
         if (ongoingCommand != null) {
             ongoingCommand.cancelCommand();
@@ -252,7 +288,7 @@ public class ModelManager extends ComponentManager implements ReadOnlyAddressBoo
     /**
      * Request to retry any failed commands
      */
-    public synchronized void retryFailedPersonCommand(ReadOnlyPerson target) {
+    public void retryFailedPersonCommand(ReadOnlyPerson target) {
         final ChangePersonInModelCommand ongoingCommand = getOngoingChangeForPerson(target.getId());
         if (ongoingCommand != null) {
             ongoingCommand.retry();
@@ -262,54 +298,70 @@ public class ModelManager extends ComponentManager implements ReadOnlyAddressBoo
 //// Command utilities
 
     protected void execNewAddPersonCommand(Supplier<Optional<ReadOnlyPerson>> inputRetriever) {
-        commandExecutor.execute(new AddPersonCommand(assignCommandId(), inputRetriever, GRACE_PERIOD_DURATION,
-                                                     this::raise, this, addressBookNameToUse));
+        new AddPersonCommand(assignCommandId(), inputRetriever, GRACE_PERIOD_DURATION, this::raise, this,
+                             addressBookNameToUse).start(commandEngine);
     }
 
     protected void execNewEditPersonCommand(ViewablePerson target,
                                             Supplier<Optional<ReadOnlyPerson>> editInputRetriever) {
-        commandExecutor.execute(new EditPersonCommand(assignCommandId(), target, editInputRetriever,
-                                                      GRACE_PERIOD_DURATION, this::raise, this, addressBookNameToUse));
+        new EditPersonCommand(assignCommandId(), target, editInputRetriever, GRACE_PERIOD_DURATION, this::raise, this,
+                              addressBookNameToUse).start(commandEngine);
     }
 
     protected void execNewDeletePersonCommand(ViewablePerson target) {
-        commandExecutor.execute(new DeletePersonCommand(assignCommandId(), target, GRACE_PERIOD_DURATION, this::raise,
-                                                        this, addressBookNameToUse));
+        new DeletePersonCommand(assignCommandId(), target, GRACE_PERIOD_DURATION, this::raise, this,
+                                addressBookNameToUse).start(commandEngine);
     }
 
     /**
      * @param changeInProgress the active change command on the person with id {@code targetPersonId}
      */
-    protected synchronized void assignOngoingChangeToPerson(ReadOnlyPerson target,
-                                                            ChangePersonInModelCommand changeInProgress) {
+    protected void assignOngoingChangeToPerson(ReadOnlyPerson target, ChangePersonInModelCommand changeInProgress) {
         assignOngoingChangeToPerson(target.getId(), changeInProgress);
     }
 
-    protected synchronized void assignOngoingChangeToPerson(int targetId, ChangePersonInModelCommand changeInProgress) {
+    protected void assignOngoingChangeToPerson(int targetId, ChangePersonInModelCommand changeInProgress) {
         assert targetId == changeInProgress.getTargetPersonId() : "Must map to correct id";
-        if (personChangesInProgress.containsKey(targetId)) {
-            throw new IllegalStateException("Only 1 ongoing change allowed per person.");
+        personChangesInProgress.assign(targetId, changeInProgress);
+    }
+
+    /**
+     * Makes the change the one in progress on the person, unless another change already is. Checked and assigned in
+     * one step, so that two changes started at the same time cannot both find the person free.
+     * @return null if assigned; otherwise completes when the change in progress finishes
+     * @throws IllegalStateException if the change in progress failed without freeing the person
+     */
+    protected CompletableFuture<?> assignOrAwaitOngoingChange(int targetId,
+                                                              ChangePersonInModelCommand changeInProgress) {
+        assert targetId == changeInProgress.getTargetPersonId() : "Must map to correct id";
+        final ChangePersonInModelCommand owner = personChangesInProgress.assignOrGet(targetId, changeInProgress);
+        if (owner == null) return null;
+        final CompletableFuture<?> ownerCompletion = owner.getCompletion();
+        // a finished change frees the person before completing, so only a failed one can still hold it when done
+        if (ownerCompletion.isCompletedExceptionally() && getOngoingChangeForPerson(targetId) == owner) {
+            throw new IllegalStateException("Change " + owner.getCommandId() + " on person " + targetId
+                                            + " failed without freeing it");
         }
-        personChangesInProgress.put(targetId, changeInProgress);
+        return ownerCompletion;
     }
 
     /**
      * Removed the target person's mapped changeInProgress, freeing it for other change commands.
      * @return the removed change command, or null if there was no mapping found
      */
-    protected synchronized ChangePersonInModelCommand unassignOngoingChangeForPerson(ReadOnlyPerson person) {
-        return personChangesInProgress.remove(person.getId());
+    protected ChangePersonInModelCommand unassignOngoingChangeForPerson(ReadOnlyPerson person) {
+        return unassignOngoingChangeForPerson(person.getId());
     }
 
-    protected synchronized ChangePersonInModelCommand unassignOngoingChangeForPerson(int targetId) {
-        return personChangesInProgress.remove(targetId);
+    protected ChangePersonInModelCommand unassignOngoingChangeForPerson(int targetId) {
+        return personChangesInProgress.unassign(targetId);
     }
 
-    protected synchronized ChangePersonInModelCommand getOngoingChangeForPerson(ReadOnlyPerson person) {
+    protected ChangePersonInModelCommand getOngoingChangeForPerson(ReadOnlyPerson person) {
         return getOngoingChangeForPerson(person.getId());
     }
 
-    protected synchronized ChangePersonInModelCommand getOngoingChangeForPerson(int targetId) {
+    protected ChangePersonInModelCommand getOngoingChangeForPerson(int targetId) {
         return personChangesInProgress.get(targetId);
     }
 
@@ -318,7 +370,14 @@ public class ModelManager extends ComponentManager implements ReadOnlyAddressBoo
     }
 
     boolean personHasOngoingChange(int personId) {
-        return personChangesInProgress.containsKey(personId);
+        return personChangesInProgress.contains(personId);
+    }
+
+    /**
+     * @return contention counters of the tracking of changes in progress
+     */
+    public OngoingChangeRegistry.Statistics getOngoingChangeStatistics() {
+        return personChangesInProgress.getStatistics();
     }
 
     int assignCommandId() {
@@ -373,19 +432,79 @@ public class ModelManager extends ComponentManager implements ReadOnlyAddressBoo
             throw new DuplicateTagException(updated);
         }
         String originalName = original.getName();
+        final SearchIndexes<ViewablePerson> searchIndexes = visibleModel.getSearchIndexes();
+        final List<ViewablePerson> taggedPersons = searchIndexes.getTagIndex().getPersonsWithTag(originalName);
         original.update(updated);
+        // in case they have the renamed tag object itself
+        taggedPersons.forEach(person -> {
+            searchIndexes.getTagIndex().refresh(person);
+            searchIndexes.getFuzzyIndex().refresh(person);
+        });
+        logger.debug("Renamed tag '{}' to '{}', which {} persons have", originalName, updated.getName(),
+                     taggedPersons.size());
         raise(new EditTagOnRemoteRequestEvent(new CompletableFuture<>(),
                 addressBookNameToUse, originalName, updated));
     }
 
+    /**
+     * Keeps the place the persons were moved to in the user-defined order by ranking them, in the order given,
+     * between the ranks of their new neighbours. Only the moved persons are changed, and only their changes saved.
+     * Persons not yet added to the backing model are skipped.
+     *
+     * @param rankBefore rank of the person now before the moved ones, null if none
+     * @param rankAfter rank of the person now after the moved ones, null if none
+     */
+    public synchronized void rankMovedPersons(List<? extends ReadOnlyPerson> moved, String rankBefore,
+                                              String rankAfter) {
+        final List<Person> toRank = new ArrayList<>(moved.size());
+        moved.forEach(person -> backingModel.findPerson(person.getId()).ifPresent(toRank::add));
+        if (toRank.isEmpty()) return;
+        backingModel.rankBetween(toRank, rankBefore, rankAfter);
+        logger.debug("Ranked {} moved persons between {} and {}", toRank.size(), rankBefore, rankAfter);
+        raise(new LocalModelChangedEvent(this));
+    }
+
 //// DELETE
 
+    /**
+     * Removes the person from the backing model (and so from the visible one) on the FX thread, in one pass over the
+     * list together with every other person whose removal is requested before that pass runs, e.g. when the
+     * commands deleting many selected persons finish at about the same time.
+     * Done right away if called on the FX thread; otherwise before any task posted to the FX thread afterwards.
+     */
+    public void removePersonFromBackingModel(ReadOnlyPerson target) {
+        final boolean isOnFxThread = PlatformExecUtil.isFxThread();
+        synchronized (personIdsToRemove) {
+            // posted while holding the lock, so no caller queueing after this can post anything ahead of it
+            if (personIdsToRemove.isEmpty() && !isOnFxThread) {
+                PlatformExecUtil.runLater(this::removeQueuedPersons);
+            }
+            personIdsToRemove.add(target.getId());
+        }
+        if (isOnFxThread) {
+            removeQueuedPersons();
+        }
+    }
+
+    private void removeQueuedPersons() {
+        final List<Integer> ids;
+        synchronized (personIdsToRemove) {
+            ids = new ArrayList<>(personIdsToRemove);
+            personIdsToRemove.clear();
+        }
+        if (ids.isEmpty()) return; // removed on the FX thread in the meantime
+        backingModel.removePersons(ids);
+        logger.debug("Removed {} persons from the backing model", ids.size());
+    }
+
     /**
      * Deletes the tag from the model.
      * @param tagToDelete
      * @return true if there was a successful removal
      */
     public synchronized boolean deleteTag(Tag tagToDelete) {
+        logger.debug("Deleting tag '{}', which {} persons have", tagToDelete.getName(),
+                     visibleModel.getSearchIndexes().getTagIndex().countPersonsWithTag(tagToDelete.getName()));
         boolean result = backingTagList().remove(tagToDelete);
         raise(new DeleteTagOnRemoteRequestEvent(new CompletableFuture<>(),
                 addressBookNameToUse, tagToDelete.getName()));
@@ -408,11 +527,13 @@ public class ModelManager extends ComponentManager implements ReadOnlyAddressBoo
     }
 
     /**
+     * Applies the delta on the FX thread: removals and additions as one bulk list operation each, and updates a
+     * chunk at a time so that the UI stays responsive during a large sync.
      * @return true if there were changes (syncdata not empty)
      */
     private boolean syncPersons(Collection<Person> syncData) {
-        Set<Integer> deletedPersonIds = new HashSet<>();
-        Map<Integer, ReadOnlyPerson> newOrUpdatedPersons = new HashMap<>();
+        final Set<Integer> deletedPersonIds = new HashSet<>();
+        final Map<Integer, Person> newOrUpdatedPersons = new LinkedHashMap<>();
         syncData.forEach(p -> {
             if (p.isDeleted()) {
                 deletedPersonIds.add(p.getId());
@@ -420,20 +541,29 @@ public class ModelManager extends ComponentManager implements ReadOnlyAddressBoo
                 newOrUpdatedPersons.put(p.getId(), p);
             }
         });
-        PlatformExecUtil.runAndWait(() -> {
-            // removal
-            backingModel.getPersons().removeAll(backingModel.getPersons().stream()
-                    .filter(p -> deletedPersonIds.contains(p.getId())).collect(Collectors.toList()));
-            // edits
-            backingModel.getPersons().forEach(p -> {
-                if (newOrUpdatedPersons.containsKey(p.getId())) {
-                    p.update(newOrUpdatedPersons.remove(p.getId()));
+
+        // removal
+        if (!deletedPersonIds.isEmpty()) {
+            PlatformExecUtil.runAndWait(() -> backingModel.removePersons(deletedPersonIds));
+        }
+        // edits, collecting persons that are not in the model yet
+        final List<Person> updates = new ArrayList<>(newOrUpdatedPersons.values());
+        final List<Person> newPersons = new ArrayList<>();
+        for (int from = 0; from < updates.size(); from += SYNC_UPDATE_CHUNK_SIZE) {
+            final List<Person> chunk = updates.subList(from, Math.min(from + SYNC_UPDATE_CHUNK_SIZE, updates.size()));
+            PlatformExecUtil.runAndWait(() -> chunk.forEach(updated -> {
+                final Optional<Person> existing = backingModel.findPerson(updated.getId());
+                if (existing.isPresent()) {
+                    existing.get().update(updated);
+                } else {
+                    newPersons.add(new Person(updated));
                 }
-            });
-            // new
-            backingModel.getPersons().addAll(newOrUpdatedPersons.values().stream()
-                    .map(Person::new).collect(Collectors.toList()));
-        });
+            }));
+        }
+        // new
+        if (!newPersons.isEmpty()) {
+            PlatformExecUtil.runAndWait(() -> backingModel.getPersons().addAll(newPersons));
+        }
         return !syncData.isEmpty();
     }
 
@@ -0,0 +1,195 @@
+package address.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks which change is in progress on each person, allowing at most one per person.
+ *
+ * Persons are spread by id over a fixed number of stripes, each with its own lock, so that changes on different
+ * persons rarely wait for each other. Locks are only held for the map operation itself.
+ *
+ * @param <C> type of the changes
+ */
+public class OngoingChangeRegistry<C> {
+    private static final int STRIPE_COUNT = 64; // power of 2
+
+    private final Stripe<C>[] stripes;
+
+    // Contention metrics
+    private final LongAdder acquisitionCount;
+    private final LongAdder contendedCount;
+    private final LongAdder waitNanos;
+    private final LongAdder conflictCount;
+
+    private static class Stripe<C> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Integer, C> changes = new HashMap<>();
+    }
+
+    {
+        acquisitionCount = new LongAdder();
+        contendedCount = new LongAdder();
+        waitNanos = new LongAdder();
+        conflictCount = new LongAdder();
+    }
+
+    @SuppressWarnings("unchecked")
+    OngoingChangeRegistry() {
+        stripes = new Stripe[STRIPE_COUNT];
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if another change is already in progress on the person
+     */
+    public void assign(int personId, C change) {
+        final Stripe<C> stripe = lock(personId);
+        try {
+            final C existing = stripe.changes.putIfAbsent(personId, change);
+            if (existing != null) {
+                conflictCount.increment();
+                throw new IllegalStateException("Only 1 ongoing change allowed per person.");
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Assigns the change to the person unless another change is already in progress on it, in one step so that
+     * no change can be assigned in between.
+     * @return the change already in progress on the person, or null if {@code change} was assigned
+     */
+    public C assignOrGet(int personId, C change) {
+        final Stripe<C> stripe = lock(personId);
+        try {
+            final C existing = stripe.changes.putIfAbsent(personId, change);
+            if (existing != null) conflictCount.increment();
+            return existing;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * @return the removed change, or null if there was none
+     */
+    public C unassign(int personId) {
+        final Stripe<C> stripe = lock(personId);
+        try {
+            return stripe.changes.remove(personId);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * @return the change in progress on the person, or null if there is none
+     */
+    public C get(int personId) {
+        final Stripe<C> stripe = lock(personId);
+        try {
+            return stripe.changes.get(personId);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public boolean contains(int personId) {
+        return get(personId) != null;
+    }
+
+    public Statistics getStatistics() {
+        int ongoingCount = 0;
+        for (Stripe<C> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                ongoingCount += stripe.changes.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return new Statistics(this, ongoingCount);
+    }
+
+    private Stripe<C> lock(int personId) {
+        final Stripe<C> stripe = stripes[spread(personId) & (STRIPE_COUNT - 1)];
+        if (!stripe.lock.tryLock()) {
+            final long waitStart = System.nanoTime();
+            stripe.lock.lock();
+            contendedCount.increment();
+            waitNanos.add(System.nanoTime() - waitStart);
+        }
+        acquisitionCount.increment();
+        return stripe;
+    }
+
+    /**
+     * Ids are often consecutive (and temporary ids negative), so mix the bits before picking a stripe
+     */
+    private static int spread(int id) {
+        final int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Point-in-time copy of the registry's counters.
+     */
+    public static class Statistics {
+        private final int ongoingCount;
+        private final long acquisitionCount;
+        private final long contendedCount;
+        private final long totalWaitMicros;
+        private final long conflictCount;
+
+        private Statistics(OngoingChangeRegistry<?> registry, int ongoingCount) {
+            this.ongoingCount = ongoingCount;
+            acquisitionCount = registry.acquisitionCount.sum();
+            contendedCount = registry.contendedCount.sum();
+            totalWaitMicros = TimeUnit.NANOSECONDS.toMicros(registry.waitNanos.sum());
+            conflictCount = registry.conflictCount.sum();
+        }
+
+        /**
+         * @return number of persons with a change in progress
+         */
+        public int getOngoingCount() {
+            return ongoingCount;
+        }
+
+        public long getAcquisitionCount() {
+            return acquisitionCount;
+        }
+
+        /**
+         * @return number of lock acquisitions that had to wait for another thread
+         */
+        public long getContendedCount() {
+            return contendedCount;
+        }
+
+        public long getTotalWaitMicros() {
+            return totalWaitMicros;
+        }
+
+        /**
+         * @return number of changes rejected, or made to wait, because another change was in progress on the same
+         *         person
+         */
+        public long getConflictCount() {
+            return conflictCount;
+        }
+
+        @Override
+        public String toString() {
+            return "ongoing: " + ongoingCount + ", lock acquisitions: " + acquisitionCount + ", contended: "
+                    + contendedCount + ", waited (us): " + totalWaitMicros + ", conflicts: " + conflictCount;
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package address.model.datatypes;
 
 import address.model.datatypes.person.Person;
+import address.model.datatypes.person.PersonIdIndex;
 import address.model.datatypes.person.ReadOnlyPerson;
 import address.model.datatypes.tag.Tag;
+import address.util.FractionalIndex;
+import address.util.collections.ArrayObservableList;
 import address.util.collections.UnmodifiableObservableList;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 
 import java.util.*;
@@ -18,10 +22,21 @@ public class AddressBook implements ReadOnlyAddressBook {
 
     private final ObservableList<Person> persons;
     private final ObservableList<Tag> tags;
+    private final PersonIdIndex<Person> personIndex;
+    // bounds of the ranks given so far, to place persons at either end of the user-defined order
+    private String firstRank;
+    private String lastRank;
 
     {
-        persons = FXCollections.observableArrayList();
+        persons = new ArrayObservableList<>(); // removes many persons in one pass
         tags = FXCollections.observableArrayList();
+        personIndex = new PersonIdIndex<>(persons);
+        // before any outside listener, so that persons are ranked by the time others see them
+        persons.addListener((ListChangeListener<Person>) change -> {
+            while (change.next()) {
+                if (change.wasAdded()) rankAddedPersons(change.getAddedSubList());
+            }
+        });
     }
 
     public AddressBook() {}
@@ -76,22 +91,30 @@ public class AddressBook implements ReadOnlyAddressBook {
         resetData(newData.getPersonList(), newData.getTagList());
     }
 
+    /**
+     * Persons and Tags are copied and added after the existing data in this addressbook
+     */
+    public void appendData(ReadOnlyAddressBook moreData) {
+        persons.addAll(moreData.getPersonList().stream().map(Person::new).collect(Collectors.toList()));
+        tags.addAll(moreData.getTagList());
+    }
+
 //// person-level operations
 
     public boolean containsPerson(ReadOnlyPerson key) {
-        return ReadOnlyPerson.containsById(persons, key);
+        return containsPerson(key.getId());
     }
 
     public boolean containsPerson(int id) {
-        return ReadOnlyPerson.containsById(persons, id);
+        return personIndex.contains(id);
     }
 
     public Optional<Person> findPerson(ReadOnlyPerson key) {
-        return ReadOnlyPerson.findById(persons, key);
+        return findPerson(key.getId());
     }
 
     public Optional<Person> findPerson(int id) {
-        return ReadOnlyPerson.findById(persons, id);
+        return personIndex.find(id);
     }
 
     public void addPerson(Person p){
@@ -99,11 +122,103 @@ public class AddressBook implements ReadOnlyAddressBook {
     }
 
     public boolean removePerson(ReadOnlyPerson key) {
-        return ReadOnlyPerson.removeOneById(persons, key);
+        return removePerson(key.getId());
     }
 
     public boolean removePerson(int id) {
-        return ReadOnlyPerson.removeOneById(persons, id);
+        final Optional<Person> toRemove = findPerson(id);
+        return toRemove.isPresent() && persons.remove(toRemove.get());
+    }
+
+    /**
+     * Removes all persons with the given ids in a single pass over the list
+     * @return whether any person was removed
+     */
+    public boolean removePersons(Collection<Integer> ids) {
+        return !ids.isEmpty() && ReadOnlyPerson.removeAllById(persons, ids);
+    }
+
+//// user-defined order
+
+    /**
+     * Persons added without a rank (e.g. new ones, or all of them when loading data saved before ranks were kept)
+     * are placed after all the others, in the order they are added.
+     */
+    private void rankAddedPersons(List<? extends Person> added) {
+        if (added.size() == persons.size()) { // everything replaced
+            firstRank = null;
+            lastRank = null;
+        }
+        final List<Person> unranked = new ArrayList<>();
+        for (Person person : added) {
+            if (person.getRank() == null) {
+                unranked.add(person);
+            } else {
+                includeRanks(person.getRank(), person.getRank());
+            }
+        }
+        if (unranked.isEmpty()) return;
+        final List<String> ranks = FractionalIndex.keysBetween(lastRank, null, unranked.size());
+        for (int i = 0; i < unranked.size(); i++) {
+            unranked.get(i).setRank(ranks.get(i));
+        }
+        includeRanks(ranks.get(0), ranks.get(ranks.size() - 1));
+    }
+
+    private void includeRanks(String first, String last) {
+        if (firstRank == null || first.compareTo(firstRank) < 0) firstRank = first;
+        if (lastRank == null || last.compareTo(lastRank) > 0) lastRank = last;
+    }
+
+    /**
+     * Gives the persons, in the order given, new ranks between {@code rankBefore} and {@code rankAfter}, e.g. after
+     * they are moved to between two persons with those ranks. The ranks of other persons are left unchanged.
+     *
+     * If {@code rankBefore} is not less than {@code rankAfter} (e.g. the list changed during the move), the persons
+     * are placed right after {@code rankBefore} instead.
+     *
+     * @param rankBefore null to place the persons before all others
+     * @param rankAfter null to place the persons after all others
+     */
+    public void rankBetween(List<Person> toRank, String rankBefore, String rankAfter) {
+        if (toRank.isEmpty()) return;
+        final List<String> ranks;
+        if (rankAfter == null) {
+            ranks = FractionalIndex.keysBetween(max(rankBefore, lastRank), null, toRank.size());
+        } else if (rankBefore == null) {
+            ranks = FractionalIndex.keysBetween(null, min(rankAfter, firstRank), toRank.size());
+        } else if (rankBefore.compareTo(rankAfter) < 0) {
+            ranks = FractionalIndex.keysBetween(rankBefore, rankAfter, toRank.size());
+        } else {
+            ranks = FractionalIndex.keysBetween(rankBefore, findNextRank(rankBefore, toRank), toRank.size());
+        }
+        for (int i = 0; i < toRank.size(); i++) {
+            toRank.get(i).setRank(ranks.get(i));
+        }
+        includeRanks(ranks.get(0), ranks.get(ranks.size() - 1));
+    }
+
+    /**
+     * @return the least rank greater than {@code rank} among the persons not in {@code excluded}, null if none
+     */
+    private String findNextRank(String rank, List<Person> excluded) {
+        final Set<Person> excludedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        excludedSet.addAll(excluded);
+        String next = null;
+        for (Person person : persons) {
+            final String personRank = person.getRank();
+            if (personRank == null || excludedSet.contains(person) || personRank.compareTo(rank) <= 0) continue;
+            next = min(next, personRank);
+        }
+        return next;
+    }
+
+    private static String max(String rank, String otherRank) {
+        return rank == null || otherRank != null && otherRank.compareTo(rank) > 0 ? otherRank : rank;
+    }
+
+    private static String min(String rank, String otherRank) {
+        return rank == null || otherRank != null && otherRank.compareTo(rank) < 0 ? otherRank : rank;
     }
 
 //// tag-level operations
@@ -1,10 +1,13 @@
 package address.model.datatypes;
 
 import address.model.datatypes.person.Person;
+import address.model.datatypes.person.PersonIdIndex;
 import address.model.datatypes.person.ReadOnlyPerson;
 import address.model.datatypes.person.ReadOnlyViewablePerson;
+import address.model.datatypes.person.SearchIndexes;
 import address.model.datatypes.person.ViewablePerson;
 import address.model.datatypes.tag.Tag;
+import address.util.collections.ArrayObservableList;
 import address.util.collections.UnmodifiableObservableList;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
@@ -19,11 +22,20 @@ public class ViewableAddressBook implements ReadOnlyViewableAddressBook {
     private final Set<Integer> idsToIgnoreWhenCreatingViewablePersons;
 
     private final ObservableList<ViewablePerson> persons;
+    private final PersonIdIndex<ViewablePerson> personIndex;
+    private final SearchIndexes<ViewablePerson> searchIndexes;
     private final ObservableList<Tag> tags; // todo change to viewabletag class
 
     {
         idsToIgnoreWhenCreatingViewablePersons = new HashSet<>();
-        persons = FXCollections.observableArrayList();
+        persons = new ArrayObservableList<>(); // removes many persons in one pass
+        personIndex = new PersonIdIndex<>(persons);
+        searchIndexes = new SearchIndexes<>(persons);
+        persons.addListener((ListChangeListener<? super ViewablePerson>) change -> {
+            while (change.next()) {
+                change.getAddedSubList().forEach(this::reindexWhenRemoteIdConfirmed);
+            }
+        });
     }
 
     ViewableAddressBook(AddressBook src) {
@@ -42,37 +54,53 @@ public class ViewableAddressBook implements ReadOnlyViewableAddressBook {
         backingModel.getPersons().addListener((ListChangeListener<? super Person>) change -> {
 
             // ignore permutations (order doesn't matter) and updates (ViewableDataType wrapper handles it)
+            // removals and additions of all sub-changes are applied together, so a bulk change takes one pass
+            final List<Person> removed = new ArrayList<>();
+            final List<Person> added = new ArrayList<>();
             while (change.next()) {
                 if (change.wasAdded() || change.wasRemoved()) {
-                    // removed
-                    ReadOnlyPerson.removeAllWithSameIds(persons, change.getRemoved());
-                    // newly added
-                    persons.addAll(change.getAddedSubList().stream()
-                            .filter(p -> !idsToIgnoreWhenCreatingViewablePersons.remove(p.getId()))
-                            .map(ViewablePerson::fromBacking)
-                            .collect(Collectors.toList()));
+                    removed.addAll(change.getRemoved());
+                    added.addAll(change.getAddedSubList());
                 }
             }
+            // removed
+            if (!removed.isEmpty()) {
+                ReadOnlyPerson.removeAllWithSameIds(persons, removed);
+            }
+            // newly added
+            persons.addAll(added.stream()
+                    .filter(p -> !idsToIgnoreWhenCreatingViewablePersons.remove(p.getId()))
+                    .map(ViewablePerson::fromBacking)
+                    .collect(Collectors.toList()));
 
         });
     }
 
+    /**
+     * Persons created locally get their id from the remote later on
+     */
+    private void reindexWhenRemoteIdConfirmed(ViewablePerson person) {
+        if (person.hasConfirmedRemoteID()) return;
+        final int tempId = person.getId();
+        person.onRemoteIdConfirmed(id -> personIndex.updateId(person, tempId));
+    }
+
 //// person-level operations
 
     public boolean containsPerson(ReadOnlyPerson key) {
-        return ReadOnlyPerson.containsById(persons, key);
+        return containsPerson(key.getId());
     }
 
     public boolean containsPerson(int id) {
-        return ReadOnlyPerson.containsById(persons, id);
+        return personIndex.contains(id);
     }
 
     public Optional<ViewablePerson> findPerson(ReadOnlyPerson key) {
-        return ReadOnlyPerson.findById(persons, key);
+        return findPerson(key.getId());
     }
 
     public Optional<ViewablePerson> findPerson(int id) {
-        return ReadOnlyPerson.findById(persons, id);
+        return personIndex.find(id);
     }
 
     public void addPerson(ViewablePerson p){
@@ -80,11 +108,12 @@ public class ViewableAddressBook implements ReadOnlyViewableAddressBook {
     }
 
     public boolean removePerson(ReadOnlyPerson key) {
-        return ReadOnlyPerson.removeOneById(persons, key);
+        return removePerson(key.getId());
     }
 
     public boolean removePerson(int id) {
-        return ReadOnlyPerson.removeOneById(persons, id);
+        final Optional<ViewablePerson> toRemove = findPerson(id);
+        return toRemove.isPresent() && persons.remove(toRemove.get());
     }
 
     /**
@@ -106,6 +135,13 @@ public class ViewableAddressBook implements ReadOnlyViewableAddressBook {
         return tags;
     }
 
+    /**
+     * Indexes of the names, streets, cities and tags of the persons, to filter them
+     */
+    public SearchIndexes<ViewablePerson> getSearchIndexes() {
+        return searchIndexes;
+    }
+
     @Override
     public UnmodifiableObservableList<ReadOnlyViewablePerson> getAllViewablePersonsReadOnly() {
         return new UnmodifiableObservableList<>(persons);
@@ -0,0 +1,453 @@
+package address.model.datatypes.person;
+
+import address.model.datatypes.tag.Tag;
+import address.util.collections.TopK;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.*;
+
+/**
+ * Index for ranked searches tolerating typos over the words of the names, city and tag names of persons.
+ *
+ * The distinct words (ignoring case) form a vocabulary, each term listing the ordinals of the persons having it.
+ * A query word is compared only to the terms sharing enough of its bigrams (2 consecutive characters, with the word
+ * padded at both ends) to be within its maximum edit distance, or to start with it. The edit distance counts
+ * insertions, deletions, substitutions and swaps of adjacent characters.
+ *
+ * Kept up to date by listeners on the list and on the fields and tag list of every person in it, so create it before
+ * any other listener on the list that uses it. Renaming a tag object does not change any list: call {@link #refresh}
+ * for the persons having it.
+ * Can be searched from any thread: searches and changes to the index are locked, so a change on the FX thread waits
+ * for a search running elsewhere.
+ *
+ * @param <P> type of the list elements
+ */
+public class FuzzyIndex<P extends ReadOnlyPerson> {
+    // a word starting with the query word is worth at least this much, more as it is shorter
+    public static final double MIN_PREFIX_SIMILARITY = 0.5;
+    public static final int MIN_PREFIX_LENGTH = 2;
+    private static final char PAD = '\0';
+
+    private final Map<P, IndexedPerson> indexedPersons;
+    private final List<IndexedPerson> byOrdinal; // null where the ordinal is free
+    private final Deque<Integer> freeOrdinals;
+    private final Map<String, Term> termsByText;
+    // terms without persons are left in place until they outnumber the others, as the bigram lists are append-only
+    private final List<Term> termsById;
+    private final Map<Integer, TermIds> termIdsByBigram;
+    private int liveTermCount;
+
+    /**
+     * A word of the vocabulary and the persons having it
+     */
+    private static class Term {
+        private final String text;
+        private final int bigramCount; // distinct bigrams
+        private int id;
+        private int[] ordinals = new int[1];
+        private int size;
+
+        Term(String text, int id) {
+            this.text = text;
+            this.bigramCount = bigramsOf(text).length;
+            this.id = id;
+        }
+
+        void add(int ordinal) {
+            if (size == ordinals.length) ordinals = Arrays.copyOf(ordinals, size * 2);
+            ordinals[size++] = ordinal;
+        }
+
+        void remove(int ordinal) {
+            for (int i = 0; i < size; i++) {
+                if (ordinals[i] == ordinal) {
+                    ordinals[i] = ordinals[--size];
+                    return;
+                }
+            }
+        }
+
+        void removeAll(BitSet toRemove) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!toRemove.get(ordinals[i])) ordinals[kept++] = ordinals[i];
+            }
+            size = kept;
+        }
+    }
+
+    /**
+     * The ids of the terms having a bigram
+     */
+    private static class TermIds {
+        private int[] ids = new int[2];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+    }
+
+    /**
+     * The terms a person is indexed under, and the listeners keeping them up to date
+     */
+    private class IndexedPerson {
+        private final P person;
+        private final int ordinal;
+        private final List<ReadOnlyStringProperty> fields;
+        private final ObservableList<Tag> tags;
+        private final ChangeListener<String> fieldListener;
+        private final ListChangeListener<Tag> tagListener;
+        private Set<String> terms = Collections.emptySet();
+
+        IndexedPerson(P person, int ordinal) {
+            this.person = person;
+            this.ordinal = ordinal;
+            fields = Arrays.asList(person.firstNameProperty(), person.lastNameProperty(), person.cityProperty());
+            tags = person.getObservableTagList();
+            fieldListener = (observable, oldValue, newValue) -> setTerms(this);
+            tagListener = change -> setTerms(this);
+        }
+    }
+
+    /**
+     * A person found by a search, and how well it matches the query
+     */
+    public static class Match<P> {
+        private final P person;
+        private final double score;
+
+        Match(P person, double score) {
+            this.person = person;
+            this.score = score;
+        }
+
+        public P getPerson() {
+            return person;
+        }
+
+        /**
+         * @return sum over the query words of the similarity of the most similar word of the person, where the
+         *         similarity of equal words is 1
+         */
+        public double getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%.2f)", person, score);
+        }
+    }
+
+    {
+        indexedPersons = new IdentityHashMap<>();
+        byOrdinal = new ArrayList<>();
+        freeOrdinals = new ArrayDeque<>();
+        termsByText = new HashMap<>();
+        termsById = new ArrayList<>();
+        termIdsByBigram = new HashMap<>();
+    }
+
+    public FuzzyIndex(ObservableList<P> list) {
+        list.forEach(this::add);
+        list.addListener((ListChangeListener<P>) change -> {
+            final List<P> removed = new ArrayList<>();
+            final List<P> added = new ArrayList<>();
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) continue; // person listeners handle updates
+                removed.addAll(change.getRemoved());
+                added.addAll(change.getAddedSubList());
+            }
+            removeAll(removed);
+            added.forEach(this::add);
+        });
+    }
+
+    /**
+     * Finds the persons best matching the words of the query, ignoring case. A query word matches a word of the
+     * person within its maximum edit distance (see {@link #getMaxEditDistance}) or starting with it.
+     *
+     * @param limit maximum number of persons to return
+     * @return the matching persons, best first
+     */
+    public synchronized List<Match<P>> search(String query, int limit) {
+        final Set<String> queryWords = new LinkedHashSet<>();
+        addWords(queryWords, query);
+        if (queryWords.isEmpty() || limit <= 0) return new ArrayList<>();
+
+        final double[] scores = new double[byOrdinal.size()];
+        final double[] wordScores = new double[byOrdinal.size()];
+        final BitSet matched = new BitSet(byOrdinal.size());
+        final BitSet matchedByWord = new BitSet(byOrdinal.size());
+        final int[] sharedBigrams = new int[termsById.size()];
+        for (String word : queryWords) {
+            findSimilarTerms(word, sharedBigrams, (term, similarity) -> {
+                for (int i = 0; i < term.size; i++) {
+                    final int ordinal = term.ordinals[i];
+                    matchedByWord.set(ordinal);
+                    wordScores[ordinal] = Math.max(wordScores[ordinal], similarity);
+                }
+            });
+            matchedByWord.stream().forEach(ordinal -> {
+                scores[ordinal] += wordScores[ordinal];
+                wordScores[ordinal] = 0;
+            });
+            matched.or(matchedByWord);
+            matchedByWord.clear();
+        }
+
+        final TopK<Integer> best = new TopK<>(limit, Comparator.<Integer>comparingDouble(ordinal -> scores[ordinal])
+                .thenComparing(Comparator.<Integer>reverseOrder()));
+        matched.stream().forEach(best::offer);
+        final List<Match<P>> matches = new ArrayList<>(best.size());
+        for (int ordinal : best.toList()) {
+            matches.add(new Match<>(byOrdinal.get(ordinal).person, scores[ordinal]));
+        }
+        return matches;
+    }
+
+    private interface TermConsumer {
+        void accept(Term term, double similarity);
+    }
+
+    /**
+     * Gives {@code consumer} the terms with persons that {@code word} matches, and how similar they are
+     *
+     * @param sharedBigrams zeroed, one count per term id; zeroed again on return
+     */
+    private void findSimilarTerms(String word, int[] sharedBigrams, TermConsumer consumer) {
+        final int maxDistance = getMaxEditDistance(word.length());
+        final int[] bigrams = bigramsOf(word);
+        for (int bigram : bigrams) {
+            final TermIds withBigram = termIdsByBigram.get(bigram);
+            if (withBigram == null) continue;
+            for (int i = 0; i < withBigram.size; i++) {
+                sharedBigrams[withBigram.ids[i]]++;
+            }
+        }
+        for (int id = 0; id < sharedBigrams.length; id++) {
+            final int shared = sharedBigrams[id];
+            if (shared == 0) continue;
+            sharedBigrams[id] = 0;
+            final Term term = termsById.get(id);
+            if (term.size == 0) continue;
+
+            double similarity = 0;
+            // an edit changes at most 3 bigrams of either word
+            if (shared >= Math.max(bigrams.length, term.bigramCount) - 3 * maxDistance) {
+                final int distance = editDistance(word, term.text, maxDistance);
+                if (distance <= maxDistance) {
+                    similarity = 1 - distance / (double) Math.max(word.length(), term.text.length());
+                }
+            }
+            // a prefix has all the bigrams of the word but the one padded at the end
+            if (word.length() >= MIN_PREFIX_LENGTH && term.text.length() > word.length()
+                    && shared >= bigrams.length - 1 && term.text.startsWith(word)) {
+                similarity = Math.max(similarity, MIN_PREFIX_SIMILARITY
+                        + (1 - MIN_PREFIX_SIMILARITY) * word.length() / term.text.length());
+            }
+            if (similarity > 0) consumer.accept(term, similarity);
+        }
+    }
+
+    /**
+     * @return the number of edits a query word of this length may be away from the words it matches
+     */
+    public static int getMaxEditDistance(int wordLength) {
+        if (wordLength <= 2) return 0;
+        return wordLength <= 5 ? 1 : 2;
+    }
+
+    /**
+     * @return the number of insertions, deletions, substitutions and swaps of adjacent characters turning one string
+     *         into the other (no substring edited twice), or {@code max + 1} if more than {@code max}
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return max + 1;
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                final int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                int distance = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    distance = Math.min(distance, beforePrevious[j - 2] + 1);
+                }
+                current[j] = distance;
+                rowMin = Math.min(rowMin, distance);
+            }
+            if (rowMin > max) return max + 1;
+            final int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    /**
+     * Indexes the person again under the current names of its tags
+     */
+    public synchronized void refresh(P person) {
+        final IndexedPerson indexed = indexedPersons.get(person);
+        if (indexed != null) setTerms(indexed);
+    }
+
+    public synchronized int size() {
+        return indexedPersons.size();
+    }
+
+    /**
+     * @return number of distinct words of the persons
+     */
+    public synchronized int getTermCount() {
+        return liveTermCount;
+    }
+
+    private synchronized void add(P person) {
+        if (indexedPersons.containsKey(person)) return; // the same object twice in the list is indexed once
+        final int ordinal = freeOrdinals.isEmpty() ? byOrdinal.size() : freeOrdinals.pop();
+        final IndexedPerson indexed = new IndexedPerson(person, ordinal);
+        if (ordinal == byOrdinal.size()) {
+            byOrdinal.add(indexed);
+        } else {
+            byOrdinal.set(ordinal, indexed);
+        }
+        indexedPersons.put(person, indexed);
+        indexed.fields.forEach(field -> field.addListener(indexed.fieldListener));
+        indexed.tags.addListener(indexed.tagListener);
+        setTerms(indexed);
+    }
+
+    /**
+     * Removes the persons, going through each term they have once however many of them have it
+     */
+    private synchronized void removeAll(Collection<P> persons) {
+        final BitSet removed = new BitSet();
+        final Set<Term> affected = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (P person : persons) {
+            final IndexedPerson indexed = indexedPersons.remove(person);
+            if (indexed == null) continue;
+            indexed.fields.forEach(field -> field.removeListener(indexed.fieldListener));
+            indexed.tags.removeListener(indexed.tagListener);
+            indexed.terms.forEach(text -> affected.add(termsByText.get(text)));
+            removed.set(indexed.ordinal);
+        }
+        if (removed.isEmpty()) return;
+        for (Term term : affected) {
+            term.removeAll(removed);
+            if (term.size == 0) liveTermCount--;
+        }
+        removed.stream().forEach(ordinal -> {
+            byOrdinal.set(ordinal, null);
+            freeOrdinals.push(ordinal);
+        });
+        compactIfMostlyDead();
+    }
+
+    /**
+     * Moves the person from its current terms to the words it has now
+     */
+    private synchronized void setTerms(IndexedPerson indexed) {
+        final Set<String> newTerms = new HashSet<>();
+        indexed.fields.forEach(field -> addWords(newTerms, field.get()));
+        indexed.tags.forEach(tag -> addWords(newTerms, tag.getName()));
+        for (String text : indexed.terms) {
+            if (newTerms.contains(text)) continue;
+            final Term term = termsByText.get(text);
+            term.remove(indexed.ordinal);
+            if (term.size == 0) liveTermCount--;
+        }
+        for (String text : newTerms) {
+            if (indexed.terms.contains(text)) continue;
+            final Term term = termsByText.computeIfAbsent(text, this::createTerm);
+            if (term.size == 0) liveTermCount++;
+            term.add(indexed.ordinal);
+        }
+        indexed.terms = newTerms;
+        compactIfMostlyDead();
+    }
+
+    private Term createTerm(String text) {
+        final Term term = new Term(text, termsById.size());
+        termsById.add(term);
+        for (int bigram : bigramsOf(text)) {
+            termIdsByBigram.computeIfAbsent(bigram, b -> new TermIds()).add(term.id);
+        }
+        return term;
+    }
+
+    /**
+     * Drops the terms without persons once they are the majority, renumbering the others
+     */
+    private void compactIfMostlyDead() {
+        if (termsById.size() - liveTermCount <= liveTermCount) return;
+        final List<Term> live = new ArrayList<>(liveTermCount);
+        for (Term term : termsById) {
+            if (term.size > 0) {
+                live.add(term);
+            } else {
+                termsByText.remove(term.text);
+            }
+        }
+        termsById.clear();
+        termIdsByBigram.clear();
+        for (Term term : live) {
+            term.id = termsById.size();
+            termsById.add(term);
+            for (int bigram : bigramsOf(term.text)) {
+                termIdsByBigram.computeIfAbsent(bigram, b -> new TermIds()).add(term.id);
+            }
+        }
+    }
+
+    /**
+     * Adds the words of the text, the runs of letters and digits, case-folded
+     */
+    private static void addWords(Collection<String> words, String text) {
+        if (text == null) return;
+        final StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            if (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+                word.append(fold(text.charAt(i)));
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+    }
+
+    /**
+     * @return the distinct bigrams of the word padded at both ends, sorted
+     */
+    private static int[] bigramsOf(String word) {
+        final int[] bigrams = new int[word.length() + 1];
+        char before = PAD;
+        for (int i = 0; i <= word.length(); i++) {
+            final char c = i < word.length() ? word.charAt(i) : PAD;
+            bigrams[i] = before << 16 | c;
+            before = c;
+        }
+        Arrays.sort(bigrams);
+        int distinct = 0;
+        for (int i = 0; i < bigrams.length; i++) {
+            if (i == 0 || bigrams[i] != bigrams[distinct - 1]) bigrams[distinct++] = bigrams[i];
+        }
+        return distinct == bigrams.length ? bigrams : Arrays.copyOf(bigrams, distinct);
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c)); // same folding as IgnoreCaseSubstring
+    }
+}
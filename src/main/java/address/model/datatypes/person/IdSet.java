@@ -0,0 +1,46 @@
+package address.model.datatypes.person;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing set of person ids (or other int keys of persons), without boxing. Looking up a person by such a key
+ * is cheaper than by the person itself, which makes it suitable for testing every person in a list.
+ */
+class IdSet {
+    private static final int FREE = Integer.MIN_VALUE;
+
+    private final int[] slots;
+    private final int mask;
+    private boolean containsFree;
+
+    IdSet(int expectedSize) {
+        slots = new int[Integer.highestOneBit(Math.max(expectedSize, 1) * 2) * 2]; // at most half full
+        mask = slots.length - 1;
+        Arrays.fill(slots, FREE);
+    }
+
+    void add(int id) {
+        if (id == FREE) {
+            containsFree = true;
+            return;
+        }
+        int i = spread(id) & mask;
+        while (slots[i] != FREE && slots[i] != id) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = id;
+    }
+
+    boolean contains(int id) {
+        if (id == FREE) return containsFree;
+        for (int i = spread(id) & mask; slots[i] != FREE; i = (i + 1) & mask) {
+            if (slots[i] == id) return true;
+        }
+        return false;
+    }
+
+    private static int spread(int id) {
+        final int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -39,6 +39,7 @@ public class Person extends UniqueData implements ReadOnlyPerson {
 
     private final SimpleObjectProperty<LocalDate> birthday;
     private final ObservableList<Tag> tags;
+    private final StringProperty rank;
     private final SimpleBooleanProperty isDeleted;
 
     // defaults
@@ -54,6 +55,7 @@ public class Person extends UniqueData implements ReadOnlyPerson {
         birthday = new SimpleObjectProperty<>();
 
         tags = FXCollections.observableArrayList();
+        rank = new SimpleStringProperty();
         isDeleted = new SimpleBooleanProperty(false);
     }
 
@@ -88,24 +90,38 @@ public class Person extends UniqueData implements ReadOnlyPerson {
     }
 
     /**
-     * Does not update own id with argument's id.
+     * Does not update own id with argument's id. Fields that already have the argument's values are left untouched.
      * @return self (calling this from a Person returns a Person instead of just a WritablePerson)
      */
     public Person update(ReadOnlyPerson newDataSource) {
-        setFirstName(newDataSource.getFirstName());
-        setLastName(newDataSource.getLastName());
+        setIfChanged(firstName, newDataSource.getFirstName());
+        setIfChanged(lastName, newDataSource.getLastName());
 
-        setStreet(newDataSource.getStreet());
-        setPostalCode(newDataSource.getPostalCode());
-        setCity(newDataSource.getCity());
-        setGithubUsername(newDataSource.getGithubUsername());
+        setIfChanged(street, newDataSource.getStreet());
+        setIfChanged(postalCode, newDataSource.getPostalCode());
+        setIfChanged(city, newDataSource.getCity());
+        setIfChanged(githubUsername, newDataSource.getGithubUsername());
 
-        setBirthday(newDataSource.getBirthday());
-        setTags(newDataSource.getTagList());
+        setIfChanged(birthday, newDataSource.getBirthday());
+        if (!tags.equals(newDataSource.getTagList())) {
+            setTags(newDataSource.getTagList());
+        }
+        if (newDataSource.getRank() != null) { // e.g. remote data does not have the local order
+            setIfChanged(rank, newDataSource.getRank());
+        }
         setIsDeleted(false); // TODO: change when isDeleted is fully implemented
         return this;
     }
 
+    /**
+     * Equal values are not set again, so listeners are only notified of fields that really changed
+     */
+    private static <T> void setIfChanged(Property<T> property, T value) {
+        if (!Objects.equals(property.getValue(), value)) {
+            property.setValue(value);
+        }
+    }
+
     // TODO: consider using reflection to access all isassignablefrom(Property) returning methods for maintainability
     /**
      * Passes matching property field pairs (paired between self and another ReadOnlyPerson) as arguments to a callback.
@@ -125,6 +141,7 @@ public class Person extends UniqueData implements ReadOnlyPerson {
         action.accept(city, other.city);
 
         action.accept(birthday, other.birthday);
+        action.accept(rank, other.rank);
     }
 
 //// id
@@ -273,6 +290,25 @@ public class Person extends UniqueData implements ReadOnlyPerson {
         this.tags.addAll(tags);
     }
 
+//// RANK
+
+    @Override
+    public String getRank() {
+        return rank.get();
+    }
+
+    /**
+     * @see address.util.FractionalIndex
+     */
+    public void setRank(String rank) {
+        this.rank.set(rank);
+    }
+
+    @Override
+    public ReadOnlyStringProperty rankProperty() {
+        return rank;
+    }
+
     @JsonProperty("isDeleted")
     public boolean isDeleted() {
         return isDeleted.get();
@@ -326,6 +362,7 @@ public class Person extends UniqueData implements ReadOnlyPerson {
         copy.setStreet(this.getStreet());
         copy.setGithubUsername(this.getGithubUsername());
         copy.setTags(this.getTags());
+        copy.setRank(this.getRank());
         return copy;
     }
 
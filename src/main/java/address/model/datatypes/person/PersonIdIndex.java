@@ -0,0 +1,88 @@
+package address.model.datatypes.person;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Finds the persons in an observable list by id in constant time.
+ * Kept up to date by a {@link ListChangeListener}, so create it before any other listener on the list that looks up
+ * persons by id. If several persons in the list share an id, one of them is found.
+ *
+ * @param <P> type of the list elements
+ */
+public class PersonIdIndex<P extends ReadOnlyPerson> {
+
+    private final ObservableList<P> list;
+    private final Map<Integer, P> personsById;
+    private final Map<Integer, Integer> duplicateCounts; // number of extra persons sharing an id, usually empty
+
+    {
+        personsById = new HashMap<>();
+        duplicateCounts = new HashMap<>();
+    }
+
+    public PersonIdIndex(ObservableList<P> list) {
+        this.list = list;
+        list.forEach(this::add);
+        list.addListener((ListChangeListener<P>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) continue; // ids are unaffected
+                change.getRemoved().forEach(p -> remove(p, p.getId()));
+                change.getAddedSubList().forEach(this::add);
+            }
+        });
+    }
+
+    public Optional<P> find(int id) {
+        return Optional.ofNullable(personsById.get(id));
+    }
+
+    public boolean contains(int id) {
+        return personsById.containsKey(id);
+    }
+
+    /**
+     * Must be called when the id of a person in the list changes (e.g. a temporary id is replaced by the remote id).
+     * Does nothing if {@code person} is no longer in the list.
+     */
+    public void updateId(P person, int oldId) {
+        if (remove(person, oldId)) {
+            add(person);
+        }
+    }
+
+    private void add(P person) {
+        final P existing = personsById.putIfAbsent(person.getId(), person);
+        if (existing != null) {
+            duplicateCounts.merge(person.getId(), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * @return false if {@code person} was not indexed under {@code id}
+     */
+    private boolean remove(P person, int id) {
+        final Integer duplicates = duplicateCounts.get(id);
+        if (duplicates == null) {
+            return personsById.remove(id, person);
+        }
+        if (duplicates == 1) {
+            duplicateCounts.remove(id);
+        } else {
+            duplicateCounts.put(id, duplicates - 1);
+        }
+        if (personsById.get(id) == person) { // another person with this id takes its place
+            final Optional<P> replacement = list.stream().filter(p -> p.getId() == id).findFirst();
+            if (replacement.isPresent()) {
+                personsById.put(id, replacement.get());
+            } else {
+                personsById.remove(id);
+            }
+        }
+        return true;
+    }
+}
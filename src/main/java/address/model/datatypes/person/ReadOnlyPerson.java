@@ -59,7 +59,8 @@ public interface ReadOnlyPerson extends ExtractableObservables {
     static boolean removeAllById(Collection<? extends ReadOnlyPerson> col,
                                  Collection<Integer> ids) {
         final Set<Integer> idSet = new HashSet<>(ids);
-        return col.removeAll(col.stream().filter(p -> idSet.contains(p.getId())).collect(Collectors.toList()));
+        // a set keeps removeAll linear, as it checks every element of col against the argument
+        return col.removeAll(col.stream().filter(p -> idSet.contains(p.getId())).collect(Collectors.toSet()));
     }
 
     /**
@@ -170,6 +171,14 @@ public interface ReadOnlyPerson extends ExtractableObservables {
         }
     }
 
+    /**
+     * @return key of the person in the user-defined order of the address book, or null if not placed in it yet.
+     *         Keys are compared as strings, see {@link address.util.FractionalIndex}.
+     */
+    default String getRank() {
+        return null;
+    }
+
     default boolean dataFieldsEqual(ReadOnlyPerson other) {
         final Set<Tag> othersTags = new HashSet<>(other.getTagList());
         return fullName().equals(other.fullName())
@@ -209,6 +218,10 @@ public interface ReadOnlyPerson extends ExtractableObservables {
         throw new UnsupportedOperationException();
     }
 
+    default ReadOnlyStringProperty rankProperty() {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * @return ObservableList unmodifiable view of this Person's tags
      */
@@ -232,14 +245,22 @@ public interface ReadOnlyPerson extends ExtractableObservables {
         };
     }
 
-    static List<Tag> getCommonTags(Collection<ReadOnlyViewablePerson> persons) {
-        Set<Tag> tags = new HashSet<>();
-        persons.stream().forEach(p -> tags.addAll(p.getTagList()));
-        List<Tag> assignedTags = tags.stream().filter(tag ->
-                persons.stream()
-                        .filter(p -> p.getObservableTagList().contains(tag))
-                        .count() == persons.size())
-                .collect(Collectors.toCollection(ArrayList::new));
-        return assignedTags;
+    /**
+     * Orders persons by rank, persons without a rank last
+     */
+    Comparator<ReadOnlyPerson> RANK_ORDER = Comparator.comparing(ReadOnlyPerson::getRank,
+                                                                 Comparator.nullsLast(Comparator.naturalOrder()));
+
+    /**
+     * @return the tags all the given persons have. See {@link TagIndex#getCommonTags} for persons in a list.
+     */
+    static List<Tag> getCommonTags(Collection<? extends ReadOnlyPerson> persons) {
+        if (persons.isEmpty()) return new ArrayList<>();
+        final Set<Tag> commonTags = new LinkedHashSet<>(persons.iterator().next().getTagList());
+        for (ReadOnlyPerson person : persons) {
+            if (commonTags.isEmpty()) break;
+            commonTags.retainAll(new HashSet<>(person.getTagList()));
+        }
+        return new ArrayList<>(commonTags);
     }
 }
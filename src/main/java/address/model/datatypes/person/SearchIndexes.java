@@ -0,0 +1,40 @@
+package address.model.datatypes.person;
+
+import javafx.collections.ObservableList;
+
+/**
+ * The indexes used to filter a list of persons without checking every person.
+ * Kept up to date by listeners, so create them before any other listener on the list that uses them.
+ *
+ * @param <P> type of the list elements
+ */
+public class SearchIndexes<P extends ReadOnlyPerson> {
+    private final TrigramIndex<P> trigramIndex;
+    private final TagIndex<P> tagIndex;
+    private final FuzzyIndex<P> fuzzyIndex;
+
+    public SearchIndexes(ObservableList<P> list) {
+        trigramIndex = new TrigramIndex<>(list);
+        tagIndex = new TagIndex<>(list);
+        fuzzyIndex = new FuzzyIndex<>(list);
+    }
+
+    public TrigramIndex<P> getTrigramIndex() {
+        return trigramIndex;
+    }
+
+    public TagIndex<P> getTagIndex() {
+        return tagIndex;
+    }
+
+    public FuzzyIndex<P> getFuzzyIndex() {
+        return fuzzyIndex;
+    }
+
+    /**
+     * @return number of persons indexed
+     */
+    public int size() {
+        return trigramIndex.size();
+    }
+}
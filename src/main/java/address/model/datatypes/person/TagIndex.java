@@ -0,0 +1,205 @@
+package address.model.datatypes.person;
+
+import address.model.datatypes.tag.Tag;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Index from tag names to the persons having a tag of that name, as bitmaps over person ordinals.
+ * Ordinals are dense (those of removed persons are reused), so the bitmaps stay small.
+ * Kept up to date by listeners on the list and on the tag list of every person in it, so create it before any other
+ * listener on the list that uses it. Renaming a tag object does not change any list: call {@link #refresh} for the
+ * persons having it.
+ *
+ * @param <P> type of the list elements
+ */
+public class TagIndex<P extends ReadOnlyPerson> {
+    // looking up the candidates only pays off when they are a small part of the persons
+    private static final int MAX_CANDIDATES_DIVISOR = 4;
+
+    private final Map<P, IndexedPerson> indexedPersons;
+    private final List<IndexedPerson> byOrdinal; // null where the ordinal is free
+    private final Deque<Integer> freeOrdinals;
+    private final Map<String, BitSet> ordinalsByTagName;
+    // incremented on every change to the index; the changes to the persons are locked, see #isChangedSince
+    private volatile long version;
+
+    /**
+     * The tag names a person is indexed under, and the listener keeping them up to date
+     */
+    private class IndexedPerson {
+        private final P person;
+        private final int ordinal;
+        private final ObservableList<Tag> tags;
+        private final ListChangeListener<Tag> listener;
+        private Set<String> tagNames = Collections.emptySet();
+        private long lastModified;
+
+        IndexedPerson(P person, int ordinal) {
+            this.person = person;
+            this.ordinal = ordinal;
+            tags = person.getObservableTagList();
+            listener = change -> setTagNames(this);
+        }
+    }
+
+    {
+        indexedPersons = new IdentityHashMap<>();
+        byOrdinal = new ArrayList<>();
+        freeOrdinals = new ArrayDeque<>();
+        ordinalsByTagName = new HashMap<>();
+    }
+
+    public TagIndex(ObservableList<P> list) {
+        list.forEach(this::add);
+        list.addListener((ListChangeListener<P>) change -> {
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) continue; // tag list listeners handle updates
+                change.getRemoved().forEach(this::remove);
+                change.getAddedSubList().forEach(this::add);
+            }
+        });
+    }
+
+    /**
+     * Finds the persons having a tag whose name is accepted by {@code tagNameFilter}, by combining the bitmaps of
+     * the accepted names.
+     *
+     * @return empty if too many persons have such a tag to be worth narrowing down. Otherwise a test that is false
+     *         for persons without such a tag; it stays valid when the persons change later on, and can be run from
+     *         any thread.
+     */
+    public Optional<Predicate<ReadOnlyPerson>> findCandidates(Predicate<String> tagNameFilter) {
+        final BitSet ordinals = new BitSet();
+        ordinalsByTagName.forEach((name, withName) -> {
+            if (tagNameFilter.test(name)) ordinals.or(withName);
+        });
+        if (ordinals.cardinality() > indexedPersons.size() / MAX_CANDIDATES_DIVISOR) return Optional.empty();
+        // by identity hash code, like TrigramIndex#findCandidates
+        final IdSet candidates = new IdSet(ordinals.cardinality());
+        ordinals.stream().forEach(ordinal -> candidates.add(System.identityHashCode(byOrdinal.get(ordinal).person)));
+        final long asOf = version;
+        return Optional.of(person -> candidates.contains(System.identityHashCode(person))
+                || version != asOf && isChangedSince(person, asOf));
+    }
+
+    /**
+     * @return the number of persons having a tag whose name is accepted by {@code tagNameFilter}
+     */
+    public int countCandidates(Predicate<String> tagNameFilter) {
+        final BitSet ordinals = new BitSet();
+        ordinalsByTagName.forEach((name, withName) -> {
+            if (tagNameFilter.test(name)) ordinals.or(withName);
+        });
+        return ordinals.cardinality();
+    }
+
+    /**
+     * @return true if the person is not indexed, or was added or changed after the given version.
+     *         Locked, as the candidate tests call it from other threads while the FX thread changes the index.
+     */
+    private synchronized boolean isChangedSince(ReadOnlyPerson person, long asOf) {
+        final IndexedPerson indexed = indexedPersons.get(person);
+        return indexed == null || indexed.lastModified > asOf;
+    }
+
+    /**
+     * @return the tags all the given persons have, as found in the tag list of one of them.
+     *         Same result as {@link ReadOnlyPerson#getCommonTags} for persons in the index.
+     */
+    public List<Tag> getCommonTags(Collection<? extends ReadOnlyPerson> persons) {
+        if (persons.isEmpty()) return new ArrayList<>();
+        final BitSet selected = new BitSet();
+        for (ReadOnlyPerson person : persons) {
+            final IndexedPerson indexed = indexedPersons.get(person);
+            if (indexed == null) return ReadOnlyPerson.getCommonTags(persons);
+            selected.set(indexed.ordinal);
+        }
+
+        final List<Tag> commonTags = new ArrayList<>();
+        final Set<String> seen = new HashSet<>();
+        for (Tag tag : persons.iterator().next().getTagList()) {
+            final BitSet withTag = ordinalsByTagName.get(tag.getName());
+            if (withTag == null || !seen.add(tag.getName())) continue; // renamed but not refreshed yet
+            final BitSet missing = (BitSet) selected.clone();
+            missing.andNot(withTag);
+            if (missing.isEmpty()) commonTags.add(tag);
+        }
+        return commonTags;
+    }
+
+    /**
+     * @return the persons having a tag of this name, in no particular order
+     */
+    public List<P> getPersonsWithTag(String tagName) {
+        final BitSet ordinals = ordinalsByTagName.get(tagName);
+        final List<P> persons = new ArrayList<>();
+        if (ordinals != null) ordinals.stream().forEach(ordinal -> persons.add(byOrdinal.get(ordinal).person));
+        return persons;
+    }
+
+    public int countPersonsWithTag(String tagName) {
+        final BitSet ordinals = ordinalsByTagName.get(tagName);
+        return ordinals == null ? 0 : ordinals.cardinality();
+    }
+
+    /**
+     * Indexes the person again under the current names of its tags
+     */
+    public void refresh(P person) {
+        final IndexedPerson indexed = indexedPersons.get(person);
+        if (indexed != null) setTagNames(indexed);
+    }
+
+    public int size() {
+        return indexedPersons.size();
+    }
+
+    private synchronized void add(P person) {
+        if (indexedPersons.containsKey(person)) return; // the same object twice in the list is indexed once
+        final int ordinal = freeOrdinals.isEmpty() ? byOrdinal.size() : freeOrdinals.pop();
+        final IndexedPerson indexed = new IndexedPerson(person, ordinal);
+        if (ordinal == byOrdinal.size()) {
+            byOrdinal.add(indexed);
+        } else {
+            byOrdinal.set(ordinal, indexed);
+        }
+        indexedPersons.put(person, indexed);
+        indexed.tags.addListener(indexed.listener);
+        setTagNames(indexed);
+    }
+
+    private synchronized void remove(P person) {
+        final IndexedPerson indexed = indexedPersons.remove(person);
+        if (indexed == null) return;
+        indexed.tags.removeListener(indexed.listener);
+        for (String name : indexed.tagNames) {
+            clearBit(name, indexed.ordinal);
+        }
+        byOrdinal.set(indexed.ordinal, null);
+        freeOrdinals.push(indexed.ordinal);
+        version++;
+    }
+
+    private synchronized void setTagNames(IndexedPerson indexed) {
+        final Set<String> newNames = new HashSet<>();
+        indexed.tags.forEach(tag -> newNames.add(tag.getName()));
+        for (String name : indexed.tagNames) {
+            if (!newNames.contains(name)) clearBit(name, indexed.ordinal);
+        }
+        for (String name : newNames) {
+            ordinalsByTagName.computeIfAbsent(name, n -> new BitSet()).set(indexed.ordinal);
+        }
+        indexed.tagNames = newNames;
+        indexed.lastModified = ++version;
+    }
+
+    private void clearBit(String tagName, int ordinal) {
+        final BitSet ordinals = ordinalsByTagName.get(tagName);
+        ordinals.clear(ordinal);
+        if (ordinals.isEmpty()) ordinalsByTagName.remove(tagName);
+    }
+}
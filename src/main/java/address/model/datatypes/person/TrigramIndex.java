@@ -0,0 +1,345 @@
+package address.model.datatypes.person;
+
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index from the trigrams (3 consecutive characters, ignoring case) of some text fields to the persons whose
+ * field contains them. Narrows down the persons that can contain a substring of 3 or more characters without looking
+ * at every person; the candidates still have to be checked against the substring.
+ * Kept up to date by listeners on the list and on the fields of every person in it, so create it before any other
+ * listener on the list that uses it.
+ *
+ * @param <P> type of the list elements
+ */
+public class TrigramIndex<P extends ReadOnlyPerson> {
+    public static final int MIN_QUERY_LENGTH = 3;
+    // looking up the candidates only pays off when they are a small part of the persons
+    private static final int MAX_CANDIDATES_DIVISOR = 4;
+
+    // rough sizes (compressed references) for the memory estimate: hash map node, boxed key, posting object and its
+    // array header per trigram, and the sorted trigram array kept per person and field
+    private static final int BYTES_PER_TRIGRAM = 32 + 16 + 24 + 16;
+    private static final int BYTES_PER_POSTING_SLOT = 4;
+    private static final int BYTES_PER_PERSON_FIELD = 16;
+    private static final int BYTES_PER_PERSON_TRIGRAM = 8;
+
+    public enum Field {
+        FIRST_NAME(ReadOnlyPerson::firstNameProperty),
+        LAST_NAME(ReadOnlyPerson::lastNameProperty),
+        STREET(ReadOnlyPerson::streetProperty),
+        CITY(ReadOnlyPerson::cityProperty);
+
+        private final Function<ReadOnlyPerson, ReadOnlyStringProperty> property;
+
+        Field(Function<ReadOnlyPerson, ReadOnlyStringProperty> property) {
+            this.property = property;
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+
+    private final List<Map<Long, Posting>> postingsByField; // indexed by Field ordinal
+    private final Map<P, IndexedPerson> indexedPersons;
+    // incremented on every change to the index; the changes to the persons are locked, see #isChangedSince
+    private volatile long version;
+
+    /**
+     * The persons whose field contains a trigram, in no particular order
+     */
+    private static class Posting {
+        private Object[] persons = new Object[2];
+        private int size;
+
+        void add(Object person) {
+            if (size == persons.length) persons = Arrays.copyOf(persons, size * 2);
+            persons[size++] = person;
+        }
+
+        void remove(Object person) {
+            for (int i = 0; i < size; i++) {
+                if (persons[i] == person) {
+                    persons[i] = persons[--size];
+                    persons[size] = null;
+                    return;
+                }
+            }
+        }
+
+        void removeAll(Set<Object> toRemove) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!toRemove.contains(persons[i])) persons[kept++] = persons[i];
+            }
+            Arrays.fill(persons, kept, size, null);
+            size = kept;
+        }
+    }
+
+    /**
+     * The trigrams a person is indexed under, and the listeners keeping them up to date
+     */
+    private class IndexedPerson {
+        private final P person;
+        private final long[][] trigramsByField = new long[FIELDS.length][];
+        private final List<ChangeListener<String>> listeners = new ArrayList<>(FIELDS.length);
+        private long lastModified;
+
+        IndexedPerson(P person) {
+            this.person = person;
+        }
+    }
+
+    {
+        postingsByField = new ArrayList<>(FIELDS.length);
+        for (int i = 0; i < FIELDS.length; i++) {
+            postingsByField.add(new HashMap<>());
+        }
+        indexedPersons = new IdentityHashMap<>();
+    }
+
+    public TrigramIndex(ObservableList<P> list) {
+        list.forEach(this::add);
+        list.addListener((ListChangeListener<P>) change -> {
+            final List<P> removed = new ArrayList<>();
+            final List<P> added = new ArrayList<>();
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) continue; // field listeners handle updates
+                removed.addAll(change.getRemoved());
+                added.addAll(change.getAddedSubList());
+            }
+            removeAll(removed);
+            added.forEach(this::add);
+        });
+    }
+
+    /**
+     * Finds the persons whose field can contain {@code substring} (ignoring case), using the least common trigram
+     * of the substring.
+     *
+     * @return empty if the substring is too short or too common to be worth narrowing down the persons. Otherwise
+     *         a test that is false for persons whose field does not contain the substring; it stays valid when the
+     *         persons change later on, and can be run from any thread.
+     */
+    public Optional<Predicate<ReadOnlyPerson>> findCandidates(Field field, String substring) {
+        final Optional<Posting> found = findRarestPosting(field, substring);
+        if (!found.isPresent() || found.get().size > indexedPersons.size() / MAX_CANDIDATES_DIVISOR) {
+            return Optional.empty();
+        }
+
+        // by identity hash code, which is cheaper to look up than the person and, unlike the id, does not change
+        // when a new person is confirmed by the remote; persons sharing a hash code only make extra candidates
+        final Posting rarest = found.get();
+        final IdSet candidates = new IdSet(rarest.size);
+        for (int i = 0; i < rarest.size; i++) {
+            candidates.add(System.identityHashCode(rarest.persons[i]));
+        }
+        final long asOf = version;
+        return Optional.of(person -> candidates.contains(System.identityHashCode(person))
+                || version != asOf && isChangedSince(person, asOf));
+    }
+
+    /**
+     * @return the number of persons whose field has the least common trigram of {@code substring}, which is at least
+     *         the number of persons whose field contains it. Empty if the substring is too short.
+     */
+    public OptionalInt countCandidates(Field field, String substring) {
+        final Optional<Posting> rarest = findRarestPosting(field, substring);
+        return rarest.isPresent() ? OptionalInt.of(rarest.get().size) : OptionalInt.empty();
+    }
+
+    /**
+     * @return the posting of the least common trigram of the substring, an empty one if a trigram is in no posting,
+     *         or empty if the substring is too short
+     */
+    private Optional<Posting> findRarestPosting(Field field, String substring) {
+        if (substring.length() < MIN_QUERY_LENGTH) return Optional.empty();
+        final Map<Long, Posting> postings = postingsByField.get(field.ordinal());
+        Posting rarest = null;
+        for (int i = 0; i + MIN_QUERY_LENGTH <= substring.length(); i++) {
+            final Posting posting = postings.get(trigramAt(substring, i));
+            if (posting == null) return Optional.of(new Posting());
+            if (rarest == null || posting.size < rarest.size) rarest = posting;
+        }
+        return Optional.of(rarest);
+    }
+
+    /**
+     * @return true if the person is not indexed, or was added or changed after the given version.
+     *         Locked, as the candidate tests call it from other threads while the FX thread changes the index.
+     */
+    private synchronized boolean isChangedSince(ReadOnlyPerson person, long asOf) {
+        final IndexedPerson indexed = indexedPersons.get(person);
+        return indexed == null || indexed.lastModified > asOf;
+    }
+
+    public int size() {
+        return indexedPersons.size();
+    }
+
+    private synchronized void add(P person) {
+        if (indexedPersons.containsKey(person)) return; // the same object twice in the list is indexed once
+        final IndexedPerson indexed = new IndexedPerson(person);
+        indexedPersons.put(person, indexed);
+        for (Field field : FIELDS) {
+            final ReadOnlyStringProperty property = field.property.apply(person);
+            indexed.trigramsByField[field.ordinal()] = new long[0];
+            setTrigrams(indexed, field, trigramsOf(property.get()));
+            final ChangeListener<String> listener = (observable, oldValue, newValue) ->
+                    setTrigrams(indexed, field, trigramsOf(newValue));
+            property.addListener(listener);
+            indexed.listeners.add(listener);
+        }
+    }
+
+    /**
+     * Removes the persons, going through each posting they are in once however many of them it holds
+     */
+    private synchronized void removeAll(Collection<P> persons) {
+        final Set<Object> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        final List<IndexedPerson> removedIndexed = new ArrayList<>();
+        final Set<Posting> affected = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (P person : persons) {
+            final IndexedPerson indexed = indexedPersons.remove(person);
+            if (indexed == null) continue;
+            removed.add(person);
+            removedIndexed.add(indexed);
+            for (Field field : FIELDS) {
+                field.property.apply(person).removeListener(indexed.listeners.get(field.ordinal()));
+                for (long trigram : indexed.trigramsByField[field.ordinal()]) {
+                    affected.add(postingsByField.get(field.ordinal()).get(trigram));
+                }
+            }
+        }
+        if (removed.isEmpty()) return;
+        affected.forEach(posting -> posting.removeAll(removed));
+        for (IndexedPerson indexed : removedIndexed) {
+            for (Field field : FIELDS) {
+                final Map<Long, Posting> postings = postingsByField.get(field.ordinal());
+                for (long trigram : indexed.trigramsByField[field.ordinal()]) {
+                    final Posting posting = postings.get(trigram);
+                    if (posting != null && posting.size == 0) postings.remove(trigram);
+                }
+            }
+        }
+        version++;
+    }
+
+    /**
+     * Moves the person from the postings of its current trigrams to those of {@code newTrigrams}
+     */
+    private synchronized void setTrigrams(IndexedPerson indexed, Field field, long[] newTrigrams) {
+        final Map<Long, Posting> postings = postingsByField.get(field.ordinal());
+        final long[] oldTrigrams = indexed.trigramsByField[field.ordinal()];
+        for (long trigram : oldTrigrams) {
+            if (Arrays.binarySearch(newTrigrams, trigram) >= 0) continue;
+            final Posting posting = postings.get(trigram);
+            posting.remove(indexed.person);
+            if (posting.size == 0) postings.remove(trigram);
+        }
+        for (long trigram : newTrigrams) {
+            if (Arrays.binarySearch(oldTrigrams, trigram) >= 0) continue;
+            postings.computeIfAbsent(trigram, t -> new Posting()).add(indexed.person);
+        }
+        indexed.trigramsByField[field.ordinal()] = newTrigrams;
+        indexed.lastModified = ++version;
+    }
+
+    /**
+     * @return the distinct trigrams of the text, sorted
+     */
+    private static long[] trigramsOf(String text) {
+        if (text == null || text.length() < MIN_QUERY_LENGTH) return new long[0];
+        final long[] trigrams = new long[text.length() - MIN_QUERY_LENGTH + 1];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = trigramAt(text, i);
+        }
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (i == 0 || trigrams[i] != trigrams[distinct - 1]) trigrams[distinct++] = trigrams[i];
+        }
+        return distinct == trigrams.length ? trigrams : Arrays.copyOf(trigrams, distinct);
+    }
+
+    private static long trigramAt(String text, int start) {
+        return (long) fold(text.charAt(start)) << 32 | (long) fold(text.charAt(start + 1)) << 16
+                | fold(text.charAt(start + 2));
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c)); // same folding as IgnoreCaseSubstring
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(this);
+    }
+
+    /**
+     * Point-in-time sizes of the index, per field.
+     */
+    public static class Statistics {
+        private final int personCount;
+        private final int[] trigramCounts = new int[FIELDS.length];
+        private final long[] entryCounts = new long[FIELDS.length];
+        private final long[] estimatedBytes = new long[FIELDS.length];
+
+        private Statistics(TrigramIndex<?> index) {
+            personCount = index.indexedPersons.size();
+            for (Field field : FIELDS) {
+                final int i = field.ordinal();
+                long postingSlots = 0;
+                for (Posting posting : index.postingsByField.get(i).values()) {
+                    entryCounts[i] += posting.size;
+                    postingSlots += posting.persons.length;
+                }
+                trigramCounts[i] = index.postingsByField.get(i).size();
+                estimatedBytes[i] = (long) trigramCounts[i] * BYTES_PER_TRIGRAM
+                        + postingSlots * BYTES_PER_POSTING_SLOT
+                        + (long) personCount * BYTES_PER_PERSON_FIELD + entryCounts[i] * BYTES_PER_PERSON_TRIGRAM;
+            }
+        }
+
+        public int getPersonCount() {
+            return personCount;
+        }
+
+        /**
+         * @return number of distinct trigrams in the field
+         */
+        public int getTrigramCount(Field field) {
+            return trigramCounts[field.ordinal()];
+        }
+
+        /**
+         * @return number of (trigram, person) pairs in the field
+         */
+        public long getEntryCount(Field field) {
+            return entryCounts[field.ordinal()];
+        }
+
+        /**
+         * @return estimated memory used for the field, excluding the persons themselves
+         */
+        public long getEstimatedBytes(Field field) {
+            return estimatedBytes[field.ordinal()];
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("persons: " + personCount);
+            for (Field field : FIELDS) {
+                sb.append(", ").append(field).append(": ").append(getTrigramCount(field)).append(" trigrams/")
+                        .append(getEntryCount(field)).append(" entries/")
+                        .append(getEstimatedBytes(field) / 1024).append(" KB");
+            }
+            return sb.toString();
+        }
+    }
+}
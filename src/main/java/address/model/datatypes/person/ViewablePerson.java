@@ -298,6 +298,16 @@ public class ViewablePerson extends Viewable<Person> implements ReadOnlyViewable
         return visible.getTagList();
     }
 
+    @Override
+    public String getRank() {
+        return visible.getRank();
+    }
+
+    @Override
+    public ReadOnlyStringProperty rankProperty() {
+        return visible.rankProperty();
+    }
+
     @Override
     public UnmodifiableObservableList<Tag> getObservableTagList() {
         return visible.getObservableTagList();
@@ -1,55 +1,151 @@
 package address.parser;
 
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import address.parser.expr.AndExpr;
 import address.parser.expr.Expr;
 import address.parser.expr.NotExpr;
+import address.parser.expr.OrExpr;
 import address.parser.expr.PredExpr;
 import address.parser.qualifier.*;
+import commons.DateTimeUtil;
 
+/**
+ * Parses filters made of conditions {@code qualifier:value}, where the value is a word, a phrase in double quotes, or
+ * for ids and birthdays a range {@code from..to} in which either end can be left out.
+ * Conditions can be negated with {@code !}, grouped with parentheses, and combined with {@code AND} (or just a space)
+ * and {@code OR}, in that order of precedence, e.g. {@code name:"van der" (city:Singapore OR !tag:friends)}.
+ */
 public class Parser {
-    private static final String NEGATION_REGEX = "!(!*\\w+)";
-    private static final String EXPR_REGEX = "\\s*(!*\\w+)\\s*:\\s*(\\w+)\\s*";
+    private static final Pattern QUALIFIER_PATTERN = Pattern.compile("(\\w+)\\s*:\\s*");
+    private static final Pattern VALUE_PATTERN = Pattern.compile("\"([^\"]*)\"|([^\\s()\":]+)");
+    private static final String RANGE_SEPARATOR = "..";
+    private static final int CACHE_SIZE = 64;
+
+    // Recently parsed filters, least recently used first. Expressions are immutable so they can be shared.
+    private final Map<String, Expr> cache;
+
+    {
+        cache = new LinkedHashMap<String, Expr>(CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Expr> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+    }
 
     /**
-     * Parses the given input and returns a representative predicate
+     * Parses the given input and returns a representative predicate.
+     * Returns the same expression as before if the input was parsed recently.
      *
      * @param input
      * @return
      * @throws ParseException if input has incorrect syntax and/or qualifiers
      */
     public Expr parse(String input) throws ParseException {
-        Expr result = PredExpr.TRUE;
-        if (input.isEmpty()) return result;
-
-        Pattern pattern = Pattern.compile(EXPR_REGEX, Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(input);
-
-        while (!matcher.hitEnd()) {
-            if (!matcher.find()) throw new ParseException("Part of filter unrecognised");
-            Expr intermediate = getPredicate(matcher.group(1), matcher.group(2));
-            result = new AndExpr(intermediate, result);
+        synchronized (cache) {
+            final Expr cached = cache.get(input);
+            if (cached != null) return cached;
         }
+        final Expr result = parseUncached(input);
+        synchronized (cache) {
+            cache.put(input, result);
+        }
+        return result;
+    }
 
+    private Expr parseUncached(String input) throws ParseException {
+        if (input.trim().isEmpty()) return PredExpr.TRUE;
+        final ExprReader reader = new ExprReader(input);
+        final Expr result = reader.readOr();
+        if (!reader.isAtEnd()) throw new ParseException("Part of filter unrecognised");
         return result;
     }
 
     /**
-     * Gets the predicate which represents the qualifier name and content
-     *
-     * @param qualifierName may be prefixed with multiple ! characters to signify negations
-     * @param qualifierContent
-     * @return
-     * @throws ParseException if qualifier name without prefixed ! is not a valid qualifier string
+     * Reads an expression from the input by recursive descent, one method per precedence level
      */
-    private Expr getPredicate(String qualifierName, String qualifierContent) throws ParseException {
-        Matcher matcher = Pattern.compile(NEGATION_REGEX, Pattern.CASE_INSENSITIVE).matcher(qualifierName);
-        if (matcher.matches()) {
-            return new NotExpr(getPredicate(matcher.group(1), qualifierContent));
+    private class ExprReader {
+        private final String input;
+        private int position;
+
+        ExprReader(String input) {
+            this.input = input;
+        }
+
+        Expr readOr() throws ParseException {
+            Expr result = readAnd();
+            while (skipKeyword("OR")) {
+                result = new OrExpr(result, readAnd());
+            }
+            return result;
+        }
+
+        Expr readAnd() throws ParseException {
+            Expr result = readUnary();
+            while (!isAtEnd() && input.charAt(position) != ')' && !isKeyword("OR")) {
+                skipKeyword("AND");
+                result = new AndExpr(result, readUnary());
+            }
+            return result;
+        }
+
+        private Expr readUnary() throws ParseException {
+            if (isAtEnd()) throw new ParseException("Missing condition at end of filter");
+            if (input.charAt(position) == '!') {
+                position++;
+                return new NotExpr(readUnary());
+            }
+            if (input.charAt(position) == '(') {
+                position++;
+                final Expr grouped = readOr();
+                if (isAtEnd() || input.charAt(position) != ')') throw new ParseException("Missing closing parenthesis");
+                position++;
+                return grouped;
+            }
+            return readCondition();
+        }
+
+        private Expr readCondition() throws ParseException {
+            final Matcher qualifier = QUALIFIER_PATTERN.matcher(input).region(position, input.length());
+            if (!qualifier.lookingAt()) throw new ParseException("Part of filter unrecognised");
+            final Matcher value = VALUE_PATTERN.matcher(input).region(qualifier.end(), input.length());
+            if (!value.lookingAt()) throw new ParseException("Missing value for " + qualifier.group(1));
+            position = value.end();
+            final String content = value.group(1) == null ? value.group(2) : value.group(1);
+            if (content.isEmpty()) throw new ParseException("Empty value for " + qualifier.group(1));
+            return new PredExpr(getQualifier(qualifier.group(1), content));
+        }
+
+        /**
+         * @return true if the keyword, in any case, was next and has been skipped
+         */
+        private boolean skipKeyword(String keyword) {
+            if (!isKeyword(keyword)) return false;
+            position += keyword.length();
+            return true;
+        }
+
+        private boolean isKeyword(String keyword) {
+            final int end = position + keyword.length();
+            return input.regionMatches(true, position, keyword, 0, keyword.length())
+                    && (end == input.length() || !Character.isLetterOrDigit(input.charAt(end))
+                                                 && input.charAt(end) != '_' && input.charAt(end) != ':');
+        }
+
+        /**
+         * @return true if only whitespace is left, which is skipped
+         */
+        boolean isAtEnd() {
+            while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+                position++;
+            }
+            return position == input.length();
         }
-        return new PredExpr(getQualifier(qualifierName, qualifierContent));
     }
 
     /**
@@ -75,12 +171,53 @@ public class Parser {
             case "tag":
                 return new TagQualifier(content);
             case "id":
-                return new IdQualifier(parseInt(content));
+                return getIdQualifier(content);
+            case "birthday":
+                return getBirthdayQualifier(content);
             default:
                 throw new ParseException("Unrecognised qualifier " + qualifierName);
         }
     }
 
+    /**
+     * @param content an id, or a range of ids
+     */
+    private Qualifier getIdQualifier(String content) throws ParseException {
+        final int separator = content.indexOf(RANGE_SEPARATOR);
+        if (separator < 0) return new IdQualifier(parseInt(content));
+        final String from = content.substring(0, separator);
+        final String to = content.substring(separator + RANGE_SEPARATOR.length());
+        final int min = from.isEmpty() ? Integer.MIN_VALUE : parseInt(from);
+        final int max = to.isEmpty() ? Integer.MAX_VALUE : parseInt(to);
+        if (min > max) throw new ParseException("Empty range: " + content);
+        return new IdQualifier(min, max);
+    }
+
+    /**
+     * @param content a date, or a range of dates
+     */
+    private Qualifier getBirthdayQualifier(String content) throws ParseException {
+        final int separator = content.indexOf(RANGE_SEPARATOR);
+        if (separator < 0) {
+            final LocalDate date = parseDate(content);
+            return new BirthdayQualifier(date, date);
+        }
+        final String from = content.substring(0, separator);
+        final String to = content.substring(separator + RANGE_SEPARATOR.length());
+        final LocalDate fromDate = from.isEmpty() ? null : parseDate(from);
+        final LocalDate toDate = to.isEmpty() ? null : parseDate(to);
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new ParseException("Empty range: " + content);
+        }
+        return new BirthdayQualifier(fromDate, toDate);
+    }
+
+    private LocalDate parseDate(String content) throws ParseException {
+        final LocalDate date = DateTimeUtil.parse(content);
+        if (date == null) throw new ParseException("Invalid date: " + content);
+        return date;
+    }
+
     private Integer parseInt(String content) throws ParseException {
         try {
             return Integer.valueOf(content);
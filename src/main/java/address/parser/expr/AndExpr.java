@@ -1,7 +1,11 @@
 package address.parser.expr;
 
-import address.model.datatypes.person.Person;
 import address.model.datatypes.person.ReadOnlyViewablePerson;
+import address.model.datatypes.person.SearchIndexes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
 
 public class AndExpr implements Expr {
 
@@ -18,6 +22,74 @@ public class AndExpr implements Expr {
         return left.satisfies(person) && right.satisfies(person);
     }
 
+    /**
+     * Flattens nested ANDs into one array of conditions in the order given by the planner, leaving out
+     * {@link PredExpr#TRUE}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Predicate<ReadOnlyViewablePerson> compile(SearchIndexes<?> indexes, Planner planner) {
+        final List<Predicate<ReadOnlyViewablePerson>> conditions = new ArrayList<>();
+        planner.orderConditions(conditionsOf(this), indexes)
+                .forEach(condition -> conditions.add(condition.compile(indexes, planner)));
+        switch (conditions.size()) {
+            case 0:
+                return person -> true;
+            case 1:
+                return conditions.get(0);
+            default:
+                final Predicate<ReadOnlyViewablePerson>[] fused = conditions.toArray(new Predicate[conditions.size()]);
+                return person -> {
+                    for (Predicate<ReadOnlyViewablePerson> condition : fused) {
+                        if (!condition.test(person)) return false;
+                    }
+                    return true;
+                };
+        }
+    }
+
+    /**
+     * A condition is only evaluated on the persons satisfying the ones before it
+     */
+    @Override
+    public double estimateCost(SearchIndexes<?> indexes) {
+        double cost = 0;
+        double satisfying = 1;
+        for (Expr condition : Planner.BY_ESTIMATE.orderConditions(conditionsOf(this), indexes)) {
+            cost += satisfying * condition.estimateCost(indexes);
+            satisfying *= condition.estimateSelectivity(indexes);
+        }
+        return cost;
+    }
+
+    @Override
+    public double estimateSelectivity(SearchIndexes<?> indexes) {
+        double selectivity = 1;
+        for (Expr condition : conditionsOf(this)) {
+            selectivity *= condition.estimateSelectivity(indexes);
+        }
+        return selectivity;
+    }
+
+    /**
+     * @return the conditions ANDed in the expression, which is one condition if it is not an AND.
+     *         {@link PredExpr#TRUE} is left out.
+     */
+    static List<Expr> conditionsOf(Expr expr) {
+        final List<Expr> conditions = new ArrayList<>();
+        addConditions(expr, conditions);
+        return conditions;
+    }
+
+    private static void addConditions(Expr expr, List<Expr> conditions) {
+        if (expr instanceof AndExpr) {
+            addConditions(((AndExpr) expr).left, conditions);
+            addConditions(((AndExpr) expr).right, conditions);
+        } else if (expr != PredExpr.TRUE) {
+            conditions.add(expr);
+        }
+    }
+
     @Override
     public String toString() {
         return "(" + left + ") AND (" + right + ")";
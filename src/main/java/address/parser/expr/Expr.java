@@ -1,8 +1,71 @@
 package address.parser.expr;
 
 import address.model.datatypes.person.ReadOnlyViewablePerson;
+import address.model.datatypes.person.SearchIndexes;
+
+import java.util.List;
+import java.util.function.Predicate;
 
 public interface Expr {
     boolean satisfies(ReadOnlyViewablePerson person);
+
+    /**
+     * @return a predicate equivalent to {@link #satisfies(ReadOnlyViewablePerson)}, with the expression tree
+     *         flattened so that it is cheaper to evaluate over many persons
+     */
+    default Predicate<ReadOnlyViewablePerson> compile() {
+        return compile(null);
+    }
+
+    /**
+     * Same as {@link #compile()}, but substring conditions on names, streets, cities and tags only check the persons
+     * that the indexes find for them, and conditions are evaluated in the order {@link Planner#BY_ESTIMATE} finds
+     * cheapest using the indexes
+     *
+     * @param indexes of the persons to be filtered, may be null
+     */
+    default Predicate<ReadOnlyViewablePerson> compile(SearchIndexes<?> indexes) {
+        return compile(indexes, Planner.BY_ESTIMATE);
+    }
+
+    /**
+     * Same as {@link #compile(SearchIndexes)}, with the order of evaluation decided by {@code planner}
+     */
+    Predicate<ReadOnlyViewablePerson> compile(SearchIndexes<?> indexes, Planner planner);
+
+    /**
+     * @param indexes of the persons to be filtered, may be null
+     * @return relative cost of evaluating the expression on one person, see {@link Planner}
+     */
+    double estimateCost(SearchIndexes<?> indexes);
+
+    /**
+     * @param indexes of the persons to be filtered, may be null
+     * @return estimated fraction of the persons satisfying the expression
+     */
+    double estimateSelectivity(SearchIndexes<?> indexes);
+
+    /**
+     * @return true if every person satisfying this expression also satisfies {@code previous}, as can be told from
+     *         their conditions alone: each condition ANDed in {@code previous} is narrowed by one in this expression
+     *         (e.g. a longer substring, or an added condition). False when unsure.
+     */
+    default boolean narrows(Expr previous) {
+        final List<Expr> conditions = AndExpr.conditionsOf(this);
+        for (Expr previousCondition : AndExpr.conditionsOf(previous)) {
+            if (conditions.stream().noneMatch(condition -> condition.narrowsCondition(previousCondition))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link #narrows(Expr)}, for conditions that are not ANDs
+     */
+    default boolean narrowsCondition(Expr previous) {
+        return this == previous;
+    }
+
     String toString();
 }
@@ -1,6 +1,9 @@
 package address.parser.expr;
 
 import address.model.datatypes.person.ReadOnlyViewablePerson;
+import address.model.datatypes.person.SearchIndexes;
+
+import java.util.function.Predicate;
 
 public class NotExpr implements Expr {
     Expr expr;
@@ -14,6 +17,30 @@ public class NotExpr implements Expr {
         return !expr.satisfies(person);
     }
 
+    @Override
+    public Predicate<ReadOnlyViewablePerson> compile(SearchIndexes<?> indexes, Planner planner) {
+        final Predicate<ReadOnlyViewablePerson> compiled = expr.compile(indexes, planner);
+        return person -> !compiled.test(person);
+    }
+
+    @Override
+    public double estimateCost(SearchIndexes<?> indexes) {
+        return expr.estimateCost(indexes);
+    }
+
+    @Override
+    public double estimateSelectivity(SearchIndexes<?> indexes) {
+        return 1 - expr.estimateSelectivity(indexes);
+    }
+
+    /**
+     * A negation narrows another if its own condition is wider
+     */
+    @Override
+    public boolean narrowsCondition(Expr previous) {
+        return previous instanceof NotExpr && ((NotExpr) previous).expr.narrows(expr);
+    }
+
     @Override
     public String toString() {
         return "NOT(" + expr + ")";
@@ -0,0 +1,101 @@
+package address.parser.expr;
+
+import address.model.datatypes.person.ReadOnlyViewablePerson;
+import address.model.datatypes.person.SearchIndexes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+public class OrExpr implements Expr {
+
+    private final Expr left;
+    private final Expr right;
+
+    public OrExpr(Expr left, Expr right) {
+        this.left = left;
+        this.right = right;
+    }
+
+    @Override
+    public boolean satisfies(ReadOnlyViewablePerson person) {
+        return left.satisfies(person) || right.satisfies(person);
+    }
+
+    /**
+     * Flattens nested ORs into one array of alternatives in the order given by the planner
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Predicate<ReadOnlyViewablePerson> compile(SearchIndexes<?> indexes, Planner planner) {
+        final List<Predicate<ReadOnlyViewablePerson>> alternatives = new ArrayList<>();
+        planner.orderAlternatives(alternativesOf(this), indexes)
+                .forEach(alternative -> alternatives.add(alternative.compile(indexes, planner)));
+        final Predicate<ReadOnlyViewablePerson>[] fused = alternatives.toArray(new Predicate[alternatives.size()]);
+        return person -> {
+            for (Predicate<ReadOnlyViewablePerson> alternative : fused) {
+                if (alternative.test(person)) return true;
+            }
+            return false;
+        };
+    }
+
+    /**
+     * An alternative is only evaluated on the persons not satisfying the ones before it
+     */
+    @Override
+    public double estimateCost(SearchIndexes<?> indexes) {
+        double cost = 0;
+        double notSatisfying = 1;
+        for (Expr alternative : Planner.BY_ESTIMATE.orderAlternatives(alternativesOf(this), indexes)) {
+            cost += notSatisfying * alternative.estimateCost(indexes);
+            notSatisfying *= 1 - alternative.estimateSelectivity(indexes);
+        }
+        return cost;
+    }
+
+    @Override
+    public double estimateSelectivity(SearchIndexes<?> indexes) {
+        double notSatisfying = 1;
+        for (Expr alternative : alternativesOf(this)) {
+            notSatisfying *= 1 - alternative.estimateSelectivity(indexes);
+        }
+        return 1 - notSatisfying;
+    }
+
+    /**
+     * An OR narrows another if each of its alternatives narrows one of the other's
+     */
+    @Override
+    public boolean narrowsCondition(Expr previous) {
+        if (!(previous instanceof OrExpr)) return this == previous;
+        final List<Expr> previousAlternatives = alternativesOf(previous);
+        for (Expr alternative : alternativesOf(this)) {
+            if (previousAlternatives.stream().noneMatch(alternative::narrows)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the alternatives ORed in the expression, which is one alternative if it is not an OR
+     */
+    static List<Expr> alternativesOf(Expr expr) {
+        final List<Expr> alternatives = new ArrayList<>();
+        addAlternatives(expr, alternatives);
+        return alternatives;
+    }
+
+    private static void addAlternatives(Expr expr, List<Expr> alternatives) {
+        if (expr instanceof OrExpr) {
+            addAlternatives(((OrExpr) expr).left, alternatives);
+            addAlternatives(((OrExpr) expr).right, alternatives);
+        } else {
+            alternatives.add(expr);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "(" + left + ") OR (" + right + ")";
+    }
+}
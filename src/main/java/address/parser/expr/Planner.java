@@ -0,0 +1,82 @@
+package address.parser.expr;
+
+import address.model.datatypes.person.SearchIndexes;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Decides the order in which the conditions of ANDs and the alternatives of ORs are evaluated, which matters as
+ * evaluation stops at the first condition that fails, or the first alternative that holds.
+ *
+ * Estimates are relative costs of evaluating a condition on one person and the fraction of persons satisfying it
+ * (its selectivity), taken from the indexes if given.
+ */
+public enum Planner {
+    /**
+     * Evaluates in the order written, as {@link Expr#satisfies} does
+     */
+    IN_ORDER,
+
+    /**
+     * Evaluates first what costs the least per person it decides the result for. For ANDs, a condition decides the
+     * result for the persons failing it, so cheap and selective ones go first.
+     */
+    BY_ESTIMATE;
+
+    // relative costs of evaluating a condition on one person
+    public static final double COMPARISON_COST = 1;
+    public static final double SUBSTRING_SEARCH_COST = 8;
+    public static final double CANDIDATE_CHECK_COST = 2; // looking up the candidates found by an index
+
+    public static final double DEFAULT_SELECTIVITY = 0.1;
+    public static final int DEFAULT_PERSON_COUNT = 1000;
+    // the indexes only narrow down conditions satisfied by at most this fraction of the persons
+    public static final double MAX_NARROWED_SELECTIVITY = 0.25;
+    private static final double MIN_DECIDED_FRACTION = 1e-9;
+
+    /**
+     * @return the conditions of an AND in the order to evaluate them
+     */
+    List<Expr> orderConditions(List<Expr> conditions, SearchIndexes<?> indexes) {
+        if (this == IN_ORDER) return conditions;
+        return sortByKey(conditions, condition -> condition.estimateCost(indexes)
+                / Math.max(1 - condition.estimateSelectivity(indexes), MIN_DECIDED_FRACTION));
+    }
+
+    /**
+     * @return the alternatives of an OR in the order to evaluate them
+     */
+    List<Expr> orderAlternatives(List<Expr> alternatives, SearchIndexes<?> indexes) {
+        if (this == IN_ORDER) return alternatives;
+        return sortByKey(alternatives, alternative -> alternative.estimateCost(indexes)
+                / Math.max(alternative.estimateSelectivity(indexes), MIN_DECIDED_FRACTION));
+    }
+
+    /**
+     * Stable sort that computes the key of each expression only once, as estimates may count index candidates and
+     * nested expressions order their own operands to estimate their cost.
+     */
+    private static List<Expr> sortByKey(List<Expr> exprs, ToDoubleFunction<Expr> key) {
+        final double[] keys = new double[exprs.size()];
+        final List<Integer> order = new ArrayList<>(exprs.size());
+        for (int i = 0; i < exprs.size(); i++) {
+            keys[i] = key.applyAsDouble(exprs.get(i));
+            order.add(i);
+        }
+        order.sort(Comparator.comparingDouble(i -> keys[i]));
+
+        final List<Expr> ordered = new ArrayList<>(exprs.size());
+        order.forEach(i -> ordered.add(exprs.get(i)));
+        return ordered;
+    }
+
+    /**
+     * @return the number of persons to estimate selectivities for
+     */
+    public static int getPersonCount(SearchIndexes<?> indexes) {
+        return indexes == null || indexes.size() == 0 ? DEFAULT_PERSON_COUNT : indexes.size();
+    }
+}
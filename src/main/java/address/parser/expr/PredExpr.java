@@ -1,9 +1,12 @@
 package address.parser.expr;
 
 import address.model.datatypes.person.ReadOnlyViewablePerson;
+import address.model.datatypes.person.SearchIndexes;
 import address.parser.qualifier.Qualifier;
 import address.parser.qualifier.TrueQualifier;
 
+import java.util.function.Predicate;
+
 public class PredExpr implements Expr {
     public static final PredExpr TRUE = new PredExpr(new TrueQualifier());
 
@@ -18,6 +21,27 @@ public class PredExpr implements Expr {
         return qualifier.run(person);
     }
 
+    @Override
+    public Predicate<ReadOnlyViewablePerson> compile(SearchIndexes<?> indexes, Planner planner) {
+        if (this == TRUE) return person -> true;
+        return qualifier.compile(indexes);
+    }
+
+    @Override
+    public double estimateCost(SearchIndexes<?> indexes) {
+        return qualifier.estimateCost(indexes);
+    }
+
+    @Override
+    public double estimateSelectivity(SearchIndexes<?> indexes) {
+        return qualifier.estimateSelectivity(indexes);
+    }
+
+    @Override
+    public boolean narrowsCondition(Expr previous) {
+        return previous instanceof PredExpr && qualifier.narrows(((PredExpr) previous).qualifier);
+    }
+
     @Override
     public String toString() {
         return qualifier.toString();
@@ -0,0 +1,59 @@
+package address.parser.qualifier;
+
+import address.model.datatypes.person.ReadOnlyViewablePerson;
+import address.model.datatypes.person.SearchIndexes;
+import commons.DateTimeUtil;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+public class BirthdayQualifier implements Qualifier {
+    // dates assumed for open ends, and the span in which birthdays are assumed to be spread evenly, to estimate
+    // the selectivity
+    private static final LocalDate EARLIEST_BIRTHDAY = LocalDate.of(1900, 1, 1);
+    private static final long BIRTHDAY_SPAN_DAYS = ChronoUnit.DAYS.between(EARLIEST_BIRTHDAY, LocalDate.now()) + 1;
+
+    private final LocalDate from;
+    private final LocalDate to;
+
+    /**
+     * Accepts the birthdays from {@code from} to {@code to}, both included. Persons without a birthday are not
+     * accepted.
+     *
+     * @param from null for no lower bound
+     * @param to null for no upper bound
+     */
+    public BirthdayQualifier(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public boolean run(ReadOnlyViewablePerson person) {
+        final LocalDate birthday = person.getBirthday();
+        return birthday != null && (from == null || !birthday.isBefore(from)) && (to == null || !birthday.isAfter(to));
+    }
+
+    @Override
+    public double estimateSelectivity(SearchIndexes<?> indexes) {
+        final LocalDate first = from == null ? EARLIEST_BIRTHDAY : from;
+        final LocalDate last = to == null ? LocalDate.now() : to;
+        final long days = ChronoUnit.DAYS.between(first, last) + 1;
+        return Math.max(0, Math.min(1, days / (double) BIRTHDAY_SPAN_DAYS));
+    }
+
+    @Override
+    public boolean narrows(Qualifier previous) {
+        if (!(previous instanceof BirthdayQualifier)) return false;
+        final BirthdayQualifier other = (BirthdayQualifier) previous;
+        return (other.from == null || from != null && !from.isBefore(other.from))
+                && (other.to == null || to != null && !to.isAfter(other.to));
+    }
+
+    @Override
+    public String toString() {
+        if (from != null && from.equals(to)) return "birthday=" + DateTimeUtil.format(from);
+        return "birthday=" + (from == null ? "" : DateTimeUtil.format(from)) + ".."
+                + (to == null ? "" : DateTimeUtil.format(to));
+    }
+}
@@ -1,18 +1,42 @@
 package address.parser.qualifier;
 
 import address.model.datatypes.person.ReadOnlyViewablePerson;
-import commons.StringUtil;
+import address.model.datatypes.person.SearchIndexes;
+import address.model.datatypes.person.TrigramIndex;
+import commons.IgnoreCaseSubstring;
+
+import java.util.function.Predicate;
 
 public class CityQualifier implements Qualifier {
-    private String city;
+    private final IgnoreCaseSubstring city;
 
     public CityQualifier(String city) {
-        this.city = city;
+        this.city = new IgnoreCaseSubstring(city);
     }
 
     @Override
     public boolean run(ReadOnlyViewablePerson person) {
-        return StringUtil.containsIgnoreCase(person.getCity(), city);
+        return city.isFoundIn(person.getCity());
+    }
+
+    @Override
+    public Predicate<ReadOnlyViewablePerson> compile(SearchIndexes<?> indexes) {
+        return Qualifier.narrowedBy(indexes, TrigramIndex.Field.CITY, city.toString(), this);
+    }
+
+    @Override
+    public double estimateCost(SearchIndexes<?> indexes) {
+        return Qualifier.estimateSubstringCost(indexes, TrigramIndex.Field.CITY, city.toString());
+    }
+
+    @Override
+    public double estimateSelectivity(SearchIndexes<?> indexes) {
+        return Qualifier.estimateSubstringSelectivity(indexes, TrigramIndex.Field.CITY, city.toString());
+    }
+
+    @Override
+    public boolean narrows(Qualifier previous) {
+        return previous instanceof CityQualifier && city.contains(((CityQualifier) previous).city);
     }
 
     @Override
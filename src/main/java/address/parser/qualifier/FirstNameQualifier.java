@@ -1,18 +1,42 @@
 package address.parser.qualifier;
 
 import address.model.datatypes.person.ReadOnlyViewablePerson;
-import commons.StringUtil;
+import address.model.datatypes.person.SearchIndexes;
+import address.model.datatypes.person.TrigramIndex;
+import commons.IgnoreCaseSubstring;
+
+import java.util.function.Predicate;
 
 public class FirstNameQualifier implements Qualifier {
-    private String firstName;
+    private final IgnoreCaseSubstring firstName;
 
     public FirstNameQualifier(String firstName) {
-        this.firstName = firstName;
+        this.firstName = new IgnoreCaseSubstring(firstName);
     }
 
     @Override
     public boolean run(ReadOnlyViewablePerson person) {
-        return StringUtil.containsIgnoreCase(person.getFirstName(), firstName);
+        return firstName.isFoundIn(person.getFirstName());
+    }
+
+    @Override
+    public Predicate<ReadOnlyViewablePerson> compile(SearchIndexes<?> indexes) {
+        return Qualifier.narrowedBy(indexes, TrigramIndex.Field.FIRST_NAME, firstName.toString(), this);
+    }
+
+    @Override
+    public double estimateCost(SearchIndexes<?> indexes) {
+        return Qualifier.estimateSubstringCost(indexes, TrigramIndex.Field.FIRST_NAME, firstName.toString());
+    }
+
+    @Override
+    public double estimateSelectivity(SearchIndexes<?> indexes) {
+        return Qualifier.estimateSubstringSelectivity(indexes, TrigramIndex.Field.FIRST_NAME, firstName.toString());
+    }
+
+    @Override
+    public boolean narrows(Qualifier previous) {
+        return previous instanceof FirstNameQualifier && firstName.contains(((FirstNameQualifier) previous).firstName);
     }
 
     @Override
@@ -1,21 +1,44 @@
 package address.parser.qualifier;
 
 import address.model.datatypes.person.ReadOnlyViewablePerson;
+import address.model.datatypes.person.SearchIndexes;
+import address.parser.expr.Planner;
 
 public class IdQualifier implements Qualifier {
-    private final int id;
+    private final int min;
+    private final int max;
 
     public IdQualifier(int id) {
-        this.id = id;
+        this(id, id);
+    }
+
+    /**
+     * Accepts the ids from {@code min} to {@code max}, both included
+     */
+    public IdQualifier(int min, int max) {
+        this.min = min;
+        this.max = max;
     }
 
     @Override
     public boolean run(ReadOnlyViewablePerson person) {
-        return person.getId() == id;
+        return person.getId() >= min && person.getId() <= max;
+    }
+
+    @Override
+    public double estimateSelectivity(SearchIndexes<?> indexes) {
+        return Math.min(1, ((long) max - min + 1) / (double) Planner.getPersonCount(indexes));
+    }
+
+    @Override
+    public boolean narrows(Qualifier previous) {
+        return previous instanceof IdQualifier && min >= ((IdQualifier) previous).min
+                && max <= ((IdQualifier) previous).max;
     }
 
     @Override
     public String toString() {
-        return "id=" + id;
+        if (min == max) return "id=" + min;
+        return "id=" + (min == Integer.MIN_VALUE ? "" : min) + ".." + (max == Integer.MAX_VALUE ? "" : max);
     }
 }
@@ -1,18 +1,42 @@
 package address.parser.qualifier;
 
 import address.model.datatypes.person.ReadOnlyViewablePerson;
-import commons.StringUtil;
+import address.model.datatypes.person.SearchIndexes;
+import address.model.datatypes.person.TrigramIndex;
+import commons.IgnoreCaseSubstring;
+
+import java.util.function.Predicate;
 
 public class LastNameQualifier implements Qualifier {
-    private String lastName;
+    private final IgnoreCaseSubstring lastName;
 
     public LastNameQualifier(String lastName) {
-        this.lastName = lastName;
+        this.lastName = new IgnoreCaseSubstring(lastName);
     }
 
     @Override
     public boolean run(ReadOnlyViewablePerson person) {
-        return StringUtil.containsIgnoreCase(person.getLastName(), lastName);
+        return lastName.isFoundIn(person.getLastName());
+    }
+
+    @Override
+    public Predicate<ReadOnlyViewablePerson> compile(SearchIndexes<?> indexes) {
+        return Qualifier.narrowedBy(indexes, TrigramIndex.Field.LAST_NAME, lastName.toString(), this);
+    }
+
+    @Override
+    public double estimateCost(SearchIndexes<?> indexes) {
+        return Qualifier.estimateSubstringCost(indexes, TrigramIndex.Field.LAST_NAME, lastName.toString());
+    }
+
+    @Override
+    public double estimateSelectivity(SearchIndexes<?> indexes) {
+        return Qualifier.estimateSubstringSelectivity(indexes, TrigramIndex.Field.LAST_NAME, lastName.toString());
+    }
+
+    @Override
+    public boolean narrows(Qualifier previous) {
+        return previous instanceof LastNameQualifier && lastName.contains(((LastNameQualifier) previous).lastName);
     }
 
     @Override
@@ -1,6 +1,9 @@
 package address.parser.qualifier;
 
 import address.model.datatypes.person.ReadOnlyViewablePerson;
+import address.model.datatypes.person.SearchIndexes;
+
+import java.util.function.Predicate;
 
 public class NameQualifier implements Qualifier {
     private Qualifier firstNameQualifier;
@@ -17,6 +20,30 @@ public class NameQualifier implements Qualifier {
         return firstNameQualifier.run(person) || lastNameQualifier.run(person);
     }
 
+    @Override
+    public Predicate<ReadOnlyViewablePerson> compile(SearchIndexes<?> indexes) {
+        final Predicate<ReadOnlyViewablePerson> firstName = firstNameQualifier.compile(indexes);
+        final Predicate<ReadOnlyViewablePerson> lastName = lastNameQualifier.compile(indexes);
+        return person -> firstName.test(person) || lastName.test(person);
+    }
+
+    @Override
+    public double estimateCost(SearchIndexes<?> indexes) {
+        return firstNameQualifier.estimateCost(indexes) + lastNameQualifier.estimateCost(indexes);
+    }
+
+    @Override
+    public double estimateSelectivity(SearchIndexes<?> indexes) {
+        return 1 - (1 - firstNameQualifier.estimateSelectivity(indexes))
+                * (1 - lastNameQualifier.estimateSelectivity(indexes));
+    }
+
+    @Override
+    public boolean narrows(Qualifier previous) {
+        return previous instanceof NameQualifier
+                && firstNameQualifier.narrows(((NameQualifier) previous).firstNameQualifier);
+    }
+
     @Override
     public String toString() {
         return firstNameQualifier + " OR " + lastNameQualifier;
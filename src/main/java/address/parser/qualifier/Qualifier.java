@@ -1,8 +1,86 @@
 package address.parser.qualifier;
 
+import address.model.datatypes.person.ReadOnlyPerson;
 import address.model.datatypes.person.ReadOnlyViewablePerson;
+import address.model.datatypes.person.SearchIndexes;
+import address.model.datatypes.person.TrigramIndex;
+import address.parser.expr.Planner;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Predicate;
 
 public interface Qualifier {
     boolean run(ReadOnlyViewablePerson person);
     String toString();
+
+    /**
+     * @param indexes narrow down the persons to run the qualifier on, may be null
+     * @return a predicate equivalent to {@link #run(ReadOnlyViewablePerson)}
+     */
+    default Predicate<ReadOnlyViewablePerson> compile(SearchIndexes<?> indexes) {
+        return this::run;
+    }
+
+    /**
+     * @return true if every person this qualifier accepts is also accepted by {@code previous}, as can be told
+     *         without looking at the persons (e.g. the same field with a longer substring). False when unsure.
+     */
+    default boolean narrows(Qualifier previous) {
+        return this == previous;
+    }
+
+    /**
+     * @param indexes of the persons to be filtered, may be null
+     * @return relative cost of running the qualifier on one person, see {@link Planner}
+     */
+    default double estimateCost(SearchIndexes<?> indexes) {
+        return Planner.COMPARISON_COST;
+    }
+
+    /**
+     * @param indexes of the persons to be filtered, may be null
+     * @return estimated fraction of the persons the qualifier accepts
+     */
+    default double estimateSelectivity(SearchIndexes<?> indexes) {
+        return Planner.DEFAULT_SELECTIVITY;
+    }
+
+    /**
+     * @return cost of a qualifier compiled with {@link #narrowedBy}, which is cheap for the persons the trigram index
+     *         rules out
+     */
+    static double estimateSubstringCost(SearchIndexes<?> indexes, TrigramIndex.Field field, String substring) {
+        if (indexes == null || !indexes.getTrigramIndex().countCandidates(field, substring).isPresent()) {
+            return Planner.SUBSTRING_SEARCH_COST;
+        }
+        final double selectivity = estimateSubstringSelectivity(indexes, field, substring);
+        return selectivity > Planner.MAX_NARROWED_SELECTIVITY ? Planner.SUBSTRING_SEARCH_COST
+                : Planner.CANDIDATE_CHECK_COST + selectivity * Planner.SUBSTRING_SEARCH_COST;
+    }
+
+    /**
+     * @return fraction of the persons whose field can contain {@code substring} according to the trigram index
+     */
+    static double estimateSubstringSelectivity(SearchIndexes<?> indexes, TrigramIndex.Field field, String substring) {
+        if (substring.isEmpty()) return 1;
+        final OptionalInt candidates = indexes == null ? OptionalInt.empty()
+                : indexes.getTrigramIndex().countCandidates(field, substring);
+        if (!candidates.isPresent()) return Planner.DEFAULT_SELECTIVITY;
+        return Math.min(1, candidates.getAsInt() / (double) Planner.getPersonCount(indexes));
+    }
+
+    /**
+     * @return a predicate equivalent to {@code qualifier}, which only runs it on the persons whose field can contain
+     *         {@code substring} according to the trigram index
+     */
+    static Predicate<ReadOnlyViewablePerson> narrowedBy(SearchIndexes<?> indexes, TrigramIndex.Field field,
+                                                         String substring, Qualifier qualifier) {
+        if (indexes == null) return qualifier::run;
+        final Optional<Predicate<ReadOnlyPerson>> candidates =
+                indexes.getTrigramIndex().findCandidates(field, substring);
+        if (!candidates.isPresent()) return qualifier::run;
+        final Predicate<ReadOnlyPerson> isCandidate = candidates.get();
+        return person -> isCandidate.test(person) && qualifier.run(person);
+    }
 }
@@ -1,18 +1,42 @@
 package address.parser.qualifier;
 
 import address.model.datatypes.person.ReadOnlyViewablePerson;
-import commons.StringUtil;
+import address.model.datatypes.person.SearchIndexes;
+import address.model.datatypes.person.TrigramIndex;
+import commons.IgnoreCaseSubstring;
+
+import java.util.function.Predicate;
 
 public class StreetQualifier implements Qualifier {
-    private final String street;
+    private final IgnoreCaseSubstring street;
 
     public StreetQualifier(String street) {
-        this.street = street;
+        this.street = new IgnoreCaseSubstring(street);
     }
 
     @Override
     public boolean run(ReadOnlyViewablePerson person) {
-        return StringUtil.containsIgnoreCase(person.getStreet(), street);
+        return street.isFoundIn(person.getStreet());
+    }
+
+    @Override
+    public Predicate<ReadOnlyViewablePerson> compile(SearchIndexes<?> indexes) {
+        return Qualifier.narrowedBy(indexes, TrigramIndex.Field.STREET, street.toString(), this);
+    }
+
+    @Override
+    public double estimateCost(SearchIndexes<?> indexes) {
+        return Qualifier.estimateSubstringCost(indexes, TrigramIndex.Field.STREET, street.toString());
+    }
+
+    @Override
+    public double estimateSelectivity(SearchIndexes<?> indexes) {
+        return Qualifier.estimateSubstringSelectivity(indexes, TrigramIndex.Field.STREET, street.toString());
+    }
+
+    @Override
+    public boolean narrows(Qualifier previous) {
+        return previous instanceof StreetQualifier && street.contains(((StreetQualifier) previous).street);
     }
 
     @Override
@@ -1,21 +1,61 @@
 package address.parser.qualifier;
 
+import address.model.datatypes.person.ReadOnlyPerson;
 import address.model.datatypes.person.ReadOnlyViewablePerson;
-import commons.StringUtil;
+import address.model.datatypes.person.SearchIndexes;
+import address.model.datatypes.tag.Tag;
+import address.parser.expr.Planner;
+import commons.IgnoreCaseSubstring;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 public class TagQualifier implements Qualifier {
-    private final String tagName;
+    private final IgnoreCaseSubstring tagName;
 
     public TagQualifier(String tagName) {
-        this.tagName = tagName;
+        this.tagName = new IgnoreCaseSubstring(tagName);
     }
 
     @Override
     public boolean run(ReadOnlyViewablePerson person) {
-        return person.getTagList().stream()
-                .filter(tag -> StringUtil.containsIgnoreCase(tag.getName(), this.tagName))
-                .findAny()
-                .isPresent();
+        final List<Tag> tags = person.getTagList();
+        for (int i = 0; i < tags.size(); i++) {
+            if (tagName.isFoundIn(tags.get(i).getName())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Only runs on the persons that have a tag with a matching name, according to the tag index
+     */
+    @Override
+    public Predicate<ReadOnlyViewablePerson> compile(SearchIndexes<?> indexes) {
+        if (indexes == null) return this::run;
+        final Optional<Predicate<ReadOnlyPerson>> candidates = indexes.getTagIndex().findCandidates(tagName::isFoundIn);
+        if (!candidates.isPresent()) return this::run;
+        final Predicate<ReadOnlyPerson> isCandidate = candidates.get();
+        return person -> isCandidate.test(person) && run(person);
+    }
+
+    @Override
+    public double estimateCost(SearchIndexes<?> indexes) {
+        if (indexes == null) return Planner.SUBSTRING_SEARCH_COST;
+        final double selectivity = estimateSelectivity(indexes);
+        return selectivity > Planner.MAX_NARROWED_SELECTIVITY ? Planner.SUBSTRING_SEARCH_COST
+                : Planner.CANDIDATE_CHECK_COST + selectivity * Planner.SUBSTRING_SEARCH_COST;
+    }
+
+    @Override
+    public double estimateSelectivity(SearchIndexes<?> indexes) {
+        if (indexes == null) return Planner.DEFAULT_SELECTIVITY;
+        return indexes.getTagIndex().countCandidates(tagName::isFoundIn) / (double) Planner.getPersonCount(indexes);
+    }
+
+    @Override
+    public boolean narrows(Qualifier previous) {
+        return previous instanceof TagQualifier && tagName.contains(((TagQualifier) previous).tagName);
     }
 
     @Override
@@ -1,6 +1,7 @@
 package address.parser.qualifier;
 
 import address.model.datatypes.person.ReadOnlyViewablePerson;
+import address.model.datatypes.person.SearchIndexes;
 
 public class TrueQualifier implements Qualifier {
 
@@ -12,6 +13,21 @@ public class TrueQualifier implements Qualifier {
         return true;
     }
 
+    @Override
+    public double estimateCost(SearchIndexes<?> indexes) {
+        return 0;
+    }
+
+    @Override
+    public double estimateSelectivity(SearchIndexes<?> indexes) {
+        return 1;
+    }
+
+    @Override
+    public boolean narrows(Qualifier previous) {
+        return previous instanceof TrueQualifier;
+    }
+
     @Override
     public String toString() {
         return "TRUE";
@@ -0,0 +1,673 @@
+package address.storage;
+
+import address.exceptions.DataConversionException;
+import address.model.datatypes.ReadOnlyAddressBook;
+import address.model.datatypes.person.ReadOnlyPerson;
+import address.model.datatypes.tag.Tag;
+import commons.FileUtil;
+import commons.OsDetector;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Stores addressbook data in a compact binary file.
+ *
+ * Layout (integers are big-endian, varints are unsigned LEB128):
+ * <pre>
+ *   header  : int magic ("ABKB"), int format version
+ *   block*  : byte type, int payload length, payload, int CRC32 of payload
+ * </pre>
+ * A STRINGS block appends strings to a string table shared by all later blocks. Cities, postal codes and tag names
+ * are stored as references into that table, so repeated values are stored only once. A PERSONS block holds a varint
+ * record count followed by length-prefixed person records, and a TAGS block the tag list. The file ends with an END
+ * block holding the number of persons and tags written, so a truncated file is detected.
+ *
+ * Files are read through a memory mapping of the whole file. A {@link PersonIndex} can be kept next to the file to
+ * decode a range of persons without reading everything before them.
+ */
+public class BinaryFileStorage {
+    static final int VERSION = 1;
+    private static final int MAGIC = 0x41424B42;
+    private static final int HEADER_SIZE = 8;
+    private static final int BLOCK_HEADER_SIZE = 5;
+    private static final int CHECKSUM_SIZE = 4;
+    private static final int PERSONS_PER_BLOCK = 1024;
+
+    private static final byte STRINGS_BLOCK = 1;
+    private static final byte PERSONS_BLOCK = 2;
+    private static final byte TAGS_BLOCK = 3;
+    private static final byte END_BLOCK = 4;
+
+    /**
+     * @return true if the file exists and starts like a file written by this class
+     */
+    public static boolean isBinaryFile(File file) {
+        if (!FileUtil.isFileExists(file) || file.length() < HEADER_SIZE) return false;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Saves the given addressbook data to the specified file, forcing it to disk before returning.
+     *
+     * @throws FileNotFoundException if the file is missing
+     */
+    public static void saveDataToFile(File file, ReadOnlyAddressBook addressBook) throws IOException {
+        if (!file.exists()) {
+            throw new FileNotFoundException("File not found : " + file.getAbsolutePath());
+        }
+        try (FileOutputStream fileOut = new FileOutputStream(file);
+             Writer writer = new Writer(new BufferedOutputStream(fileOut))) {
+            writer.writePersons(addressBook.getPersonList());
+            writer.writeTags(addressBook.getTagList());
+            writer.finish();
+            fileOut.getFD().sync();
+        }
+    }
+
+    /**
+     * Returns address book in the file
+     *
+     * @throws FileNotFoundException if the file is missing
+     * @throws DataConversionException if the file is incomplete, corrupted or not in this format
+     */
+    public static StorageAddressBook loadDataFromSaveFile(File file) throws DataConversionException,
+                                                                            FileNotFoundException {
+        final List<StoragePerson> persons = new ArrayList<>();
+        final List<Tag> tags = new ArrayList<>();
+        loadDataFromSaveFile(file, Integer.MAX_VALUE, chunk -> {
+            chunk.getPersonList().forEach(p -> persons.add((StoragePerson) p));
+            tags.addAll(chunk.getTagList());
+        });
+        return new StorageAddressBook(persons, tags);
+    }
+
+    /**
+     * Reads the address book in the file and hands the records to {@code chunkConsumer} in chunks of at most
+     * {@code chunkSize} persons, like {@link XmlFileStorage#loadDataFromSaveFile(File, int, Consumer)}.
+     * All tags are handed over together in the last chunk. At least one (possibly empty) chunk is always given.
+     *
+     * @throws FileNotFoundException if the file is missing
+     * @throws DataConversionException if the file is incomplete, corrupted or not in this format
+     */
+    public static void loadDataFromSaveFile(File file, int chunkSize,
+                                            Consumer<? super ReadOnlyAddressBook> chunkConsumer)
+            throws DataConversionException, FileNotFoundException {
+        assert chunkSize > 0;
+        if (!FileUtil.isFileExists(file)) {
+            throw new FileNotFoundException("File not found : " + file.getAbsolutePath());
+        }
+        final ByteBuffer data;
+        try {
+            data = mapFile(file);
+        } catch (IOException e) {
+            throw new DataConversionException(e);
+        }
+        loadData(data, chunkSize, chunkConsumer, 0);
+    }
+
+    /**
+     * Like {@link #loadDataFromSaveFile(File, int, Consumer)} on data from {@link #mapFile(File)}, except that the
+     * first {@code skippedPersons} persons are only checked and not handed to {@code chunkConsumer}.
+     */
+    static void loadData(ByteBuffer data, int chunkSize, Consumer<? super ReadOnlyAddressBook> chunkConsumer,
+                         int skippedPersons) throws DataConversionException {
+        try {
+            new Reader(data.duplicate(), chunkSize, chunkConsumer, skippedPersons, null).read();
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new DataConversionException(e);
+        }
+    }
+
+    /**
+     * Reads the whole file and reports where its blocks and person records are to {@code recorder}
+     */
+    static void indexData(ByteBuffer data, IndexRecorder recorder) throws DataConversionException {
+        try {
+            new Reader(data.duplicate(), Integer.MAX_VALUE, chunk -> {}, Integer.MAX_VALUE, recorder).read();
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new DataConversionException(e);
+        }
+    }
+
+    /**
+     * Decodes only persons {@code from} (inclusive) to {@code to} (exclusive), using the record positions in
+     * {@code index}. The string table and the blocks holding those persons are still checked against their CRC32.
+     *
+     * @throws DataConversionException if the data does not match the index or is corrupted
+     */
+    static List<StoragePerson> loadPersons(ByteBuffer data, PersonIndex index, int from, int to)
+            throws DataConversionException {
+        assert 0 <= from && from <= to && to <= index.getPersonCount();
+        final Reader reader = new Reader(data.duplicate(), Integer.MAX_VALUE, chunk -> {}, 0, null);
+        try {
+            for (int i = 0; i < index.getStringBlockCount(); i++) {
+                reader.readBlockAt(index.getStringBlockOffset(i), STRINGS_BLOCK);
+            }
+            for (int block = 0; block < index.getPersonsBlockCount(); block++) {
+                final int firstPerson = index.getFirstPersonOfBlock(block);
+                final int nextBlockFirstPerson = block + 1 < index.getPersonsBlockCount()
+                                                 ? index.getFirstPersonOfBlock(block + 1) : index.getPersonCount();
+                if (firstPerson < to && nextBlockFirstPerson > from) {
+                    reader.verifyBlockAt(index.getPersonsBlockOffset(block), PERSONS_BLOCK);
+                }
+            }
+            final List<StoragePerson> persons = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                final StoragePerson person = reader.readPersonAt(index.getRecordOffset(i));
+                if (person.getId() != index.getId(i)) {
+                    throw new DataConversionException("Index does not match data at person " + i);
+                }
+                persons.add(person);
+            }
+            return persons;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new DataConversionException(e);
+        }
+    }
+
+    /**
+     * Decodes only the tag list, using the block positions in {@code index}. The string table and the blocks after
+     * the last PERSONS block are still checked against their CRC32.
+     *
+     * @throws DataConversionException if the data does not match the index or is corrupted
+     */
+    static List<Tag> loadTags(ByteBuffer data, PersonIndex index) throws DataConversionException {
+        final Reader reader = new Reader(data.duplicate(), Integer.MAX_VALUE, chunk -> {}, 0, null);
+        try {
+            for (int i = 0; i < index.getStringBlockCount(); i++) {
+                reader.readBlockAt(index.getStringBlockOffset(i), STRINGS_BLOCK);
+            }
+            final int blockCount = index.getPersonsBlockCount();
+            return reader.readTagsFrom(blockCount == 0 ? HEADER_SIZE : index.getPersonsBlockOffset(blockCount - 1));
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new DataConversionException(e);
+        }
+    }
+
+    /**
+     * Combines the CRC32s of all blocks, which cover every byte of the data, without decoding anything.
+     * Used to tell whether an index still matches the data file.
+     *
+     * @throws DataConversionException if the block structure is broken
+     */
+    static int fingerprint(ByteBuffer data) throws DataConversionException {
+        final ByteBuffer in = data.duplicate();
+        final CRC32 fingerprint = new CRC32();
+        try {
+            if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC) {
+                throw new DataConversionException("Not a binary address book file");
+            }
+            fingerprint.update(in.getInt());
+            byte type;
+            do {
+                type = in.get();
+                final int length = in.getInt();
+                in.position(in.position() + length);
+                final int blockChecksum = in.getInt();
+                fingerprint.update(type);
+                fingerprint.update(blockChecksum >>> 24);
+                fingerprint.update(blockChecksum >>> 16);
+                fingerprint.update(blockChecksum >>> 8);
+                fingerprint.update(blockChecksum);
+            } while (type != END_BLOCK);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new DataConversionException("Binary address book file is incomplete");
+        }
+        return (int) fingerprint.getValue();
+    }
+
+    /**
+     * Maps the whole file into memory.
+     * Windows does not allow replacing a file while it is mapped, and a mapping is only released when it is
+     * garbage collected, so the file is read into memory there instead.
+     */
+    static ByteBuffer mapFile(File file) throws IOException, DataConversionException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new DataConversionException("File too large: " + file.getAbsolutePath());
+            }
+            if (!OsDetector.isOnWindows()) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            final ByteBuffer data = ByteBuffer.allocate((int) channel.size());
+            while (data.hasRemaining() && channel.read(data) != -1) {
+                // keep reading
+            }
+            data.flip();
+            return data;
+        }
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes an address book in this format, a few records at a time.
+     * {@link #finish()} must be called after everything has been written, otherwise the file is seen as incomplete.
+     */
+    public static class Writer implements Closeable {
+        private final DataOutputStream out;
+        private final Map<String, Integer> stringTable;
+        private final List<String> newStrings;
+        private final BlockBuffer records;
+        private final BlockBuffer record;
+        private final CRC32 checksum;
+        private int recordsInBlock;
+        private int personCount;
+        private int tagCount;
+
+        {
+            stringTable = new HashMap<>();
+            newStrings = new ArrayList<>();
+            records = new BlockBuffer();
+            record = new BlockBuffer();
+            checksum = new CRC32();
+        }
+
+        public Writer(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(out);
+            this.out.writeInt(MAGIC);
+            this.out.writeInt(VERSION);
+        }
+
+        public void writePersons(Collection<? extends ReadOnlyPerson> persons) throws IOException {
+            for (ReadOnlyPerson person : persons) {
+                record.reset();
+                encodePerson(person);
+                records.writeVarInt(record.size());
+                record.writeTo(records);
+                recordsInBlock++;
+                if (recordsInBlock == PERSONS_PER_BLOCK) {
+                    flushPersons();
+                }
+            }
+        }
+
+        public void writeTags(Collection<Tag> tags) throws IOException {
+            if (tags.isEmpty()) return;
+            flushPersons();
+            final BlockBuffer payload = new BlockBuffer();
+            payload.writeVarInt(tags.size());
+            for (Tag tag : tags) {
+                payload.writeVarInt(toReference(tag.getName()));
+            }
+            flushStrings();
+            writeBlock(TAGS_BLOCK, payload);
+            tagCount += tags.size();
+        }
+
+        /**
+         * Writes out anything still buffered and marks the end of the data
+         */
+        public void finish() throws IOException {
+            flushPersons();
+            final BlockBuffer payload = new BlockBuffer();
+            payload.writeVarInt(personCount);
+            payload.writeVarInt(tagCount);
+            writeBlock(END_BLOCK, payload);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private void encodePerson(ReadOnlyPerson person) {
+            record.writeVarInt(zigZag(person.getId()));
+            record.writeString(person.getFirstName());
+            record.writeString(person.getLastName());
+            record.writeString(person.getGithubUsername());
+            record.writeString(person.getStreet());
+            record.writeVarInt(toReference(person.getPostalCode()));
+            record.writeVarInt(toReference(person.getCity()));
+            record.writeVarInt(person.getBirthday() == null ? 0
+                                                            : zigZag((int) person.getBirthday().toEpochDay()) + 1);
+            final List<Tag> tags = person.getTagList();
+            record.writeVarInt(tags.size());
+            for (Tag tag : tags) {
+                record.writeVarInt(toReference(tag.getName()));
+            }
+            record.writeString(person.getRank());
+        }
+
+        /**
+         * @return 0 for null, otherwise 1 + index of the string in the string table
+         */
+        private int toReference(String value) {
+            if (value == null) return 0;
+            Integer index = stringTable.get(value);
+            if (index == null) {
+                index = stringTable.size();
+                stringTable.put(value, index);
+                newStrings.add(value);
+            }
+            return index + 1;
+        }
+
+        private void flushPersons() throws IOException {
+            if (recordsInBlock == 0) return;
+            flushStrings(); // strings referenced by the records must be in the table before them
+            final BlockBuffer count = new BlockBuffer();
+            count.writeVarInt(recordsInBlock);
+            writeBlock(PERSONS_BLOCK, count, records);
+            personCount += recordsInBlock;
+            recordsInBlock = 0;
+            records.reset();
+        }
+
+        private void flushStrings() throws IOException {
+            if (newStrings.isEmpty()) return;
+            final BlockBuffer payload = new BlockBuffer();
+            payload.writeVarInt(newStrings.size());
+            newStrings.forEach(payload::writeString);
+            writeBlock(STRINGS_BLOCK, payload);
+            newStrings.clear();
+        }
+
+        private void writeBlock(byte type, BlockBuffer... parts) throws IOException {
+            int length = 0;
+            checksum.reset();
+            for (BlockBuffer part : parts) {
+                length += part.size();
+                part.updateChecksum(checksum);
+            }
+            out.writeByte(type);
+            out.writeInt(length);
+            for (BlockBuffer part : parts) {
+                part.writeTo(out);
+            }
+            out.writeInt((int) checksum.getValue());
+        }
+    }
+
+    private static class BlockBuffer extends ByteArrayOutputStream {
+        void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        /**
+         * Length is stored as 1 + number of bytes, 0 for null
+         */
+        void writeString(String value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1);
+            write(bytes, 0, bytes.length);
+        }
+
+        void updateChecksum(CRC32 checksum) {
+            checksum.update(buf, 0, count);
+        }
+    }
+
+    /**
+     * Receives the positions of blocks and person records while a file is read, see {@link PersonIndex}
+     */
+    interface IndexRecorder {
+        void stringsBlock(int offset);
+
+        void personsBlock(int offset, int firstPerson);
+
+        void person(int id, int offset);
+    }
+
+    private static class Reader {
+        private final ByteBuffer data;
+        private final int chunkSize;
+        private final Consumer<? super ReadOnlyAddressBook> chunkConsumer;
+        private final int skippedPersons;
+        private final IndexRecorder recorder;
+        private final List<String> stringTable;
+        private final List<Tag> tags;
+        private final CRC32 checksum;
+        private List<StoragePerson> persons;
+        private boolean hasGivenChunk;
+        private int personCount;
+
+        {
+            stringTable = new ArrayList<>();
+            tags = new ArrayList<>();
+            checksum = new CRC32();
+            persons = new ArrayList<>();
+        }
+
+        /**
+         * @param skippedPersons number of leading persons to check but not hand to the consumer
+         * @param recorder receives record positions if not null
+         */
+        Reader(ByteBuffer data, int chunkSize, Consumer<? super ReadOnlyAddressBook> chunkConsumer,
+               int skippedPersons, IndexRecorder recorder) {
+            this.data = data;
+            this.chunkSize = chunkSize;
+            this.chunkConsumer = chunkConsumer;
+            this.skippedPersons = skippedPersons;
+            this.recorder = recorder;
+        }
+
+        void read() throws DataConversionException {
+            if (data.remaining() < HEADER_SIZE || data.getInt() != MAGIC) {
+                throw new DataConversionException("Not a binary address book file");
+            }
+            final int version = data.getInt();
+            if (version > VERSION) {
+                throw new DataConversionException("Unsupported binary address book version " + version);
+            }
+
+            while (true) {
+                final int blockOffset = data.position();
+                final byte type = data.get(blockOffset);
+                final ByteBuffer payload = readVerifiedBlock();
+                if (type == END_BLOCK) {
+                    readEnd(payload);
+                    return;
+                }
+                if (recorder != null && type == STRINGS_BLOCK) {
+                    recorder.stringsBlock(blockOffset);
+                } else if (recorder != null && type == PERSONS_BLOCK) {
+                    recorder.personsBlock(blockOffset, personCount);
+                }
+                readBlock(type, payload);
+            }
+        }
+
+        /**
+         * Reads the block at the current position
+         * @return its payload, after checking it against the block checksum
+         */
+        private ByteBuffer readVerifiedBlock() throws DataConversionException {
+            if (data.remaining() < BLOCK_HEADER_SIZE) {
+                throw new DataConversionException("Binary address book file is incomplete");
+            }
+            data.get();
+            final int length = data.getInt();
+            if (length < 0 || data.remaining() < length + CHECKSUM_SIZE) {
+                throw new DataConversionException("Binary address book file is incomplete");
+            }
+            final ByteBuffer payload = slice(length);
+            verifyChecksum(payload, data.getInt());
+            return payload;
+        }
+
+        void readBlockAt(int offset, byte expectedType) throws DataConversionException {
+            readBlock(expectedType, verifyBlockAt(offset, expectedType));
+        }
+
+        ByteBuffer verifyBlockAt(int offset, byte expectedType) throws DataConversionException {
+            if (data.get(offset) != expectedType) {
+                throw new DataConversionException("Expected block of type " + expectedType + " at byte " + offset);
+            }
+            data.position(offset);
+            return readVerifiedBlock();
+        }
+
+        /**
+         * Reads the TAGS blocks among the blocks from {@code offset} up to the END block
+         */
+        List<Tag> readTagsFrom(int offset) throws DataConversionException {
+            data.position(offset);
+            while (data.get(data.position()) != END_BLOCK) {
+                final byte type = data.get(data.position());
+                final ByteBuffer payload = readVerifiedBlock();
+                if (type == TAGS_BLOCK) readBlock(type, payload);
+            }
+            return tags;
+        }
+
+        StoragePerson readPersonAt(int offset) throws DataConversionException {
+            data.position(offset);
+            final int recordLength = readVarInt(data);
+            return readPerson(slice(recordLength));
+        }
+
+        private ByteBuffer slice(int length) {
+            final ByteBuffer slice = data.slice();
+            slice.limit(length);
+            data.position(data.position() + length);
+            return slice;
+        }
+
+        private void verifyChecksum(ByteBuffer payload, int expected) throws DataConversionException {
+            checksum.reset();
+            checksum.update(payload.duplicate());
+            if ((int) checksum.getValue() != expected) {
+                throw new DataConversionException("Corrupted block at byte " + (data.position() - CHECKSUM_SIZE));
+            }
+        }
+
+        private void readBlock(byte type, ByteBuffer payload) throws DataConversionException {
+            switch (type) {
+            case STRINGS_BLOCK:
+                for (int count = readVarInt(payload); count > 0; count--) {
+                    stringTable.add(readString(payload));
+                }
+                break;
+            case PERSONS_BLOCK:
+                final int payloadOffset = data.position() - CHECKSUM_SIZE - payload.limit();
+                for (int count = readVarInt(payload); count > 0; count--) {
+                    final int recordOffset = payloadOffset + payload.position();
+                    final int recordLength = readVarInt(payload);
+                    final ByteBuffer record = payload.slice();
+                    record.limit(recordLength);
+                    final StoragePerson person = readPerson(record);
+                    if (recorder != null) recorder.person(person.getId(), recordOffset);
+                    addPerson(person);
+                    payload.position(payload.position() + recordLength); // skips fields added by later versions
+                }
+                break;
+            case TAGS_BLOCK:
+                for (int count = readVarInt(payload); count > 0; count--) {
+                    tags.add(new Tag(readReference(payload)));
+                }
+                break;
+            default:
+                throw new DataConversionException("Unknown block type " + type);
+            }
+        }
+
+        private void readEnd(ByteBuffer payload) throws DataConversionException {
+            final int expectedPersons = readVarInt(payload);
+            final int expectedTags = readVarInt(payload);
+            if (expectedPersons != personCount || expectedTags != tags.size()) {
+                throw new DataConversionException("Expected " + expectedPersons + " persons and " + expectedTags
+                                                  + " tags but found " + personCount + " and " + tags.size());
+            }
+            if (!persons.isEmpty() || !tags.isEmpty() || !hasGivenChunk) {
+                chunkConsumer.accept(new StorageAddressBook(persons, tags));
+            }
+        }
+
+        private void addPerson(StoragePerson person) {
+            personCount++;
+            if (personCount <= skippedPersons) return;
+            persons.add(person);
+            if (persons.size() == chunkSize) {
+                chunkConsumer.accept(new StorageAddressBook(persons, new ArrayList<>()));
+                hasGivenChunk = true;
+                persons = new ArrayList<>();
+            }
+        }
+
+        /**
+         * @param in the bytes of one record
+         */
+        private StoragePerson readPerson(ByteBuffer in) throws DataConversionException {
+            final int id = unZigZag(readVarInt(in));
+            final String firstName = readString(in);
+            final String lastName = readString(in);
+            final String githubUsername = readString(in);
+            final String street = readString(in);
+            final String postalCode = readReference(in);
+            final String city = readReference(in);
+            final int birthday = readVarInt(in);
+            final List<Tag> personTags = new ArrayList<>();
+            for (int count = readVarInt(in); count > 0; count--) {
+                personTags.add(new Tag(readReference(in)));
+            }
+            final String rank = in.hasRemaining() ? readString(in) : null; // records written before ranks end here
+            return new StoragePerson(id, firstName, lastName, githubUsername, street, postalCode, city,
+                                     birthday == 0 ? null : readBirthday(birthday), personTags, rank);
+        }
+
+        private static LocalDate readBirthday(int birthday) throws DataConversionException {
+            try {
+                return LocalDate.ofEpochDay(unZigZag(birthday - 1));
+            } catch (DateTimeException e) {
+                throw new DataConversionException(e);
+            }
+        }
+
+        private String readReference(ByteBuffer in) throws DataConversionException {
+            final int reference = readVarInt(in);
+            if (reference == 0) return null;
+            if (reference > stringTable.size()) {
+                throw new DataConversionException("Unknown string reference " + reference);
+            }
+            return stringTable.get(reference - 1);
+        }
+
+        private static String readString(ByteBuffer in) {
+            final int length = readVarInt(in);
+            if (length == 0) return null;
+            final byte[] bytes = new byte[length - 1];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private static int readVarInt(ByteBuffer in) {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                final byte b = in.get();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+    }
+}
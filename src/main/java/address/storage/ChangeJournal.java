@@ -0,0 +1,226 @@
+package address.storage;
+
+import address.model.datatypes.person.ReadOnlyPerson;
+import address.model.datatypes.tag.Tag;
+import address.util.AppLogger;
+import address.util.LoggerManager;
+import commons.FileUtil;
+import commons.JsonUtil;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only log of changes made to an address book since its data file was last written in full.
+ *
+ * Each entry is one line of JSON. An entry only counts once its terminating line break is on disk, so a write that
+ * was cut short (e.g. by a crash) is detected when reading and discarded together with anything after it.
+ */
+public class ChangeJournal {
+    private static final AppLogger logger = LoggerManager.getLogger(ChangeJournal.class);
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String COMPACTING_SUFFIX = ".compacting";
+    private static final byte LINE_END = '\n';
+
+    private final File file;
+    private final File compactingFile;
+    private long firstEntryTime;
+
+    /**
+     * @param dataFile the data file whose changes are journalled. The journal is kept next to it.
+     */
+    public ChangeJournal(File dataFile) {
+        this.file = new File(dataFile.getPath() + JOURNAL_SUFFIX);
+        this.compactingFile = new File(file.getPath() + COMPACTING_SUFFIX);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Appends the entries to the journal and forces them to disk.
+     */
+    public synchronized void append(List<Entry> entries) throws IOException {
+        if (entries.isEmpty()) return;
+
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        for (Entry entry : entries) {
+            buffer.write(JsonUtil.toCompactJsonString(entry).getBytes(StandardCharsets.UTF_8));
+            buffer.write(LINE_END);
+        }
+        if (size() == 0) {
+            firstEntryTime = System.currentTimeMillis();
+        }
+        FileUtil.createIfMissing(file);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.APPEND)) {
+            buffer.writeTo(Channels.newOutputStream(channel));
+            channel.force(false);
+        }
+    }
+
+    /**
+     * @return size in bytes of the journal, excluding entries that are being compacted
+     */
+    public synchronized long size() {
+        return file.length();
+    }
+
+    /**
+     * @return milliseconds since the oldest entry (excluding entries that are being compacted) was written
+     */
+    public synchronized long age() {
+        return size() == 0 ? 0 : System.currentTimeMillis() - firstEntryTime;
+    }
+
+    /**
+     * Moves all current entries aside so that they can be folded into a new data file snapshot while new entries
+     * keep being appended. Entries left over from an earlier compaction that did not complete are kept in front.
+     */
+    public synchronized void startCompaction() throws IOException {
+        if (size() == 0) return;
+        if (!compactingFile.exists()) {
+            FileUtil.moveFile(file.toPath(), compactingFile.toPath(), false);
+            return;
+        }
+        try (FileChannel from = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+             FileChannel to = FileChannel.open(compactingFile.toPath(), StandardOpenOption.APPEND)) {
+            long transferred = 0;
+            while (transferred < from.size()) {
+                transferred += from.transferTo(transferred, from.size() - transferred, to);
+            }
+            to.force(false);
+        }
+        FileUtil.deleteFile(file);
+    }
+
+    /**
+     * Discards the entries moved aside by {@link #startCompaction()}, once the snapshot containing them is on disk.
+     */
+    public synchronized void finishCompaction() throws IOException {
+        FileUtil.deleteFileIfExists(compactingFile);
+    }
+
+    /**
+     * Discards all entries, e.g. after the data file has been written in full.
+     */
+    public synchronized void clear() throws IOException {
+        FileUtil.deleteFileIfExists(compactingFile);
+        FileUtil.deleteFileIfExists(file);
+    }
+
+    /**
+     * Reads all complete entries in write order, including those of an unfinished compaction.
+     * Any incomplete or unreadable trailing data is cut off the journal file, so later appends start cleanly.
+     */
+    public synchronized List<Entry> readEntries() throws IOException {
+        final List<Entry> entries = new ArrayList<>();
+        readEntries(compactingFile, entries);
+        readEntries(file, entries);
+        if (size() > 0) {
+            firstEntryTime = System.currentTimeMillis();
+        }
+        return entries;
+    }
+
+    private static void readEntries(File journalFile, List<Entry> entries) throws IOException {
+        if (!FileUtil.isFileExists(journalFile)) return;
+
+        long validLength = 0;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(journalFile))) {
+            final ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long position = 0;
+            int b;
+            while ((b = in.read()) != -1) {
+                position++;
+                if (b != LINE_END) {
+                    line.write(b);
+                    continue;
+                }
+                try {
+                    entries.add(JsonUtil.fromJsonString(new String(line.toByteArray(), StandardCharsets.UTF_8),
+                                                        Entry.class));
+                } catch (IOException e) {
+                    logger.warn("Unreadable entry in journal {} at byte {}, ignoring the rest", journalFile,
+                                validLength);
+                    break;
+                }
+                validLength = position;
+                line.reset();
+            }
+        }
+
+        if (validLength < journalFile.length()) {
+            logger.warn("Discarding {} bytes of incomplete entries in journal {}",
+                        journalFile.length() - validLength, journalFile);
+            try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+                channel.force(false);
+            }
+        }
+    }
+
+    /**
+     * A single change to the address book. Every entry carries the full resulting state of what it changes,
+     * so applying an entry more than once has the same effect as applying it once.
+     */
+    public static class Entry {
+        public enum Type {
+            PUT_PERSON, REMOVE_PERSON, PUT_TAG, REMOVE_TAG
+        }
+
+        private Type type;
+        private StoragePerson person;
+        private int personId;
+        private Tag tag;
+
+        /**
+         * for json marshalling
+         */
+        private Entry() {}
+
+        private Entry(Type type, StoragePerson person, int personId, Tag tag) {
+            this.type = type;
+            this.person = person;
+            this.personId = personId;
+            this.tag = tag;
+        }
+
+        public static Entry putPerson(ReadOnlyPerson person) {
+            return new Entry(Type.PUT_PERSON, new StoragePerson(person), person.getId(), null);
+        }
+
+        public static Entry removePerson(int personId) {
+            return new Entry(Type.REMOVE_PERSON, null, personId, null);
+        }
+
+        public static Entry putTag(Tag tag) {
+            return new Entry(Type.PUT_TAG, null, 0, new Tag(tag));
+        }
+
+        public static Entry removeTag(Tag tag) {
+            return new Entry(Type.REMOVE_TAG, null, 0, new Tag(tag));
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public StoragePerson getPerson() {
+            return person;
+        }
+
+        public int getPersonId() {
+            return personId;
+        }
+
+        public Tag getTag() {
+            return tag;
+        }
+    }
+}
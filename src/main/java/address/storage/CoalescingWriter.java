@@ -0,0 +1,248 @@
+package address.storage;
+
+import address.util.AppLogger;
+import address.util.LoggerManager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs writes one at a time on a dedicated background thread.
+ *
+ * Writes are submitted with a key (e.g. the target file). If a write for the same key is still waiting when another
+ * one is submitted, the waiting write is replaced by the new one (the latest snapshot wins) but keeps its place in
+ * the queue. Writes for different keys run in the order they were first submitted.
+ */
+public class CoalescingWriter {
+    private static final AppLogger logger = LoggerManager.getLogger(CoalescingWriter.class);
+
+    private final String name;
+    private final Map<Object, PendingWrite> pendingWrites;
+    private Thread writerThread;
+    private boolean isWriting;
+    private boolean isShutDown;
+
+    private long completedCount;
+    private long failedCount;
+    private long coalescedCount;
+    private long totalLatencyNanos;
+    private long maxLatencyNanos;
+    private long lastLatencyNanos;
+    private long totalWriteNanos;
+
+    {
+        pendingWrites = new LinkedHashMap<>();
+    }
+
+    /**
+     * @param name of the writer thread
+     */
+    public CoalescingWriter(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Queues {@code write}, replacing any write for the same key that has not started yet.
+     * After {@link #shutdown(long, TimeUnit)}, runs {@code write} on the calling thread instead.
+     */
+    public void submit(Object key, Runnable write) {
+        synchronized (this) {
+            if (!isShutDown) {
+                final PendingWrite replaced = pendingWrites.get(key);
+                if (replaced != null) {
+                    coalescedCount++;
+                    pendingWrites.put(key, new PendingWrite(write, replaced.firstSubmitTime));
+                } else {
+                    pendingWrites.put(key, new PendingWrite(write, System.nanoTime()));
+                }
+                startWriterThreadIfNeeded();
+                notifyAll();
+                return;
+            }
+        }
+        logger.debug("{} is shut down, writing on calling thread", name);
+        runWrite(new PendingWrite(write, System.nanoTime()));
+    }
+
+    private void startWriterThreadIfNeeded() {
+        if (writerThread != null) return;
+        writerThread = new Thread(this::processWrites, name);
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    private void processWrites() {
+        while (true) {
+            final PendingWrite next;
+            synchronized (this) {
+                while (pendingWrites.isEmpty()) {
+                    if (isShutDown) return;
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        logger.warn("{} interrupted while idle", name);
+                    }
+                }
+                final Iterator<PendingWrite> it = pendingWrites.values().iterator();
+                next = it.next();
+                it.remove();
+                isWriting = true;
+            }
+            runWrite(next);
+        }
+    }
+
+    private void runWrite(PendingWrite write) {
+        final long startTime = System.nanoTime();
+        boolean isSuccessful = false;
+        try {
+            write.write.run();
+            isSuccessful = true;
+        } catch (RuntimeException e) {
+            logger.warn("Unexpected error in {}: {}", name, e);
+        } finally {
+            recordWrite(write, startTime, isSuccessful);
+        }
+    }
+
+    private synchronized void recordWrite(PendingWrite write, long startTime, boolean isSuccessful) {
+        final long endTime = System.nanoTime();
+        if (isSuccessful) {
+            completedCount++;
+        } else {
+            failedCount++;
+        }
+        lastLatencyNanos = endTime - write.firstSubmitTime;
+        maxLatencyNanos = Math.max(maxLatencyNanos, lastLatencyNanos);
+        totalLatencyNanos += lastLatencyNanos;
+        totalWriteNanos += endTime - startTime;
+        if (Thread.currentThread() == writerThread) {
+            isWriting = false;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Waits until all writes submitted so far have completed.
+     * @return false if they did not complete within the timeout
+     */
+    public synchronized boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        if (Thread.currentThread() == writerThread) {
+            return pendingWrites.isEmpty(); // cannot wait for ourselves
+        }
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!pendingWrites.isEmpty() || isWriting) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return false;
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+    }
+
+    /**
+     * Completes all queued writes and stops the writer thread.
+     * Writes submitted afterwards run on the submitting thread.
+     * @return false if the queued writes did not complete within the timeout
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        final boolean isFlushed = flush(timeout, unit);
+        final Thread threadToStop;
+        synchronized (this) {
+            isShutDown = true;
+            threadToStop = writerThread;
+            notifyAll();
+        }
+        if (isFlushed && threadToStop != null) {
+            threadToStop.join(unit.toMillis(timeout));
+        }
+        return isFlushed;
+    }
+
+    public synchronized Statistics getStatistics() {
+        return new Statistics(this);
+    }
+
+    private static class PendingWrite {
+        private final Runnable write;
+        private final long firstSubmitTime;
+
+        PendingWrite(Runnable write, long firstSubmitTime) {
+            this.write = write;
+            this.firstSubmitTime = firstSubmitTime;
+        }
+    }
+
+    /**
+     * Point-in-time copy of the writer's counters.
+     * Latency is measured from when a write was first queued (including any writes it replaced) until it completed.
+     */
+    public static class Statistics {
+        private final int queueDepth;
+        private final long completedCount;
+        private final long failedCount;
+        private final long coalescedCount;
+        private final long lastLatencyMillis;
+        private final long maxLatencyMillis;
+        private final long averageLatencyMillis;
+        private final long averageWriteMillis;
+
+        private Statistics(CoalescingWriter writer) {
+            final long writeCount = Math.max(1, writer.completedCount + writer.failedCount);
+            queueDepth = writer.pendingWrites.size();
+            completedCount = writer.completedCount;
+            failedCount = writer.failedCount;
+            coalescedCount = writer.coalescedCount;
+            lastLatencyMillis = TimeUnit.NANOSECONDS.toMillis(writer.lastLatencyNanos);
+            maxLatencyMillis = TimeUnit.NANOSECONDS.toMillis(writer.maxLatencyNanos);
+            averageLatencyMillis = TimeUnit.NANOSECONDS.toMillis(writer.totalLatencyNanos / writeCount);
+            averageWriteMillis = TimeUnit.NANOSECONDS.toMillis(writer.totalWriteNanos / writeCount);
+        }
+
+        /**
+         * @return number of writes waiting to be run
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public long getCompletedCount() {
+            return completedCount;
+        }
+
+        public long getFailedCount() {
+            return failedCount;
+        }
+
+        /**
+         * @return number of writes that were replaced by a later write before they started
+         */
+        public long getCoalescedCount() {
+            return coalescedCount;
+        }
+
+        public long getLastLatencyMillis() {
+            return lastLatencyMillis;
+        }
+
+        public long getMaxLatencyMillis() {
+            return maxLatencyMillis;
+        }
+
+        public long getAverageLatencyMillis() {
+            return averageLatencyMillis;
+        }
+
+        public long getAverageWriteMillis() {
+            return averageWriteMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "queued: " + queueDepth + ", completed: " + completedCount + ", failed: " + failedCount
+                    + ", coalesced: " + coalescedCount + ", latency (ms) last/avg/max: " + lastLatencyMillis + "/"
+                    + averageLatencyMillis + "/" + maxLatencyMillis + ", avg write (ms): " + averageWriteMillis;
+        }
+    }
+}
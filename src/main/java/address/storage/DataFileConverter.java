@@ -0,0 +1,72 @@
+package address.storage;
+
+import address.exceptions.DataConversionException;
+import address.util.AppLogger;
+import address.util.LoggerManager;
+import commons.FileUtil;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts data files between {@link DataFileFormat}s, e.g. to migrate a data file to the binary format or to roll
+ * it back to XML.
+ *
+ * Can also be run on its own: {@code DataFileConverter <source file> <target file> <XML|BINARY>}
+ */
+public class DataFileConverter {
+    private static final AppLogger logger = LoggerManager.getLogger(DataFileConverter.class);
+    private static final int CHUNK_SIZE = 1000;
+
+    /**
+     * Writes the data in {@code source} (in whichever format it is) to {@code target} in {@code targetFormat}.
+     * Creates the target file if it is missing.
+     *
+     * @throws FileNotFoundException if the source file is missing
+     */
+    public static void convert(File source, File target, DataFileFormat targetFormat)
+            throws IOException, DataConversionException {
+        if (source.getAbsoluteFile().equals(target.getAbsoluteFile())) {
+            throw new IOException("Cannot convert a file in place: " + source.getAbsolutePath());
+        }
+        final DataFileFormat sourceFormat = DataFileFormat.of(source);
+        logger.info("Converting {} ({}) to {} ({})", source, sourceFormat, target, targetFormat);
+        FileUtil.createIfMissing(target);
+        if (targetFormat == DataFileFormat.BINARY) {
+            convertToBinary(source, sourceFormat, target);
+        } else {
+            targetFormat.save(target, sourceFormat.load(source));
+        }
+    }
+
+    /**
+     * Streams the source into the target without holding all of the data in memory
+     */
+    private static void convertToBinary(File source, DataFileFormat sourceFormat, File target)
+            throws IOException, DataConversionException {
+        try (FileOutputStream fileOut = new FileOutputStream(target);
+             BinaryFileStorage.Writer writer = new BinaryFileStorage.Writer(new BufferedOutputStream(fileOut))) {
+            final List<IOException> errors = new ArrayList<>();
+            sourceFormat.load(source, CHUNK_SIZE, chunk -> {
+                try {
+                    writer.writePersons(chunk.getPersonList());
+                    writer.writeTags(chunk.getTagList());
+                } catch (IOException e) {
+                    errors.add(e);
+                }
+            });
+            if (!errors.isEmpty()) throw errors.get(0);
+            writer.finish();
+            fileOut.getFD().sync();
+        }
+    }
+
+    public static void main(String[] args) throws IOException, DataConversionException {
+        if (args.length != 3) {
+            System.out.println("Usage: DataFileConverter <source file> <target file> <XML|BINARY>");
+            return;
+        }
+        convert(new File(args[0]), new File(args[1]), DataFileFormat.valueOf(args[2].toUpperCase()));
+    }
+}
@@ -0,0 +1,78 @@
+package address.storage;
+
+import address.exceptions.DataConversionException;
+import address.model.datatypes.ReadOnlyAddressBook;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Formats in which the primary data file can be saved.
+ * When loading, the format is detected from the file contents, so switching formats needs no manual migration.
+ */
+public enum DataFileFormat {
+    /**
+     * Human-readable, see {@link XmlFileStorage}
+     */
+    XML {
+        @Override
+        public StorageAddressBook load(File file) throws FileNotFoundException, DataConversionException {
+            return XmlFileStorage.loadDataFromSaveFile(file);
+        }
+
+        @Override
+        public void load(File file, int chunkSize, Consumer<? super ReadOnlyAddressBook> chunkConsumer)
+                throws FileNotFoundException, DataConversionException {
+            XmlFileStorage.loadDataFromSaveFile(file, chunkSize, chunkConsumer);
+        }
+
+        @Override
+        public void save(File file, ReadOnlyAddressBook data) throws IOException, DataConversionException {
+            XmlFileStorage.streamDataToFile(file, data);
+        }
+    },
+    /**
+     * Compact and faster to load for large address books, see {@link BinaryFileStorage}
+     */
+    BINARY {
+        @Override
+        public StorageAddressBook load(File file) throws FileNotFoundException, DataConversionException {
+            return BinaryFileStorage.loadDataFromSaveFile(file);
+        }
+
+        @Override
+        public void load(File file, int chunkSize, Consumer<? super ReadOnlyAddressBook> chunkConsumer)
+                throws FileNotFoundException, DataConversionException {
+            BinaryFileStorage.loadDataFromSaveFile(file, chunkSize, chunkConsumer);
+        }
+
+        @Override
+        public void save(File file, ReadOnlyAddressBook data) throws IOException {
+            BinaryFileStorage.saveDataToFile(file, data);
+        }
+    };
+
+    /**
+     * @return format of the existing file, XML if it is not recognised as anything else
+     */
+    public static DataFileFormat of(File file) {
+        return BinaryFileStorage.isBinaryFile(file) ? BINARY : XML;
+    }
+
+    public abstract StorageAddressBook load(File file) throws FileNotFoundException, DataConversionException;
+
+    /**
+     * Hands the data to {@code chunkConsumer} in chunks of at most {@code chunkSize} persons, with all tags in the
+     * last chunk. At least one (possibly empty) chunk is always given.
+     */
+    public abstract void load(File file, int chunkSize, Consumer<? super ReadOnlyAddressBook> chunkConsumer)
+            throws FileNotFoundException, DataConversionException;
+
+    /**
+     * Saves to an existing file
+     * @throws FileNotFoundException if the file is missing
+     */
+    public abstract void save(File file, ReadOnlyAddressBook data) throws IOException, DataConversionException;
+}
@@ -0,0 +1,132 @@
+package address.storage;
+
+import address.model.datatypes.ReadOnlyAddressBook;
+import address.model.datatypes.person.ReadOnlyPerson;
+import address.model.datatypes.tag.Tag;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Applies journal entries to address book data as it is being loaded, chunk by chunk.
+ *
+ * Chunks are passed on to the downstream consumer one chunk late, so that persons and tags added by the journal can
+ * be put into the last chunk. {@link #finish()} must be called after the last chunk has been accepted.
+ */
+public class JournalReplay implements Consumer<ReadOnlyAddressBook> {
+
+    private final Consumer<ReadOnlyAddressBook> downstream;
+
+    private final Map<Integer, StoragePerson> personsToPut;
+    private final Set<Integer> personIdsToRemove;
+    private final Map<String, Tag> tagsToPut;
+    private final Set<String> tagNamesToRemove;
+
+    private ReadOnlyAddressBook heldChunk;
+
+    {
+        personsToPut = new LinkedHashMap<>();
+        personIdsToRemove = new HashSet<>();
+        tagsToPut = new LinkedHashMap<>();
+        tagNamesToRemove = new HashSet<>();
+    }
+
+    /**
+     * @param entries in the order they were written
+     */
+    public JournalReplay(List<ChangeJournal.Entry> entries, Consumer<ReadOnlyAddressBook> downstream) {
+        this.downstream = downstream;
+        entries.forEach(this::fold);
+    }
+
+    /**
+     * Only the last entry for each person or tag matters
+     */
+    private void fold(ChangeJournal.Entry entry) {
+        switch (entry.getType()) {
+        case PUT_PERSON:
+            personIdsToRemove.remove(entry.getPersonId());
+            personsToPut.remove(entry.getPersonId()); // re-insert to keep order of latest changes
+            personsToPut.put(entry.getPersonId(), entry.getPerson());
+            break;
+        case REMOVE_PERSON:
+            personsToPut.remove(entry.getPersonId());
+            personIdsToRemove.add(entry.getPersonId());
+            break;
+        case PUT_TAG:
+            tagNamesToRemove.remove(entry.getTag().getName());
+            tagsToPut.put(entry.getTag().getName(), entry.getTag());
+            break;
+        case REMOVE_TAG:
+            tagsToPut.remove(entry.getTag().getName());
+            tagNamesToRemove.add(entry.getTag().getName());
+            break;
+        default:
+            assert false : "Unknown journal entry type " + entry.getType();
+        }
+    }
+
+    public boolean isEmpty() {
+        return personsToPut.isEmpty() && personIdsToRemove.isEmpty()
+                && tagsToPut.isEmpty() && tagNamesToRemove.isEmpty();
+    }
+
+    @Override
+    public void accept(ReadOnlyAddressBook chunk) {
+        if (heldChunk != null) {
+            downstream.accept(apply(heldChunk, false));
+        }
+        heldChunk = chunk;
+    }
+
+    /**
+     * Like {@link #accept(ReadOnlyAddressBook)}, but passes the chunk on right away instead of one chunk late.
+     * Only for chunks that are known not to be the last one, e.g. the first screen of a larger file.
+     */
+    public void acceptLeadingChunk(ReadOnlyAddressBook chunk) {
+        if (heldChunk != null) {
+            downstream.accept(apply(heldChunk, false));
+            heldChunk = null;
+        }
+        downstream.accept(apply(chunk, false));
+    }
+
+    /**
+     * Passes on the last chunk, together with any persons and tags that were only found in the journal.
+     */
+    public void finish() {
+        if (heldChunk != null) {
+            downstream.accept(apply(heldChunk, true));
+            heldChunk = null;
+        }
+    }
+
+    /**
+     * @return {@code chunk} itself if there is nothing to apply
+     */
+    private ReadOnlyAddressBook apply(ReadOnlyAddressBook chunk, boolean isLastChunk) {
+        if (isEmpty()) return chunk;
+
+        final List<StoragePerson> persons = new ArrayList<>();
+        for (ReadOnlyPerson person : chunk.getPersonList()) {
+            if (personIdsToRemove.contains(person.getId())) continue;
+            final StoragePerson updated = personsToPut.remove(person.getId());
+            persons.add(updated != null ? updated : new StoragePerson(person));
+        }
+
+        final List<Tag> tags = new ArrayList<>();
+        for (Tag tag : chunk.getTagList()) {
+            if (tagNamesToRemove.contains(tag.getName())) continue;
+            final Tag updated = tagsToPut.remove(tag.getName());
+            tags.add(updated != null ? updated : tag);
+        }
+
+        if (isLastChunk) {
+            persons.addAll(personsToPut.values());
+            personsToPut.clear();
+            tags.addAll(tagsToPut.values());
+            tagsToPut.clear();
+        }
+        return new StorageAddressBook(persons, tags);
+    }
+}
@@ -0,0 +1,126 @@
+package address.storage;
+
+import address.model.datatypes.ReadOnlyAddressBook;
+import address.model.datatypes.person.ReadOnlyPerson;
+import address.model.datatypes.tag.Tag;
+
+import java.util.*;
+
+/**
+ * Remembers what is currently persisted (data file plus journal) so that only the differences need to be journalled
+ * when the address book changes.
+ *
+ * Persons are remembered by a 64-bit fingerprint of their data fields instead of a full copy, to keep the memory
+ * overhead small for large address books.
+ */
+public class PersistedStateTracker {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Map<Integer, Long> personFingerprints;
+    private Set<String> tagNames;
+    private boolean isKnown;
+
+    {
+        personFingerprints = new HashMap<>();
+        tagNames = new HashSet<>();
+    }
+
+    /**
+     * @return false if the persisted state is not known (e.g. before any data was loaded)
+     */
+    public synchronized boolean isKnown() {
+        return isKnown;
+    }
+
+    /**
+     * Forgets the persisted state, so that the next change has to be saved in full
+     */
+    public synchronized void reset() {
+        personFingerprints = new HashMap<>();
+        tagNames = new HashSet<>();
+        isKnown = false;
+    }
+
+    /**
+     * Sets the persisted state to {@code data}
+     */
+    public synchronized void set(ReadOnlyAddressBook data) {
+        reset();
+        add(data);
+    }
+
+    /**
+     * Adds {@code moreData} to the persisted state, e.g. when data is loaded in chunks
+     */
+    public synchronized void add(ReadOnlyAddressBook moreData) {
+        moreData.getPersonList().forEach(p -> personFingerprints.put(p.getId(), fingerprint(p)));
+        moreData.getTagList().forEach(t -> tagNames.add(t.getName()));
+        isKnown = true;
+    }
+
+    /**
+     * Compares {@code current} with the persisted state and treats {@code current} as persisted from now on.
+     * @return journal entries that turn the previously persisted state into {@code current}
+     */
+    public synchronized List<ChangeJournal.Entry> collectChanges(ReadOnlyAddressBook current) {
+        assert isKnown : "Persisted state must be known before collecting changes";
+        final List<ChangeJournal.Entry> changes = new ArrayList<>();
+
+        final Map<Integer, Long> currentFingerprints = new HashMap<>();
+        for (ReadOnlyPerson person : current.getPersonList()) {
+            final long fingerprint = fingerprint(person);
+            currentFingerprints.put(person.getId(), fingerprint);
+            final Long persistedFingerprint = personFingerprints.remove(person.getId());
+            if (persistedFingerprint == null || persistedFingerprint != fingerprint) {
+                changes.add(ChangeJournal.Entry.putPerson(person));
+            }
+        }
+        personFingerprints.keySet().forEach(removedId -> changes.add(ChangeJournal.Entry.removePerson(removedId)));
+        personFingerprints = currentFingerprints;
+
+        final Set<String> currentTagNames = new HashSet<>();
+        for (Tag tag : current.getTagList()) {
+            currentTagNames.add(tag.getName());
+            if (!tagNames.remove(tag.getName())) {
+                changes.add(ChangeJournal.Entry.putTag(tag));
+            }
+        }
+        tagNames.forEach(removedName -> changes.add(ChangeJournal.Entry.removeTag(new Tag(removedName))));
+        tagNames = currentTagNames;
+
+        return changes;
+    }
+
+    /**
+     * FNV-1a hash over all persisted fields of the person
+     */
+    static long fingerprint(ReadOnlyPerson person) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = mix(hash, Integer.toString(person.getId()));
+        hash = mix(hash, person.getFirstName());
+        hash = mix(hash, person.getLastName());
+        hash = mix(hash, person.getGithubUsername());
+        hash = mix(hash, person.getStreet());
+        hash = mix(hash, person.getPostalCode());
+        hash = mix(hash, person.getCity());
+        hash = mix(hash, person.getBirthday() == null ? null : person.getBirthday().toString());
+        for (Tag tag : person.getTagList()) {
+            hash = mix(hash, tag.getName());
+        }
+        hash = mix(hash, person.getRank()); // so that moving a person journals only that person
+        return hash;
+    }
+
+    private static long mix(long hash, String field) {
+        if (field == null) {
+            return (hash ^ 0xff) * FNV_PRIME; // distinguishes null from ""
+        }
+        for (int i = 0; i < field.length(); i++) {
+            final char c = field.charAt(i);
+            hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return (hash ^ 0xfe) * FNV_PRIME; // field separator
+    }
+}
@@ -0,0 +1,177 @@
+package address.storage;
+
+import address.exceptions.DataConversionException;
+import address.util.AppLogger;
+import address.util.LoggerManager;
+import commons.FileUtil;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Positions of the blocks and person records in a {@link BinaryFileStorage} data file, kept next to it as
+ * {@code <data file>.index} so that the first screen of persons can be decoded at startup without reading the rest.
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   int magic ("ABKI"), int version, int data file length, int data fingerprint
+ *   int n, n * int offset of a STRINGS block
+ *   int n, n * (int offset of a PERSONS block, int index of its first person)
+ *   int n, n * (int person id, int offset of the person record)
+ *   int CRC32 of everything before
+ * </pre>
+ * The data file length and {@link BinaryFileStorage#fingerprint(ByteBuffer) fingerprint} tell whether the index is
+ * stale. Entries are read straight from the mapped index file.
+ */
+public class PersonIndex {
+    private static final AppLogger logger = LoggerManager.getLogger(PersonIndex.class);
+    private static final int MAGIC = 0x41424B49;
+    private static final int VERSION = 1;
+    private static final String INDEX_FILE_SUFFIX = ".index";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final ByteBuffer index;
+    private final int stringBlocksStart;
+    private final int personsBlocksStart;
+    private final int personsStart;
+
+    private PersonIndex(ByteBuffer index) throws DataConversionException {
+        this.index = index;
+        if (index.getInt(0) != MAGIC || index.getInt(4) != VERSION) {
+            throw new DataConversionException("Not a person index of a supported version");
+        }
+        stringBlocksStart = 20;
+        personsBlocksStart = stringBlocksStart + 4 * index.getInt(stringBlocksStart - 4);
+        personsStart = personsBlocksStart + 4 + 8 * index.getInt(personsBlocksStart);
+        if (personsStart + 4 + 8L * index.getInt(personsStart) + 4 != index.limit()) {
+            throw new DataConversionException("Person index has the wrong size");
+        }
+    }
+
+    public static File getIndexFile(File dataFile) {
+        return new File(dataFile.getPath() + INDEX_FILE_SUFFIX);
+    }
+
+    /**
+     * Reads the positions of everything in the given binary data
+     */
+    public static PersonIndex build(ByteBuffer data) throws DataConversionException {
+        final List<Integer> stringBlocks = new ArrayList<>();
+        final List<int[]> personsBlocks = new ArrayList<>();
+        final List<int[]> persons = new ArrayList<>();
+        BinaryFileStorage.indexData(data, new BinaryFileStorage.IndexRecorder() {
+            @Override
+            public void stringsBlock(int offset) {
+                stringBlocks.add(offset);
+            }
+
+            @Override
+            public void personsBlock(int offset, int firstPerson) {
+                personsBlocks.add(new int[] {offset, firstPerson});
+            }
+
+            @Override
+            public void person(int id, int offset) {
+                persons.add(new int[] {id, offset});
+            }
+        });
+
+        final ByteBuffer index = ByteBuffer.allocate(32 + 4 * stringBlocks.size() + 8 * personsBlocks.size()
+                                                     + 8 * persons.size());
+        index.putInt(MAGIC).putInt(VERSION).putInt(data.limit()).putInt(BinaryFileStorage.fingerprint(data));
+        index.putInt(stringBlocks.size());
+        stringBlocks.forEach(index::putInt);
+        index.putInt(personsBlocks.size());
+        personsBlocks.forEach(block -> index.putInt(block[0]).putInt(block[1]));
+        index.putInt(persons.size());
+        persons.forEach(person -> index.putInt(person[0]).putInt(person[1]));
+        index.putInt(checksum(index, index.position()));
+        index.flip();
+        return new PersonIndex(index);
+    }
+
+    /**
+     * @return the index in the file, or null if it is missing or unreadable
+     */
+    public static PersonIndex open(File indexFile) {
+        if (!FileUtil.isFileExists(indexFile)) return null;
+        try {
+            final ByteBuffer index = BinaryFileStorage.mapFile(indexFile);
+            final int end = index.limit() - 4;
+            if (end < 28 || checksum(index, end) != index.getInt(end)) {
+                throw new DataConversionException("Corrupted person index");
+            }
+            return new PersonIndex(index);
+        } catch (IOException | DataConversionException | IndexOutOfBoundsException e) {
+            logger.warn("Ignoring unreadable person index {}: {}", indexFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the index to a temporary file first, so that a crash does not leave a partial index behind
+     */
+    public void save(File indexFile) throws IOException {
+        final File tempFile = new File(indexFile.getPath() + TEMP_FILE_SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(tempFile)) {
+            out.getChannel().write(index.duplicate());
+            out.getFD().sync();
+        }
+        FileUtil.replaceFileAtomically(tempFile.toPath(), indexFile.toPath());
+    }
+
+    /**
+     * @return true if the index was built from exactly this data
+     */
+    public boolean matches(ByteBuffer data) {
+        try {
+            return data.limit() == index.getInt(8) && BinaryFileStorage.fingerprint(data) == index.getInt(12);
+        } catch (DataConversionException | BufferUnderflowException e) {
+            return false;
+        }
+    }
+
+    public int getStringBlockCount() {
+        return index.getInt(stringBlocksStart - 4);
+    }
+
+    public int getStringBlockOffset(int i) {
+        return index.getInt(stringBlocksStart + 4 * i);
+    }
+
+    public int getPersonsBlockCount() {
+        return index.getInt(personsBlocksStart);
+    }
+
+    public int getPersonsBlockOffset(int block) {
+        return index.getInt(personsBlocksStart + 4 + 8 * block);
+    }
+
+    public int getFirstPersonOfBlock(int block) {
+        return index.getInt(personsBlocksStart + 8 + 8 * block);
+    }
+
+    public int getPersonCount() {
+        return index.getInt(personsStart);
+    }
+
+    public int getId(int person) {
+        return index.getInt(personsStart + 4 + 8 * person);
+    }
+
+    public int getRecordOffset(int person) {
+        return index.getInt(personsStart + 8 + 8 * person);
+    }
+
+    private static int checksum(ByteBuffer buffer, int length) {
+        final ByteBuffer content = buffer.duplicate();
+        content.position(0).limit(length);
+        final CRC32 checksum = new CRC32();
+        checksum.update(content);
+        return (int) checksum.getValue();
+    }
+}
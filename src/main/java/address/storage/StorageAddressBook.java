@@ -37,7 +37,51 @@ public class StorageAddressBook implements ReadOnlyAddressBook {
      */
     public StorageAddressBook(ReadOnlyAddressBook src) {
         persons.addAll(src.getPersonList().stream().map(StoragePerson::new).collect(Collectors.toList()));
-        tags = src.getTagList();
+        tags.addAll(src.getTagList().stream().map(Tag::new).collect(Collectors.toList()));
+    }
+
+    /**
+     * Wraps the given records without copying them
+     */
+    StorageAddressBook(List<StoragePerson> persons, List<Tag> tags) {
+        this.persons = persons;
+        this.tags = tags;
+    }
+
+    /**
+     * @return a view of {@code data} with the persons in rank order. Only the list of persons is copied.
+     */
+    static ReadOnlyAddressBook inRankOrder(ReadOnlyAddressBook data) {
+        final List<ReadOnlyPerson> persons = new ArrayList<>(data.getPersonList());
+        persons.sort(ReadOnlyPerson.RANK_ORDER); // stable, so persons without a rank keep their order
+        return new ReadOnlyAddressBook() {
+            @Override
+            public List<ReadOnlyPerson> getPersonList() {
+                return Collections.unmodifiableList(persons);
+            }
+
+            @Override
+            public List<Tag> getTagList() {
+                return data.getTagList();
+            }
+        };
+    }
+
+    /**
+     * @return a view of the persons of {@code data}, without its tags
+     */
+    static ReadOnlyAddressBook withoutTags(ReadOnlyAddressBook data) {
+        return new ReadOnlyAddressBook() {
+            @Override
+            public List<ReadOnlyPerson> getPersonList() {
+                return data.getPersonList();
+            }
+
+            @Override
+            public List<Tag> getTagList() {
+                return Collections.emptyList();
+            }
+        };
     }
 
     @Override
@@ -15,6 +15,15 @@ import address.util.LoggerManager;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -26,23 +35,86 @@ public class StorageManager extends ComponentManager {
 
     private static final AppLogger logger = LoggerManager.getLogger(StorageManager.class);
     private static final String DEFAULT_CONFIG_FILE = "config.json";
+    private static final int LOAD_CHUNK_SIZE = 1000;
+    private static final int FIRST_SCREEN_SIZE = 200; // persons decoded before startup continues, see PersonIndex
+    private static final long JOURNAL_COMPACTION_SIZE = 1024 * 1024; // bytes
+    private static final long JOURNAL_COMPACTION_AGE = TimeUnit.MINUTES.toMillis(10);
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final long FLUSH_TIMEOUT_SECONDS = 30;
     private final Consumer<ReadOnlyAddressBook> loadedDataCallback;
+    private final Consumer<ReadOnlyAddressBook> loadedDataChunkCallback;
+    private final Consumer<Runnable> afterLoadedChunks;
     private final Supplier<ReadOnlyAddressBook> defaultDataSupplier;
     private UserPrefs userPrefs;
     private File saveFile;
+    private final DataFileFormat saveFileFormat;
     private File userPrefsFile;
 
+    private final CoalescingWriter writer;
+    private final ChangeJournal journal;
+    private final PersistedStateTracker persistedState;
+    private final ExecutorService compactionExecutor;
+    private final AtomicBoolean isCompacting;
+    private final Object snapshotLock;
+    private int snapshotGeneration; // guarded by snapshotLock, incremented whenever the data file is written in full
+    // saves held back while only part of the primary data file is loaded, latest per file; guards the fields below
+    private final Map<File, Runnable> deferredSaves;
+    private boolean isDataPartlyLoaded;
+    private int loadGeneration; // incremented whenever loaded data is passed on to replace the existing data
 
+    {
+        writer = new CoalescingWriter("Storage writer");
+        persistedState = new PersistedStateTracker();
+        compactionExecutor = Executors.newSingleThreadExecutor();
+        isCompacting = new AtomicBoolean(false);
+        snapshotLock = new Object();
+        deferredSaves = new LinkedHashMap<>();
+    }
+
+    /**
+     * Data files are loaded as a whole and passed to {@code loadedDataCallback}.
+     */
+    public StorageManager(Consumer<ReadOnlyAddressBook> loadedDataCallback,
+                          Supplier<ReadOnlyAddressBook> defaultDataSupplier, Config config, UserPrefs userPrefs) {
+        this(loadedDataCallback, null, Runnable::run, defaultDataSupplier, config, userPrefs);
+    }
+
+    /**
+     * Data files are streamed in chunks: the first chunk is passed to {@code loadedDataCallback} (which should replace
+     * any existing data) and every following chunk to {@code loadedDataChunkCallback} (which should add to it).
+     * @param loadedDataChunkCallback if null, data files are loaded as a whole instead
+     * @param afterLoadedChunks runs a task once the chunks passed to {@code loadedDataChunkCallback} so far have
+     *                          been added, e.g. {@code Runnable::run} if they are added right away
+     */
     public StorageManager(Consumer<ReadOnlyAddressBook> loadedDataCallback,
+                          Consumer<ReadOnlyAddressBook> loadedDataChunkCallback, Consumer<Runnable> afterLoadedChunks,
                           Supplier<ReadOnlyAddressBook> defaultDataSupplier, Config config, UserPrefs userPrefs) {
         super();
         this.loadedDataCallback = loadedDataCallback;
+        this.loadedDataChunkCallback = loadedDataChunkCallback;
+        this.afterLoadedChunks = afterLoadedChunks;
         this.defaultDataSupplier = defaultDataSupplier;
         this.saveFile = new File(config.getLocalDataFilePath());
+        this.saveFileFormat = getSaveFileFormat(config);
         this.userPrefsFile = config.getPrefsFileLocation();
+        this.journal = new ChangeJournal(saveFile);
         this.userPrefs = userPrefs;
     }
 
+    /**
+     * @return the format named in the config, XML if it names none
+     */
+    private static DataFileFormat getSaveFileFormat(Config config) {
+        final String formatName = config.getLocalDataFileFormat();
+        if (formatName == null) return DataFileFormat.XML;
+        try {
+            return DataFileFormat.valueOf(formatName.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown local data file format '{}' in config, saving as XML", formatName);
+            return DataFileFormat.XML;
+        }
+    }
+
     private static File getConfigFile(String configFilePath) {
         if (configFilePath == null) return new File(DEFAULT_CONFIG_FILE);
         return new File(configFilePath);
@@ -122,12 +194,12 @@ public class StorageManager extends ComponentManager {
     }
 
     /**
-     * Raises FileSavingExceptionEvent (similar to {@link #saveDataToFile(File, ReadOnlyAddressBook)})
+     * Raises FileSavingExceptionEvent (similar to {@link #saveChangesToJournal(ReadOnlyAddressBook)})
      */
     @Subscribe
     public void handleLocalModelChangedEvent(LocalModelChangedEvent lmce) {
-        logger.info("Local data changed, saving to primary data file");
-        saveDataToFile(saveFile, lmce.data);
+        logger.info("Local data changed, saving changes to journal of primary data file");
+        saveChangesToJournal(lmce.data);
     }
 
     /**
@@ -140,25 +212,175 @@ public class StorageManager extends ComponentManager {
     }
 
     /**
+     * Queues a copy of {@code data} (taken now) to be saved on the writer thread. A queued save to the same file
+     * that has not started yet is dropped, as it would be overwritten anyway.
      * Creates the file if it is missing before saving.
+     * Held back while only part of the primary data file is loaded, see {@link #deferWhilePartlyLoaded}.
      * Raises FileSavingExceptionEvent if the file is not found or if there was an error during
      * saving or data conversion.
      */
     public void saveDataToFile(File file, ReadOnlyAddressBook data) {
+        if (deferWhilePartlyLoaded(file, () -> saveDataToFile(file, data))) return;
+        final StorageAddressBook snapshot = new StorageAddressBook(data);
+        writer.submit(file.getAbsoluteFile(), () -> writeDataToFile(file, snapshot));
+    }
+
+    private synchronized void writeDataToFile(File file, StorageAddressBook data) {
         try {
-            saveAddressBook(file, data);
+            if (isPrimaryDataFile(file)) {
+                saveSnapshot(data);
+            } else {
+                writeAtomically(file, data, DataFileFormat.XML);
+            }
         } catch (IOException | DataConversionException e) {
             raise(new FileSavingExceptionEvent(e, file));
         }
     }
 
+    /**
+     * Queues a copy of {@code data} (taken now) to be saved to the primary data file on the writer thread. Replaces
+     * any queued save of the primary data file that has not started yet.
+     *
+     * Only the differences between {@code data} and what is already saved are appended to the journal of the primary
+     * data file. The journal is folded into the data file in the background once it grows too big or too old.
+     * Saves the data file in full instead if what is already saved is not known (e.g. another file was loaded).
+     * Held back while only part of the primary data file is loaded, see {@link #deferWhilePartlyLoaded}.
+     * Raises FileSavingExceptionEvent if there was an error during saving.
+     */
+    public void saveChangesToJournal(ReadOnlyAddressBook data) {
+        if (deferWhilePartlyLoaded(saveFile, () -> saveChangesToJournal(data))) return;
+        final StorageAddressBook snapshot = new StorageAddressBook(data);
+        writer.submit(saveFile.getAbsoluteFile(), () -> writeChangesToJournal(snapshot));
+    }
+
+    /**
+     * A copy of data that holds only part of the primary data file would lose the rest when saved, so the save is
+     * kept (replacing any kept earlier for the same file) and requested again once the whole file is loaded, with
+     * {@code data} as it is by then. Nothing is saved if the rest of the file fails to load.
+     * @return true if the save was held back
+     */
+    private boolean deferWhilePartlyLoaded(File file, Runnable save) {
+        synchronized (deferredSaves) {
+            if (!isDataPartlyLoaded) return false;
+            logger.debug("Holding back save of {} until the data file is fully loaded", file);
+            deferredSaves.put(file.getAbsoluteFile(), save);
+            return true;
+        }
+    }
+
+    private synchronized void writeChangesToJournal(StorageAddressBook data) {
+        if (!persistedState.isKnown()) {
+            writeDataToFile(saveFile, data);
+            return;
+        }
+        try {
+            journal.append(persistedState.collectChanges(data));
+        } catch (IOException e) {
+            persistedState.reset(); // the journal may be incomplete, so save in full next time
+            raise(new FileSavingExceptionEvent(e, journal.getFile()));
+            return;
+        }
+        if (journal.size() > JOURNAL_COMPACTION_SIZE || journal.age() > JOURNAL_COMPACTION_AGE) {
+            compactJournal(data);
+        }
+    }
+
+    /**
+     * Writes {@code snapshot} as the new primary data file on a background thread, and then drops the journal
+     * entries up to now. Does nothing if a compaction is already in progress.
+     */
+    private void compactJournal(StorageAddressBook snapshot) {
+        if (!isCompacting.compareAndSet(false, true)) return;
+        logger.info("Compacting journal {} of size {} bytes", journal.getFile(), journal.size());
+
+        final int generation;
+        synchronized (snapshotLock) {
+            generation = snapshotGeneration;
+        }
+        try {
+            journal.startCompaction();
+        } catch (IOException e) {
+            isCompacting.set(false);
+            raise(new FileSavingExceptionEvent(e, journal.getFile()));
+            return;
+        }
+
+        compactionExecutor.execute(() -> {
+            try {
+                synchronized (snapshotLock) {
+                    if (generation != snapshotGeneration) return; // a newer full save already contains the changes
+                    writeAtomically(saveFile, snapshot, saveFileFormat);
+                    journal.finishCompaction();
+                    updatePersonIndex();
+                }
+            } catch (IOException | DataConversionException e) {
+                raise(new FileSavingExceptionEvent(e, saveFile));
+            } finally {
+                isCompacting.set(false);
+            }
+        });
+    }
+
+    /**
+     * Saves {@code data} in full as the primary data file, making its journal obsolete.
+     */
+    private void saveSnapshot(ReadOnlyAddressBook data) throws IOException, DataConversionException {
+        persistedState.reset();
+        synchronized (snapshotLock) {
+            snapshotGeneration++;
+            writeAtomically(saveFile, data, saveFileFormat);
+            journal.clear();
+            updatePersonIndex();
+        }
+        persistedState.set(data);
+    }
+
+    /**
+     * Rebuilds the {@link PersonIndex} of the primary data file, if it is in the binary format.
+     * A missing or stale index only makes the next startup slower, so errors are just logged.
+     */
+    private void updatePersonIndex() {
+        synchronized (snapshotLock) {
+            if (DataFileFormat.of(saveFile) != DataFileFormat.BINARY) return;
+            try {
+                PersonIndex.build(BinaryFileStorage.mapFile(saveFile)).save(PersonIndex.getIndexFile(saveFile));
+            } catch (IOException | DataConversionException e) {
+                logger.warn("Error updating person index of {}: {}", saveFile, e);
+            }
+        }
+    }
+
+    /**
+     * Writes to a temporary file first and then renames it, so that {@code file} is never left half-written.
+     */
+    private static void writeAtomically(File file, ReadOnlyAddressBook data, DataFileFormat format)
+            throws IOException, DataConversionException {
+        final File tempFile = new File(file.getPath() + TEMP_FILE_SUFFIX);
+        saveAddressBook(tempFile, data, format);
+        FileUtil.replaceFileAtomically(tempFile.toPath(), file.toPath());
+    }
+
+    private boolean isPrimaryDataFile(File file) {
+        return file.getAbsoluteFile().equals(saveFile.getAbsoluteFile());
+    }
+
     /**
      * Saves the address book data in the file specified.
+     * Records are written one at a time, without first copying the whole address book.
      */
     public static void saveAddressBook(File file, ReadOnlyAddressBook data) throws IOException,
                                                                                    DataConversionException {
+        saveAddressBook(file, data, DataFileFormat.XML);
+    }
+
+    /**
+     * Saves the address book data in the file specified, in the given format.
+     * Persons are written in rank order, so that the chunks of a later load come in the order they are shown in.
+     */
+    public static void saveAddressBook(File file, ReadOnlyAddressBook data, DataFileFormat format)
+            throws IOException, DataConversionException {
         FileUtil.createIfMissing(file);
-        XmlFileStorage.saveDataToFile(file, new StorageAddressBook(data));
+        format.save(file, StorageAddressBook.inRankOrder(data));
     }
 
     /**
@@ -202,8 +424,54 @@ public class StorageManager extends ComponentManager {
      * Loads the data from the local data file (based on user preferences).
      */
     public void start() {
+        start(() -> {});
+    }
+
+    /**
+     * Loads the data from the local data file (based on user preferences).
+     * Part of a large data file may still be loading on the writer thread when this returns.
+     * @param onDataLoaded run on the writer thread once all of the data file has been loaded
+     */
+    public void start(Runnable onDataLoaded) {
         logger.info("Starting storage manager.");
         initializeDataFile(saveFile);
+        writer.submit(onDataLoaded, onDataLoaded);
+    }
+
+    /**
+     * Completes all pending saves, so that the latest data is on disk before the application exits.
+     * Saves requested afterwards are done on the requesting thread.
+     */
+    public void stop() {
+        logger.info("Stopping storage manager. Saves: {}", writer.getStatistics());
+        try {
+            if (!writer.shutdown(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Pending saves did not complete within {} seconds", FLUSH_TIMEOUT_SECONDS);
+            }
+            compactionExecutor.shutdown();
+            compactionExecutor.awaitTermination(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            logger.warn("Interrupted while completing pending saves");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flushPendingSaves() {
+        try {
+            if (!writer.flush(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Pending saves did not complete within {} seconds", FLUSH_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            logger.warn("Interrupted while completing pending saves");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return save latency, coalescing and queue depth figures of the writer thread
+     */
+    public CoalescingWriter.Statistics getSaveStatistics() {
+        return writer.getStatistics();
     }
 
     protected void initializeDataFile(File dataFile) {
@@ -212,7 +480,7 @@ public class StorageManager extends ComponentManager {
         } catch (FileNotFoundException e) {
             logger.debug("File {} not found, attempting to create file with default data", dataFile);
             try {
-                saveAddressBook(saveFile, defaultDataSupplier.get());
+                saveSnapshot(defaultDataSupplier.get());
             } catch (DataConversionException | IOException e1) {
                 logger.fatal("Unable to initialize local data file with default data.");
                 assert false : "Unable to initialize local data file with default data.";
@@ -229,18 +497,210 @@ public class StorageManager extends ComponentManager {
         }
     }
 
+    /**
+     * The file may be in any {@link DataFileFormat}.
+     * Changes in the journal of the primary data file are applied on top of the data in it.
+     * Pending saves are completed first.
+     */
     protected void loadDataFromFile(File dataFile) throws FileNotFoundException {
+        flushPendingSaves();
+        synchronized (this) {
+            loadDataFromFileWithJournal(dataFile);
+        }
+    }
+
+    private void loadDataFromFileWithJournal(File dataFile) throws FileNotFoundException {
         try {
             logger.debug("Attempting to load data from file: {}", dataFile);
-            loadedDataCallback.accept(getData());
+            final boolean isPrimaryDataFile = isPrimaryDataFile(dataFile);
+            persistedState.reset();
+
+            final LoadedChunks loadedChunks = new LoadedChunks(isPrimaryDataFile);
+            final JournalReplay replay = new JournalReplay(isPrimaryDataFile ? readJournal() : new ArrayList<>(),
+                                                           loadedChunks);
+
+            if (loadedDataChunkCallback == null) {
+                final ReadOnlyAddressBook data = getData();
+                loadedChunks.release(true);
+                replay.accept(data);
+                replay.finish();
+            } else if (isPrimaryDataFile && DataFileFormat.of(dataFile) == DataFileFormat.BINARY) {
+                loadBinaryDataFile(dataFile, replay, loadedChunks);
+            } else {
+                final DataFileFormat format = DataFileFormat.of(dataFile);
+                loadCheckedFile(dataFile, consumer -> format.load(dataFile, LOAD_CHUNK_SIZE, consumer), replay,
+                                loadedChunks);
+            }
         } catch (DataConversionException e) {
             logger.debug("Error loading data from file: {}", e);
             raise(new FileOpeningExceptionEvent(e, dataFile));
         }
     }
 
+    /**
+     * Loads a file in chunks, see {@link DataFileFormat#load(File, int, Consumer)}
+     */
+    private interface ChunkedLoad {
+        void load(Consumer<? super ReadOnlyAddressBook> chunkConsumer)
+                throws FileNotFoundException, DataConversionException;
+    }
+
+    /**
+     * Reads the file twice: first only to check that all of it loads, dropping each chunk once read, and then to
+     * pass the chunks on as they are read. So a file that turns out to be corrupted halfway leaves the existing data
+     * (and what is known to be persisted) untouched, without holding the whole file in memory next to that data.
+     * Saves are held back until the chunks passed on have been added, see {@link #deferWhilePartlyLoaded}. If the
+     * second read fails anyway (e.g. the file was changed in between), the data stays partly loaded and is not saved.
+     */
+    private void loadCheckedFile(File dataFile, ChunkedLoad load, JournalReplay replay, LoadedChunks loadedChunks)
+            throws FileNotFoundException, DataConversionException {
+        load.load(chunk -> {});
+        final int generation = loadedChunks.release(false);
+        try {
+            load.load(replay);
+            replay.finish();
+        } catch (DataConversionException e) {
+            logger.warn("Only part of {} could be loaded, so changes will not be saved: {}", dataFile, e);
+            persistedState.reset();
+            raise(new FileOpeningExceptionEvent(e, dataFile));
+            return;
+        }
+        afterLoadedChunks.accept(() -> finishPartialLoad(generation));
+    }
+
+    /**
+     * Passes loaded chunks on as they are accepted: the first one to {@code loadedDataCallback} and the rest to
+     * {@code loadedDataChunkCallback}. Only accepts chunks after {@link #release}, which is called once the file is
+     * known to load, see {@link #loadCheckedFile}.
+     * The first screen of a large binary data file is passed on before the rest is read, see
+     * {@link #deferWhilePartlyLoaded}.
+     */
+    private class LoadedChunks implements Consumer<ReadOnlyAddressBook> {
+        private final boolean isPrimaryDataFile;
+        private boolean isReleased;
+        private boolean isFirstChunk;
+
+        {
+            isFirstChunk = true;
+        }
+
+        LoadedChunks(boolean isPrimaryDataFile) {
+            this.isPrimaryDataFile = isPrimaryDataFile;
+        }
+
+        /**
+         * Starts replacing the existing data with the chunks accepted from now on
+         * @param isComplete false if the chunks are still to be accepted, so that saves are held back until then
+         * @return the load generation of the data passed on
+         */
+        int release(boolean isComplete) {
+            isReleased = true;
+            synchronized (deferredSaves) {
+                deferredSaves.clear(); // they were for the data being replaced
+                isDataPartlyLoaded = !isComplete;
+                return ++loadGeneration;
+            }
+        }
+
+        @Override
+        public void accept(ReadOnlyAddressBook chunk) {
+            assert isReleased : "Chunk loaded before the file was checked";
+            if (isPrimaryDataFile) {
+                persistedState.add(chunk);
+            }
+            if (isFirstChunk) {
+                isFirstChunk = false;
+                loadedDataCallback.accept(chunk);
+            } else {
+                loadedDataChunkCallback.accept(chunk);
+            }
+        }
+    }
+
+    /**
+     * If the {@link PersonIndex} of the file is up to date, only the first screen of persons is decoded right away
+     * and the rest on the writer thread, so that saves queue up behind it. Otherwise the file is read in full and
+     * the index is rebuilt on the writer thread.
+     */
+    private void loadBinaryDataFile(File dataFile, JournalReplay replay, LoadedChunks loadedChunks)
+            throws FileNotFoundException, DataConversionException {
+        final ByteBuffer data;
+        try {
+            data = BinaryFileStorage.mapFile(dataFile);
+        } catch (IOException e) {
+            throw new DataConversionException(e);
+        }
+        final File indexFile = PersonIndex.getIndexFile(dataFile);
+        final PersonIndex index = PersonIndex.open(indexFile);
+        final boolean isIndexUpToDate = index != null && index.matches(data);
+
+        if (!isIndexUpToDate || index.getPersonCount() <= FIRST_SCREEN_SIZE) {
+            loadCheckedFile(dataFile, consumer -> BinaryFileStorage.loadData(data, LOAD_CHUNK_SIZE, consumer, 0),
+                            replay, loadedChunks);
+            if (!isIndexUpToDate) {
+                writer.submit(indexFile.getAbsoluteFile(), this::updatePersonIndex);
+            }
+            return;
+        }
+
+        logger.debug("Loading first {} of {} persons using index {}", FIRST_SCREEN_SIZE, index.getPersonCount(),
+                     indexFile);
+        final StorageAddressBook firstScreen = new StorageAddressBook(
+                BinaryFileStorage.loadPersons(data, index, 0, FIRST_SCREEN_SIZE),
+                BinaryFileStorage.loadTags(data, index));
+        final int generation = loadedChunks.release(false);
+        replay.acceptLeadingChunk(firstScreen);
+        writer.submit(data, () -> loadRemainingPersons(dataFile, data, replay, generation));
+    }
+
+    /**
+     * Saves held back in the meantime are requested again once the loaded persons have been added.
+     * If the rest fails to load, the data stays partly loaded and is not saved.
+     */
+    private synchronized void loadRemainingPersons(File dataFile, ByteBuffer data, JournalReplay replay,
+                                                   int generation) {
+        try {
+            // the tags came with the first screen
+            BinaryFileStorage.loadData(data, LOAD_CHUNK_SIZE,
+                                       chunk -> replay.accept(StorageAddressBook.withoutTags(chunk)),
+                                       FIRST_SCREEN_SIZE);
+            replay.finish();
+        } catch (DataConversionException e) {
+            logger.warn("Only part of {} could be loaded, so changes will not be saved: {}", dataFile, e);
+            persistedState.reset();
+            raise(new FileOpeningExceptionEvent(e, dataFile));
+            return;
+        }
+        afterLoadedChunks.accept(() -> finishPartialLoad(generation));
+    }
+
+    /**
+     * Requests the saves that were held back while the data of the given load generation was partly loaded,
+     * unless other data has been loaded since.
+     */
+    private void finishPartialLoad(int generation) {
+        final List<Runnable> saves;
+        synchronized (deferredSaves) {
+            if (generation != loadGeneration) return;
+            isDataPartlyLoaded = false;
+            saves = new ArrayList<>(deferredSaves.values());
+            deferredSaves.clear();
+        }
+        saves.forEach(Runnable::run);
+    }
+
+    private List<ChangeJournal.Entry> readJournal() throws DataConversionException {
+        try {
+            final List<ChangeJournal.Entry> entries = journal.readEntries();
+            logger.debug("Replaying {} entries from journal {}", entries.size(), journal.getFile());
+            return entries;
+        } catch (IOException e) {
+            throw new DataConversionException(e);
+        }
+    }
+
     public ReadOnlyAddressBook getData() throws FileNotFoundException, DataConversionException {
         logger.debug("Attempting to read data from file: {}", saveFile);
-        return XmlFileStorage.loadDataFromSaveFile(saveFile);
+        return DataFileFormat.of(saveFile).load(saveFile);
     }
 }
@@ -39,6 +39,8 @@ public class StoragePerson implements ReadOnlyPerson {
     private LocalDate birthday;
     @XmlElement
     private List<Tag> tags;
+    @XmlElement
+    private String rank;
 
     {
         tags = new ArrayList<>();
@@ -49,6 +51,23 @@ public class StoragePerson implements ReadOnlyPerson {
      */
     public StoragePerson() {}
 
+    /**
+     * for decoding, takes ownership of {@code tags}
+     */
+    StoragePerson(int id, String firstName, String lastName, String githubUsername, String street,
+                  String postalCode, String city, LocalDate birthday, List<Tag> tags, String rank) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.githubUsername = githubUsername;
+        this.street = street;
+        this.postalCode = postalCode;
+        this.city = city;
+        this.birthday = birthday;
+        this.tags = tags;
+        this.rank = rank;
+    }
+
     /**
      * for conversion
      */
@@ -62,6 +81,7 @@ public class StoragePerson implements ReadOnlyPerson {
         city = src.getCity();
         birthday = src.getBirthday();
         tags.addAll(src.getTagList());
+        rank = src.getRank();
     }
     
     @Override
@@ -107,4 +127,9 @@ public class StoragePerson implements ReadOnlyPerson {
     public List<Tag> getTagList() {
         return Collections.unmodifiableList(tags);
     }
+
+    @Override
+    public String getRank() {
+        return rank;
+    }
 }
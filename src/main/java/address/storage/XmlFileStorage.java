@@ -1,16 +1,44 @@
 package address.storage;
 
 import address.exceptions.DataConversionException;
+import address.model.datatypes.ReadOnlyAddressBook;
+import address.model.datatypes.person.ReadOnlyPerson;
+import address.model.datatypes.tag.Tag;
+import commons.FileUtil;
 import commons.XmlUtil;
 
+import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
-import java.io.File;
-import java.io.FileNotFoundException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Stores addressbook data in an XML file
  */
 public class XmlFileStorage {
+    private static final String ENCODING = "UTF-8";
+    private static final String ROOT_ELEMENT = "addressbook";
+    private static final String PERSON_ELEMENT = "persons";
+    private static final String TAG_ELEMENT = "tags";
+
+    private static final XMLInputFactory inputFactory = XMLInputFactory.newFactory();
+    private static final XMLOutputFactory outputFactory = XMLOutputFactory.newFactory();
+
+    static {
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
     /**
      * Saves the given addressbook data to the specified file.
      */
@@ -35,4 +63,95 @@ public class XmlFileStorage {
         }
     }
 
+    /**
+     * Saves the given addressbook data to the specified file one record at a time, in the same format as
+     * {@link #saveDataToFile(File, StorageAddressBook)}. Each person is converted to a {@link StoragePerson} only
+     * while it is being written, so no full copy of the address book is made.
+     * The data is forced to disk before returning.
+     *
+     * @throws FileNotFoundException if the file is missing
+     */
+    public static void streamDataToFile(File file, ReadOnlyAddressBook addressBook)
+            throws DataConversionException, IOException {
+        if (!file.exists()) {
+            throw new FileNotFoundException("File not found : " + file.getAbsolutePath());
+        }
+
+        try (FileOutputStream fileOut = new FileOutputStream(file);
+             OutputStream out = new BufferedOutputStream(fileOut)) {
+            final XMLStreamWriter writer = outputFactory.createXMLStreamWriter(out, ENCODING);
+            final Marshaller m = XmlUtil.getContext(StorageAddressBook.class).createMarshaller();
+            m.setProperty(Marshaller.JAXB_FRAGMENT, true);
+
+            writer.writeStartDocument(ENCODING, "1.0");
+            writer.writeStartElement(ROOT_ELEMENT);
+            for (ReadOnlyPerson person : addressBook.getPersonList()) {
+                m.marshal(new JAXBElement<>(new QName(PERSON_ELEMENT), StoragePerson.class,
+                                            new StoragePerson(person)), writer);
+            }
+            for (Tag tag : addressBook.getTagList()) {
+                m.marshal(new JAXBElement<>(new QName(TAG_ELEMENT), Tag.class, tag), writer);
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+            out.flush();
+            fileOut.getFD().sync();
+        } catch (JAXBException | XMLStreamException e) {
+            throw new DataConversionException(e);
+        }
+    }
+
+    /**
+     * Reads the address book in the file one record at a time and hands the records to {@code chunkConsumer} in
+     * chunks of at most {@code chunkSize} persons. All tags are handed over together in the last chunk.
+     * At least one (possibly empty) chunk is always given to the consumer.
+     *
+     * @throws FileNotFoundException if the file is missing
+     * @throws DataConversionException if the file is empty or does not have the correct format
+     */
+    public static void loadDataFromSaveFile(File file, int chunkSize,
+                                            Consumer<? super ReadOnlyAddressBook> chunkConsumer)
+            throws DataConversionException, FileNotFoundException {
+        assert chunkSize > 0;
+        if (!FileUtil.isFileExists(file)) {
+            throw new FileNotFoundException("File not found : " + file.getAbsolutePath());
+        }
+
+        List<StoragePerson> persons = new ArrayList<>();
+        final List<Tag> tags = new ArrayList<>();
+        boolean hasGivenChunk = false;
+
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            final XMLStreamReader reader = inputFactory.createXMLStreamReader(in, ENCODING);
+            final Unmarshaller um = XmlUtil.getContext(StorageAddressBook.class).createUnmarshaller();
+
+            reader.nextTag(); // root element
+            while (reader.hasNext()) {
+                if (!reader.isStartElement()) {
+                    reader.next();
+                } else if (PERSON_ELEMENT.equals(reader.getLocalName())) {
+                    // unmarshalling moves the reader past the end of this element
+                    persons.add(um.unmarshal(reader, StoragePerson.class).getValue());
+                    if (persons.size() == chunkSize) {
+                        chunkConsumer.accept(new StorageAddressBook(persons, new ArrayList<>()));
+                        hasGivenChunk = true;
+                        persons = new ArrayList<>();
+                    }
+                } else if (TAG_ELEMENT.equals(reader.getLocalName())) {
+                    tags.add(um.unmarshal(reader, Tag.class).getValue());
+                } else {
+                    reader.next();
+                }
+            }
+            reader.close();
+        } catch (JAXBException | XMLStreamException | IOException e) {
+            throw new DataConversionException(e);
+        }
+
+        if (!persons.isEmpty() || !tags.isEmpty() || !hasGivenChunk) {
+            chunkConsumer.accept(new StorageAddressBook(persons, tags));
+        }
+    }
+
 }
@@ -8,10 +8,13 @@ import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public interface IRemoteService {
     // Consumes API quota
     ExtractedRemoteResponse<List<Person>> getPersons(String addressBookName, int pageNumber) throws IOException;
+    ExtractedRemoteResponse<List<Person>> getPersons(String addressBookName, int pageNumber, String previousETag)
+            throws IOException;
 
     ExtractedRemoteResponse<List<Tag>> getTags(String addressBookName, int pageNumber, String previousETag)
             throws IOException;
@@ -20,6 +23,13 @@ public interface IRemoteService {
     ExtractedRemoteResponse<Person> updatePerson(String addressBookName, int personId, ReadOnlyPerson updatedPerson)
             throws IOException;
     ExtractedRemoteResponse<Void> deletePerson(String addressBookName, int personId) throws IOException;
+    ExtractedRemoteResponse<List<Person>> createPersons(String addressBookName, List<ReadOnlyPerson> persons)
+            throws IOException;
+    ExtractedRemoteResponse<Map<Integer, Person>> updatePersons(String addressBookName,
+                                                                Map<Integer, ReadOnlyPerson> updatedPersons)
+            throws IOException;
+    ExtractedRemoteResponse<List<Integer>> deletePersons(String addressBookName, List<Integer> personIds)
+            throws IOException;
 
     ExtractedRemoteResponse<Tag> createTag(String addressBookName, Tag tag) throws IOException;
     ExtractedRemoteResponse<Tag> editTag(String addressBookName, String oldTagName, Tag newTag) throws IOException;
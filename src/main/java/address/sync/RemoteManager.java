@@ -8,12 +8,13 @@ import address.util.AppLogger;
 import address.util.LoggerManager;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.HttpURLConnection;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class is meant to abstract away the details for making requests to the remote
@@ -23,82 +24,137 @@ import java.util.Optional;
 public class RemoteManager {
     private static final AppLogger logger = LoggerManager.getLogger(RemoteManager.class);
 
+    private static final int MAX_CONCURRENT_PAGE_REQUESTS = 8;
+    private static final int MAX_PAGE_ATTEMPTS = 3;
+
     private final RemoteService remoteService;
+    private final ThreadPoolExecutor pageRequestExecutor;
 
     private HashMap<String, LastUpdate<Tag>> updateInformation;
+    private HashMap<String, LastUpdate<Person>> personUpdateInformation;
     private LocalDateTime personLastUpdatedAt;
 
+    private final AtomicLong responseCount;
+    private final AtomicLong notModifiedCount;
+    private ExtractedRemoteResponse<?> lastQuotaResponse;
+
+    /**
+     * Requests a page of resources, e.g. of persons from an address book
+     */
+    @FunctionalInterface
+    private interface PageRequest<V> {
+        ExtractedRemoteResponse<V> request(int pageNumber) throws IOException;
+    }
+
     public RemoteManager(IRemote remote) {
-        updateInformation = new HashMap<>();
-        remoteService = new RemoteService(remote);
+        this(new RemoteService(remote));
     }
 
     public RemoteManager(RemoteService remoteService) {
         updateInformation = new HashMap<>();
+        personUpdateInformation = new HashMap<>();
+        responseCount = new AtomicLong(0);
+        notModifiedCount = new AtomicLong(0);
         this.remoteService = remoteService;
+        AtomicInteger threadCounter = new AtomicInteger(0);
+        pageRequestExecutor = new ThreadPoolExecutor(MAX_CONCURRENT_PAGE_REQUESTS, MAX_CONCURRENT_PAGE_REQUESTS,
+                                                     1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "Remote page request " + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pageRequestExecutor.allowCoreThreadTimeOut(true);
     }
 
     /**
      * Attempts to get the list of updated persons since the last update, if it exists
      * Else simply attempts to get the full list of persons
      *
+     * The pages after the first are requested concurrently, see {@link #getPages(PageRequest, int)}
+     *
+     * Each page is requested with the ETag it had in the last successful request, and is skipped if the remote
+     * responds that it is not modified, as its persons were all received then. Such a response uses no quota and has
+     * no body to deserialize. Trailing empty pages are not remembered, so that the number of pages requested shrinks
+     * back with the listing.
+     *
      * @param addressBookName
      * @return full list of persons since the last known request if request was successful
      * @throws IOException
      */
     public Optional<List<Person>> getUpdatedPersons(String addressBookName) throws IOException {
-        ExtractedRemoteResponse<List<Person>> response;
+        final LocalDateTime updatedSince = personLastUpdatedAt;
+        logger.info("Getting updated persons from remote.");
+        if (updatedSince == null) {
+            logger.debug("No previous update found, retrieving all pages.");
+        } else {
+            logger.debug("Last updated time found: {}", updatedSince);
+        }
+        // may have problems if persons have been updated at the same second of the update request, since they can
+        // move to a page that has already been retrieved
+        int prevPageCount = getLastUpdatedPageCount(personUpdateInformation, addressBookName);
+        List<ExtractedRemoteResponse<List<Person>>> responses = getPages(curPage -> {
+            Optional<String> lastETag = getLastUpdate(personUpdateInformation, addressBookName, curPage);
+            if (updatedSince != null) {
+                return remoteService.getUpdatedPersonsSince(addressBookName, curPage, updatedSince,
+                                                            lastETag.orElse(null));
+            }
+            if (lastETag.isPresent()) return remoteService.getPersons(addressBookName, curPage, lastETag.get());
+            return remoteService.getPersons(addressBookName, curPage);
+        }, prevPageCount);
 
         List<Person> personList = new ArrayList<>();
+        LastUpdate<Person> lastUpdateInfo = new LastUpdate<>();
         int curPage = 1;
-        logger.info("Getting updated persons from remote.");
-        do {
-            if (personLastUpdatedAt == null) {
-                logger.debug("No previous update found, retrieving page {}", curPage);
-                response = remoteService.getPersons(addressBookName, curPage);
-            } else {
-                logger.debug("Last updated time for page {} found: {}", curPage, personLastUpdatedAt);
-                response = remoteService.getUpdatedPersonsSince(addressBookName, curPage, personLastUpdatedAt, null);
-            }
-            if (!response.getData().isPresent()) {
-                logger.debug("No data found from response, terminating paged requests.");
+        for (ExtractedRemoteResponse<List<Person>> response : responses) {
+            Optional<String> lastETag = getLastUpdate(personUpdateInformation, addressBookName, curPage);
+            if (response.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED && lastETag.isPresent()) {
+                logger.debug("Page {} not modified, skipping.", curPage);
+                lastUpdateInfo.setUpdate(curPage, lastETag.get(), null);
+            } else if (!response.getData().isPresent()) {
+                logger.debug("No data found from response, discarding paged requests.");
                 return Optional.empty();
+            } else {
+                if (curPage == 1 || !response.getData().get().isEmpty()) {
+                    lastUpdateInfo.setUpdate(curPage, response.getETag(), null);
+                }
+                personList.addAll(response.getData().get());
             }
-            personList.addAll(response.getData().get());
             curPage++;
-        } while (response.getNextPage() != 0); // may have problems if RESOURCES_PER_PAGE issues have been updated at
-                                               // the same second of the update request, since the second page will
-                                               // never be requested, and first page will always remain the same
+        }
         logger.info("{} updated persons.", personList.size());
         personLastUpdatedAt = LocalDateTime.now();
+        lastUpdateInfo.setLastUpdatedAt(personLastUpdatedAt);
+        personUpdateInformation.put(addressBookName, lastUpdateInfo);
         return Optional.of(personList);
     }
 
     /**
      * Returns the full list of updated tags
      *
+     * The pages after the first are requested concurrently, see {@link #getPages(PageRequest, int)}
+     *
      * @param addressBookName
      * @return full list of tags if request was successful and there were updates
      * @throws IOException
      */
     public Optional<List<Tag>> getLatestTagList(String addressBookName) throws IOException {
-        ExtractedRemoteResponse<List<Tag>> response;
-
         List<Tag> tagList = new ArrayList<>();
         LastUpdate<Tag> lastUpdateInfo = new LastUpdate<>();
-        int curPage = 1;
         int prevPageCount = getLastUpdatedPageCount(updateInformation, addressBookName);
         logger.info("Getting tags list from remote.");
-        do {
+        // does not handle the case moving from a fully-filled last page -> a page with new tags
+        List<ExtractedRemoteResponse<List<Tag>>> responses = getPages(curPage -> {
             Optional<String> lastETag = getLastUpdate(updateInformation, addressBookName, curPage);
             if (lastETag.isPresent()) {
                 logger.debug("Last eTag for page {} found: {}", curPage, lastETag.get());
-                response = remoteService.getTags(addressBookName, curPage, lastETag.get());
-            } else {
-                logger.debug("No previous eTag for page {} found.", curPage);
-                response = remoteService.getTags(addressBookName, curPage, null);
+                return remoteService.getTags(addressBookName, curPage, lastETag.get());
             }
-            
+            logger.debug("No previous eTag for page {} found.", curPage);
+            return remoteService.getTags(addressBookName, curPage, null);
+        }, prevPageCount - 1);
+
+        int curPage = 1;
+        for (ExtractedRemoteResponse<List<Tag>> response : responses) {
             if (response.getData().isPresent()) {
                 logger.debug("New tags for page {} found: {}", curPage, response.getData().get());
                 lastUpdateInfo.setUpdate(curPage, response.getETag(), response.getData().get());
@@ -110,9 +166,7 @@ public class RemoteManager {
                 tagList.addAll(previousUpdateList.get());
             }
             curPage++;
-        } while (response.getNextPage() != 0 || curPage < prevPageCount); // does not handle the case moving from a
-                                                                          // fully-filled last page ->
-                                                                          // a page with new tags
+        }
         lastUpdateInfo.setLastUpdatedAt(LocalDateTime.now());
         updateInformation.put(addressBookName, lastUpdateInfo);
         
@@ -128,7 +182,7 @@ public class RemoteManager {
      * @throws IOException
      */
     public Optional<Person> createPerson(String addressBookName, ReadOnlyPerson person) throws IOException {
-        ExtractedRemoteResponse<Person> response = remoteService.createPerson(addressBookName, person);
+        ExtractedRemoteResponse<Person> response = recordResponse(remoteService.createPerson(addressBookName, person));
         logger.warn("Create person on remote request response code : " + response.getResponseCode());
         return response.getData();
     }
@@ -142,7 +196,7 @@ public class RemoteManager {
      * @throws IOException
      */
     public Optional<Tag> createTag(String addressBookName, Tag tag) throws IOException {
-        ExtractedRemoteResponse<Tag> response = remoteService.createTag(addressBookName, tag);
+        ExtractedRemoteResponse<Tag> response = recordResponse(remoteService.createTag(addressBookName, tag));
         return response.getData();
     }
 
@@ -156,7 +210,8 @@ public class RemoteManager {
      */
     public Optional<Person> updatePerson(String addressBookName, int personId, ReadOnlyPerson updatedPerson)
             throws IOException {
-        ExtractedRemoteResponse<Person> response = remoteService.updatePerson(addressBookName, personId, updatedPerson);
+        ExtractedRemoteResponse<Person> response = recordResponse(remoteService.updatePerson(addressBookName, personId,
+                                                                                             updatedPerson));
         logger.warn("Update person on remote request response code : " + response.getResponseCode());
         return response.getData();
     }
@@ -170,7 +225,8 @@ public class RemoteManager {
      * @throws IOException
      */
     public Optional<Tag> editTag(String addressBookName, String tagName, Tag editedTag) throws IOException {
-        ExtractedRemoteResponse<Tag> response = remoteService.editTag(addressBookName, tagName, editedTag);
+        ExtractedRemoteResponse<Tag> response = recordResponse(remoteService.editTag(addressBookName, tagName,
+                                                                                     editedTag));
         return response.getData();
     }
 
@@ -182,7 +238,7 @@ public class RemoteManager {
      * @throws IOException
      */
     public boolean deleteTag(String addressBookName, String tagName) throws IOException {
-        ExtractedRemoteResponse<Void> response = remoteService.deleteTag(addressBookName, tagName);
+        ExtractedRemoteResponse<Void> response = recordResponse(remoteService.deleteTag(addressBookName, tagName));
         return response.getResponseCode() == HttpURLConnection.HTTP_NO_CONTENT;
     }
 
@@ -194,7 +250,7 @@ public class RemoteManager {
      * @throws IOException
      */
     public boolean deletePerson(String addressBookName, int personId) throws IOException {
-        ExtractedRemoteResponse<Void> response = remoteService.deletePerson(addressBookName, personId);
+        ExtractedRemoteResponse<Void> response = recordResponse(remoteService.deletePerson(addressBookName, personId));
         if (response.getResponseCode() == HttpURLConnection.HTTP_NO_CONTENT) {
             return true;
         }
@@ -202,6 +258,57 @@ public class RemoteManager {
         return false;
     }
 
+    /**
+     * Attempts to create persons on the remote in one request
+     *
+     * @param addressBookName
+     * @param persons
+     * @return Resulting persons in the order given, with null for those not created, if the request is successful
+     * @throws IOException
+     */
+    public Optional<List<Person>> createPersons(String addressBookName, List<ReadOnlyPerson> persons)
+            throws IOException {
+        ExtractedRemoteResponse<List<Person>> response = recordResponse(remoteService.createPersons(addressBookName,
+                                                                                                    persons));
+        logger.debug("Create {} persons on remote request response code : {}", persons.size(),
+                     response.getResponseCode());
+        return response.getData();
+    }
+
+    /**
+     * Attempts to update persons on the remote in one request
+     *
+     * @param addressBookName
+     * @param updatedPersons updated persons by the ids of the persons to be updated
+     * @return Resulting persons by id, without those not updated, if the request is successful
+     * @throws IOException
+     */
+    public Optional<Map<Integer, Person>> updatePersons(String addressBookName,
+                                                        Map<Integer, ReadOnlyPerson> updatedPersons)
+            throws IOException {
+        ExtractedRemoteResponse<Map<Integer, Person>> response = recordResponse(remoteService.updatePersons(
+                addressBookName, updatedPersons));
+        logger.debug("Update {} persons on remote request response code : {}", updatedPersons.size(),
+                     response.getResponseCode());
+        return response.getData();
+    }
+
+    /**
+     * Attempts to delete persons on the remote in one request
+     *
+     * @param addressBookName
+     * @param personIds
+     * @return Ids of the persons deleted, if the request is successful
+     * @throws IOException
+     */
+    public Optional<List<Integer>> deletePersons(String addressBookName, List<Integer> personIds) throws IOException {
+        ExtractedRemoteResponse<List<Integer>> response = recordResponse(remoteService.deletePersons(addressBookName,
+                                                                                                    personIds));
+        logger.debug("Delete {} persons on remote request response code : {}", personIds.size(),
+                     response.getResponseCode());
+        return response.getData();
+    }
+
     /**
      * Attempts to create an addressbook on the remote
      * @param addressBookName
@@ -209,10 +316,49 @@ public class RemoteManager {
      * @throws IOException
      */
     public boolean createAddressBook(String addressBookName) throws IOException {
-        ExtractedRemoteResponse<Void> response  = remoteService.createAddressBook(addressBookName);
+        ExtractedRemoteResponse<Void> response  = recordResponse(remoteService.createAddressBook(addressBookName));
         return response.getResponseCode() == HttpURLConnection.HTTP_CREATED;
     }
 
+    /**
+     * @return the number of responses received from the remote so far that used API quota
+     */
+    public long getResponseCount() {
+        return responseCount.get();
+    }
+
+    /**
+     * @return the number of responses so far that a requested resource was not modified, which used no API quota
+     */
+    public long getNotModifiedCount() {
+        return notModifiedCount.get();
+    }
+
+    /**
+     * @return the latest response giving the remote's quota, of which only the X-RateLimit values should be used
+     */
+    public synchronized Optional<ExtractedRemoteResponse<?>> getLastQuotaResponse() {
+        return Optional.ofNullable(lastQuotaResponse);
+    }
+
+    /**
+     * Counts a response and keeps it if it gives the latest quota. Of responses from the same quota period, which
+     * may arrive out of order, the one with the least quota remaining is the latest.
+     */
+    private synchronized <V> ExtractedRemoteResponse<V> recordResponse(ExtractedRemoteResponse<V> response) {
+        if (response.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            notModifiedCount.incrementAndGet();
+        } else {
+            responseCount.incrementAndGet();
+        }
+        if (response.getQuotaLimit() == 0 || response.getQuotaResetTime() == null) return response;
+        if (lastQuotaResponse == null || !response.getQuotaResetTime().equals(lastQuotaResponse.getQuotaResetTime())
+                || response.getQuotaRemaining() < lastQuotaResponse.getQuotaRemaining()) {
+            lastQuotaResponse = response;
+        }
+        return response;
+    }
+
     private <T> int getLastUpdatedPageCount(HashMap<String, LastUpdate<T>> updateInformation, String addressBookName) {
         if (!updateInformation.containsKey(addressBookName)) return 0;
         return updateInformation.get(addressBookName).getETagCount();
@@ -224,4 +370,100 @@ public class RemoteManager {
         LastUpdate<T> lastUpdateInformation = updateInformation.get(addressBookName);
         return lastUpdateInformation.getETag(pageNo);
     }
+
+    /**
+     * Requests the first page, then the pages up to the last page it gives concurrently, as many at a time as the
+     * remaining quota allows but at most MAX_CONCURRENT_PAGE_REQUESTS. Pages past the last one given are requested
+     * after those, if the remote has more pages by then.
+     *
+     * @param pageRequest
+     * @param minLastPage the page to request up to even if the responses give no later page
+     * @return the responses in page order
+     * @throws IOException if a page could not be requested even after retrying it
+     */
+    private <V> List<ExtractedRemoteResponse<V>> getPages(PageRequest<V> pageRequest, int minLastPage)
+            throws IOException {
+        List<ExtractedRemoteResponse<V>> responses = new ArrayList<>();
+        responses.add(requestPage(pageRequest, 1));
+        ExtractedRemoteResponse<V> latestResponse = responses.get(0);
+        while (latestResponse.getNextPage() != 0 || responses.size() < minLastPage) {
+            int nextPage = responses.size() + 1;
+            int lastPage = Math.max(Math.max(minLastPage, nextPage),
+                                    Math.max(latestResponse.getLastPage(), latestResponse.getNextPage()));
+            responses.addAll(requestPagesConcurrently(pageRequest, nextPage, lastPage,
+                                                      latestResponse.getQuotaRemaining()));
+            latestResponse = responses.get(responses.size() - 1);
+        }
+        return responses;
+    }
+
+    /**
+     * Requests the pages from firstPage to lastPage on the page request executor, keeping as many of them in flight as
+     * the quota remaining in the latest response allows
+     *
+     * @return the responses in page order
+     */
+    private <V> List<ExtractedRemoteResponse<V>> requestPagesConcurrently(PageRequest<V> pageRequest, int firstPage,
+                                                                         int lastPage, int quotaRemaining)
+            throws IOException {
+        logger.debug("Requesting pages {} to {}, quota remaining {}", firstPage, lastPage, quotaRemaining);
+        List<ExtractedRemoteResponse<V>> responses = new ArrayList<>(Collections.nCopies(lastPage - firstPage + 1,
+                                                                                         null));
+        CompletionService<ExtractedRemoteResponse<V>> completionService =
+                new ExecutorCompletionService<>(pageRequestExecutor);
+        Map<Future<ExtractedRemoteResponse<V>>, Integer> pendingPages = new HashMap<>();
+        int nextPage = firstPage;
+        try {
+            while (nextPage <= lastPage || !pendingPages.isEmpty()) {
+                while (nextPage <= lastPage && pendingPages.size() < getConcurrentPageRequestLimit(quotaRemaining)) {
+                    final int page = nextPage++;
+                    pendingPages.put(completionService.submit(() -> requestPage(pageRequest, page)), page);
+                }
+                Future<ExtractedRemoteResponse<V>> completed = completionService.take();
+                ExtractedRemoteResponse<V> response = completed.get();
+                responses.set(pendingPages.remove(completed) - firstPage, response);
+                quotaRemaining = response.getQuotaRemaining();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while requesting pages");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException("Error requesting pages", e.getCause());
+        } finally {
+            pendingPages.keySet().forEach(pending -> pending.cancel(true));
+        }
+        return responses;
+    }
+
+    private int getConcurrentPageRequestLimit(int quotaRemaining) {
+        return Math.max(1, Math.min(MAX_CONCURRENT_PAGE_REQUESTS, quotaRemaining));
+    }
+
+    /**
+     * Requests a page, requesting it again up to MAX_PAGE_ATTEMPTS times in all if it fails in a way that may not
+     * happen again, so that one failed page does not fail the others
+     *
+     * @return the response of the last attempt
+     * @throws IOException if the last attempt failed with one
+     */
+    private <V> ExtractedRemoteResponse<V> requestPage(PageRequest<V> pageRequest, int pageNumber)
+            throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                ExtractedRemoteResponse<V> response = recordResponse(pageRequest.request(pageNumber));
+                if (!isRetryable(response.getResponseCode()) || attempt == MAX_PAGE_ATTEMPTS) return response;
+                logger.debug("Request for page {} failed with response code {}, retrying.", pageNumber,
+                             response.getResponseCode());
+            } catch (IOException e) {
+                if (attempt == MAX_PAGE_ATTEMPTS) throw e;
+                logger.debug("Request for page {} failed: {}, retrying.", pageNumber, e.getMessage());
+            }
+        }
+    }
+
+    private boolean isRetryable(int responseCode) {
+        return responseCode == HttpURLConnection.HTTP_CLIENT_TIMEOUT
+                || responseCode >= HttpURLConnection.HTTP_INTERNAL_ERROR;
+    }
 }
@@ -0,0 +1,307 @@
+package address.sync;
+
+import address.exceptions.SyncErrorException;
+import address.model.datatypes.person.Person;
+import address.model.datatypes.person.ReadOnlyPerson;
+import address.sync.task.*;
+import address.util.AppLogger;
+import address.util.LoggerManager;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Makes the person creations, updates and deletions requested on the remote in batches, so that many of them cost a
+ * few requests and API usages instead of one each.
+ *
+ * Requests are sent by one sender at a time: when nothing is being sent, a new request is sent right away, and the
+ * requests made while a batch is being sent wait to go together in the next batch, in requests of up to
+ * MAX_BATCH_SIZE persons. Updates to a person already waiting to be updated are coalesced into the latest one, whose
+ * result is given to all their requesters. Within a batch, creations are sent first, then updates, then deletions, so
+ * an update requested after a deletion of the same person waits for a later batch.
+ *
+ * A batch of one person is sent with the request for a single person. Each requester's result container is completed
+ * with the result for its person, or exceptionally if the request failed or the person was not found.
+ */
+public class RemoteRequestBatcher {
+    private static final AppLogger logger = LoggerManager.getLogger(RemoteRequestBatcher.class);
+    static final int MAX_BATCH_SIZE = 100;
+
+    private final RemoteManager remoteManager;
+    private final Executor requestExecutor;
+    private final Deque<Batch> pendingBatches; // in the order to be sent
+    private boolean isSending;
+
+    // Batching metrics
+    private long requestedCount;
+    private long coalescedCount;
+    private long remoteCallCount;
+
+    /**
+     * The creations, updates and deletions waiting to be sent for an address book
+     */
+    private static class Batch {
+        private final String addressBookName;
+        private final List<ReadOnlyPerson> creations = new ArrayList<>();
+        private final List<CompletableFuture<ReadOnlyPerson>> creationResults = new ArrayList<>();
+        private final Map<Integer, ReadOnlyPerson> updates = new LinkedHashMap<>();
+        private final Map<Integer, List<CompletableFuture<ReadOnlyPerson>>> updateResults = new HashMap<>();
+        private final Map<Integer, List<CompletableFuture<Boolean>>> deletionResults = new LinkedHashMap<>();
+
+        private Batch(String addressBookName) {
+            this.addressBookName = addressBookName;
+        }
+
+        private int size() {
+            return creations.size() + updates.size() + deletionResults.size();
+        }
+    }
+
+    {
+        pendingBatches = new ArrayDeque<>();
+    }
+
+    /**
+     * @param requestExecutor runs the sender, which makes requests one after another while there are batches to send
+     */
+    public RemoteRequestBatcher(RemoteManager remoteManager, Executor requestExecutor) {
+        this.remoteManager = remoteManager;
+        this.requestExecutor = requestExecutor;
+    }
+
+    public synchronized void createPerson(String addressBookName, ReadOnlyPerson person,
+                                          CompletableFuture<ReadOnlyPerson> resultContainer) {
+        Batch batch = getBatch(addressBookName);
+        batch.creations.add(person);
+        batch.creationResults.add(resultContainer);
+        requested();
+    }
+
+    public synchronized void updatePerson(String addressBookName, int personId, ReadOnlyPerson updatedPerson,
+                                          CompletableFuture<ReadOnlyPerson> resultContainer) {
+        Batch batch = getBatch(addressBookName);
+        if (batch.deletionResults.containsKey(personId)) {
+            batch = new Batch(addressBookName);
+            pendingBatches.add(batch);
+        }
+        if (batch.updates.put(personId, updatedPerson) != null) coalescedCount++;
+        batch.updateResults.computeIfAbsent(personId, id -> new ArrayList<>()).add(resultContainer);
+        requested();
+    }
+
+    public synchronized void deletePerson(String addressBookName, int personId,
+                                          CompletableFuture<Boolean> resultContainer) {
+        List<CompletableFuture<Boolean>> results = getBatch(addressBookName).deletionResults
+                .computeIfAbsent(personId, id -> new ArrayList<>());
+        if (!results.isEmpty()) coalescedCount++;
+        results.add(resultContainer);
+        requested();
+    }
+
+    /**
+     * @return the last batch waiting to be sent for the address book, a new one if there is none
+     */
+    private Batch getBatch(String addressBookName) {
+        Iterator<Batch> fromLast = pendingBatches.descendingIterator();
+        while (fromLast.hasNext()) {
+            Batch batch = fromLast.next();
+            if (batch.addressBookName.equals(addressBookName)) return batch;
+        }
+        Batch batch = new Batch(addressBookName);
+        pendingBatches.add(batch);
+        return batch;
+    }
+
+    private void requested() {
+        requestedCount++;
+        if (isSending) return;
+        isSending = true;
+        requestExecutor.execute(this::sendPendingBatches);
+    }
+
+    private void sendPendingBatches() {
+        while (true) {
+            Batch batch;
+            synchronized (this) {
+                batch = pendingBatches.poll();
+                if (batch == null) {
+                    isSending = false;
+                    return;
+                }
+            }
+            logger.debug("Sending batch of {} persons for {}", batch.size(), batch.addressBookName);
+            sendCreations(batch);
+            sendUpdates(batch);
+            sendDeletions(batch);
+        }
+    }
+
+    private void sendCreations(Batch batch) {
+        if (batch.creations.size() == 1) {
+            complete(batch.creationResults.get(0),
+                     new CreatePersonOnRemoteTask(remoteManager, batch.addressBookName, batch.creations.get(0)));
+            return;
+        }
+        for (int from = 0; from < batch.creations.size(); from += MAX_BATCH_SIZE) {
+            int to = Math.min(batch.creations.size(), from + MAX_BATCH_SIZE);
+            List<CompletableFuture<ReadOnlyPerson>> results = batch.creationResults.subList(from, to);
+            try {
+                List<Person> createdPersons = call(new CreatePersonsOnRemoteTask(
+                        remoteManager, batch.addressBookName, new ArrayList<>(batch.creations.subList(from, to))));
+                for (int i = 0; i < results.size(); i++) {
+                    Person createdPerson = i < createdPersons.size() ? createdPersons.get(i) : null;
+                    if (createdPerson == null) {
+                        results.get(i).completeExceptionally(new SyncErrorException("Error creating person "
+                                                                                    + batch.creations.get(from + i)));
+                    } else {
+                        results.get(i).complete(createdPerson);
+                    }
+                }
+            } catch (Exception e) {
+                results.forEach(result -> result.completeExceptionally(e));
+            }
+        }
+    }
+
+    private void sendUpdates(Batch batch) {
+        if (batch.updates.size() == 1) {
+            Map.Entry<Integer, ReadOnlyPerson> update = batch.updates.entrySet().iterator().next();
+            completeAll(batch.updateResults.get(update.getKey()), new UpdatePersonOnRemoteTask(
+                    remoteManager, batch.addressBookName, update.getKey(), update.getValue()));
+            return;
+        }
+        for (List<Integer> personIds : chunk(batch.updates.keySet())) {
+            Map<Integer, ReadOnlyPerson> updates = new LinkedHashMap<>();
+            personIds.forEach(personId -> updates.put(personId, batch.updates.get(personId)));
+            try {
+                Map<Integer, Person> resultingPersons = call(new UpdatePersonsOnRemoteTask(
+                        remoteManager, batch.addressBookName, updates));
+                for (int personId : personIds) {
+                    Person resultingPerson = resultingPersons.get(personId);
+                    batch.updateResults.get(personId).forEach(result -> {
+                        if (resultingPerson == null) {
+                            result.completeExceptionally(new SyncErrorException("Error updating person"));
+                        } else {
+                            result.complete(resultingPerson);
+                        }
+                    });
+                }
+            } catch (Exception e) {
+                personIds.forEach(personId -> batch.updateResults.get(personId)
+                        .forEach(result -> result.completeExceptionally(e)));
+            }
+        }
+    }
+
+    private void sendDeletions(Batch batch) {
+        if (batch.deletionResults.size() == 1) {
+            Map.Entry<Integer, List<CompletableFuture<Boolean>>> deletion =
+                    batch.deletionResults.entrySet().iterator().next();
+            completeAll(deletion.getValue(),
+                        new DeletePersonOnRemoteTask(remoteManager, batch.addressBookName, deletion.getKey()));
+            return;
+        }
+        for (List<Integer> personIds : chunk(batch.deletionResults.keySet())) {
+            try {
+                Set<Integer> deletedIds = new HashSet<>(call(new DeletePersonsOnRemoteTask(
+                        remoteManager, batch.addressBookName, personIds)));
+                personIds.forEach(personId -> batch.deletionResults.get(personId)
+                        .forEach(result -> result.complete(deletedIds.contains(personId))));
+            } catch (Exception e) {
+                personIds.forEach(personId -> batch.deletionResults.get(personId)
+                        .forEach(result -> result.completeExceptionally(e)));
+            }
+        }
+    }
+
+    private static List<List<Integer>> chunk(Collection<Integer> personIds) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        List<Integer> chunk = new ArrayList<>();
+        for (int personId : personIds) {
+            if (chunk.size() == MAX_BATCH_SIZE) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+            }
+            chunk.add(personId);
+        }
+        if (!chunk.isEmpty()) chunks.add(chunk);
+        return chunks;
+    }
+
+    private <T> T call(Callable<T> task) throws Exception {
+        synchronized (this) {
+            remoteCallCount++;
+        }
+        return task.call();
+    }
+
+    private <T> void complete(CompletableFuture<T> resultContainer, Callable<T> task) {
+        completeAll(Collections.singletonList(resultContainer), task);
+    }
+
+    private <T> void completeAll(List<CompletableFuture<T>> resultContainers, Callable<T> task) {
+        try {
+            T result = call(task);
+            resultContainers.forEach(resultContainer -> resultContainer.complete(result));
+        } catch (Exception e) {
+            resultContainers.forEach(resultContainer -> resultContainer.completeExceptionally(e));
+        }
+    }
+
+    public synchronized Statistics getStatistics() {
+        return new Statistics(this);
+    }
+
+    /**
+     * Point-in-time copy of the batcher's counters.
+     */
+    public static class Statistics {
+        private final int pendingCount;
+        private final long requestedCount;
+        private final long coalescedCount;
+        private final long remoteCallCount;
+
+        private Statistics(RemoteRequestBatcher batcher) {
+            pendingCount = batcher.pendingBatches.stream().mapToInt(Batch::size).sum();
+            requestedCount = batcher.requestedCount;
+            coalescedCount = batcher.coalescedCount;
+            remoteCallCount = batcher.remoteCallCount;
+        }
+
+        /**
+         * @return number of persons waiting to be sent
+         */
+        public int getPendingCount() {
+            return pendingCount;
+        }
+
+        /**
+         * @return number of creations, updates and deletions requested
+         */
+        public long getRequestedCount() {
+            return requestedCount;
+        }
+
+        /**
+         * @return number of updates and deletions coalesced into another waiting for the same person
+         */
+        public long getCoalescedCount() {
+            return coalescedCount;
+        }
+
+        /**
+         * @return number of requests made to the remote
+         */
+        public long getRemoteCallCount() {
+            return remoteCallCount;
+        }
+
+        @Override
+        public String toString() {
+            return "pending: " + pendingCount + ", requested: " + requestedCount + ", coalesced: " + coalescedCount
+                    + ", remote calls: " + remoteCallCount;
+        }
+    }
+}
@@ -14,6 +14,7 @@ import address.util.LoggerManager;
 import java.io.*;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -68,13 +69,30 @@ public class RemoteService implements IRemoteService {
     @Override
     public ExtractedRemoteResponse<List<Person>> getPersons(String addressBookName, int pageNumber)
             throws IOException {
+        return getPersons(addressBookName, pageNumber, null);
+    }
+
+    /**
+     * Gets the list of persons at page pageNumber for addressBookName, if quota is available and the page has changed
+     * since the response with previousETag
+     *
+     * Consumes 1 API usage if the page has changed, none if not
+     *
+     * @param addressBookName
+     * @param pageNumber
+     * @param previousETag null if there is no previous request
+     * @return wrapped response with list of persons, or with no data and HTTP_NOT_MODIFIED if the page is unchanged
+     * @throws IOException if content cannot be interpreted
+     */
+    @Override
+    public ExtractedRemoteResponse<List<Person>> getPersons(String addressBookName, int pageNumber,
+                                                            String previousETag) throws IOException {
         RemoteResponse remoteResponse;
-        remoteResponse = remote.getPersons(addressBookName, pageNumber, RESOURCES_PER_PAGE, null);
+        remoteResponse = remote.getPersons(addressBookName, pageNumber, RESOURCES_PER_PAGE, previousETag);
         if (!isValid(remoteResponse)) {
             return getResponseWithNoData(remoteResponse);
         }
-        List<CloudPerson> cloudPersons = getDataListFromBody(remoteResponse.getBody(), CloudPerson.class);
-        return prepareExtractedResponse(remoteResponse, convertToPersonList(cloudPersons));
+        return prepareExtractedResponse(remoteResponse, getPersonListFromBody(remoteResponse.getBody()));
     }
 
     /**
@@ -95,8 +113,9 @@ public class RemoteService implements IRemoteService {
         if (!isValid(remoteResponse)) {
             return getResponseWithNoData(remoteResponse);
         }
-        List<CloudTag> cloudTags = getDataListFromBody(remoteResponse.getBody(), CloudTag.class);
-        return prepareExtractedResponse(remoteResponse, convertToTagList(cloudTags));
+        List<Tag> tags = new ArrayList<>(RESOURCES_PER_PAGE);
+        forEachInBody(remoteResponse.getBody(), CloudTag.class, cloudTag -> tags.add(convertToTag(cloudTag)));
+        return prepareExtractedResponse(remoteResponse, tags);
     }
 
     /**
@@ -160,6 +179,84 @@ public class RemoteService implements IRemoteService {
         return getResponseWithNoData(remoteResponse);
     }
 
+    /**
+     * Adds the persons to the remote in one request, if quota is available
+     *
+     * Consumes 1 API usage
+     *
+     * @param addressBookName
+     * @param persons
+     * @return wrapped response of the resulting persons in the order given, with null for those not added
+     * @throws IOException if content cannot be interpreted
+     */
+    @Override
+    public ExtractedRemoteResponse<List<Person>> createPersons(String addressBookName, List<ReadOnlyPerson> persons)
+            throws IOException {
+        List<CloudPerson> cloudPersons = persons.stream()
+                .map(this::convertToCloudPerson)
+                .collect(Collectors.toCollection(ArrayList::new));
+        RemoteResponse remoteResponse = remote.createPersons(addressBookName, cloudPersons);
+        if (!isValid(remoteResponse)) {
+            return getResponseWithNoData(remoteResponse);
+        }
+        List<Person> resultingPersons = new ArrayList<>(persons.size());
+        forEachInBody(remoteResponse.getBody(), CloudPerson.class,
+                      person -> resultingPersons.add(person == null ? null : convertToPerson(person)));
+        return prepareExtractedResponse(remoteResponse, resultingPersons);
+    }
+
+    /**
+     * Updates persons on the remote in one request, if quota is available
+     *
+     * Consumes 1 API usage
+     *
+     * @param addressBookName
+     * @param updatedPersons updated persons by the ids of the persons to update
+     * @return wrapped response of the resulting persons by id, without those not found
+     * @throws IOException if content cannot be interpreted
+     */
+    @Override
+    public ExtractedRemoteResponse<Map<Integer, Person>> updatePersons(String addressBookName,
+                                                                       Map<Integer, ReadOnlyPerson> updatedPersons)
+            throws IOException {
+        List<CloudPerson> cloudPersons = new ArrayList<>();
+        updatedPersons.forEach((personId, person) -> {
+            CloudPerson cloudPerson = convertToCloudPerson(person);
+            cloudPerson.setId(personId);
+            cloudPersons.add(cloudPerson);
+        });
+        RemoteResponse remoteResponse = remote.updatePersons(addressBookName, cloudPersons);
+        if (!isValid(remoteResponse)) {
+            return getResponseWithNoData(remoteResponse);
+        }
+        Map<Integer, Person> resultingPersons = new HashMap<>();
+        forEachInBody(remoteResponse.getBody(), CloudPerson.class,
+                      person -> resultingPersons.put(person.getId(), convertToPerson(person)));
+        return prepareExtractedResponse(remoteResponse, resultingPersons);
+    }
+
+    /**
+     * Deletes persons on the remote in one request, if quota is available
+     *
+     * Consumes 1 API usage
+     *
+     * @param addressBookName
+     * @param personIds
+     * @return wrapped response of the ids of the persons deleted
+     * @throws IOException if content cannot be interpreted
+     */
+    @Override
+    public ExtractedRemoteResponse<List<Integer>> deletePersons(String addressBookName, List<Integer> personIds)
+            throws IOException {
+        RemoteResponse remoteResponse = remote.deletePersons(addressBookName, personIds);
+        if (!isValid(remoteResponse)) {
+            return getResponseWithNoData(remoteResponse);
+        }
+        List<Integer> deletedIds = new ArrayList<>(personIds.size());
+        forEachInBody(remoteResponse.getBody(), Integer.class, deletedIds::add);
+        return prepareExtractedResponse(remoteResponse, deletedIds);
+    }
+
     /**
      * Creates a tag on the remote, if quota is available
      *
@@ -222,13 +319,14 @@ public class RemoteService implements IRemoteService {
      * Gets the list of persons at page pageNumber for addressBookName, which have been modified after a certain time,
      * if quota is available.
      *
-     * Consumes 1 API usage
+     * Consumes 1 API usage if the page has changed since the response with previousETag, none if not
      *
      * @param addressBookName
      * @param pageNumber
      * @param time non-null LocalDateTime
-     * @param previousETag
-     * @return wrapped response with the resulting list of persons
+     * @param previousETag null if there is no previous request
+     * @return wrapped response with the resulting list of persons, or with no data and HTTP_NOT_MODIFIED if the page
+     *         is unchanged
      * @throws IOException if content cannot be interpreted
      */
     @Override
@@ -236,14 +334,14 @@ public class RemoteService implements IRemoteService {
                                                                         LocalDateTime time, String previousETag)
             throws IOException {
         RemoteResponse remoteResponse = remote.getUpdatedPersons(addressBookName, time.toString(), pageNumber,
-                RESOURCES_PER_PAGE, null);
+                RESOURCES_PER_PAGE, previousETag);
         if (!isValid(remoteResponse)) {
             return getResponseWithNoData(remoteResponse);
         }
-        List<CloudPerson> cloudPersons = getDataListFromBody(remoteResponse.getBody(), CloudPerson.class);
+        List<Person> persons = getPersonListFromBody(remoteResponse.getBody());
 
         logger.debug("Returning updated persons response for page {}", pageNumber);
-        return prepareExtractedResponse(remoteResponse, convertToPersonList(cloudPersons));
+        return prepareExtractedResponse(remoteResponse, persons);
     }
 
     /**
@@ -342,20 +440,27 @@ public class RemoteService implements IRemoteService {
      * @throws IOException
      */
     private <T> T getDataFromBody(InputStream bodyStream, Class<T> type) throws IOException {
-        return JsonUtil.fromJsonString(convertToString(bodyStream), type);
+        return JsonUtil.fromJsonStream(bodyStream, type);
     }
 
     /**
-     * Parses the stream content and attempts to convert it into a List of object Ts
+     * Parses the stream content as a JSON array one element at a time, handing each element to the consumer as it
+     * is parsed, so that the elements never have to be held together in a list before being converted
      *
      * @param bodyStream
      * @param type
+     * @param consumer given null for null elements
      * @param <T>
-     * @return
      * @throws IOException
      */
-    private <T> List<T> getDataListFromBody(InputStream bodyStream, Class<T> type) throws IOException {
-        return JsonUtil.fromJsonStringToList(convertToString(bodyStream), type);
+    private <T> void forEachInBody(InputStream bodyStream, Class<T> type, Consumer<T> consumer) throws IOException {
+        JsonUtil.forEachInJsonArray(bodyStream, type, consumer);
+    }
+
+    private List<Person> getPersonListFromBody(InputStream bodyStream) throws IOException {
+        List<Person> persons = new ArrayList<>(RESOURCES_PER_PAGE);
+        forEachInBody(bodyStream, CloudPerson.class, cloudPerson -> persons.add(convertToPerson(cloudPerson)));
+        return persons;
     }
 
     /**
@@ -386,12 +491,6 @@ public class RemoteService implements IRemoteService {
         return Long.parseLong(header.get("X-RateLimit-Reset"));
     }
 
-    private List<Person> convertToPersonList(List<CloudPerson> cloudPersonList) {
-        return cloudPersonList.stream()
-                .map(this::convertToPerson)
-                .collect(Collectors.toCollection(ArrayList::new));
-    }
-
     private List<Tag> convertToTagList(List<CloudTag> cloudTagList) {
         return cloudTagList.stream()
                 .map(this::convertToTag)
@@ -11,6 +11,7 @@ import address.util.Config;
 import address.util.LoggerManager;
 import com.google.common.eventbus.Subscribe;
 
+import java.time.ZoneId;
 import java.util.Optional;
 import java.util.concurrent.*;
 import java.util.function.BiConsumer;
@@ -25,6 +26,11 @@ import java.util.function.BiConsumer;
  * for SyncManager to place the result into after finishing the request.
  *
  * All remote requests are run in a separate thread
+ *
+ * The time between synchronizations is decided by a SyncScheduler, from the remote's quota as given in the responses
+ * to all requests, and from whether the synchronizations find changes
+ *
+ * Person creations, updates and deletions are sent in batches by a RemoteRequestBatcher
  */
 public class SyncManager extends ComponentManager {
     private static final AppLogger logger = LoggerManager.getLogger(SyncManager.class);
@@ -32,8 +38,12 @@ public class SyncManager extends ComponentManager {
     private final ScheduledExecutorService scheduler;
     private final ExecutorService requestExecutor;
     private final RemoteManager remoteManager;
+    private final SyncScheduler syncScheduler;
+    private final RemoteRequestBatcher remoteRequestBatcher;
     private final Config config;
 
+    private volatile boolean syncFoundChanges;
+
     private Optional<String> activeAddressBook;
 
     /**
@@ -62,6 +72,8 @@ public class SyncManager extends ComponentManager {
         this.remoteManager = remoteManager;
         this.requestExecutor = executorService;
         this.scheduler = scheduledExecutorService;
+        this.syncScheduler = new SyncScheduler(config.getUpdateInterval());
+        this.remoteRequestBatcher = new RemoteRequestBatcher(remoteManager, requestExecutor);
         setActiveAddressBook(activeAddressBookName);
     }
 
@@ -85,33 +97,87 @@ public class SyncManager extends ComponentManager {
     }
 
     /**
-     * Starts synchronizing with the cloud, after every updateInterval milliseconds
-     * specified in the config.
+     * Starts synchronizing with the cloud, after every interval decided by the sync scheduler, which is at most
+     * updateInterval milliseconds specified in the config unless quota is scarce.
      * Synchronization will fail if active address book is not set or is invalid.
      *
      * Raises a SyncStartedEvent at the beginning, and SyncFailedEvent or SyncCompletedEvent at the end of the task
      * Raises a SyncUpdateResourceCompletedEvent after each resource update is finished successfully
+     * Raises a SyncScheduledEvent after each synchronization, with when the next one is
      */
     public void start() {
         logger.info("Starting sync manager.");
         Runnable syncTask = new GetUpdatesFromRemoteTask(remoteManager, this::raise, this::getActiveAddressBook);
-        logger.debug("Scheduling synchronization task with interval of {} milliseconds", config.getUpdateInterval());
-        scheduler.scheduleWithFixedDelay(syncTask, 0, config.getUpdateInterval(), TimeUnit.MILLISECONDS);
+        logger.debug("Scheduling synchronization task with interval of at most {} milliseconds unless quota is scarce",
+                     config.getUpdateInterval());
+        scheduler.schedule(() -> syncAndScheduleNext(syncTask), 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs the sync task unless it would use the quota reserved for the user's requests, then schedules the next
+     * run as the sync scheduler decides
+     */
+    private void syncAndScheduleNext(Runnable syncTask) {
+        long pollCost = 0;
+        syncFoundChanges = false;
+        try {
+            updateSchedulerQuota();
+            if (syncScheduler.shouldPoll(System.currentTimeMillis())) {
+                long responseCountBefore = remoteManager.getResponseCount();
+                syncTask.run();
+                pollCost = remoteManager.getResponseCount() - responseCountBefore;
+                updateSchedulerQuota();
+            } else {
+                logger.info("Skipping synchronization to keep the quota reserved for requests.");
+            }
+        } finally {
+            long delay = syncScheduler.scheduleNext(syncFoundChanges, pollCost, System.currentTimeMillis());
+            SyncScheduler.Statistics statistics = syncScheduler.getStatistics();
+            logger.debug("Next synchronization scheduled: {}", statistics);
+            raise(new SyncScheduledEvent(statistics));
+            try {
+                scheduler.schedule(() -> syncAndScheduleNext(syncTask), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                logger.debug("Sync manager stopped, not scheduling the next synchronization.");
+            }
+        }
+    }
+
+    private void updateSchedulerQuota() {
+        remoteManager.getLastQuotaResponse().ifPresent(response -> syncScheduler.updateQuota(
+                response.getQuotaLimit(), response.getQuotaRemaining(),
+                response.getQuotaResetTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+    }
+
+    @Subscribe
+    public void handleSyncCompletedEvent(SyncCompletedEvent event) {
+        syncFoundChanges = !event.getUpdatedPersons().isEmpty();
+    }
+
+    /**
+     * @return the sync scheduler's latest decision and counters
+     */
+    public SyncScheduler.Statistics getSchedulerStatistics() {
+        return syncScheduler.getStatistics();
+    }
+
+    /**
+     * @return the counters of the batching of person requests to the remote
+     */
+    public RemoteRequestBatcher.Statistics getBatcherStatistics() {
+        return remoteRequestBatcher.getStatistics();
     }
 
     public void stop() {
-        logger.info("Stopping sync manager.");
+        logger.info("Stopping sync manager. Person request batching: {}", remoteRequestBatcher.getStatistics());
         scheduler.shutdown();
         requestExecutor.shutdown();
     }
 
     @Subscribe
     public void handleCreatePersonOnRemoteRequestEvent(CreatePersonOnRemoteRequestEvent event) {
-        CompletableFuture<ReadOnlyPerson> resultContainer = event.getReturnedPersonContainer();
-        RemoteTaskWithResult<ReadOnlyPerson> taskToCall = new CreatePersonOnRemoteTask(remoteManager,
-                                                                               event.getAddressBookName(),
-                                                                               event.getCreatedPerson());
-        callTaskAndHandleResult(taskToCall, resultContainer);
+        remoteRequestBatcher.createPerson(event.getAddressBookName(), event.getCreatedPerson(),
+                                          event.getReturnedPersonContainer());
     }
 
     @Subscribe
@@ -124,12 +190,8 @@ public class SyncManager extends ComponentManager {
 
     @Subscribe
     public void handleUpdatePersonOnRemoteRequestEvent(UpdatePersonOnRemoteRequestEvent event) {
-        CompletableFuture<ReadOnlyPerson> resultContainer = event.getReturnedPersonContainer();
-        RemoteTaskWithResult<ReadOnlyPerson> taskToCall = new UpdatePersonOnRemoteTask(remoteManager,
-                                                                               event.getAddressBookName(),
-                                                                               event.getPersonId(),
-                                                                               event.getUpdatedPerson());
-        callTaskAndHandleResult(taskToCall, resultContainer);
+        remoteRequestBatcher.updatePerson(event.getAddressBookName(), event.getPersonId(),
+                                          event.getUpdatedPerson(), event.getReturnedPersonContainer());
     }
 
     @Subscribe
@@ -150,11 +212,8 @@ public class SyncManager extends ComponentManager {
 
     @Subscribe
     public void handleDeletePersonOnRemoteRequestEvent(DeletePersonOnRemoteRequestEvent event) {
-        CompletableFuture<Boolean> resultContainer = event.getResultContainer();
-        RemoteTaskWithResult<Boolean> taskToCall = new DeletePersonOnRemoteTask(remoteManager,
-                                                                                event.getAddressBookName(),
-                                                                                event.getPersonId());
-        callTaskAndHandleResult(taskToCall, resultContainer);
+        remoteRequestBatcher.deletePerson(event.getAddressBookName(), event.getPersonId(),
+                                          event.getResultContainer());
     }
 
     @Subscribe
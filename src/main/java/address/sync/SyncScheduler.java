@@ -0,0 +1,254 @@
+package address.sync;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when to next get updates from the remote, from a token bucket model of the remote's API quota and from how
+ * often the remote has changes.
+ *
+ * The bucket holds the requests left in the quota, as given by the X-RateLimit headers of the latest response, and is
+ * refilled to the quota limit when the quota resets. A part of the quota is reserved for the requests the user makes
+ * (creating, updating and deleting), which polls never use: a poll is skipped if the requests above the reserve are
+ * fewer than it is expected to need, i.e. as many as the last poll made.
+ *
+ * The poll interval halves, down to a quarter of the configured interval, while polls find changes, and grows back to
+ * the configured interval while they find none. It is then stretched if polling at that rate would use up the
+ * requests above the reserve before the quota resets.
+ */
+public class SyncScheduler {
+    private static final double USER_REQUEST_RESERVE_RATIO = 0.1;
+    private static final int MIN_INTERVAL_DIVISOR = 4;
+    private static final double SHORTEN_FACTOR = 0.5;
+    private static final double GROW_FACTOR = 1.5;
+
+    /**
+     * Why the next poll is when it is
+     */
+    public enum Decision {
+        CONFIGURED_INTERVAL("configured interval"),
+        SHORTENED_FOR_CHANGES("shortened as there are frequent changes"),
+        STRETCHED_FOR_QUOTA("stretched to save quota"),
+        WAITING_FOR_QUOTA_RESET("waiting for quota to reset");
+
+        private final String description;
+
+        Decision(String description) {
+            this.description = description;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    private final long configuredIntervalMillis;
+    private final long minIntervalMillis;
+
+    // the bucket, with a limit of 0 until the quota is known
+    private int quotaLimit;
+    private int quotaRemaining;
+    private long quotaResetMillis;
+
+    private long lastPollCost;
+    private long changeIntervalMillis;
+    private long delayMillis;
+    private Decision decision;
+
+    // Decision metrics
+    private long pollCount;
+    private long skippedPollCount;
+    private long shortenedCount;
+    private long stretchedCount;
+
+    /**
+     * @param configuredIntervalMillis the interval to poll at when there is enough quota and changes are infrequent
+     */
+    public SyncScheduler(long configuredIntervalMillis) {
+        this.configuredIntervalMillis = configuredIntervalMillis;
+        minIntervalMillis = configuredIntervalMillis / MIN_INTERVAL_DIVISOR;
+        changeIntervalMillis = configuredIntervalMillis;
+        delayMillis = configuredIntervalMillis;
+        decision = Decision.CONFIGURED_INTERVAL;
+        lastPollCost = 1;
+    }
+
+    /**
+     * Fills the bucket as given by the rate limit headers of a response
+     *
+     * @param quotaResetMillis epoch time in milliseconds at which the quota is reset to its limit
+     */
+    public synchronized void updateQuota(int quotaLimit, int quotaRemaining, long quotaResetMillis) {
+        this.quotaLimit = quotaLimit;
+        this.quotaRemaining = quotaRemaining;
+        this.quotaResetMillis = quotaResetMillis;
+    }
+
+    /**
+     * @return whether a poll at nowMillis would leave the requests reserved for the user, counting it as skipped if not
+     */
+    public synchronized boolean shouldPoll(long nowMillis) {
+        if (quotaLimit == 0 || getPollBudget(nowMillis) >= getExpectedPollCost()) return true;
+        skippedPollCount++;
+        return false;
+    }
+
+    /**
+     * Records a poll and decides when to poll next
+     *
+     * @param foundChanges whether the poll found changes on the remote
+     * @param pollCost the number of requests the poll made, 0 if it was skipped
+     * @return the delay until the next poll, in milliseconds
+     */
+    public synchronized long scheduleNext(boolean foundChanges, long pollCost, long nowMillis) {
+        if (pollCost > 0) {
+            pollCount++;
+            lastPollCost = pollCost;
+        }
+        changeIntervalMillis = foundChanges
+                ? Math.max(minIntervalMillis, (long) (changeIntervalMillis * SHORTEN_FACTOR))
+                : Math.min(configuredIntervalMillis, (long) (changeIntervalMillis * GROW_FACTOR));
+        delayMillis = changeIntervalMillis;
+        decision = changeIntervalMillis < configuredIntervalMillis
+                ? Decision.SHORTENED_FOR_CHANGES : Decision.CONFIGURED_INTERVAL;
+        if (quotaLimit > 0) {
+            final long millisToReset = Math.max(0, quotaResetMillis - nowMillis);
+            final int budget = getPollBudget(nowMillis);
+            if (budget < getExpectedPollCost()) {
+                delayMillis = Math.max(minIntervalMillis, millisToReset);
+                decision = Decision.WAITING_FOR_QUOTA_RESET;
+            } else if (millisToReset * getExpectedPollCost() / budget > delayMillis) {
+                delayMillis = millisToReset * getExpectedPollCost() / budget;
+                decision = Decision.STRETCHED_FOR_QUOTA;
+            }
+        }
+        if (decision == Decision.SHORTENED_FOR_CHANGES) shortenedCount++;
+        if (decision == Decision.STRETCHED_FOR_QUOTA || decision == Decision.WAITING_FOR_QUOTA_RESET) stretchedCount++;
+        return delayMillis;
+    }
+
+    /**
+     * @return the number of requests left in the quota at nowMillis, assuming none were made since the last update
+     */
+    private int getQuotaRemaining(long nowMillis) {
+        return nowMillis >= quotaResetMillis ? quotaLimit : quotaRemaining;
+    }
+
+    private int getUserRequestReserve() {
+        return Math.max(1, (int) (quotaLimit * USER_REQUEST_RESERVE_RATIO));
+    }
+
+    private int getPollBudget(long nowMillis) {
+        return getQuotaRemaining(nowMillis) - getUserRequestReserve();
+    }
+
+    /**
+     * @return the cost of the last poll, or the whole quota above the reserve if that is less, so that a poll costing
+     *         more than that is still made once the quota resets
+     */
+    private long getExpectedPollCost() {
+        return Math.max(1, Math.min(lastPollCost, quotaLimit - getUserRequestReserve()));
+    }
+
+    public synchronized Statistics getStatistics() {
+        return new Statistics(this);
+    }
+
+    /**
+     * Point-in-time copy of the scheduler's latest decision and counters.
+     */
+    public static class Statistics {
+        private final long delayMillis;
+        private final Decision decision;
+        private final int quotaLimit;
+        private final int quotaRemaining;
+        private final int userRequestReserve;
+        private final long lastPollCost;
+        private final long pollCount;
+        private final long skippedPollCount;
+        private final long shortenedCount;
+        private final long stretchedCount;
+
+        private Statistics(SyncScheduler scheduler) {
+            delayMillis = scheduler.delayMillis;
+            decision = scheduler.decision;
+            quotaLimit = scheduler.quotaLimit;
+            quotaRemaining = scheduler.quotaRemaining;
+            userRequestReserve = scheduler.quotaLimit == 0 ? 0 : scheduler.getUserRequestReserve();
+            lastPollCost = scheduler.lastPollCost;
+            pollCount = scheduler.pollCount;
+            skippedPollCount = scheduler.skippedPollCount;
+            shortenedCount = scheduler.shortenedCount;
+            stretchedCount = scheduler.stretchedCount;
+        }
+
+        /**
+         * @return the delay until the next poll, as last decided
+         */
+        public long getDelayMillis() {
+            return delayMillis;
+        }
+
+        public Decision getDecision() {
+            return decision;
+        }
+
+        /**
+         * @return the quota limit, 0 if not known yet
+         */
+        public int getQuotaLimit() {
+            return quotaLimit;
+        }
+
+        public int getQuotaRemaining() {
+            return quotaRemaining;
+        }
+
+        /**
+         * @return number of requests in the quota that polls leave for the user's requests
+         */
+        public int getUserRequestReserve() {
+            return userRequestReserve;
+        }
+
+        /**
+         * @return number of requests the last poll made
+         */
+        public long getLastPollCost() {
+            return lastPollCost;
+        }
+
+        public long getPollCount() {
+            return pollCount;
+        }
+
+        /**
+         * @return number of polls skipped as they would have used the requests reserved for the user
+         */
+        public long getSkippedPollCount() {
+            return skippedPollCount;
+        }
+
+        /**
+         * @return number of polls scheduled sooner than the configured interval as there were frequent changes
+         */
+        public long getShortenedCount() {
+            return shortenedCount;
+        }
+
+        /**
+         * @return number of polls scheduled later than otherwise to save quota
+         */
+        public long getStretchedCount() {
+            return stretchedCount;
+        }
+
+        @Override
+        public String toString() {
+            return "next poll in (s): " + TimeUnit.MILLISECONDS.toSeconds(delayMillis) + " (" + decision
+                    + "), quota: " + quotaRemaining + "/" + quotaLimit + ", reserved: " + userRequestReserve
+                    + ", last poll cost: " + lastPollCost + ", polls: " + pollCount + ", skipped: "
+                    + skippedPollCount + ", shortened: " + shortenedCount + ", stretched: " + stretchedCount;
+        }
+    }
+}
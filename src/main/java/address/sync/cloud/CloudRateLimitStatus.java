@@ -58,8 +58,10 @@ public class CloudRateLimitStatus {
 
     private void resetQuotaAndRestartTimer() {
         long nextResetTime = getNextResetTime();
-        this.quotaReset = nextResetTime;
-        this.quotaRemaining = quotaLimit;
+        synchronized (this) {
+            this.quotaReset = nextResetTime;
+            this.quotaRemaining = quotaLimit;
+        }
         restartQuotaTimer();
     }
 
@@ -81,15 +83,15 @@ public class CloudRateLimitStatus {
         this.quotaLimit = quotaLimit;
     }
 
-    public int getQuotaRemaining() {
+    public synchronized int getQuotaRemaining() {
         return quotaRemaining;
     }
 
-    void setQuotaRemaining(int quotaRemaining) {
+    synchronized void setQuotaRemaining(int quotaRemaining) {
         this.quotaRemaining = quotaRemaining;
     }
 
-    public long getQuotaReset() {
+    public synchronized long getQuotaReset() {
         return quotaReset;
     }
 
@@ -97,7 +99,7 @@ public class CloudRateLimitStatus {
         this.quotaReset = quotaResetTime;
     }
 
-    public void useQuota(int amount) {
+    public synchronized void useQuota(int amount) {
         quotaRemaining -= amount;
     }
 }
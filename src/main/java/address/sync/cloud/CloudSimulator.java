@@ -111,14 +111,22 @@ public class CloudSimulator implements IRemote {
             return getEmptyResponse(HttpURLConnection.HTTP_INTERNAL_ERROR);
         }
 
-        List<CloudPerson> queryResults = getQueryResults(pageNumber, resourcesPerPage, fullPersonList);
+        return getPageResponse(pageNumber, resourcesPerPage, fullPersonList, previousETag);
+    }
+
+    /**
+     * Returns a response wrapper containing page pageNumber of the resources, with the page index details filled in
+     * unless the page is not modified since previousETag
+     */
+    protected <V> RemoteResponse getPageResponse(int pageNumber, int resourcesPerPage, List<V> fullResourceList,
+                                                 String previousETag) {
+        List<V> queryResults = getQueryResults(pageNumber, resourcesPerPage, fullResourceList);
         RemoteResponse contentResponse = new RemoteResponse(HttpURLConnection.HTTP_OK, queryResults,
                                                             cloudRateLimitStatus, previousETag);
-
         if (isNotModifiedResponse(contentResponse)) return contentResponse;
 
-        if (isValidPageNumber(fullPersonList.size(), pageNumber, resourcesPerPage)) {
-            fillInPageNumbers(pageNumber, resourcesPerPage, fullPersonList, contentResponse);
+        if (isValidPageNumber(fullResourceList.size(), pageNumber, resourcesPerPage)) {
+            fillInPageNumbers(pageNumber, resourcesPerPage, fullResourceList, contentResponse);
         }
         return contentResponse;
     }
@@ -156,15 +164,7 @@ public class CloudSimulator implements IRemote {
             return getEmptyResponse(HttpURLConnection.HTTP_INTERNAL_ERROR);
         }
 
-        List<CloudTag> queryResults = getQueryResults(pageNumber, resourcesPerPage, fullTagList);
-        RemoteResponse contentResponse = new RemoteResponse(HttpURLConnection.HTTP_OK, queryResults,
-                                                            cloudRateLimitStatus, previousETag);
-        if (isNotModifiedResponse(contentResponse)) return contentResponse;
-
-        if (isValidPageNumber(fullTagList.size(), pageNumber, resourcesPerPage)) {
-            fillInPageNumbers(pageNumber, resourcesPerPage, fullTagList, contentResponse);
-        }
-        return contentResponse;
+        return getPageResponse(pageNumber, resourcesPerPage, fullTagList, previousETag);
     }
 
     /**
@@ -243,6 +243,109 @@ public class CloudSimulator implements IRemote {
         }
     }
 
+    /**
+     * Attempts to create the persons, each like createPerson, if quota is available
+     * <p>
+     * Consumes 1 API usage
+     *
+     * @param addressBookName
+     * @param newPersons
+     * @return a response wrapper, containing the added persons in the order given, with null for those that could
+     *         not be added
+     */
+    @Override
+    public synchronized RemoteResponse createPersons(String addressBookName, List<CloudPerson> newPersons) {
+        logger.debug("createPersons called with: addressbook {}, {} persons", addressBookName, newPersons.size());
+        if (!hasApiQuotaRemaining()) return RemoteResponse.getForbiddenResponse(cloudRateLimitStatus);
+
+        try {
+            CloudAddressBook fileData = fileHandler.readCloudAddressBook(addressBookName);
+            List<CloudPerson> returnedPersons = new ArrayList<>();
+            for (CloudPerson newPerson : newPersons) {
+                try {
+                    returnedPersons.add(addPerson(fileData.getAllPersons(), newPerson));
+                } catch (IllegalArgumentException e) {
+                    returnedPersons.add(null);
+                }
+            }
+            fileHandler.writeCloudAddressBook(fileData);
+            return new RemoteResponse(HttpURLConnection.HTTP_CREATED, returnedPersons, cloudRateLimitStatus, null);
+        } catch (FileNotFoundException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_NOT_FOUND);
+        } catch (DataConversionException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_INTERNAL_ERROR);
+        }
+    }
+
+    /**
+     * Updates the details of the persons with the ids of the given persons, each like updatePerson, if quota is
+     * available
+     * <p>
+     * Consumes 1 API usage
+     *
+     * @param addressBookName
+     * @param updatedPersons persons with the ids of those to update
+     * @return a response wrapper, containing the resulting persons of those found
+     */
+    @Override
+    public synchronized RemoteResponse updatePersons(String addressBookName, List<CloudPerson> updatedPersons) {
+        logger.debug("updatePersons called with: addressbook {}, {} persons", addressBookName, updatedPersons.size());
+        if (!hasApiQuotaRemaining()) return RemoteResponse.getForbiddenResponse(cloudRateLimitStatus);
+
+        try {
+            CloudAddressBook fileData = fileHandler.readCloudAddressBook(addressBookName);
+            List<CloudPerson> resultingPersons = new ArrayList<>();
+            for (CloudPerson updatedPerson : updatedPersons) {
+                try {
+                    resultingPersons.add(updatePersonDetails(fileData.getAllPersons(), fileData.getAllTags(),
+                                                             updatedPerson.getId(), updatedPerson));
+                } catch (NoSuchElementException e) {
+                    logger.debug("Person {} not found for update", updatedPerson.getId());
+                }
+            }
+            fileHandler.writeCloudAddressBook(fileData);
+            return new RemoteResponse(HttpURLConnection.HTTP_OK, resultingPersons, cloudRateLimitStatus, null);
+        } catch (FileNotFoundException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_NOT_FOUND);
+        } catch (DataConversionException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_INTERNAL_ERROR);
+        }
+    }
+
+    /**
+     * Deletes the persons with the given ids, each like deletePerson, if quota is available
+     * <p>
+     * Consumes 1 API usage
+     *
+     * @param addressBookName
+     * @param personIds
+     * @return a response wrapper, containing the ids of the persons found and deleted
+     */
+    @Override
+    public synchronized RemoteResponse deletePersons(String addressBookName, List<Integer> personIds) {
+        logger.debug("deletePersons called with: addressbook {}, personids {}", addressBookName, personIds);
+        if (!hasApiQuotaRemaining()) return RemoteResponse.getForbiddenResponse(cloudRateLimitStatus);
+
+        try {
+            CloudAddressBook fileData = fileHandler.readCloudAddressBook(addressBookName);
+            List<Integer> deletedIds = new ArrayList<>();
+            for (int personId : personIds) {
+                try {
+                    deletePersonFromData(fileData.getAllPersons(), personId);
+                    deletedIds.add(personId);
+                } catch (NoSuchElementException e) {
+                    logger.debug("Person {} not found for deletion", personId);
+                }
+            }
+            fileHandler.writeCloudAddressBook(fileData);
+            return new RemoteResponse(HttpURLConnection.HTTP_OK, deletedIds, cloudRateLimitStatus, null);
+        } catch (FileNotFoundException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_NOT_FOUND);
+        } catch (DataConversionException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_INTERNAL_ERROR);
+        }
+    }
+
     /**
      * Creates a new tag, if quota is available
      * <p>
@@ -390,16 +493,7 @@ public class CloudSimulator implements IRemote {
         LocalDateTime time = LocalDateTime.parse(timeString);
         List<CloudPerson> filteredList = filterPersonsByTime(fullPersonList, time);
 
-        List<CloudPerson> queryResults = getQueryResults(pageNumber, resourcesPerPage, filteredList);
-
-        RemoteResponse contentResponse = new RemoteResponse(HttpURLConnection.HTTP_OK, queryResults,
-                                                            cloudRateLimitStatus, previousETag);
-        if (isNotModifiedResponse(contentResponse)) return contentResponse;
-
-        if (isValidPageNumber(filteredList.size(), pageNumber, resourcesPerPage)) {
-            fillInPageNumbers(pageNumber, resourcesPerPage, filteredList, contentResponse);
-        }
-        return contentResponse;
+        return getPageResponse(pageNumber, resourcesPerPage, filteredList, previousETag);
     }
 
     /**
@@ -441,18 +535,18 @@ public class CloudSimulator implements IRemote {
         return fullResourceList.subList(startIndex, endIndex);
     }
 
-    private RemoteResponse getEmptyResponse(int responseCode) {
+    protected RemoteResponse getEmptyResponse(int responseCode) {
         logger.debug("Preparing empty response: {}", responseCode);
         return new RemoteResponse(responseCode, null, cloudRateLimitStatus, null);
     }
 
-    private List<CloudPerson> filterPersonsByTime(List<CloudPerson> personList, LocalDateTime time) {
+    protected List<CloudPerson> filterPersonsByTime(List<CloudPerson> personList, LocalDateTime time) {
         return personList.stream()
                 .filter(person -> !person.getLastUpdatedAt().isBefore(time))
                 .collect(Collectors.toList());
     }
 
-    private boolean hasApiQuotaRemaining() {
+    protected boolean hasApiQuotaRemaining() {
         logger.info("Current quota left: {}", cloudRateLimitStatus.getQuotaRemaining());
         return cloudRateLimitStatus.getQuotaRemaining() > 0;
     }
@@ -3,6 +3,8 @@ package address.sync.cloud;
 import address.sync.cloud.model.CloudPerson;
 import address.sync.cloud.model.CloudTag;
 
+import java.util.List;
+
 public interface IRemote {
     RemoteResponse createPerson(String addressBookName, CloudPerson newPerson, String previousETag);
     RemoteResponse getPersons(String addressBookName, int pageNumber, int resourcesPerPage, String previousETag);
@@ -12,6 +14,9 @@ public interface IRemote {
     RemoteResponse getRateLimitStatus(String previousETag);
     RemoteResponse updatePerson(String addressBookName, int personId, CloudPerson updatedPerson, String previousETag);
     RemoteResponse deletePerson(String addressBookName, int personId);
+    RemoteResponse createPersons(String addressBookName, List<CloudPerson> newPersons);
+    RemoteResponse updatePersons(String addressBookName, List<CloudPerson> updatedPersons);
+    RemoteResponse deletePersons(String addressBookName, List<Integer> personIds);
     RemoteResponse createTag(String addressBookName, CloudTag newTag, String previousETag);
     RemoteResponse editTag(String addressBookName, String oldTagName, CloudTag updatedTag, String previousETag);
     RemoteResponse deleteTag(String addressBookName, String tagName);
@@ -0,0 +1,555 @@
+package address.sync.cloud;
+
+import address.exceptions.DataConversionException;
+import address.sync.cloud.model.CloudAddressBook;
+import address.sync.cloud.model.CloudPerson;
+import address.sync.cloud.model.CloudTag;
+import address.util.AppLogger;
+import address.util.Config;
+import address.util.LoggerManager;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * A cloud simulator that keeps each address book in memory instead of reading and writing its cloud file on every
+ * request, for load tests that need more requests per second than the file-based simulator can serve
+ *
+ * An address book is read from its cloud file on its first request, and kept with its persons indexed by id and its
+ * tags by name. Requests to an address book hold its read or write lock, so that requests to different address books,
+ * and reads of the same one, do not wait for each other.
+ *
+ * Changes are written to the cloud file in the background, WRITE_DELAY_MILLIS after the first change since the last
+ * write, so that all the changes made in that time are written together. Use {@link #flush()} to write pending changes
+ * right away, e.g. before reading the cloud files.
+ */
+public class InMemoryCloudSimulator extends CloudSimulator {
+    private static final AppLogger logger = LoggerManager.getLogger(InMemoryCloudSimulator.class);
+    private static final long WRITE_DELAY_MILLIS = 500;
+
+    private final Map<String, CloudBook> books;
+    private final ScheduledExecutorService writeExecutor;
+    private final AtomicLong writeCount;
+
+    /**
+     * An address book kept in memory, to be accessed only while holding its lock
+     */
+    private static class CloudBook {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final String name;
+        private final List<CloudPerson> persons; // in the order they are listed
+        private final Map<Integer, CloudPerson> personsById;
+        private Map<String, CloudTag> tagsByName; // in the order they are listed
+        private boolean isWriteScheduled;
+
+        private CloudBook(CloudAddressBook cloudAddressBook) {
+            name = cloudAddressBook.getName();
+            persons = new ArrayList<>(cloudAddressBook.getAllPersons());
+            personsById = new HashMap<>();
+            persons.forEach(person -> personsById.put(person.getId(), person));
+            tagsByName = new LinkedHashMap<>();
+            cloudAddressBook.getAllTags().forEach(tag -> tagsByName.put(tag.getName(), tag));
+        }
+
+        private CloudAddressBook toCloudAddressBook() {
+            return new CloudAddressBook(name, new ArrayList<>(persons), new ArrayList<>(tagsByName.values()));
+        }
+    }
+
+    {
+        books = new ConcurrentHashMap<>();
+        writeCount = new AtomicLong(0);
+        writeExecutor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "Cloud file writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    protected InMemoryCloudSimulator(CloudFileHandler fileHandler, CloudRateLimitStatus cloudRateLimitStatus) {
+        super(fileHandler, cloudRateLimitStatus);
+    }
+
+    /**
+     * Pending changes are written when the JVM shuts down normally
+     */
+    public InMemoryCloudSimulator(Config config) {
+        super(config);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "Cloud file flush"));
+    }
+
+    /**
+     * Writes the changes not yet written to the cloud files, waiting for the writes to finish
+     */
+    public void flush() {
+        try {
+            writeExecutor.submit(() -> books.values().forEach(this::writeIfScheduled)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            logger.warn("Error flushing cloud files: {}", e);
+        }
+    }
+
+    /**
+     * Writes the changes not yet written and stops the background writer
+     */
+    public void stop() {
+        flush();
+        writeExecutor.shutdown();
+    }
+
+    /**
+     * @return the number of times a cloud file has been written
+     */
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    @Override
+    public RemoteResponse createPerson(String addressBookName, CloudPerson newPerson, String previousETag) {
+        logger.debug("createPerson called with: addressbook {}, person {}, prevETag {}", addressBookName, newPerson,
+                previousETag);
+        if (!hasApiQuotaRemaining()) return RemoteResponse.getForbiddenResponse(cloudRateLimitStatus);
+        if (newPerson == null || !newPerson.isValid()) return getEmptyResponse(HttpURLConnection.HTTP_BAD_REQUEST);
+
+        try {
+            CloudBook book = getBook(addressBookName);
+            Lock writeLock = book.lock.writeLock();
+            writeLock.lock();
+            try {
+                CloudPerson returnedPerson = addPerson(book, newPerson);
+                scheduleWrite(book);
+                return new RemoteResponse(HttpURLConnection.HTTP_CREATED, returnedPerson, cloudRateLimitStatus,
+                                          previousETag);
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (FileNotFoundException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_NOT_FOUND);
+        } catch (DataConversionException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_INTERNAL_ERROR);
+        }
+    }
+
+    @Override
+    public RemoteResponse getPersons(String addressBookName, int pageNumber, int resourcesPerPage,
+                                     String previousETag) {
+        logger.debug("getPersons called with: addressbook {}, page {}, resourcesperpage {}, prevETag {}",
+                addressBookName, pageNumber, resourcesPerPage, previousETag);
+        if (!hasApiQuotaRemaining()) return RemoteResponse.getForbiddenResponse(cloudRateLimitStatus);
+
+        try {
+            CloudBook book = getBook(addressBookName);
+            Lock readLock = book.lock.readLock();
+            readLock.lock();
+            try {
+                return getPageResponse(pageNumber, resourcesPerPage, book.persons, previousETag);
+            } finally {
+                readLock.unlock();
+            }
+        } catch (FileNotFoundException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_NOT_FOUND);
+        } catch (DataConversionException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_INTERNAL_ERROR);
+        }
+    }
+
+    @Override
+    public RemoteResponse getUpdatedPersons(String addressBookName, String timeString, int pageNumber,
+                                            int resourcesPerPage, String previousETag) {
+        logger.debug("getUpdatedPersons called with: addressbook {}, time {}, pageno {}, resourcesperpage {}, "
+                        + "prevETag {}", addressBookName, timeString, pageNumber, resourcesPerPage, previousETag);
+        if (!hasApiQuotaRemaining()) return RemoteResponse.getForbiddenResponse(cloudRateLimitStatus);
+
+        try {
+            CloudBook book = getBook(addressBookName);
+            Lock readLock = book.lock.readLock();
+            readLock.lock();
+            try {
+                List<CloudPerson> filteredList = filterPersonsByTime(book.persons, LocalDateTime.parse(timeString));
+                return getPageResponse(pageNumber, resourcesPerPage, filteredList, previousETag);
+            } finally {
+                readLock.unlock();
+            }
+        } catch (FileNotFoundException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_NOT_FOUND);
+        } catch (DataConversionException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_INTERNAL_ERROR);
+        }
+    }
+
+    @Override
+    public RemoteResponse getTags(String addressBookName, int pageNumber, int resourcesPerPage,
+                                  String previousETag) {
+        logger.debug("getTags called with: addressbook {}, page {}, resourcesperpage {}, prevETag {}", addressBookName,
+                pageNumber, resourcesPerPage, previousETag);
+        if (!hasApiQuotaRemaining()) return RemoteResponse.getForbiddenResponse(cloudRateLimitStatus);
+
+        try {
+            CloudBook book = getBook(addressBookName);
+            Lock readLock = book.lock.readLock();
+            readLock.lock();
+            try {
+                return getPageResponse(pageNumber, resourcesPerPage, new ArrayList<>(book.tagsByName.values()),
+                                       previousETag);
+            } finally {
+                readLock.unlock();
+            }
+        } catch (FileNotFoundException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_NOT_FOUND);
+        } catch (DataConversionException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_INTERNAL_ERROR);
+        }
+    }
+
+    @Override
+    public RemoteResponse getRateLimitStatus(String previousETag) {
+        logger.debug("getRateLimitStatus called with: prevETag {}", previousETag);
+        return RemoteResponse.getLimitStatusResponse(cloudRateLimitStatus);
+    }
+
+    @Override
+    public RemoteResponse updatePerson(String addressBookName, int personId, CloudPerson updatedPerson,
+                                       String previousETag) {
+        logger.debug("updatePerson called with: addressbook {}, personid {}, person {}, prevETag {}", addressBookName,
+                personId, updatedPerson, previousETag);
+        if (!hasApiQuotaRemaining()) return RemoteResponse.getForbiddenResponse(cloudRateLimitStatus);
+
+        try {
+            CloudBook book = getBook(addressBookName);
+            Lock writeLock = book.lock.writeLock();
+            writeLock.lock();
+            try {
+                CloudPerson resultingPerson = updatePersonDetails(book, personId, updatedPerson);
+                scheduleWrite(book);
+                return new RemoteResponse(HttpURLConnection.HTTP_OK, resultingPerson, cloudRateLimitStatus,
+                                          previousETag);
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (NoSuchElementException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_BAD_REQUEST);
+        } catch (FileNotFoundException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_NOT_FOUND);
+        } catch (DataConversionException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_INTERNAL_ERROR);
+        }
+    }
+
+    @Override
+    public RemoteResponse deletePerson(String addressBookName, int personId) {
+        logger.debug("deletePerson called with: addressbook {}, personid {}", addressBookName, personId);
+        if (!hasApiQuotaRemaining()) return RemoteResponse.getForbiddenResponse(cloudRateLimitStatus);
+
+        try {
+            CloudBook book = getBook(addressBookName);
+            Lock writeLock = book.lock.writeLock();
+            writeLock.lock();
+            try {
+                getPersonIfExists(book, personId).setDeleted(true);
+                scheduleWrite(book);
+                return getEmptyResponse(HttpURLConnection.HTTP_NO_CONTENT);
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (NoSuchElementException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_BAD_REQUEST);
+        } catch (FileNotFoundException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_NOT_FOUND);
+        } catch (DataConversionException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_INTERNAL_ERROR);
+        }
+    }
+
+    @Override
+    public RemoteResponse createPersons(String addressBookName, List<CloudPerson> newPersons) {
+        logger.debug("createPersons called with: addressbook {}, {} persons", addressBookName, newPersons.size());
+        if (!hasApiQuotaRemaining()) return RemoteResponse.getForbiddenResponse(cloudRateLimitStatus);
+
+        try {
+            CloudBook book = getBook(addressBookName);
+            Lock writeLock = book.lock.writeLock();
+            writeLock.lock();
+            try {
+                List<CloudPerson> returnedPersons = new ArrayList<>();
+                for (CloudPerson newPerson : newPersons) {
+                    boolean isValid = newPerson != null && newPerson.isValid();
+                    returnedPersons.add(isValid ? addPerson(book, newPerson) : null);
+                }
+                scheduleWrite(book);
+                return new RemoteResponse(HttpURLConnection.HTTP_CREATED, returnedPersons, cloudRateLimitStatus,
+                                          null);
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (FileNotFoundException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_NOT_FOUND);
+        } catch (DataConversionException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_INTERNAL_ERROR);
+        }
+    }
+
+    @Override
+    public RemoteResponse updatePersons(String addressBookName, List<CloudPerson> updatedPersons) {
+        logger.debug("updatePersons called with: addressbook {}, {} persons", addressBookName, updatedPersons.size());
+        if (!hasApiQuotaRemaining()) return RemoteResponse.getForbiddenResponse(cloudRateLimitStatus);
+
+        try {
+            CloudBook book = getBook(addressBookName);
+            Lock writeLock = book.lock.writeLock();
+            writeLock.lock();
+            try {
+                List<CloudPerson> resultingPersons = new ArrayList<>();
+                for (CloudPerson updatedPerson : updatedPersons) {
+                    try {
+                        resultingPersons.add(updatePersonDetails(book, updatedPerson.getId(), updatedPerson));
+                    } catch (NoSuchElementException e) {
+                        logger.debug("Person {} not found for update", updatedPerson.getId());
+                    }
+                }
+                scheduleWrite(book);
+                return new RemoteResponse(HttpURLConnection.HTTP_OK, resultingPersons, cloudRateLimitStatus, null);
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (FileNotFoundException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_NOT_FOUND);
+        } catch (DataConversionException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_INTERNAL_ERROR);
+        }
+    }
+
+    @Override
+    public RemoteResponse deletePersons(String addressBookName, List<Integer> personIds) {
+        logger.debug("deletePersons called with: addressbook {}, personids {}", addressBookName, personIds);
+        if (!hasApiQuotaRemaining()) return RemoteResponse.getForbiddenResponse(cloudRateLimitStatus);
+
+        try {
+            CloudBook book = getBook(addressBookName);
+            Lock writeLock = book.lock.writeLock();
+            writeLock.lock();
+            try {
+                List<Integer> deletedIds = new ArrayList<>();
+                for (int personId : personIds) {
+                    CloudPerson person = book.personsById.get(personId);
+                    if (person == null) {
+                        logger.debug("Person {} not found for deletion", personId);
+                        continue;
+                    }
+                    person.setDeleted(true);
+                    deletedIds.add(personId);
+                }
+                scheduleWrite(book);
+                return new RemoteResponse(HttpURLConnection.HTTP_OK, deletedIds, cloudRateLimitStatus, null);
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (FileNotFoundException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_NOT_FOUND);
+        } catch (DataConversionException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_INTERNAL_ERROR);
+        }
+    }
+
+    @Override
+    public RemoteResponse createTag(String addressBookName, CloudTag newTag, String previousETag) {
+        logger.debug("createTag called with: addressbook {}, tag {}, prevETag {}", addressBookName, newTag,
+                previousETag);
+        if (!hasApiQuotaRemaining()) return RemoteResponse.getForbiddenResponse(cloudRateLimitStatus);
+        if (newTag == null || !newTag.isValid()) return getEmptyResponse(HttpURLConnection.HTTP_BAD_REQUEST);
+
+        try {
+            CloudBook book = getBook(addressBookName);
+            Lock writeLock = book.lock.writeLock();
+            writeLock.lock();
+            try {
+                if (book.tagsByName.containsKey(newTag.getName())) {
+                    return getEmptyResponse(HttpURLConnection.HTTP_BAD_REQUEST);
+                }
+                book.tagsByName.put(newTag.getName(), newTag);
+                scheduleWrite(book);
+                return new RemoteResponse(HttpURLConnection.HTTP_CREATED, newTag, cloudRateLimitStatus,
+                                          previousETag);
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (FileNotFoundException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_NOT_FOUND);
+        } catch (DataConversionException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_INTERNAL_ERROR);
+        }
+    }
+
+    @Override
+    public RemoteResponse editTag(String addressBookName, String oldTagName, CloudTag updatedTag,
+                                  String previousETag) {
+        logger.debug("editTag called with: addressbook {}, tagname {}, tag {}, prevETag {}", addressBookName,
+                oldTagName, updatedTag, previousETag);
+        if (!hasApiQuotaRemaining()) return RemoteResponse.getForbiddenResponse(cloudRateLimitStatus);
+
+        try {
+            CloudBook book = getBook(addressBookName);
+            Lock writeLock = book.lock.writeLock();
+            writeLock.lock();
+            try {
+                CloudTag oldTag = book.tagsByName.get(oldTagName);
+                if (oldTag == null) return getEmptyResponse(HttpURLConnection.HTTP_BAD_REQUEST);
+                oldTag.updatedBy(updatedTag);
+                renameTagKey(book, oldTagName, oldTag);
+                book.persons.forEach(person -> person.getTags().stream()
+                        .filter(personTag -> personTag.getName().equals(oldTagName))
+                        .forEach(personTag -> personTag.updatedBy(updatedTag)));
+                scheduleWrite(book);
+                return new RemoteResponse(HttpURLConnection.HTTP_OK, oldTag, cloudRateLimitStatus, previousETag);
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (FileNotFoundException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_NOT_FOUND);
+        } catch (DataConversionException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_INTERNAL_ERROR);
+        }
+    }
+
+    @Override
+    public RemoteResponse deleteTag(String addressBookName, String tagName) {
+        logger.debug("deleteTag called with: addressbook {}, tagname {}", addressBookName, tagName);
+        if (!hasApiQuotaRemaining()) return RemoteResponse.getForbiddenResponse(cloudRateLimitStatus);
+
+        try {
+            CloudBook book = getBook(addressBookName);
+            Lock writeLock = book.lock.writeLock();
+            writeLock.lock();
+            try {
+                if (book.tagsByName.remove(tagName) == null) {
+                    return getEmptyResponse(HttpURLConnection.HTTP_BAD_REQUEST);
+                }
+                book.persons.forEach(person -> person.setTags(person.getTags().stream()
+                        .filter(personTag -> !personTag.getName().equals(tagName))
+                        .collect(Collectors.toList())));
+                scheduleWrite(book);
+                return getEmptyResponse(HttpURLConnection.HTTP_NO_CONTENT);
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (FileNotFoundException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_NOT_FOUND);
+        } catch (DataConversionException e) {
+            return getEmptyResponse(HttpURLConnection.HTTP_INTERNAL_ERROR);
+        }
+    }
+
+    @Override
+    public RemoteResponse createAddressBook(String addressBookName) {
+        logger.debug("createAddressBook called with: addressbook {}", addressBookName);
+        if (!hasApiQuotaRemaining()) return RemoteResponse.getForbiddenResponse(cloudRateLimitStatus);
+
+        synchronized (books) {
+            if (books.containsKey(addressBookName)) return getEmptyResponse(HttpURLConnection.HTTP_BAD_REQUEST);
+            try {
+                fileHandler.createAddressBook(addressBookName);
+                books.put(addressBookName, new CloudBook(new CloudAddressBook(addressBookName)));
+                return getEmptyResponse(HttpURLConnection.HTTP_CREATED);
+            } catch (DataConversionException | IOException e) {
+                return getEmptyResponse(HttpURLConnection.HTTP_INTERNAL_ERROR);
+            } catch (IllegalArgumentException e) {
+                return getEmptyResponse(HttpURLConnection.HTTP_BAD_REQUEST);
+            }
+        }
+    }
+
+    /**
+     * @return the address book kept in memory, read from its cloud file if it is not kept yet
+     */
+    private CloudBook getBook(String addressBookName) throws FileNotFoundException, DataConversionException {
+        CloudBook book = books.get(addressBookName);
+        if (book != null) return book;
+        synchronized (books) {
+            book = books.get(addressBookName);
+            if (book == null) {
+                book = new CloudBook(fileHandler.readCloudAddressBook(addressBookName));
+                books.put(addressBookName, book);
+            }
+            return book;
+        }
+    }
+
+    /**
+     * Adds a copy of newPerson with a new ID, which must be called with the book's write lock held
+     */
+    private CloudPerson addPerson(CloudBook book, CloudPerson newPerson) {
+        CloudPerson personToAdd = new CloudPerson(newPerson);
+        personToAdd.setId(book.persons.size() + 1);
+        book.persons.add(personToAdd);
+        book.personsById.put(personToAdd.getId(), personToAdd);
+        return personToAdd;
+    }
+
+    private CloudPerson updatePersonDetails(CloudBook book, int personId, CloudPerson updatedPerson)
+            throws NoSuchElementException {
+        CloudPerson oldPerson = getPersonIfExists(book, personId);
+        oldPerson.updatedBy(updatedPerson);
+        updatedPerson.getTags().forEach(tag -> book.tagsByName.putIfAbsent(tag.getName(), tag));
+        return oldPerson;
+    }
+
+    private CloudPerson getPersonIfExists(CloudBook book, int personId) throws NoSuchElementException {
+        CloudPerson person = book.personsById.get(personId);
+        if (person == null) throw new NoSuchElementException("No such person found.");
+        return person;
+    }
+
+    /**
+     * Keys the tag by its new name, keeping its place in the order the tags are listed
+     */
+    private void renameTagKey(CloudBook book, String oldTagName, CloudTag tag) {
+        if (oldTagName.equals(tag.getName())) return;
+        Map<String, CloudTag> tagsByName = new LinkedHashMap<>();
+        book.tagsByName.forEach((name, existingTag) -> tagsByName.put(existingTag == tag ? tag.getName() : name,
+                                                                       existingTag));
+        book.tagsByName = tagsByName;
+    }
+
+    /**
+     * Schedules a write of the book's cloud file if one is not already scheduled, which must be called with the book's
+     * write lock held
+     */
+    private void scheduleWrite(CloudBook book) {
+        if (book.isWriteScheduled) return;
+        book.isWriteScheduled = true;
+        try {
+            writeExecutor.schedule(() -> writeIfScheduled(book), WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Cloud simulator stopped, changes to '{}' will not be written.", book.name);
+        }
+    }
+
+    /**
+     * Writes the book's cloud file if a write is scheduled. The book's read lock is held while writing, as the persons
+     * and tags written are those kept in memory, so requests that change the book wait for the write to finish.
+     */
+    private void writeIfScheduled(CloudBook book) {
+        Lock readLock = book.lock.readLock();
+        readLock.lock();
+        try {
+            if (!book.isWriteScheduled) return;
+            book.isWriteScheduled = false;
+            fileHandler.writeCloudAddressBook(book.toCloudAddressBook());
+            writeCount.incrementAndGet();
+        } catch (FileNotFoundException | DataConversionException e) {
+            logger.warn("Error writing cloud file for '{}': {}", book.name, e);
+        } finally {
+            readLock.unlock();
+        }
+    }
+}
@@ -5,15 +5,11 @@ import commons.JsonUtil;
 import address.util.LoggerManager;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
-import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
-import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.Formatter;
 import java.util.HashMap;
 
 /**
@@ -37,7 +33,8 @@ public class RemoteResponse {
 
     public RemoteResponse(int responseCode, Object body, CloudRateLimitStatus cloudRateLimitStatus,
                           String previousETag) {
-        String newETag = getETag(convertToInputStream(body));
+        byte[] bodyBytes = convertToBytes(body);
+        String newETag = getETag(bodyBytes);
 
         if (previousETag != null && previousETag.equals(newETag)) {
             this.responseCode = HttpURLConnection.HTTP_NOT_MODIFIED;
@@ -48,7 +45,7 @@ public class RemoteResponse {
         cloudRateLimitStatus.useQuota(1);
         this.responseCode = responseCode;
         this.headers = getHeaders(cloudRateLimitStatus, newETag);
-        this.body = convertToInputStream(body);
+        this.body = bodyBytes == null ? null : new ByteArrayInputStream(bodyBytes);
     }
 
     private RemoteResponse(int responseCode, CloudRateLimitStatus cloudRateLimitStatus) {
@@ -116,32 +113,22 @@ public class RemoteResponse {
     }
 
     /**
-     * Calculates the hash of the input stream if it has content
-     *
-     * WARNING: The input stream will be digested. Caller should clone or
-     * duplicate the stream before calling this method.
+     * Calculates the hash of the serialized body, digesting its bytes in one block
      *
-     * @param bodyStream
+     * @param bodyBytes
      * @return
      */
-    private String getETag(InputStream bodyStream) {
-        if (bodyStream == null) return null;
+    private String getETag(byte[] bodyBytes) {
+        if (bodyBytes == null) return null;
         try {
-            // Adapted from http://www.javacreed.com/how-to-compute-hash-code-of-streams/
-            DigestInputStream digestInputStream = new DigestInputStream(new BufferedInputStream(bodyStream),
-                                                                        MessageDigest.getInstance("SHA-1"));
-
-            while (digestInputStream.read() != -1) {}
+            final byte[] digest = MessageDigest.getInstance("SHA-1").digest(bodyBytes);
 
-            final byte[] digest = digestInputStream.getMessageDigest().digest();
-
-            Formatter formatter = new Formatter();
+            StringBuilder eTag = new StringBuilder(digest.length * 2);
             for (final byte b : digest) {
-                formatter.format("%02x", b);
+                eTag.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
             }
-
-            return formatter.toString();
-        } catch (NoSuchAlgorithmException | IOException e) {
+            return eTag.toString();
+        } catch (NoSuchAlgorithmException e) {
             logger.warn("Error generating ETag for response");
             return null;
         }
@@ -166,11 +153,19 @@ public class RemoteResponse {
     }
 
     private ByteArrayInputStream convertToInputStream(Object object) {
+        byte[] bytes = convertToBytes(object);
+        return bytes == null ? null : new ByteArrayInputStream(bytes);
+    }
+
+    /**
+     * Converts the object to compact JSON, as a remote would send it without whitespace
+     */
+    private byte[] convertToBytes(Object object) {
         if (object == null) return null;
         try {
-            return new ByteArrayInputStream(JsonUtil.toJsonString(object).getBytes());
+            return JsonUtil.toCompactJsonBytes(object);
         } catch (JsonProcessingException e) {
-            logger.warn("Error converting object {} to input stream", object);
+            logger.warn("Error converting object {} to bytes", object);
             return null;
         }
     }
@@ -0,0 +1,42 @@
+package address.sync.task;
+
+import address.exceptions.SyncErrorException;
+import address.model.datatypes.person.Person;
+import address.model.datatypes.person.ReadOnlyPerson;
+import address.sync.RemoteManager;
+import address.util.AppLogger;
+import address.util.LoggerManager;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Creates persons on the remote in one request
+ *
+ * The result has the created persons in the order given, with null for those that could not be created
+ */
+public class CreatePersonsOnRemoteTask extends RemoteTaskWithResult<List<Person>> {
+    private static final AppLogger logger = LoggerManager.getLogger(CreatePersonsOnRemoteTask.class);
+    private final String addressBookName;
+    private final List<ReadOnlyPerson> persons;
+
+    public CreatePersonsOnRemoteTask(RemoteManager remoteManager, String addressBookName,
+                                     List<ReadOnlyPerson> persons) {
+        super(remoteManager);
+        this.addressBookName = addressBookName;
+        this.persons = persons;
+    }
+
+    @Override
+    public List<Person> call() throws SyncErrorException {
+        logger.info("Creating {} persons in {} on remote", persons.size(), addressBookName);
+        try {
+            Optional<List<Person>> createdPersons = remoteManager.createPersons(addressBookName, persons);
+            if (!createdPersons.isPresent()) throw new SyncErrorException("Error creating persons");
+            return createdPersons.get();
+        } catch (IOException e) {
+            throw new SyncErrorException("Error creating persons");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package address.sync.task;
+
+import address.exceptions.SyncErrorException;
+import address.sync.RemoteManager;
+import address.util.AppLogger;
+import address.util.LoggerManager;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Deletes persons on the remote in one request
+ *
+ * The result has the ids of the persons deleted
+ */
+public class DeletePersonsOnRemoteTask extends RemoteTaskWithResult<List<Integer>> {
+    private static final AppLogger logger = LoggerManager.getLogger(DeletePersonsOnRemoteTask.class);
+    private final String addressBookName;
+    private final List<Integer> personIds;
+
+    public DeletePersonsOnRemoteTask(RemoteManager remoteManager, String addressBookName, List<Integer> personIds) {
+        super(remoteManager);
+        this.addressBookName = addressBookName;
+        this.personIds = personIds;
+    }
+
+    @Override
+    public List<Integer> call() throws SyncErrorException {
+        logger.info("Deleting persons {} from {} on remote", personIds, addressBookName);
+        try {
+            Optional<List<Integer>> deletedIds = remoteManager.deletePersons(addressBookName, personIds);
+            if (!deletedIds.isPresent()) throw new SyncErrorException("Error deleting persons");
+            return deletedIds.get();
+        } catch (IOException e) {
+            throw new SyncErrorException("Error deleting persons " + personIds + " from " + addressBookName
+                    + " on remote");
+        }
+    }
+}
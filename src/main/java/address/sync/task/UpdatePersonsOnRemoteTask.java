@@ -0,0 +1,43 @@
+package address.sync.task;
+
+import address.exceptions.SyncErrorException;
+import address.model.datatypes.person.Person;
+import address.model.datatypes.person.ReadOnlyPerson;
+import address.sync.RemoteManager;
+import address.util.AppLogger;
+import address.util.LoggerManager;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Updates persons on the remote in one request
+ *
+ * The result has the updated persons by id, without those that could not be updated
+ */
+public class UpdatePersonsOnRemoteTask extends RemoteTaskWithResult<Map<Integer, Person>> {
+    private static final AppLogger logger = LoggerManager.getLogger(UpdatePersonsOnRemoteTask.class);
+    private final String addressBookName;
+    private final Map<Integer, ReadOnlyPerson> updatedPersons;
+
+    public UpdatePersonsOnRemoteTask(RemoteManager remoteManager, String addressBookName,
+                                     Map<Integer, ReadOnlyPerson> updatedPersons) {
+        super(remoteManager);
+        this.addressBookName = addressBookName;
+        this.updatedPersons = updatedPersons;
+    }
+
+    @Override
+    public Map<Integer, Person> call() throws SyncErrorException {
+        logger.info("Updating {} persons in {} on remote", updatedPersons.size(), addressBookName);
+        try {
+            Optional<Map<Integer, Person>> resultingPersons = remoteManager.updatePersons(addressBookName,
+                                                                                          updatedPersons);
+            if (!resultingPersons.isPresent()) throw new SyncErrorException("Error updating persons");
+            return resultingPersons.get();
+        } catch (IOException e) {
+            throw new SyncErrorException("Error updating persons");
+        }
+    }
+}
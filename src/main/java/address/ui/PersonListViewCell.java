@@ -20,15 +20,23 @@ import javafx.scene.layout.HBox;
 import javafx.scene.paint.Color;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class PersonListViewCell extends ListCell<ReadOnlyViewablePerson> {
     private static final int SCROLL_AREA = 15;
 
-    public PersonListViewCell(ReorderedList<ReadOnlyViewablePerson> reorderedList) {
+    /**
+     * @param movedHandler given the new indices of the persons dropped in the list, after they are moved
+     */
+    public PersonListViewCell(ReorderedList<ReadOnlyViewablePerson> reorderedList,
+                              Consumer<Collection<Integer>> movedHandler) {
 
         setOnMouseClicked(event -> {
             if (getItem() == null) {
@@ -101,13 +109,14 @@ public class PersonListViewCell extends ListCell<ReadOnlyViewablePerson> {
             if (dragboard.hasContent(DragContainer.ADDRESS_BOOK_PERSON_UUID)) {
                 DragContainer container = (DragContainer) dragboard.getContent(DragContainer.ADDRESS_BOOK_PERSON_UUID);
                 ObservableList<ReadOnlyViewablePerson> listsOfPerson = getListView().getItems();
+                Set<Integer> dragPersonIds = new HashSet<>(container.getData());
                 List<ReadOnlyViewablePerson> listOfDragPersons =
                         listsOfPerson.stream()
-                                     .filter(p -> container.getData()
-                                                           .contains(p.getId()))
-                                                           .collect(Collectors.toCollection(ArrayList::new));
+                                     .filter(p -> dragPersonIds.contains(p.getId()))
+                                     .collect(Collectors.toCollection(ArrayList::new));
                 int moveToIndex = computeMoveToIndex(event.getSceneY(), listOfDragPersons);
                 Collection<Integer> movedIndices = reorderedList.moveElements(listOfDragPersons, moveToIndex);
+                movedHandler.accept(movedIndices);
                 selectIndices(movedIndices);
             }
             event.setDropCompleted(true);
@@ -147,7 +156,9 @@ public class PersonListViewCell extends ListCell<ReadOnlyViewablePerson> {
      * @param movedIndices
      */
     private void selectIndices(Collection<Integer> movedIndices) {
-        movedIndices.forEach(index -> getListView().getSelectionModel().select(index));
+        if (movedIndices.isEmpty()) return;
+        int[] indices = movedIndices.stream().mapToInt(Integer::intValue).toArray();
+        getListView().getSelectionModel().selectIndices(indices[0], Arrays.copyOfRange(indices, 1, indices.length));
     }
 
     /**
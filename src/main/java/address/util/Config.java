@@ -17,7 +17,9 @@ public class Config {
     private static final int DEFAULT_BROWSER_NO_OF_PAGES = 3;
     private static final BrowserType DEFAULT_BROWSER_TYPE = BrowserType.FULL_FEATURE_BROWSER;
     private static final String DEFAULT_LOCAL_DATA_FILE_PATH = "data/addressbook.xml";
+    private static final String DEFAULT_LOCAL_DATA_FILE_FORMAT = "XML";
     private static final String DEFAULT_CLOUD_DATA_FILE_PATH = null; // For use in CloudManipulator for manual testing
+    private static final boolean DEFAULT_CLOUD_IN_MEMORY = false;
     private static final String DEFAULT_ADDRESS_BOOK_NAME = "MyAddressBook";
 
     // Config values
@@ -30,7 +32,9 @@ public class Config {
     private int browserNoOfPages = DEFAULT_BROWSER_NO_OF_PAGES;
     private BrowserType browserType = DEFAULT_BROWSER_TYPE;
     private String localDataFilePath = DEFAULT_LOCAL_DATA_FILE_PATH;
+    private String localDataFileFormat = DEFAULT_LOCAL_DATA_FILE_FORMAT;
     private String cloudDataFilePath = DEFAULT_CLOUD_DATA_FILE_PATH;
+    private boolean cloudInMemory = DEFAULT_CLOUD_IN_MEMORY;
     private String addressBookName = DEFAULT_ADDRESS_BOOK_NAME;
 
 
@@ -101,6 +105,18 @@ public class Config {
         this.localDataFilePath = localDataFilePath;
     }
 
+    /**
+     * Name of the format used when saving the local data file, e.g. "XML" or "BINARY" (see
+     * {@code address.storage.DataFileFormat}). Existing files are loaded in whichever format they are in.
+     */
+    public String getLocalDataFileFormat() {
+        return localDataFileFormat;
+    }
+
+    public void setLocalDataFileFormat(String localDataFileFormat) {
+        this.localDataFileFormat = localDataFileFormat;
+    }
+
     public String getCloudDataFilePath() {
         return cloudDataFilePath;
     }
@@ -109,6 +125,17 @@ public class Config {
         this.cloudDataFilePath = cloudDataFilePath;
     }
 
+    /**
+     * Whether the cloud simulator keeps address books in memory, writing its cloud files in the background
+     */
+    public boolean isCloudInMemory() {
+        return cloudInMemory;
+    }
+
+    public void setCloudInMemory(boolean cloudInMemory) {
+        this.cloudInMemory = cloudInMemory;
+    }
+
     public String getAddressBookName() {
         return addressBookName;
     }
@@ -0,0 +1,215 @@
+package address.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Generates keys that sort (as plain strings) between two given keys, so that an element can be placed anywhere in a
+ * user-defined order by giving it a new key, without changing the keys of the other elements.
+ *
+ * A key is an integer part followed by a fractional part, both in base-62 digits ordered as in ASCII. The first
+ * character of the integer part gives its number of digits: 'a' to 'z' for 1 to 26 digits of non-negative
+ * integers, 'Z' down to 'A' for 1 to 26 digits of negative ones. Appending to either end increments or decrements
+ * the integer, so keys grow only logarithmically however many elements are appended. Placing an element between two
+ * others takes the midpoint of their fractional parts. A fractional part never ends with the digit '0', so there is
+ * always room for a key before any other.
+ */
+public class FractionalIndex {
+    private static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+    private static final char ZERO_DIGIT = DIGITS.charAt(0);
+    private static final char LAST_DIGIT = DIGITS.charAt(BASE - 1);
+    private static final String INTEGER_ZERO = "a0";
+    private static final String SMALLEST_INTEGER = "A" + repeat(ZERO_DIGIT, 26);
+
+    /**
+     * @param before the key to sort after, or null for the start of the order
+     * @param after the key to sort before, or null for the end of the order
+     * @return a key between {@code before} and {@code after}
+     * @throws IllegalArgumentException if {@code before} is not less than {@code after}, or either is not a key
+     */
+    public static String keyBetween(String before, String after) {
+        if (before != null) validate(before);
+        if (after != null) validate(after);
+        if (before != null && after != null && before.compareTo(after) >= 0) {
+            throw new IllegalArgumentException(before + " is not less than " + after);
+        }
+
+        if (before == null && after == null) return INTEGER_ZERO;
+        if (before == null) {
+            final String integer = getIntegerPart(after);
+            final String fraction = after.substring(integer.length());
+            if (integer.equals(SMALLEST_INTEGER)) return integer + midpoint("", fraction);
+            if (integer.compareTo(after) < 0) return integer;
+            final String decremented = decrementInteger(integer);
+            if (decremented == null) throw new IllegalArgumentException("Cannot go before " + after);
+            return decremented;
+        }
+        final String integer = getIntegerPart(before);
+        final String fraction = before.substring(integer.length());
+        if (after == null) {
+            final String incremented = incrementInteger(integer);
+            return incremented == null ? integer + midpoint(fraction, null) : incremented;
+        }
+        final String afterInteger = getIntegerPart(after);
+        if (integer.equals(afterInteger)) {
+            return integer + midpoint(fraction, after.substring(afterInteger.length()));
+        }
+        final String incremented = incrementInteger(integer);
+        if (incremented == null) throw new IllegalArgumentException("Cannot go after " + before);
+        return incremented.compareTo(after) < 0 ? incremented : integer + midpoint(fraction, null);
+    }
+
+    /**
+     * Keys between two keys spread over the range, so that they stay short however many there are
+     *
+     * @return {@code count} keys in ascending order between {@code before} and {@code after}
+     * @see #keyBetween(String, String)
+     */
+    public static List<String> keysBetween(String before, String after, int count) {
+        if (count < 0) throw new IllegalArgumentException("count must not be negative: " + count);
+        final List<String> keys = new ArrayList<>(count);
+        if (count == 0) return keys;
+        if (after == null) {
+            String key = before;
+            for (int i = 0; i < count; i++) {
+                key = keyBetween(key, null);
+                keys.add(key);
+            }
+            return keys;
+        }
+        if (before == null) {
+            String key = after;
+            for (int i = 0; i < count; i++) {
+                key = keyBetween(null, key);
+                keys.add(key);
+            }
+            Collections.reverse(keys);
+            return keys;
+        }
+        addKeysBetween(before, after, count, keys);
+        return keys;
+    }
+
+    private static void addKeysBetween(String before, String after, int count, List<String> keys) {
+        if (count == 0) return;
+        final String middle = keyBetween(before, after);
+        final int countBefore = count / 2;
+        addKeysBetween(before, middle, countBefore, keys);
+        keys.add(middle);
+        addKeysBetween(middle, after, count - countBefore - 1, keys);
+    }
+
+    /**
+     * @param low a fractional part, or "" for the lowest
+     * @param high a greater fractional part, or null for the highest
+     * @return a fractional part between the two, not ending with the digit zero
+     */
+    private static String midpoint(String low, String high) {
+        if (high != null) {
+            int common = 0;
+            while (common < high.length() && digitAt(low, common) == high.charAt(common)) {
+                common++;
+            }
+            if (common > 0) {
+                return high.substring(0, common)
+                        + midpoint(low.length() > common ? low.substring(common) : "", high.substring(common));
+            }
+        }
+        final int lowDigit = low.isEmpty() ? 0 : DIGITS.indexOf(low.charAt(0));
+        final int highDigit = high == null ? BASE : DIGITS.indexOf(high.charAt(0));
+        if (highDigit - lowDigit > 1) {
+            return String.valueOf(DIGITS.charAt((lowDigit + highDigit + 1) / 2));
+        }
+        if (high != null && high.length() > 1) {
+            return high.substring(0, 1);
+        }
+        return DIGITS.charAt(lowDigit) + midpoint(low.isEmpty() ? "" : low.substring(1), null);
+    }
+
+    private static char digitAt(String fraction, int index) {
+        return index < fraction.length() ? fraction.charAt(index) : ZERO_DIGIT;
+    }
+
+    private static int getIntegerLength(char head) {
+        if (head >= 'a' && head <= 'z') return head - 'a' + 2;
+        if (head >= 'A' && head <= 'Z') return 'Z' - head + 2;
+        throw new IllegalArgumentException("Invalid key head: " + head);
+    }
+
+    private static String getIntegerPart(String key) {
+        final int length = getIntegerLength(key.charAt(0));
+        if (length > key.length()) throw new IllegalArgumentException("Invalid key: " + key);
+        return key.substring(0, length);
+    }
+
+    private static void validate(String key) {
+        if (key.isEmpty()) throw new IllegalArgumentException("Empty key");
+        if (key.equals(SMALLEST_INTEGER)) throw new IllegalArgumentException("Invalid key: " + key);
+        final String integer = getIntegerPart(key);
+        for (int i = 1; i < key.length(); i++) {
+            if (DIGITS.indexOf(key.charAt(i)) < 0) throw new IllegalArgumentException("Invalid key: " + key);
+        }
+        if (key.length() > integer.length() && key.charAt(key.length() - 1) == ZERO_DIGIT) {
+            throw new IllegalArgumentException("Invalid key: " + key);
+        }
+    }
+
+    /**
+     * @return the next integer part, or null if there is none of at most 26 digits
+     */
+    private static String incrementInteger(String integer) {
+        final char head = integer.charAt(0);
+        final StringBuilder digits = new StringBuilder(integer.substring(1));
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            if (digits.charAt(i) != LAST_DIGIT) {
+                digits.setCharAt(i, DIGITS.charAt(DIGITS.indexOf(digits.charAt(i)) + 1));
+                return head + digits.toString();
+            }
+            digits.setCharAt(i, ZERO_DIGIT);
+        }
+        // all digits carried over
+        if (head == 'Z') return INTEGER_ZERO;
+        if (head == 'z') return null;
+        final char nextHead = (char) (head + 1);
+        if (nextHead > 'a') {
+            digits.append(ZERO_DIGIT);
+        } else {
+            digits.setLength(digits.length() - 1);
+        }
+        return nextHead + digits.toString();
+    }
+
+    /**
+     * @return the previous integer part, or null if there is none of at most 26 digits
+     */
+    private static String decrementInteger(String integer) {
+        final char head = integer.charAt(0);
+        final StringBuilder digits = new StringBuilder(integer.substring(1));
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            if (digits.charAt(i) != ZERO_DIGIT) {
+                digits.setCharAt(i, DIGITS.charAt(DIGITS.indexOf(digits.charAt(i)) - 1));
+                return head + digits.toString();
+            }
+            digits.setCharAt(i, LAST_DIGIT);
+        }
+        // all digits borrowed from
+        if (head == 'a') return "Z" + LAST_DIGIT;
+        if (head == 'A') return null;
+        final char previousHead = (char) (head - 1);
+        if (previousHead < 'Z') {
+            digits.append(LAST_DIGIT);
+        } else {
+            digits.setLength(digits.length() - 1);
+        }
+        return previousHead + digits.toString();
+    }
+
+    private static String repeat(char c, int count) {
+        final char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
@@ -0,0 +1,91 @@
+package address.util.collections;
+
+import javafx.collections.ModifiableObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.function.Predicate;
+
+/**
+ * Observable list backed by an array, like {@link javafx.collections.FXCollections#observableArrayList()}, except
+ * that removing many elements at once takes one pass over the list. The list from FXCollections removes them one at
+ * a time, shifting all the elements after each one, so removing a tenth of a large list takes quadratic time.
+ *
+ * The elements removed in one pass are sent as one change, with consecutive ones in the same sub-change.
+ */
+public class ArrayObservableList<E> extends ModifiableObservableListBase<E> {
+    private final ArrayList<E> elements;
+
+    {
+        elements = new ArrayList<>();
+    }
+
+    public ArrayObservableList() {}
+
+    @Override
+    public E get(int index) {
+        return elements.get(index);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    protected void doAdd(int index, E element) {
+        elements.add(index, element);
+    }
+
+    @Override
+    protected E doSet(int index, E element) {
+        return elements.set(index, element);
+    }
+
+    @Override
+    protected E doRemove(int index) {
+        return elements.remove(index);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> toRemove) {
+        return removeMatching(toRemove::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> toRetain) {
+        return removeMatching(element -> !toRetain.contains(element));
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        return removeMatching(filter);
+    }
+
+    /**
+     * Moves the elements kept towards the front as it goes, so each element moves at most once
+     */
+    private boolean removeMatching(Predicate<? super E> isRemoved) {
+        beginChange();
+        int kept = 0;
+        int checked = 0;
+        try {
+            for (; checked < elements.size(); checked++) {
+                final E element = elements.get(checked);
+                if (isRemoved.test(element)) {
+                    nextRemove(kept, element); // its index once the elements removed before it are gone
+                } else {
+                    elements.set(kept++, element);
+                }
+            }
+        } finally {
+            // only the checked elements if the test failed partway
+            if (kept < checked) {
+                elements.subList(kept, checked).clear();
+                modCount++;
+            }
+            endChange();
+        }
+        return kept < checked;
+    }
+}
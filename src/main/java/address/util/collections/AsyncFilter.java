@@ -0,0 +1,407 @@
+package address.util.collections;
+
+import address.util.AppLogger;
+import address.util.LoggerManager;
+import commons.PlatformExecUtil;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ListChangeListener;
+import javafx.util.Callback;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Sets the predicate of a {@link FilteredList}, testing the elements in chunks on a fork/join pool instead of on the
+ * FX thread. Only the latest predicate is applied: a newer one cancels the evaluation of the older ones, and the list
+ * changes once, on the FX thread, when the evaluation is done.
+ *
+ * Few elements are tested on the FX thread right away, as handing them over would take longer. If the source or one of
+ * the observables of its elements changes during an evaluation, the values it tested may be stale: its result is
+ * dropped and the predicate evaluated again over the elements as they are then. The predicate must therefore only
+ * read the elements, and data that is safe to read from the pool.
+ * Must be used on the FX thread only.
+ */
+public class AsyncFilter<E> {
+    private static final AppLogger logger = LoggerManager.getLogger(AsyncFilter.class);
+    private static final int DEFAULT_MIN_ASYNC_ELEMENTS = 5_000;
+    // elements tested by one task; a multiple of 64 so that tasks set bits in different words
+    private static final int CHUNK_SIZE = 64 * 64;
+
+    private final FilteredList<E> filteredList;
+    private final ForkJoinPool pool;
+    private final Callback<E, Observable[]> extractor;
+    private final Executor fxExecutor;
+    private final int minAsyncElements;
+    private final BooleanProperty filtering;
+    private Evaluation pending; // the latest evaluation, while it runs
+    private long sourceChanges; // incremented on every change to the source or to the observables of its elements
+    private final InvalidationListener elementInvalidated = observable -> onSourceChanged();
+    private final ChangeListener<Object> elementChanged = (observable, oldValue, newValue) -> onSourceChanged();
+    private Supplier<Predicate<E>> livePredicateMaker; // see #setPredicateOf, null if the latest predicate was given
+    private boolean isRemakeScheduled;
+
+    // counters for the statistics
+    private long syncEvaluations;
+    private long asyncEvaluations;
+    private long cancelledEvaluations;
+    private long retriedEvaluations;
+    private long lastLatencyNanos;
+    private long maxLatencyNanos;
+    private long totalLatencyNanos;
+
+    {
+        filtering = new SimpleBooleanProperty(false);
+    }
+
+    /**
+     * @param extractor the observables of an element that the predicates can read, e.g.
+     *                  {@link address.model.datatypes.ExtractableObservables#extractFrom}
+     */
+    public AsyncFilter(FilteredList<E> filteredList, ForkJoinPool pool, Callback<E, Observable[]> extractor) {
+        this(filteredList, pool, extractor, PlatformExecUtil::runLater, DEFAULT_MIN_ASYNC_ELEMENTS);
+    }
+
+    /**
+     * @param fxExecutor runs the results of evaluations on the FX thread
+     * @param minAsyncElements fewer elements to test than this are tested right away
+     */
+    AsyncFilter(FilteredList<E> filteredList, ForkJoinPool pool, Callback<E, Observable[]> extractor,
+                Executor fxExecutor, int minAsyncElements) {
+        this.filteredList = filteredList;
+        this.pool = pool;
+        this.extractor = extractor;
+        this.fxExecutor = fxExecutor;
+        this.minAsyncElements = minAsyncElements;
+        filteredList.getSource().forEach(this::listenTo);
+        filteredList.getSource().addListener((ListChangeListener<E>) change -> {
+            onSourceChanged();
+            while (change.next()) {
+                if (change.wasPermutated() || change.wasUpdated()) continue;
+                change.getRemoved().forEach(this::stopListeningTo);
+                change.getAddedSubList().forEach(this::listenTo);
+            }
+        });
+    }
+
+    private void listenTo(E element) {
+        for (Observable observable : extractor.call(element)) {
+            if (observable instanceof ObservableValue) {
+                // an invalidation listener would miss the changes until the value is read again
+                ((ObservableValue<?>) observable).addListener(elementChanged);
+            } else {
+                observable.addListener(elementInvalidated);
+            }
+        }
+    }
+
+    private void stopListeningTo(E element) {
+        for (Observable observable : extractor.call(element)) {
+            if (observable instanceof ObservableValue) {
+                ((ObservableValue<?>) observable).removeListener(elementChanged);
+            } else {
+                observable.removeListener(elementInvalidated);
+            }
+        }
+    }
+
+    /**
+     * An evaluation of a predicate over a snapshot of the elements to test
+     */
+    private class Evaluation {
+        private final Supplier<Predicate<E>> makePredicate; // null if the predicate was given
+        private Predicate<E> predicate;
+        private final boolean isRefinement;
+        private final Runnable onApplied;
+        private final List<E> elements;
+        private final long[] matches; // bit i is set if the predicate accepts element i
+        private final long sourceChangesAtStart;
+        private final long start;
+        private volatile boolean isCancelled;
+        private boolean hasFailed;
+
+        Evaluation(Predicate<E> predicate, Supplier<Predicate<E>> makePredicate, boolean isRefinement,
+                   Runnable onApplied, List<E> elements, long start) {
+            this.predicate = predicate;
+            this.makePredicate = makePredicate;
+            this.isRefinement = isRefinement;
+            this.onApplied = onApplied;
+            this.elements = elements;
+            this.matches = new long[(elements.size() + 63) / 64];
+            this.sourceChangesAtStart = sourceChanges;
+            this.start = start;
+        }
+
+        /**
+         * Makes the predicate if needed and tests the elements on the pool, then hands the result over to the FX thread
+         */
+        void run() {
+            try {
+                if (makePredicate != null) predicate = makePredicate.get();
+                new Chunk(this, 0, elements.size()).invoke();
+            } catch (RuntimeException e) {
+                logger.warn("Error filtering in the background: {}", e);
+                hasFailed = true;
+            }
+            if (!isCancelled) fxExecutor.execute(() -> publish(this));
+        }
+    }
+
+    /**
+     * Tests a range of the elements, splitting it between tasks if larger than a chunk
+     */
+    private class Chunk extends RecursiveAction {
+        private final Evaluation evaluation;
+        private final int from;
+        private final int to;
+
+        Chunk(Evaluation evaluation, int from, int to) {
+            this.evaluation = evaluation;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (evaluation.isCancelled) return;
+            if (to - from > CHUNK_SIZE) {
+                final int middle = (from + (to - from) / 2) & -64;
+                invokeAll(new Chunk(evaluation, from, middle), new Chunk(evaluation, middle, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                if (evaluation.predicate.test(evaluation.elements.get(i))) evaluation.matches[i >> 6] |= 1L << i;
+            }
+        }
+    }
+
+    /**
+     * Applies the predicate to the list, testing it on the pool if there are many elements to test.
+     * Cancels the evaluation of the previous predicate if it is still running.
+     *
+     * @param isRefinement true if the predicate accepts no element the previous one rejects, so that only the elements
+     *                     in the list need testing (see {@link FilteredList#refinePredicate(Predicate)})
+     */
+    public void setPredicate(Predicate<E> predicate, boolean isRefinement) {
+        setPredicate(predicate, isRefinement, () -> {});
+    }
+
+    /**
+     * Same as {@link #setPredicate(Predicate, boolean)}, running {@code onApplied} on the FX thread once the list
+     * shows the result of the predicate. Not run if a newer predicate cancels this one.
+     */
+    public void setPredicate(Predicate<E> predicate, boolean isRefinement, Runnable onApplied) {
+        final long start = System.nanoTime();
+        livePredicateMaker = null;
+        evaluate(predicate, null, cancelPending(isRefinement), onApplied, start);
+    }
+
+    /**
+     * Applies the predicate made by {@code makePredicate}, which is called on the pool, e.g. to search an index that
+     * can be searched from any thread. Until another predicate is set, the predicate is made and applied again
+     * whenever the source or its elements change, so that it can depend on all of them (e.g. the best matches of a
+     * search). Cancels the evaluation of the previous predicate if it is still running.
+     *
+     * @param onApplied run on the FX thread once the list first shows the result of a predicate made
+     */
+    public void setPredicateOf(Supplier<Predicate<E>> makePredicate, Runnable onApplied) {
+        final long start = System.nanoTime();
+        livePredicateMaker = makePredicate;
+        evaluate(null, makePredicate, cancelPending(false), onApplied, start);
+    }
+
+    /**
+     * @return whether the predicate to set can still be applied as a refinement
+     */
+    private boolean cancelPending(boolean isRefinement) {
+        if (pending == null) return isRefinement;
+        pending.isCancelled = true;
+        // the list still has the predicate before the cancelled one
+        final boolean isStillRefinement = isRefinement && pending.isRefinement;
+        pending = null;
+        cancelledEvaluations++;
+        return isStillRefinement;
+    }
+
+    private void onSourceChanged() {
+        sourceChanges++;
+        if (livePredicateMaker == null || isRemakeScheduled) return;
+        // once the current change is over, and once for all the changes made until then
+        isRemakeScheduled = true;
+        fxExecutor.execute(this::remakeLivePredicate);
+    }
+
+    private void remakeLivePredicate() {
+        isRemakeScheduled = false;
+        // a pending evaluation makes the predicate again anyway, as the source changed while it ran
+        if (livePredicateMaker == null || pending != null) return;
+        evaluate(null, livePredicateMaker, false, () -> {}, System.nanoTime());
+    }
+
+    /**
+     * Tests the given predicate right away if there are few elements to test, otherwise makes and tests it on the pool
+     *
+     * @param predicate null if made by {@code makePredicate}
+     */
+    private void evaluate(Predicate<E> predicate, Supplier<Predicate<E>> makePredicate, boolean isRefinement,
+                          Runnable onApplied, long start) {
+        final int elementCount = isRefinement ? filteredList.size() : filteredList.getSource().size();
+        if (makePredicate == null && elementCount < minAsyncElements) {
+            filtering.set(false);
+            applyNow(predicate, isRefinement);
+            syncEvaluations++;
+            recordLatency(start, "on the FX thread");
+            onApplied.run();
+            return;
+        }
+        final Evaluation evaluation = new Evaluation(predicate, makePredicate, isRefinement, onApplied,
+                new ArrayList<>(isRefinement ? filteredList : filteredList.getSource()), start);
+        pending = evaluation;
+        filtering.set(true);
+        pool.execute(evaluation::run);
+    }
+
+    private void publish(Evaluation evaluation) {
+        if (evaluation != pending) return; // cancelled after it finished
+        pending = null;
+        filtering.set(false);
+        if (sourceChanges != evaluation.sourceChangesAtStart) {
+            retriedEvaluations++;
+            evaluate(evaluation.makePredicate == null ? evaluation.predicate : null, evaluation.makePredicate,
+                     evaluation.isRefinement, evaluation.onApplied, evaluation.start);
+            return;
+        }
+        if (evaluation.hasFailed) {
+            if (evaluation.predicate == null) evaluation.predicate = evaluation.makePredicate.get();
+            applyNow(evaluation.predicate, evaluation.isRefinement);
+            syncEvaluations++;
+            recordLatency(evaluation.start, "on the FX thread after failing in the background");
+            evaluation.onApplied.run();
+            return;
+        }
+        final BitSet matches = BitSet.valueOf(evaluation.matches);
+        if (evaluation.isRefinement) {
+            filteredList.refinePredicate(evaluation.predicate, matches);
+        } else {
+            filteredList.setPredicate(evaluation.predicate, matches);
+        }
+        asyncEvaluations++;
+        recordLatency(evaluation.start, "in the background");
+        evaluation.onApplied.run();
+    }
+
+    private void applyNow(Predicate<E> predicate, boolean isRefinement) {
+        if (isRefinement) {
+            filteredList.refinePredicate(predicate);
+        } else {
+            filteredList.setPredicate(predicate);
+        }
+    }
+
+    private void recordLatency(long start, String where) {
+        lastLatencyNanos = System.nanoTime() - start;
+        maxLatencyNanos = Math.max(maxLatencyNanos, lastLatencyNanos);
+        totalLatencyNanos += lastLatencyNanos;
+        logger.debug("Filtered {} in {} ms, {} shown", where, toMillis(lastLatencyNanos), filteredList.size());
+    }
+
+    /**
+     * @return true while a predicate is being tested in the background
+     */
+    public ReadOnlyBooleanProperty filteringProperty() {
+        return filtering;
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(this);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Point-in-time counts and latencies of the predicates set so far. The latency of a predicate is the time from
+     * setting it to the list showing its result.
+     */
+    public static class Statistics {
+        private final long syncEvaluations;
+        private final long asyncEvaluations;
+        private final long cancelledEvaluations;
+        private final long retriedEvaluations;
+        private final double lastLatencyMillis;
+        private final double maxLatencyMillis;
+        private final double averageLatencyMillis;
+
+        private Statistics(AsyncFilter<?> filter) {
+            syncEvaluations = filter.syncEvaluations;
+            asyncEvaluations = filter.asyncEvaluations;
+            cancelledEvaluations = filter.cancelledEvaluations;
+            retriedEvaluations = filter.retriedEvaluations;
+            final long applied = syncEvaluations + asyncEvaluations; // a retried evaluation is applied as either
+            lastLatencyMillis = toMillis(filter.lastLatencyNanos);
+            maxLatencyMillis = toMillis(filter.maxLatencyNanos);
+            averageLatencyMillis = applied == 0 ? 0 : toMillis(filter.totalLatencyNanos) / applied;
+        }
+
+        /**
+         * @return number of predicates tested on the FX thread, right away or after failing in the background
+         */
+        public long getSyncEvaluations() {
+            return syncEvaluations;
+        }
+
+        /**
+         * @return number of predicates tested in the background and applied
+         */
+        public long getAsyncEvaluations() {
+            return asyncEvaluations;
+        }
+
+        /**
+         * @return number of background evaluations dropped for a newer predicate
+         */
+        public long getCancelledEvaluations() {
+            return cancelledEvaluations;
+        }
+
+        /**
+         * @return number of background evaluations dropped and done again, as the list or its elements changed
+         */
+        public long getRetriedEvaluations() {
+            return retriedEvaluations;
+        }
+
+        public double getLastLatencyMillis() {
+            return lastLatencyMillis;
+        }
+
+        public double getMaxLatencyMillis() {
+            return maxLatencyMillis;
+        }
+
+        public double getAverageLatencyMillis() {
+            return averageLatencyMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("on FX thread: %d, in background: %d, cancelled: %d, retried: %d, "
+                                 + "latency last/max/average: %.1f/%.1f/%.1f ms", syncEvaluations, asyncEvaluations,
+                                 cancelledEvaluations, retriedEvaluations, lastLatencyMillis, maxLatencyMillis,
+                                 averageLatencyMillis);
+        }
+    }
+}
@@ -1,23 +1,39 @@
 package address.util.collections;
 
-import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.TransformationList;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 /**
  * This class is meant to handle filtering the given list of elements given a predicate
  *
  * Elements not affected by the filter change will not be sent in the changes, unlike
  * javafx.collections.transformation.FilteredList which removes all elements and adds the matching ones back
+ *
+ * Keeps a bitmap of which source elements match and the source index of every element in this list, so a predicate
+ * change is handled in one pass over the source, and a source change only tests the changed elements. A predicate
+ * known to narrow the current one can be set with {@link #refinePredicate}, which only tests the elements in this list.
+ * Consecutive added or removed elements are sent as one ranged change.
  */
 public class FilteredList<E> extends TransformationList<E, E> {
-    private ObservableList<E> sourceCopy;
-    private Predicate<E> predicate;
-    private ObservableList<E> filteredList;
+    private static final Predicate<Object> MATCH_ALL = e -> true;
+
+    private Predicate<? super E> predicate;
+    private BitSet matches; // bit i is set if source element i is in this list, null if stale
+    private int[] sourceIndices; // source index of each element of this list, ascending
+    private int size;
+
+    // counters of predicate changes, by whether they re-tested only the elements in this list
+    private long fullEvaluations;
+    private long refinements;
+    private long elementsTested;
 
     public FilteredList(ObservableList<E> source, Predicate<E> predicate) {
         this(source);
@@ -26,24 +42,35 @@ public class FilteredList<E> extends TransformationList<E, E> {
 
     public FilteredList(ObservableList<E> source) {
         super(source);
-        this.sourceCopy = FXCollections.observableArrayList(source);
-        this.filteredList = FXCollections.observableArrayList(source);
+        predicate = MATCH_ALL;
+        size = source.size();
+        matches = new BitSet(size);
+        matches.set(0, size);
+        sourceIndices = new int[size];
+        Arrays.setAll(sourceIndices, i -> i);
     }
 
     @Override
     public E get(int index) {
-        return filteredList.get(index);
+        return getSource().get(getSourceIndex(index));
     }
 
     @Override
     public int size() {
-        return filteredList.size();
+        return size;
     }
 
-    private ObservableList<E> filterList(Predicate<E> predicate) {
-        return sourceCopy.stream()
-                .filter(predicate)
-                .collect(Collectors.toCollection(FXCollections::observableArrayList));
+    @Override
+    public int getSourceIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return sourceIndices[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<E> getSourceList() {
+        return (List<E>) getSource();
     }
 
     /**
@@ -52,82 +79,337 @@ public class FilteredList<E> extends TransformationList<E, E> {
      * @param predicate should not be null
      */
     public void setPredicate(Predicate<E> predicate) {
-        this.predicate = predicate;
-        ObservableList<E> newFilteredList = filterList(predicate);
-
-        ObservableList<E> removedList = getRemovedList(filteredList, newFilteredList);
-        ObservableList<E> addedList = getAddedList(filteredList, newFilteredList);
-
-        beginChange();
-        fireRemoveChanges(removedList, filteredList);
-        fireAddChanges(addedList, filteredList);
-        endChange();
+        final List<E> source = getSourceList();
+        applyMatches(predicate, i -> predicate.test(source.get(i)));
+        elementsTested += source.size();
     }
 
-    private ObservableList<E> getAddedList(ObservableList<E> oldList, ObservableList<E> newList) {
-        return sourceCopy.stream()
-                .filter(e -> !oldList.contains(e))
-                .filter(newList::contains)
-                .collect(Collectors.toCollection(FXCollections::observableArrayList));
+    /**
+     * Same as {@link #setPredicate(Predicate)}, with the elements it accepts already known, e.g. tested on another
+     * thread. The source must not have changed since.
+     *
+     * @param matches bit i is set if the predicate accepts source element i
+     */
+    public void setPredicate(Predicate<E> predicate, BitSet matches) {
+        applyMatches(predicate, matches::get);
     }
 
-    private ObservableList<E> getRemovedList(ObservableList<E> oldList, ObservableList<E> newList) {
-        return getAddedList(newList, oldList);
+    private void applyMatches(Predicate<E> predicate, IntPredicate isMatchAt) {
+        this.predicate = predicate;
+        final List<E> source = getSourceList();
+        final BitSet newMatches = new BitSet(source.size());
+        final BitSet oldMatches = getMatches();
+        final int[] newSourceIndices = new int[source.size()];
+        int newSize = 0;
+
+        beginChange();
+        final ChangeRuns runs = new ChangeRuns();
+        for (int i = 0; i < source.size(); i++) {
+            final E element = source.get(i);
+            final boolean isMatch = isMatchAt.test(i);
+            if (isMatch) {
+                newMatches.set(i);
+                newSourceIndices[newSize] = i;
+            }
+            runs.next(newSize, oldMatches.get(i), isMatch, element);
+            if (isMatch) newSize++;
+        }
+        runs.flush();
+
+        matches = newMatches;
+        sourceIndices = newSourceIndices;
+        size = newSize;
+        fullEvaluations++;
+        endChange();
     }
 
     /**
-     * Fires add change notifications for any observers
+     * Sets a predicate that accepts no element the current one rejects, such as the current one ANDed with another
+     * condition. Only the elements in this list are tested, so it is cheaper than {@link #setPredicate} when they are
+     * a small part of the source. The result is wrong if the predicate accepts an element the current one rejects.
      *
-     * @param addedList list of added elements
-     * @param updatedList list after the add changes have been made
+     * @param predicate should not be null
      */
-    private void fireAddChanges(ObservableList<E> addedList, ObservableList<E> updatedList) {
-        addedList.forEach(e -> {
-            updatedList.add(e);
-            nextAdd(updatedList.indexOf(e), updatedList.indexOf(e) + 1);
-        });
+    public void refinePredicate(Predicate<E> predicate) {
+        final List<E> source = getSourceList();
+        final int oldSize = size;
+        refineMatches(predicate, position -> predicate.test(source.get(sourceIndices[position])));
+        elementsTested += oldSize;
     }
 
     /**
-     * Fires remove change notifications for any observers
+     * Same as {@link #refinePredicate(Predicate)}, with the elements it keeps already known, e.g. tested on another
+     * thread. Neither the source nor this list must have changed since.
      *
-     * @param removedList list of removed elements
-     * @param originalList list before the remove changes have been made
+     * @param kept bit i is set if the predicate accepts element i of this list
      */
-    private void fireRemoveChanges(ObservableList<E> removedList, ObservableList<E> originalList) {
-        removedList.forEach(e -> {
-            originalList.remove(e);
-            nextRemove(originalList.indexOf(e), e);
-        });
+    public void refinePredicate(Predicate<E> predicate, BitSet kept) {
+        refineMatches(predicate, kept::get);
+    }
+
+    private void refineMatches(Predicate<E> predicate, IntPredicate isMatchAt) {
+        this.predicate = predicate;
+        final List<E> source = getSourceList();
+        final int oldSize = size;
+        int newSize = 0;
+
+        beginChange();
+        final ChangeRuns runs = new ChangeRuns();
+        for (int position = 0; position < oldSize; position++) {
+            final int sourceIndex = sourceIndices[position];
+            final E element = source.get(sourceIndex);
+            final boolean isMatch = isMatchAt.test(position);
+            runs.next(newSize, true, isMatch, element);
+            if (isMatch) {
+                sourceIndices[newSize++] = sourceIndex;
+            } else if (matches != null) {
+                matches.clear(sourceIndex);
+            }
+        }
+        runs.flush();
+
+        size = newSize;
+        refinements++;
+        endChange();
     }
 
     @Override
     protected void sourceChanged(ListChangeListener.Change<? extends E> c) {
         beginChange();
         while (c.next()) {
-            if (c.wasAdded() || c.wasRemoved()) {
-                sourceCopy.removeAll(c.getRemoved());
-                c.getRemoved().stream()
-                        .filter(predicate)
-                        .forEach(e -> {
-                            filteredList.remove(e);
-                            nextRemove(filteredList.indexOf(e), e);
-                        });
-
-                sourceCopy.addAll(c.getAddedSubList());
-                c.getAddedSubList().stream()
-                        .filter(predicate)
-                        .forEach(e -> {
-                            filteredList.add(e);
-                            nextAdd(filteredList.indexOf(e), filteredList.indexOf(e) + 1);
-                        });
+            if (c.wasPermutated()) {
+                permute(c);
+            } else {
+                applyAddRemoveAndUpdates(c);
+                break; // all remaining sub-changes were handled in the same pass
             }
         }
         endChange();
     }
 
-    @Override
-    public int getSourceIndex(int index) {
-        return sourceCopy.indexOf(filteredList.get(index));
+    /**
+     * Reorders the matching elements within the permutated range of the source
+     */
+    private void permute(ListChangeListener.Change<? extends E> c) {
+        final int from = c.getFrom();
+        final int to = c.getTo();
+        final BitSet oldMatches = getMatches();
+        final BitSet newMatches = (BitSet) oldMatches.clone();
+        newMatches.clear(from, to);
+        for (int i = oldMatches.nextSetBit(from); i >= 0 && i < to; i = oldMatches.nextSetBit(i + 1)) {
+            newMatches.set(c.getPermutation(i));
+        }
+
+        final int first = lowerBound(from);
+        final int end = lowerBound(to);
+        if (first == end) {
+            matches = newMatches;
+            return;
+        }
+        final int[] oldSourceIndices = Arrays.copyOfRange(sourceIndices, first, end);
+        final int[] newPositions = new int[to - from]; // new position in this list of each source index in the range
+        int position = first;
+        for (int i = newMatches.nextSetBit(from); i >= 0 && i < to; i = newMatches.nextSetBit(i + 1)) {
+            newPositions[i - from] = position;
+            sourceIndices[position++] = i;
+        }
+
+        final int[] permutation = new int[end - first]; // indexed from first, as nextPermutation expects
+        for (int i = first; i < end; i++) {
+            permutation[i - first] = newPositions[c.getPermutation(oldSourceIndices[i - first]) - from];
+        }
+        matches = newMatches;
+        nextPermutation(first, end, permutation);
+    }
+
+    /**
+     * Applies added, removed and updated elements of all sub-changes in one pass from the first changed index.
+     * Sub-changes are visited in order; the indices of each are relative to the source after the previous ones.
+     * Elements between and after the sub-changes are not tested again, only their source indices are shifted.
+     */
+    private void applyAddRemoveAndUpdates(ListChangeListener.Change<? extends E> c) {
+        final List<E> source = getSourceList();
+        final int[] oldSourceIndices = sourceIndices;
+        final int[] newSourceIndices = new int[source.size()];
+        final ChangeRuns runs = new ChangeRuns();
+        int oldIndex = c.getFrom();
+        int newIndex = c.getFrom();
+        int oldPosition = lowerBound(c.getFrom());
+        int newSize = oldPosition;
+        System.arraycopy(oldSourceIndices, 0, newSourceIndices, 0, oldPosition);
+
+        do {
+            if (c.wasPermutated()) {
+                throw new IllegalStateException("Permutation mixed with other changes");
+            }
+            // elements before this sub-change are unchanged, only shifted
+            final int unchangedEnd = oldIndex + c.getFrom() - newIndex;
+            while (oldPosition < size && oldSourceIndices[oldPosition] < unchangedEnd) {
+                newSourceIndices[newSize++] = oldSourceIndices[oldPosition++] + newIndex - oldIndex;
+            }
+            oldIndex = unchangedEnd;
+            newIndex = c.getFrom();
+
+            if (c.wasUpdated()) {
+                for (; newIndex < c.getTo(); oldIndex++, newIndex++) {
+                    final boolean wasMatch = oldPosition < size && oldSourceIndices[oldPosition] == oldIndex;
+                    if (wasMatch) oldPosition++;
+                    final E element = source.get(newIndex);
+                    final boolean isMatch = predicate.test(element);
+                    runs.next(newSize, wasMatch, isMatch, element);
+                    if (isMatch) {
+                        if (wasMatch) nextUpdate(newSize);
+                        newSourceIndices[newSize++] = newIndex;
+                    }
+                }
+                continue;
+            }
+            final List<? extends E> removed = c.getRemoved();
+            for (int i = 0; i < removed.size(); i++, oldIndex++) {
+                final boolean wasMatch = oldPosition < size && oldSourceIndices[oldPosition] == oldIndex;
+                if (wasMatch) oldPosition++;
+                runs.next(newSize, wasMatch, false, removed.get(i));
+            }
+            for (; newIndex < c.getTo(); newIndex++) {
+                final E element = source.get(newIndex);
+                final boolean isMatch = predicate.test(element);
+                runs.next(newSize, false, isMatch, element);
+                if (isMatch) newSourceIndices[newSize++] = newIndex;
+            }
+        } while (c.next());
+        runs.flush();
+
+        while (oldPosition < size) {
+            newSourceIndices[newSize++] = oldSourceIndices[oldPosition++] + newIndex - oldIndex;
+        }
+        sourceIndices = newSourceIndices;
+        size = newSize;
+        matches = null; // indices have shifted, rebuilt when next needed
+    }
+
+    /**
+     * @return the match bitmap, rebuilt from the source indices if a source change made it stale
+     */
+    private BitSet getMatches() {
+        if (matches == null) {
+            matches = new BitSet(getSource().size());
+            for (int i = 0; i < size; i++) {
+                matches.set(sourceIndices[i]);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return position in this list of the first element whose source index is at least {@code sourceIndex}
+     */
+    private int lowerBound(int sourceIndex) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (sourceIndices[mid] < sourceIndex) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(this);
+    }
+
+    /**
+     * Point-in-time counters of the predicate changes so far.
+     */
+    public static class Statistics {
+        private final long fullEvaluations;
+        private final long refinements;
+        private final long elementsTested;
+
+        private Statistics(FilteredList<?> list) {
+            fullEvaluations = list.fullEvaluations;
+            refinements = list.refinements;
+            elementsTested = list.elementsTested;
+        }
+
+        /**
+         * @return number of predicate changes applied to every element of the source
+         */
+        public long getFullEvaluations() {
+            return fullEvaluations;
+        }
+
+        /**
+         * @return number of predicate changes applied only to the elements in the list
+         */
+        public long getRefinements() {
+            return refinements;
+        }
+
+        /**
+         * @return number of elements this list tested itself, over all predicate changes
+         */
+        public long getElementsTested() {
+            return elementsTested;
+        }
+
+        @Override
+        public String toString() {
+            return "full evaluations: " + fullEvaluations + ", refinements: " + refinements
+                    + ", elements tested: " + elementsTested;
+        }
+    }
+
+    /**
+     * Collects consecutive removals and additions, and reports each run as one ranged change
+     */
+    private class ChangeRuns {
+        private final List<E> removedRun = new ArrayList<>();
+        private int removedAt = -1;
+        private int addedFrom = -1;
+        private int addedTo = -1;
+
+        /**
+         * @param position position in this list (with all earlier changes applied) where the element is, or would be
+         */
+        void next(int position, boolean wasMatch, boolean isMatch, E element) {
+            if (wasMatch == isMatch) {
+                if (wasMatch) flush();
+                return;
+            }
+            if (wasMatch) {
+                flushAdded();
+                if (removedAt != position) flushRemoved();
+                removedAt = position;
+                removedRun.add(element);
+            } else {
+                flushRemoved();
+                if (addedTo != position) flushAdded();
+                if (addedFrom < 0) addedFrom = position;
+                addedTo = position + 1;
+            }
+        }
+
+        void flush() {
+            flushRemoved();
+            flushAdded();
+        }
+
+        private void flushRemoved() {
+            if (removedRun.isEmpty()) return;
+            nextRemove(removedAt, new ArrayList<>(removedRun));
+            removedRun.clear();
+            removedAt = -1;
+        }
+
+        private void flushAdded() {
+            if (addedFrom < 0) return;
+            nextAdd(addedFrom, addedTo);
+            addedFrom = -1;
+            addedTo = -1;
+        }
     }
 }
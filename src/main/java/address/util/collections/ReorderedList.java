@@ -2,61 +2,204 @@ package address.util.collections;
 
 import address.util.AppLogger;
 import address.util.LoggerManager;
-import com.sun.javafx.collections.SourceAdapterChange;
-import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.TransformationList;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.*;
 
 /**
+ * A view of the source list in an order of its own, changed by moving elements (e.g. dragging them in the list view).
+ * Elements added to the source go to the end of the view, or if an order is given, to their place in it, so that a
+ * view kept in that order (e.g. by ranking elements where they are moved to) stays in it. The view order is not
+ * affected by permutations of the source.
  *
+ * The order is kept as the source index at each view index and the reverse, so that looking up an element or an
+ * index either way takes constant time. A change to the source is applied to both in one pass however many parts it
+ * has, and sent to listeners in view indices. Moving elements rewrites only the indices between the moved elements
+ * and the destination, and is sent as a permutation.
  */
 public class ReorderedList<T> extends TransformationList<T, T> {
-    private ObservableList<T> mappingList;
-
     private static AppLogger logger = LoggerManager.getLogger(ReorderedList.class);
 
+    private final Comparator<? super T> order; // null to add elements at the end
+    private int[] viewToSource;
+    private int[] sourceToView;
+    // source index of each element, built when moving elements and dropped when the source changes
+    private Map<T, Integer> sourceIndexOfElement;
+
     /**
      * Creates a new Transformation list wrapped around the source list.
      *
      * @param source the wrapped list
      */
     public ReorderedList(ObservableList<T> source) {
+        this(source, null);
+    }
+
+    /**
+     * Creates a new Transformation list wrapped around the source list, showing the elements in the given order,
+     * elements equal in it in source order. Elements added later are placed in that order too.
+     *
+     * @param source the wrapped list
+     * @param order the order to show and add elements in, null to keep the source order and add at the end
+     */
+    public ReorderedList(ObservableList<T> source, Comparator<? super T> order) {
         super(source);
-        mappingList = FXCollections.observableArrayList(source);
+        this.order = order;
+        final List<Integer> sources = new ArrayList<>(source.size());
+        for (int i = 0; i < source.size(); i++) {
+            sources.add(i);
+        }
+        if (order != null) sources.sort(sourceOrder());
+        setMapping(sources.stream().mapToInt(Integer::intValue).toArray());
         logger.debug("Mapping list created.");
     }
 
+    /**
+     * @return the order of elements, then of their source indices
+     */
+    private Comparator<Integer> sourceOrder() {
+        final Comparator<Integer> byElement = Comparator.comparing(getSource()::get, order);
+        return byElement.thenComparing(Comparator.naturalOrder());
+    }
+
     @Override
     protected synchronized void sourceChanged(ListChangeListener.Change<? extends T> c) {
-        logger.debug("Source changed detected: Begin changing of mapping list");
-        beginChange();
+        final int oldSize = viewToSource.length;
+        final int[] newSourceOfOld = new int[oldSize]; // -1 if removed
+        final Map<Integer, T> removedByOldSource = new HashMap<>();
+        final List<Integer> addedSources = new ArrayList<>();
+        final BitSet updatedSources = new BitSet();
+        // parts of a change are in ascending order, each in indices with the previous ones applied
+        int oldIndex = 0;
+        int newIndex = 0;
         while (c.next()) {
-            if (c.wasRemoved()) {
-                logger.debug("c.wasRemoved:" + Arrays.toString(c.getRemoved().toArray()));
-                mappingList.removeAll(c.getRemoved());
+            while (newIndex < c.getFrom()) {
+                newSourceOfOld[oldIndex++] = newIndex++;
             }
+            if (c.wasPermutated()) {
+                for (int i = c.getFrom(); i < c.getTo(); i++) {
+                    newSourceOfOld[oldIndex++] = c.getPermutation(i);
+                }
+                newIndex = c.getTo();
+            } else if (c.wasUpdated()) {
+                for (int i = c.getFrom(); i < c.getTo(); i++) {
+                    updatedSources.set(i);
+                    newSourceOfOld[oldIndex++] = newIndex++;
+                }
+            } else {
+                for (T removed : c.getRemoved()) {
+                    removedByOldSource.put(oldIndex, removed);
+                    newSourceOfOld[oldIndex++] = -1;
+                }
+                for (int i = c.getFrom(); i < c.getTo(); i++) {
+                    addedSources.add(newIndex++);
+                }
+            }
+        }
+        while (oldIndex < oldSize) {
+            newSourceOfOld[oldIndex++] = newIndex++;
+        }
 
-            if (c.wasAdded()) {
-                logger.debug("c.wasAdded:" + Arrays.toString(c.getAddedSubList().toArray()));
-                mappingList.addAll(c.getAddedSubList());
+        beginChange();
+        final int[] newViewToSource = new int[getSource().size()];
+        int kept = 0;
+        for (int source : viewToSource) {
+            if (newSourceOfOld[source] < 0) {
+                nextRemove(kept, removedByOldSource.get(source)); // merged with the adjacent removals
+            } else {
+                newViewToSource[kept++] = newSourceOfOld[source];
             }
         }
+        if (order == null) {
+            if (!addedSources.isEmpty()) nextAdd(kept, newViewToSource.length);
+            for (int source : addedSources) {
+                newViewToSource[kept++] = source;
+            }
+        } else if (!addedSources.isEmpty()) {
+            mergeAdded(newViewToSource, kept, addedSources);
+        }
+        setMapping(newViewToSource);
+        updatedSources.stream().forEach(source -> nextUpdate(sourceToView[source]));
+        sourceIndexOfElement = null;
         endChange();
-        logger.debug("Source changed detected: End changing of mapping list");
-        fireChange(new SourceAdapterChange<>(this, c));
-        logger.debug("Source changed detected: Fire Changes");
+        logger.debug("Source changed: {} removed, {} added, {} updated", removedByOldSource.size(),
+                     addedSources.size(), updatedSources.cardinality());
+    }
+
+    /**
+     * Sorts the added elements and merges them into the kept ones, which are in order, firing an add for each run
+     * of added elements. Added elements go after the kept ones equal to them. The kept elements before each run
+     * are found by binary search and copied over in one go, so that adding k elements to n takes O(k log n)
+     * comparisons, e.g. when chunks of a large list already in order are added one after another.
+     *
+     * @param viewToSource the source indices of the kept elements in its first {@code keptCount} places
+     */
+    private void mergeAdded(int[] viewToSource, int keptCount, List<Integer> addedSources) {
+        addedSources.sort(sourceOrder()); // linear if already in order
+        final int[] kept = Arrays.copyOf(viewToSource, keptCount);
+        int nextKept = 0;
+        int nextAdded = 0;
+        int view = 0;
+        while (nextAdded < addedSources.size()) {
+            final int keptEnd = findFirstAfter(kept, nextKept, getSource().get(addedSources.get(nextAdded)));
+            System.arraycopy(kept, nextKept, viewToSource, view, keptEnd - nextKept);
+            view += keptEnd - nextKept;
+            nextKept = keptEnd;
+            final int runStart = view;
+            do {
+                viewToSource[view++] = addedSources.get(nextAdded++);
+            } while (nextAdded < addedSources.size()
+                    && (nextKept == kept.length || isBefore(addedSources.get(nextAdded), kept[nextKept])));
+            nextAdd(runStart, view);
+        }
+        System.arraycopy(kept, nextKept, viewToSource, view, kept.length - nextKept);
+    }
+
+    private boolean isBefore(int source, int otherSource) {
+        return order.compare(getSource().get(source), getSource().get(otherSource)) < 0;
+    }
+
+    /**
+     * @return the index of the first of the kept elements from {@code from} that comes after {@code element}
+     */
+    private int findFirstAfter(int[] kept, int from, T element) {
+        int low = from;
+        int high = kept.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (order.compare(getSource().get(kept[middle]), element) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void setMapping(int[] newViewToSource) {
+        viewToSource = newViewToSource;
+        sourceToView = new int[newViewToSource.length];
+        for (int view = 0; view < newViewToSource.length; view++) {
+            sourceToView[newViewToSource[view]] = view;
+        }
     }
 
     @Override
     public synchronized int getSourceIndex(int index) {
-        return this.getSource().indexOf(mappingList.get(index));
+        if (index < 0 || index >= viewToSource.length) throw new IndexOutOfBoundsException("Index: " + index);
+        return viewToSource[index];
+    }
+
+    /**
+     * @return the index in this list of the element at {@code sourceIndex} in the source
+     */
+    public synchronized int getViewIndex(int sourceIndex) {
+        if (sourceIndex < 0 || sourceIndex >= sourceToView.length) {
+            throw new IndexOutOfBoundsException("Index: " + sourceIndex);
+        }
+        return sourceToView[sourceIndex];
     }
 
     @Override
@@ -66,40 +209,75 @@ public class ReorderedList<T> extends TransformationList<T, T> {
 
     @Override
     public synchronized int size() {
-        return this.getSource().size();
+        return viewToSource.length;
     }
 
     /**
-     * Moves the elements in the list.
+     * Moves the elements in the list, in the order given, to before the element at destinationIndex.
      * Precondition: The object at destinationIndex is not in the list of toMove.
-     * @param toMove The list of objects to be moved.
+     * Of an element in the list more than once, the one first in the source is moved.
+     * @param toMove The list of objects to be moved, the same objects as in the list.
      * @param destinationIndex The index(before shifting) of the list where elements are to be shifted to.
+     * @return the new indices of the moved elements, in the order given
      */
     public synchronized Collection<Integer> moveElements(List<T> toMove, int destinationIndex) {
+        if (destinationIndex < 0 || destinationIndex > size()) {
+            throw new IndexOutOfBoundsException("Index: " + destinationIndex);
+        }
+        if (destinationIndex < size() && toMove.contains(get(destinationIndex))) {
+            throw new IllegalArgumentException("The object at destinationIndex is not in the list of toMove");
+        }
 
-        List<Integer> movedIndices = new ArrayList<>();
-
-        //Insert it at the back of the list.
-        if (destinationIndex == mappingList.size()){
-            mappingList.removeAll(toMove);
-            mappingList.addAll(toMove);
-            movedIndices.addAll(collectMovedIndices(toMove));
-            return movedIndices;
+        final List<Integer> movedViewIndices = new ArrayList<>(toMove.size()); // in the order given
+        final BitSet isMoved = new BitSet(size());
+        for (T element : toMove) {
+            final int viewIndex = sourceToView[getSourceIndexOf(element)];
+            if (isMoved.get(viewIndex)) continue;
+            isMoved.set(viewIndex);
+            movedViewIndices.add(viewIndex);
         }
+        if (movedViewIndices.isEmpty()) return new ArrayList<>();
 
-        if (toMove.contains(mappingList.get(destinationIndex))) {
-            throw new IllegalArgumentException("The object at destinationIndex is not in the list of toMove");
+        // only the elements between the moved ones and the destination change places
+        final int from = Math.min(isMoved.nextSetBit(0), destinationIndex);
+        final int to = Math.max(isMoved.length(), destinationIndex);
+        final int[] newSources = new int[to - from];
+        final int[] permutation = new int[to - from]; // new index of the element at each index from 'from'
+        int next = from;
+        for (int view = from; view < destinationIndex; view++) {
+            if (!isMoved.get(view)) permutation[view - from] = next++;
+        }
+        final List<Integer> newIndices = new ArrayList<>(movedViewIndices.size());
+        for (int view : movedViewIndices) {
+            permutation[view - from] = next;
+            newIndices.add(next++);
+        }
+        for (int view = destinationIndex; view < to; view++) {
+            if (!isMoved.get(view)) permutation[view - from] = next++;
+        }
+        for (int view = from; view < to; view++) {
+            newSources[permutation[view - from] - from] = viewToSource[view];
+        }
+        System.arraycopy(newSources, 0, viewToSource, from, newSources.length);
+        for (int view = from; view < to; view++) {
+            sourceToView[viewToSource[view]] = view;
         }
 
-        //Keep an object reference for insertion based on this reference.
-        T destElement = mappingList.get(destinationIndex);
-        mappingList.removeAll(toMove);
-        mappingList.addAll(mappingList.indexOf(destElement), toMove);
-        movedIndices.addAll(collectMovedIndices(toMove));
-        return movedIndices;
+        beginChange();
+        nextPermutation(from, to, permutation);
+        endChange();
+        return newIndices;
     }
 
-    private Collection<Integer> collectMovedIndices(List<T> toMove) {
-        return toMove.stream().map(mappingList::indexOf).collect(Collectors.toCollection(ArrayList::new));
+    private int getSourceIndexOf(T element) {
+        if (sourceIndexOfElement == null) {
+            sourceIndexOfElement = new IdentityHashMap<>(getSource().size());
+            for (int i = getSource().size() - 1; i >= 0; i--) {
+                sourceIndexOfElement.put(getSource().get(i), i); // the first occurrence wins
+            }
+        }
+        final Integer sourceIndex = sourceIndexOfElement.get(element);
+        if (sourceIndex == null) throw new IllegalArgumentException("Not in the list: " + element);
+        return sourceIndex;
     }
 }
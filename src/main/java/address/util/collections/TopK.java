@@ -0,0 +1,59 @@
+package address.util.collections;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the k greatest of the elements offered to it, in a min-heap of at most k elements, so that picking them out
+ * of n elements takes O(n log k) time and O(k) space instead of sorting all n.
+ *
+ * @param <T> type of the elements
+ */
+public class TopK<T> {
+    private static final int MAX_INITIAL_CAPACITY = 1024; // the heap grows as needed if k is larger
+    private final int k;
+    private final Comparator<? super T> comparator;
+    private final PriorityQueue<T> heap; // the least kept element at the head
+
+    /**
+     * @param comparator orders the elements, the greatest being kept
+     */
+    public TopK(int k, Comparator<? super T> comparator) {
+        if (k < 0) throw new IllegalArgumentException("k must not be negative: " + k);
+        this.k = k;
+        this.comparator = comparator;
+        heap = new PriorityQueue<>(Math.max(1, Math.min(k, MAX_INITIAL_CAPACITY)), comparator);
+    }
+
+    /**
+     * Keeps the element if it is among the k greatest offered so far, dropping the least kept one if k are kept.
+     * Which of equal elements are kept is unspecified, so give a total order to get the same result every time.
+     *
+     * @return true if the element is kept
+     */
+    public boolean offer(T element) {
+        if (heap.size() < k) {
+            heap.add(element);
+            return true;
+        }
+        if (k == 0 || comparator.compare(element, heap.peek()) <= 0) return false;
+        heap.poll();
+        heap.add(element);
+        return true;
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * @return the kept elements, greatest first
+     */
+    public List<T> toList() {
+        final List<T> sorted = new ArrayList<>(heap);
+        sorted.sort(comparator.reversed());
+        return sorted;
+    }
+}
@@ -122,6 +122,18 @@ public class FileUtil {
         }
     }
 
+    /**
+     * Replaces dest with source in a single step, so that readers see either the old or the new dest but never a
+     * partially written one. Falls back to a plain replacing move if the file system cannot move atomically.
+     */
+    public static void replaceFileAtomically(Path source, Path dest) throws IOException {
+        try {
+            Files.move(source, dest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, dest, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     /**
      *
      * @param source
@@ -0,0 +1,58 @@
+package commons;
+
+/**
+ * A substring to look for regardless of case. The substring is lowercased once up front, so that searching does not
+ * allocate, unlike lowercasing both strings on every search.
+ */
+public class IgnoreCaseSubstring {
+    private final String substring;
+    private final char[] lowerCase;
+    private final char[] upperCase; // compared first, so that the common cases need no case conversion
+
+    public IgnoreCaseSubstring(String substring) {
+        this.substring = substring;
+        lowerCase = new char[substring.length()];
+        upperCase = new char[substring.length()];
+        for (int i = 0; i < lowerCase.length; i++) {
+            lowerCase[i] = toLowerCase(substring.charAt(i));
+            upperCase[i] = Character.toUpperCase(lowerCase[i]);
+        }
+    }
+
+    /**
+     * @return true if {@code source} contains the substring, ignoring case. A null source contains nothing.
+     */
+    public boolean isFoundIn(String source) {
+        if (source == null) return false;
+        final int lastStart = source.length() - lowerCase.length;
+        for (int start = 0; start <= lastStart; start++) {
+            if (matchesAt(source, start)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if this substring contains {@code other}, ignoring case, so that every source containing this
+     *         substring also contains {@code other}
+     */
+    public boolean contains(IgnoreCaseSubstring other) {
+        return other.isFoundIn(substring);
+    }
+
+    private boolean matchesAt(String source, int start) {
+        for (int i = 0; i < lowerCase.length; i++) {
+            final char c = source.charAt(start + i);
+            if (c != lowerCase[i] && c != upperCase[i] && toLowerCase(c) != lowerCase[i]) return false;
+        }
+        return true;
+    }
+
+    private static char toLowerCase(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c)); // same folding as String#regionMatches(true, ...)
+    }
+
+    @Override
+    public String toString() {
+        return substring;
+    }
+}
@@ -6,6 +6,7 @@ import com.fasterxml.jackson.core.*;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.deser.std.FromStringDeserializer;
 import com.fasterxml.jackson.databind.module.SimpleModule;
@@ -14,8 +15,10 @@ import com.fasterxml.jackson.databind.type.TypeFactory;
 import org.apache.logging.log4j.Level;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Converts a Java object instance to JSON and vice versa
@@ -72,6 +75,13 @@ public class JsonUtil {
         return objectMapper.readValue(json, instanceClass);
     }
 
+    /**
+     * Similar to {@link #fromJsonString(String, Class)}, but reads the JSON data from a stream, which is closed after
+     */
+    public static <T> T fromJsonStream(InputStream json, Class<T> instanceClass) throws IOException {
+        return objectMapper.readValue(json, instanceClass);
+    }
+
     /**
      * Converts a given instance of a class into its JSON data string representation
      * @param instance The T object to be converted into the JSON string
@@ -82,6 +92,41 @@ public class JsonUtil {
         return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(instance);
     }
 
+    /**
+     * Similar to {@link #toJsonString(Object)}, but without any whitespace or line breaks
+     */
+    public static <T> String toCompactJsonString(T instance) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(instance);
+    }
+
+    /**
+     * Similar to {@link #toCompactJsonString(Object)}, but gives the UTF-8 encoded bytes without an intermediate string
+     */
+    public static <T> byte[] toCompactJsonBytes(T instance) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(instance);
+    }
+
+    /**
+     * Parses a stream of a JSON array one element at a time, converting each into an instance of elementClass and
+     * handing it to the consumer before parsing the next, so that the array is never held in memory as a whole
+     *
+     * The stream is closed after. Null elements are handed to the consumer as null.
+     */
+    public static <V> void forEachInJsonArray(InputStream json, Class<V> elementClass, Consumer<? super V> consumer)
+            throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a JSON array");
+            }
+            ObjectReader elementReader = objectMapper.readerFor(elementClass);
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) throw new JsonParseException(parser, "Unexpected end of JSON array");
+                consumer.accept(token == JsonToken.VALUE_NULL ? null : elementReader.readValue(parser));
+            }
+        }
+    }
+
     public static <V> List<V> fromJsonStringToList(String json, Class<V> referenceClass) throws IOException {
         TypeFactory typeFactory = objectMapper.getTypeFactory();
         return objectMapper.readValue(json, typeFactory.constructCollectionType(List.class, referenceClass));
@@ -5,6 +5,6 @@ package commons;
  */
 public class StringUtil {
     public static boolean containsIgnoreCase(String source, String query) {
-        return source.toLowerCase().contains(query.toLowerCase());
+        return new IgnoreCaseSubstring(query).isFoundIn(source);
     }
 }
@@ -9,13 +9,34 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Helps with reading from and writing to XML files.
  */
 public class XmlUtil {
 
+    /**
+     * JAXBContexts are thread-safe and expensive to create, so one is kept per bound class
+     */
+    private static final Map<Class<?>, JAXBContext> contexts = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the cached JAXBContext for the given class, creating it on first use.
+     *
+     * @throws JAXBException Thrown if the class cannot be bound.
+     */
+    public static JAXBContext getContext(Class<?> boundClass) throws JAXBException {
+        JAXBContext context = contexts.get(boundClass);
+        if (context == null) {
+            context = JAXBContext.newInstance(boundClass);
+            contexts.putIfAbsent(boundClass, context);
+        }
+        return context;
+    }
+
     /**
      * Returns the xml data in the file as an object of the specified type.
      *
@@ -37,8 +58,7 @@ public class XmlUtil {
             throw new FileNotFoundException("File not found : " + file.getAbsolutePath());
         }
 
-        JAXBContext context = JAXBContext.newInstance(classToConvert);
-        Unmarshaller um = context.createUnmarshaller();
+        Unmarshaller um = getContext(classToConvert).createUnmarshaller();
 
         return ((T) um.unmarshal(file));
     }
@@ -61,8 +81,7 @@ public class XmlUtil {
             throw new FileNotFoundException("File not found : " + file.getAbsolutePath());
         }
 
-        JAXBContext context = JAXBContext.newInstance(data.getClass());
-        Marshaller m = context.createMarshaller();
+        Marshaller m = getContext(data.getClass()).createMarshaller();
         m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
 
         m.marshal(data, file);
@@ -0,0 +1,151 @@
+package address.model;
+
+import address.model.ChangeObjectInModelCommand.CommandState;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CommandEngineTest {
+    private static final int ENGINE_THREADS = 4;
+    private static final int PENDING_COMMANDS = 20_000;
+
+    private CommandEngine engine;
+
+    /**
+     * Passes through every state without touching a model, and waits for the test to answer its remote request
+     */
+    private static class TestCommand extends ChangeObjectInModelCommand {
+        private final CompletableFuture<Boolean> remoteResponse = new CompletableFuture<>();
+        private final CountDownLatch gracePeriodStarted = new CountDownLatch(1);
+        private final AtomicInteger awaitingRemote;
+
+        TestCommand(int commandId, int gracePeriodDurationInSeconds, AtomicInteger awaitingRemote) {
+            super(commandId, gracePeriodDurationInSeconds);
+            this.awaitingRemote = awaitingRemote;
+        }
+
+        @Override
+        protected void before() {}
+
+        @Override
+        protected void after() {}
+
+        @Override
+        protected void finishWithCancel() {}
+
+        @Override
+        protected void finishWithSuccess() {}
+
+        @Override
+        protected boolean retrieveValidInput() {
+            return true;
+        }
+
+        @Override
+        protected void simulateResult() {}
+
+        @Override
+        protected void handleChangeToSecondsLeftInGracePeriod(int secondsLeft) {
+            gracePeriodStarted.countDown();
+        }
+
+        @Override
+        protected boolean checkForRemoteConflict() {
+            return false;
+        }
+
+        @Override
+        protected void handleRemoteConflict() {}
+
+        @Override
+        protected CompletableFuture<Boolean> requestRemoteChange() {
+            awaitingRemote.incrementAndGet();
+            return remoteResponse;
+        }
+
+        @Override
+        protected void handleRequestFailed() {}
+    }
+
+    @Before
+    public void setup() {
+        engine = new CommandEngine(ENGINE_THREADS);
+    }
+
+    @After
+    public void teardown() {
+        engine.shutdown();
+    }
+
+    private static int liveThreads() {
+        return ManagementFactory.getThreadMXBean().getThreadCount();
+    }
+
+    @Test
+    public void manyPendingCommands_threadCountStaysFlat() throws Exception {
+        final int threadsBefore = liveThreads();
+        final AtomicInteger awaitingRemote = new AtomicInteger(0);
+        final List<TestCommand> commands = new ArrayList<>();
+        for (int i = 0; i < PENDING_COMMANDS; i++) {
+            final TestCommand command = new TestCommand(i, 1, awaitingRemote);
+            commands.add(command);
+            command.start(engine);
+        }
+
+        // every command passes through its grace period and then waits for the remote
+        int peakThreads = liveThreads();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (awaitingRemote.get() < PENDING_COMMANDS && System.nanoTime() < deadline) {
+            peakThreads = Math.max(peakThreads, liveThreads());
+            Thread.sleep(10);
+        }
+        assertEquals(PENDING_COMMANDS, awaitingRemote.get());
+        assertTrue("threads grew from " + threadsBefore + " to " + peakThreads,
+                   peakThreads <= threadsBefore + ENGINE_THREADS);
+        assertEquals(ENGINE_THREADS, engine.getThreadCount());
+
+        commands.forEach(command -> command.remoteResponse.complete(true));
+        for (TestCommand command : commands) {
+            assertEquals(CommandState.SUCCESSFUL, command.getCompletion().get(30, TimeUnit.SECONDS));
+        }
+        assertTrue(liveThreads() <= threadsBefore + ENGINE_THREADS);
+    }
+
+    @Test
+    public void cancelDuringGracePeriod_cancelledWithoutWaitingForCountdown() throws Exception {
+        final TestCommand command = new TestCommand(0, 60, new AtomicInteger(0));
+        command.start(engine);
+        assertTrue(command.gracePeriodStarted.await(5, TimeUnit.SECONDS));
+
+        command.cancelCommand();
+        assertEquals(CommandState.CANCELLED, command.getCompletion().get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void requestFailed_waitsForCancelRequest() throws Exception {
+        final AtomicInteger awaitingRemote = new AtomicInteger(0);
+        final TestCommand command = new TestCommand(0, 0, awaitingRemote);
+        command.start(engine);
+        command.remoteResponse.complete(false);
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (command.getState() != CommandState.REQUEST_FAILED && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(CommandState.REQUEST_FAILED, command.getState());
+        assertFalse(command.getCompletion().isDone());
+
+        command.cancelCommand();
+        assertEquals(CommandState.CANCELLED, command.getCompletion().get(5, TimeUnit.SECONDS));
+    }
+}
@@ -14,6 +14,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 
 import static org.junit.Assert.*;
@@ -64,18 +65,19 @@ public class DeletePersonCommandTest {
     }
 
     @Test
-    public void waitsForOtherOngoingCommandsOnTargetToFinish() throws InterruptedException {
+    public void waitsForOtherOngoingCommandsOnTargetToFinish() {
         final AddPersonCommand otherCommand = mock(AddPersonCommand.class);
-        when(modelManagerSpy.personHasOngoingChange(TEST_ID)).thenReturn(true);
-        when(modelManagerSpy.getOngoingChangeForPerson(TEST_ID)).thenReturn(otherCommand);
+        when(otherCommand.getTargetPersonId()).thenReturn(TEST_ID);
+        when(otherCommand.getCompletion()).thenReturn(new CompletableFuture<>()); // never finishes
+        modelManagerSpy.assignOngoingChangeToPerson(TEST_ID, otherCommand);
 
-        doThrow(InterruptAndTerminateException.class).when(otherCommand).waitForCompletion(); // don't actually wait
-        thrown.expect(InterruptAndTerminateException.class);
-
-        (new DeletePersonCommand(0, testTarget, 0, null, modelManagerSpy, ADDRESSBOOK_NAME)).run();
+        final DeletePersonCommand dpc = new DeletePersonCommand(0, testTarget, 0, null, modelManagerSpy,
+                ADDRESSBOOK_NAME);
+        dpc.start(CommandEngine.getDefault());
 
-        verify(otherCommand).waitForCompletion();
-        verify(modelManagerSpy, never()).assignOngoingChangeToPerson(any(), any());
+        verify(otherCommand, timeout(1000)).getCompletion();
+        assertEquals(CommandState.NEWLY_CREATED, dpc.getState());
+        assertSame(otherCommand, modelManagerSpy.getOngoingChangeForPerson(TEST_ID));
     }
 
     @Test
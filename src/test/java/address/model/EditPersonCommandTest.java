@@ -16,6 +16,7 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Supplier;
 
@@ -74,18 +75,19 @@ public class EditPersonCommandTest {
     }
 
     @Test
-    public void waitsForOtherOngoingCommandsOnTargetToFinish() throws InterruptedException {
+    public void waitsForOtherOngoingCommandsOnTargetToFinish() {
         final AddPersonCommand otherCommand = mock(AddPersonCommand.class);
-        when(modelManagerSpy.personHasOngoingChange(TEST_ID)).thenReturn(true);
-        when(modelManagerSpy.getOngoingChangeForPerson(TEST_ID)).thenReturn(otherCommand);
+        when(otherCommand.getTargetPersonId()).thenReturn(TEST_ID);
+        when(otherCommand.getCompletion()).thenReturn(new CompletableFuture<>()); // never finishes
+        modelManagerSpy.assignOngoingChangeToPerson(TEST_ID, otherCommand);
 
-        doThrow(InterruptAndTerminateException.class).when(otherCommand).waitForCompletion(); // don't actually wait
-        thrown.expect(InterruptAndTerminateException.class);
-
-        (new EditPersonCommand(0, testTarget, returnValidEmptyInput, 0, null, modelManagerSpy, ADDRESSBOOK_NAME)).run();
+        final EditPersonCommand epc = new EditPersonCommand(0, testTarget, returnValidEmptyInput, 0, null,
+                modelManagerSpy, ADDRESSBOOK_NAME);
+        epc.start(CommandEngine.getDefault());
 
-        verify(otherCommand).waitForCompletion();
-        verify(modelManagerSpy, never()).assignOngoingChangeToPerson(any(), any());
+        verify(otherCommand, timeout(1000)).getCompletion();
+        assertEquals(CommandState.NEWLY_CREATED, epc.getState());
+        assertSame(otherCommand, modelManagerSpy.getOngoingChangeForPerson(TEST_ID));
     }
 
     @Test
@@ -1,15 +1,32 @@
 package address.model;
 
+import address.events.BaseEvent;
+import address.events.sync.DeletePersonOnRemoteRequestEvent;
+import address.events.sync.UpdatePersonOnRemoteRequestEvent;
+import address.model.ChangeObjectInModelCommand.CommandState;
+import address.model.datatypes.AddressBook;
+import address.model.datatypes.person.Person;
 import address.model.datatypes.person.ReadOnlyPerson;
+import address.model.datatypes.person.ViewablePerson;
+import address.testutil.TestUtil;
 import address.util.Config;
+import commons.PlatformExecUtil;
+import org.junit.AfterClass;
 import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import static org.junit.Assert.*;
@@ -17,6 +34,7 @@ import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ModelManagerTest {
+    private static final int CONTESTED_PERSONS = 50;
 
     @Mock
     ModelManager modelMock;
@@ -24,6 +42,16 @@ public class ModelManagerTest {
     Config config;
     ModelManager modelSpy;
 
+    @BeforeClass
+    public static void beforeSetup() throws TimeoutException {
+        TestUtil.initRuntime();
+    }
+
+    @AfterClass
+    public static void teardown() throws Exception {
+        TestUtil.tearDownRuntime();
+    }
+
     @Before
     public void setup() {
         when(config.getLocalDataFilePath()).thenReturn("MyAddressBook");
@@ -44,4 +72,39 @@ public class ModelManagerTest {
 //        doCallRealMethod().when(modelMock).editPersonThroughUI(any());
 
     }
+
+    @Test
+    public void editAndDeleteOnSamePerson_startedTogether_bothRunOneAfterTheOther() throws Exception {
+        final List<Person> persons = new ArrayList<>();
+        for (int id = 1; id <= CONTESTED_PERSONS; id++) {
+            persons.add(new Person("First" + id, "Last" + id, id));
+        }
+        final ModelManager model = new ModelManager(new AddressBook(persons, new ArrayList<>()), config);
+        final Consumer<BaseEvent> fakeRemote = event -> {
+            if (event instanceof UpdatePersonOnRemoteRequestEvent) {
+                final UpdatePersonOnRemoteRequestEvent update = (UpdatePersonOnRemoteRequestEvent) event;
+                update.getReturnedPersonContainer().complete(update.getUpdatedPerson());
+            } else if (event instanceof DeletePersonOnRemoteRequestEvent) {
+                ((DeletePersonOnRemoteRequestEvent) event).getResultContainer().complete(true);
+            }
+        };
+
+        final List<CompletableFuture<CommandState>> completions = new ArrayList<>();
+        for (int id = 1; id <= CONTESTED_PERSONS; id++) {
+            final ViewablePerson target = model.visibleModel().findPerson(id).get();
+            final Person edited = new Person("Edited", "Last" + id, id);
+            // both see no change in progress on the person when started
+            completions.add(new EditPersonCommand(model.assignCommandId(), target, () -> Optional.of(edited), 0,
+                                                  fakeRemote, model, "addressbook").start(CommandEngine.getDefault()));
+            completions.add(new DeletePersonCommand(model.assignCommandId(), target, 0, fakeRemote, model,
+                                                    "addressbook").start(CommandEngine.getDefault()));
+        }
+
+        for (CompletableFuture<CommandState> completion : completions) {
+            assertEquals(CommandState.SUCCESSFUL, completion.get(10, TimeUnit.SECONDS));
+        }
+        PlatformExecUtil.waitOnFxThread();
+        assertTrue(model.getPersonList().isEmpty());
+        assertEquals(0, model.getOngoingChangeStatistics().getOngoingCount());
+    }
 }
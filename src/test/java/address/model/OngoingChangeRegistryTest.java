@@ -0,0 +1,103 @@
+package address.model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class OngoingChangeRegistryTest {
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 20_000;
+    private static final int SHARED_PERSON_ID = 42;
+
+    private OngoingChangeRegistry<String> registry;
+
+    @Before
+    public void setup() {
+        registry = new OngoingChangeRegistry<>();
+    }
+
+    @Test
+    public void assign_alreadyAssigned_rejectedAndCounted() {
+        registry.assign(1, "first");
+        try {
+            registry.assign(1, "second");
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals("first", registry.get(1));
+        assertEquals(1, registry.getStatistics().getConflictCount());
+
+        assertEquals("first", registry.unassign(1));
+        assertNull(registry.unassign(1));
+        assertFalse(registry.contains(1));
+        registry.assign(1, "second");
+        assertEquals("second", registry.get(1));
+    }
+
+    @Test
+    public void assignOrGet_alreadyAssigned_returnsOwnerAndCounted() {
+        assertNull(registry.assignOrGet(1, "first"));
+        assertEquals("first", registry.assignOrGet(1, "second"));
+        assertEquals("first", registry.get(1));
+        assertEquals(1, registry.getStatistics().getConflictCount());
+
+        registry.unassign(1);
+        assertNull(registry.assignOrGet(1, "second"));
+        assertEquals("second", registry.get(1));
+    }
+
+    @Test
+    public void concurrentChanges_atMostOneOwnerPerPerson() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CyclicBarrier start = new CyclicBarrier(THREADS);
+        final AtomicInteger sharedOwners = new AtomicInteger(0);
+        final AtomicLong rejectedAssigns = new AtomicLong(0);
+        final List<Future<?>> results = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            results.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ROUNDS; i++) {
+                    // a person only this thread changes (temporary ids are negative)
+                    final int ownId = (i % 2 == 0 ? 1 : -1) * (1000 + thread * ROUNDS + i);
+                    final String ownChange = thread + ":" + i;
+                    registry.assign(ownId, ownChange);
+                    assertEquals(ownChange, registry.get(ownId));
+
+                    // a person all threads compete for
+                    try {
+                        registry.assign(SHARED_PERSON_ID, ownChange);
+                        assertEquals(1, sharedOwners.incrementAndGet());
+                        assertEquals(ownChange, registry.get(SHARED_PERSON_ID));
+                        sharedOwners.decrementAndGet();
+                        assertEquals(ownChange, registry.unassign(SHARED_PERSON_ID));
+                    } catch (IllegalStateException e) {
+                        rejectedAssigns.incrementAndGet();
+                    }
+
+                    assertEquals(ownChange, registry.unassign(ownId));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS); // rethrows assertion failures of the workers
+        }
+        executor.shutdown();
+
+        final OngoingChangeRegistry.Statistics statistics = registry.getStatistics();
+        assertEquals(0, statistics.getOngoingCount());
+        assertEquals(rejectedAssigns.get(), statistics.getConflictCount());
+        assertTrue(statistics.getContendedCount() <= statistics.getAcquisitionCount());
+        assertTrue(statistics.getAcquisitionCount() >= (long) THREADS * ROUNDS * 4);
+    }
+}
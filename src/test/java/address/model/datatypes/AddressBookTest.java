@@ -0,0 +1,55 @@
+package address.model.datatypes;
+
+import address.model.datatypes.person.Person;
+import address.model.datatypes.person.ReadOnlyPerson;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class AddressBookTest {
+
+    private AddressBook addressBook;
+
+    @Before
+    public void setup() {
+        addressBook = new AddressBook();
+        for (int id = 1; id <= 4; id++) {
+            addressBook.addPerson(new Person("First" + id, "Last" + id, id)); // ranked in the order added
+        }
+    }
+
+    private Person person(int id) {
+        return addressBook.findPerson(id).get();
+    }
+
+    private List<Integer> idsInRankOrder() {
+        final List<ReadOnlyPerson> persons = new ArrayList<>(addressBook.getPersonList());
+        persons.sort(ReadOnlyPerson.RANK_ORDER);
+        return persons.stream().map(ReadOnlyPerson::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void rankBetween_neighbours_placedBetween() {
+        addressBook.rankBetween(Collections.singletonList(person(4)), person(1).getRank(), person(2).getRank());
+        assertEquals(Arrays.asList(1, 4, 2, 3), idsInRankOrder());
+
+        addressBook.rankBetween(Arrays.asList(person(3), person(1)), null, person(4).getRank());
+        assertEquals(Arrays.asList(3, 1, 4, 2), idsInRankOrder());
+    }
+
+    @Test
+    public void rankBetween_neighboursOutOfOrder_placedAfterRankBefore() {
+        addressBook.rankBetween(Collections.singletonList(person(1)), person(3).getRank(), person(2).getRank());
+        assertEquals(Arrays.asList(2, 3, 1, 4), idsInRankOrder());
+
+        addressBook.rankBetween(Collections.singletonList(person(2)), person(4).getRank(), person(4).getRank());
+        assertEquals(Arrays.asList(3, 1, 4, 2), idsInRankOrder());
+    }
+}
@@ -0,0 +1,97 @@
+package address.model.datatypes.person;
+
+import address.model.datatypes.tag.Tag;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FuzzyIndexTest {
+
+    private ObservableList<ViewablePerson> persons;
+    private FuzzyIndex<ViewablePerson> index;
+
+    @Before
+    public void setup() {
+        persons = FXCollections.observableArrayList(
+                createPerson(1, "John", "Tan", "Singapore", "friends"),
+                createPerson(2, "Jon", "Lee", "Kuala Lumpur", "family"),
+                createPerson(3, "Johnny", "Walker", "Singapore", "colleagues"),
+                createPerson(4, "Anna", "Tang", "Bangkok", "family"));
+        index = new FuzzyIndex<>(persons);
+    }
+
+    private static ViewablePerson createPerson(int id, String firstName, String lastName, String city, String tag) {
+        final Person person = new Person(firstName, lastName, id);
+        person.setCity(city);
+        person.setTags(Arrays.asList(new Tag(tag)));
+        return ViewablePerson.fromBacking(person);
+    }
+
+    private List<Integer> searchIds(String query) {
+        return index.search(query, 10).stream().map(match -> match.getPerson().getId())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void editDistance_editsAndSwaps_counted() {
+        assertEquals(0, FuzzyIndex.editDistance("tan", "tan", 0));
+        assertEquals(1, FuzzyIndex.editDistance("jonh", "john", 2)); // swap
+        assertEquals(1, FuzzyIndex.editDistance("famly", "family", 2)); // insertion
+        assertEquals(3, FuzzyIndex.editDistance("kitten", "sitting", 3));
+        assertEquals(3, FuzzyIndex.editDistance("kitten", "sitting", 2)); // more than the maximum
+        assertEquals(2, FuzzyIndex.editDistance("ab", "abcdef", 1)); // lengths too far apart
+    }
+
+    @Test
+    public void search_typosAndPrefixes_rankedBySimilarity() {
+        // "john" and "jon" are one edit away, "johnny" too far
+        final List<FuzzyIndex.Match<ViewablePerson>> jonh = index.search("JONH", 10);
+        assertEquals(Arrays.asList(1, 2), jonh.stream().map(match -> match.getPerson().getId())
+                .collect(Collectors.toList()));
+        assertEquals(0.75, jonh.get(0).getScore(), 1e-9);
+
+        // every query word adds the similarity of its best match
+        assertEquals(Arrays.asList(1, 4, 2), searchIds("jonh tan"));
+        assertEquals(Arrays.asList(2, 4), searchIds("famly"));
+        assertEquals(Arrays.asList(2), searchIds("kuala lumpr"));
+
+        // words starting with the query word match, shorter ones better
+        final List<FuzzyIndex.Match<ViewablePerson>> sing = index.search("sing", 10);
+        assertEquals(2, sing.size());
+        assertEquals(0.5 + 0.5 * 4 / 9, sing.get(0).getScore(), 1e-9);
+        assertEquals(Arrays.asList(3, 1), searchIds("johnn"));
+
+        assertEquals(Arrays.asList(1), index.search("jonh tan", 1).stream()
+                .map(match -> match.getPerson().getId()).collect(Collectors.toList()));
+        assertTrue(searchIds("xyz").isEmpty());
+        assertTrue(searchIds(" ").isEmpty());
+    }
+
+    @Test
+    public void listAndPersonChanges_indexFollows() {
+        final ViewablePerson anna = persons.get(3);
+        anna.getBacking().setLastName("Walker");
+        anna.getBacking().setTags(Arrays.asList(new Tag("colleagues")));
+        assertEquals(Arrays.asList(3, 4), searchIds("walkr"));
+        assertEquals(Arrays.asList(2), searchIds("family"));
+        assertEquals(Arrays.asList(1), searchIds("tang")); // "tan" is one edit away
+
+        persons.add(createPerson(5, "Johan", "Ng", "Bangkok", "friends"));
+        persons.remove(0);
+        assertEquals(Arrays.asList(5), searchIds("johan"));
+        assertEquals(Arrays.asList(4, 5), searchIds("bangkok"));
+
+        persons.setAll(persons.get(3));
+        assertEquals(1, index.size());
+        assertEquals(4, index.getTermCount()); // johan, ng, bangkok, friends
+        assertEquals(Arrays.asList(5), searchIds("frends"));
+    }
+}
@@ -0,0 +1,108 @@
+package address.model.datatypes.person;
+
+import address.model.datatypes.AddressBook;
+import address.model.datatypes.ViewableAddressBook;
+import address.model.datatypes.tag.Tag;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class PersonIdIndexTest {
+
+    private ObservableList<Person> persons;
+    private PersonIdIndex<Person> index;
+
+    @Before
+    public void setup() {
+        persons = FXCollections.observableArrayList(new Person("A", "A", 1), new Person("B", "B", 2));
+        index = new PersonIdIndex<>(persons);
+    }
+
+    @Test
+    public void find_existingPersons_found() {
+        assertSame(persons.get(0), index.find(1).get());
+        assertSame(persons.get(1), index.find(2).get());
+        assertFalse(index.find(3).isPresent());
+    }
+
+    @Test
+    public void listChanges_indexFollows() {
+        final Person added = new Person("C", "C", 3);
+        persons.add(added);
+        persons.remove(0);
+        persons.set(0, new Person("D", "D", 4));
+        FXCollections.sort(persons, (a, b) -> b.getId() - a.getId());
+
+        assertFalse(index.contains(1));
+        assertFalse(index.contains(2));
+        assertSame(added, index.find(3).get());
+        assertTrue(index.contains(4));
+
+        persons.setAll(Collections.emptyList());
+        assertFalse(index.contains(3));
+        assertFalse(index.contains(4));
+    }
+
+    @Test
+    public void duplicateIds_remainingDuplicateFound() {
+        final Person duplicate = new Person("Other", "A", 1);
+        persons.add(duplicate);
+
+        persons.remove(0); // equal by id, so the first one is removed
+        assertSame(duplicate, index.find(1).get());
+
+        persons.remove(duplicate);
+        assertFalse(index.contains(1));
+    }
+
+    @Test
+    public void updateId_onlyIndexedPersonsReindexed() {
+        final Person first = persons.get(0);
+        index.updateId(first, 1);
+        assertSame(first, index.find(1).get());
+
+        persons.remove(first);
+        index.updateId(first, 1);
+        assertFalse(index.contains(1));
+    }
+
+    @Test
+    public void addressBooks_lookupsThroughIndex() {
+        final AddressBook addressBook = new AddressBook(persons, Arrays.asList(new Tag("friends")));
+        final ViewableAddressBook viewable = addressBook.createVisibleAddressBook();
+
+        addressBook.addPerson(new Person("E", "E", 5));
+        assertTrue(viewable.containsPerson(5));
+        assertTrue(addressBook.removePersons(Arrays.asList(1, 5, 99)));
+
+        assertFalse(addressBook.containsPerson(1));
+        assertFalse(viewable.findPerson(5).isPresent());
+        assertEquals(2, viewable.findPerson(2).get().getId());
+        assertTrue(viewable.removePerson(2));
+        assertFalse(viewable.containsPerson(2));
+    }
+
+    @Test
+    public void viewablePersonWithTempId_reindexedWhenRemoteIdConfirmed() {
+        final AddressBook addressBook = new AddressBook(persons, Collections.emptyList());
+        final ViewableAddressBook viewable = addressBook.createVisibleAddressBook();
+        final ViewablePerson pending = ViewablePerson.withoutBacking(new Person("New", "Person", 0));
+        final int tempId = pending.getId();
+        viewable.specifyViewableAlreadyCreated(10);
+        viewable.addPerson(pending);
+        assertTrue(viewable.containsPerson(tempId));
+
+        final Person fromRemote = new Person("New", "Person", 10);
+        addressBook.addPerson(fromRemote);
+        pending.connectBackingObject(fromRemote);
+
+        assertFalse(viewable.containsPerson(tempId));
+        assertSame(pending, viewable.findPerson(10).get());
+    }
+}
@@ -0,0 +1,46 @@
+package address.model.datatypes.person;
+
+import address.model.datatypes.tag.Tag;
+import javafx.collections.ListChangeListener;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PersonTest {
+
+    @Test
+    public void update_onlyChangedFieldsNotified() {
+        final Person person = new Person("John", "Doe", 1);
+        person.setCity("Springfield");
+        person.setTags(Arrays.asList(new Tag("friends")));
+        final Person newData = new Person(person);
+        newData.setCity(new String("Springfield")); // equal but not the same string
+        newData.setStreet("Main Street");
+
+        final List<String> notified = new ArrayList<>();
+        person.cityProperty().addListener(observable -> notified.add("city"));
+        person.streetProperty().addListener(observable -> notified.add("street"));
+        person.getObservableTagList().addListener((ListChangeListener<Tag>) change -> notified.add("tags"));
+
+        person.update(newData);
+
+        assertEquals(Arrays.asList("street"), notified);
+        assertEquals("Main Street", person.getStreet());
+    }
+
+    @Test
+    public void update_changedTags_replaced() {
+        final Person person = new Person("John", "Doe", 1);
+        person.setTags(Arrays.asList(new Tag("friends")));
+        final Person newData = new Person(person);
+        newData.setTags(Arrays.asList(new Tag("colleagues"), new Tag("friends")));
+
+        person.update(newData);
+
+        assertEquals(newData.getTagList(), person.getTagList());
+    }
+}
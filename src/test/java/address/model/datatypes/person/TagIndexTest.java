@@ -0,0 +1,96 @@
+package address.model.datatypes.person;
+
+import address.model.datatypes.tag.Tag;
+import address.parser.ParseException;
+import address.parser.Parser;
+import address.parser.expr.Expr;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TagIndexTest {
+
+    private ObservableList<ViewablePerson> persons;
+    private TagIndex<ViewablePerson> index;
+
+    @Before
+    public void setup() {
+        persons = FXCollections.observableArrayList(
+                createPerson(1, "friends", "colleagues"),
+                createPerson(2, "colleagues", "close friends", "friends"),
+                createPerson(3));
+        for (int i = 10; i < 20; i++) {
+            persons.add(createPerson(i)); // candidates are only used when few persons have the tags
+        }
+        index = new TagIndex<>(persons);
+    }
+
+    private static ViewablePerson createPerson(int id, String... tagNames) {
+        final Person person = new Person("First" + id, "Last" + id, id);
+        person.setTags(Arrays.stream(tagNames).map(Tag::new).collect(Collectors.toList()));
+        return ViewablePerson.fromBacking(person);
+    }
+
+    @Test
+    public void getCommonTags_sameAsWithoutIndex() {
+        final List<List<ViewablePerson>> selections = Arrays.asList(
+                Collections.emptyList(), persons.subList(0, 1), persons.subList(0, 2), persons,
+                Arrays.asList(persons.get(1), persons.get(0)));
+        for (List<ViewablePerson> selection : selections) {
+            assertEquals(ReadOnlyPerson.getCommonTags(selection), index.getCommonTags(selection));
+        }
+        assertEquals(Arrays.asList(new Tag("friends"), new Tag("colleagues")),
+                     index.getCommonTags(persons.subList(0, 2)));
+    }
+
+    @Test
+    public void listAndTagChanges_indexFollows() {
+        final Predicate<ReadOnlyPerson> friendsBefore = index.findCandidates(name -> name.contains("friend")).get();
+        assertTrue(friendsBefore.test(persons.get(0)));
+        assertFalse(friendsBefore.test(persons.get(2)));
+
+        persons.get(2).getBacking().setTags(Collections.singletonList(new Tag("friends")));
+        assertTrue(friendsBefore.test(persons.get(2))); // changed after the candidates were found
+        assertEquals(3, index.countPersonsWithTag("friends"));
+
+        persons.remove(0);
+        final ViewablePerson added = createPerson(4, "colleagues");
+        persons.add(added);
+        assertEquals(new HashSet<>(Arrays.asList(persons.get(0), added)),
+                     new HashSet<>(index.getPersonsWithTag("colleagues")));
+        assertEquals(0, index.countPersonsWithTag("unknown"));
+        assertEquals(13, index.size());
+
+        final Tag renamed = persons.get(1).getBacking().getTags().get(0);
+        renamed.setName("family");
+        index.refresh(persons.get(1));
+        assertEquals(Collections.singletonList(persons.get(1)), index.getPersonsWithTag("family"));
+        assertEquals(1, index.countPersonsWithTag("friends"));
+    }
+
+    @Test
+    public void compileWithIndexes_sameResultsAsExpr() throws ParseException {
+        final Parser parser = new Parser();
+        final SearchIndexes<ViewablePerson> indexes = new SearchIndexes<>(persons);
+        final String[] filterStrings = {"tag:friend", "tag:CLOSE", "!tag:coll", "tag:friends tag:colleagues",
+                                        "tag:unknown"};
+
+        for (String filterString : filterStrings) {
+            final Expr expr = parser.parse(filterString);
+            final Predicate<ReadOnlyViewablePerson> compiled = expr.compile(indexes);
+            for (ViewablePerson person : persons) {
+                assertEquals(filterString, expr.satisfies(person), compiled.test(person));
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package address.model.datatypes.person;
+
+import address.model.datatypes.person.TrigramIndex.Field;
+import address.parser.ParseException;
+import address.parser.Parser;
+import address.parser.expr.Expr;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+public class TrigramIndexTest {
+
+    private ObservableList<ViewablePerson> persons;
+    private TrigramIndex<ViewablePerson> index;
+
+    @Before
+    public void setup() {
+        persons = FXCollections.observableArrayList(
+                createPerson(1, "John", "Tan", "Victoria Street", "Singapore"),
+                createPerson(2, "Martin", "MUELLER", "Orchard Road", "singapore"),
+                createPerson(3, "Mull", "Lee", null, "Port Dickson"));
+        for (int i = 10; i < 20; i++) {
+            persons.add(createPerson(i, "First", "Last", "", "Kuala Lumpur")); // so that candidates are few
+        }
+        index = new TrigramIndex<>(persons);
+    }
+
+    private static ViewablePerson createPerson(int id, String firstName, String lastName, String street,
+                                               String city) {
+        final Person person = new Person(firstName, lastName, id);
+        person.setStreet(street);
+        person.setCity(city);
+        return ViewablePerson.fromBacking(person);
+    }
+
+    @Test
+    public void findCandidates_substringOfThreeOrMore_onlyPersonsWithItsTrigrams() {
+        final Predicate<ReadOnlyPerson> singapore = index.findCandidates(Field.CITY, "GAPO").get();
+        assertTrue(singapore.test(persons.get(0)));
+        assertTrue(singapore.test(persons.get(1)));
+        assertFalse(singapore.test(persons.get(2)));
+
+        final Predicate<ReadOnlyPerson> mueller = index.findCandidates(Field.LAST_NAME, "muel").get();
+        assertTrue(mueller.test(persons.get(1)));
+        assertFalse(mueller.test(persons.get(2)));
+
+        assertFalse(index.findCandidates(Field.STREET, "unknown").get().test(persons.get(0)));
+        assertFalse(index.findCandidates(Field.CITY, "po").isPresent()); // too short
+        assertFalse(index.findCandidates(Field.CITY, "lumpur").isPresent()); // too common
+    }
+
+    @Test
+    public void findCandidates_pendingPersonConfirmed_stillCandidate() {
+        final Person data = new Person("Anna", "Best", 0);
+        data.setCity("Bangkok");
+        final ViewablePerson pending = ViewablePerson.withoutBacking(data);
+        persons.add(pending);
+        final Predicate<ReadOnlyPerson> bangkok = index.findCandidates(Field.CITY, "bangkok").get();
+
+        final Person confirmed = new Person("Anna", "Best", 4);
+        confirmed.setCity("Bangkok");
+        pending.connectBackingObject(confirmed); // from a temporary id to the remote one
+
+        assertTrue(bangkok.test(pending));
+    }
+
+    @Test
+    public void listAndPropertyChanges_indexFollows() {
+        final Predicate<ReadOnlyPerson> bangkokBefore = index.findCandidates(Field.CITY, "bangkok").get();
+        final ViewablePerson moved = persons.get(2);
+        moved.getBacking().setCity("Bangkok");
+        final ViewablePerson added = createPerson(4, "Anna", "Best", "", "Bangkok");
+        persons.add(added);
+
+        // candidates found before the changes still include the changed persons
+        assertTrue(bangkokBefore.test(moved));
+        assertTrue(bangkokBefore.test(added));
+        assertFalse(bangkokBefore.test(persons.get(0)));
+
+        final Predicate<ReadOnlyPerson> bangkok = index.findCandidates(Field.CITY, "bangkok").get();
+        assertTrue(bangkok.test(moved));
+        assertTrue(bangkok.test(added));
+        assertFalse(index.findCandidates(Field.CITY, "dickson").get().test(moved));
+
+        persons.remove(moved);
+        persons.setAll(persons.get(0));
+        assertEquals(1, index.size());
+        final TrigramIndex.Statistics statistics = index.getStatistics();
+        assertEquals(1, statistics.getPersonCount());
+        assertEquals(7, statistics.getTrigramCount(Field.CITY)); // "Singapore"
+        assertEquals(7, statistics.getEntryCount(Field.CITY));
+        assertEquals(1, statistics.getTrigramCount(Field.LAST_NAME)); // "Tan"
+        assertTrue(statistics.getEstimatedBytes(Field.CITY) > statistics.getEstimatedBytes(Field.FIRST_NAME));
+    }
+
+    @Test
+    public void compileWithIndex_sameResultsAsExpr() throws ParseException {
+        final Parser parser = new Parser();
+        final SearchIndexes<ViewablePerson> indexes = new SearchIndexes<>(persons);
+        final String[] filterStrings = {"", "name:mueller", "!city:sing", "street:toria id:1", "name:ull",
+                                        "firstName:jo lastName:an !city:Port", "city:dickson street:road"};
+        persons.get(0).getBacking().setLastName("Muller");
+
+        for (String filterString : filterStrings) {
+            final Expr expr = parser.parse(filterString);
+            final Predicate<ReadOnlyViewablePerson> compiled = expr.compile(indexes);
+            for (ViewablePerson person : persons) {
+                assertEquals(filterString, expr.satisfies(person), compiled.test(person));
+            }
+        }
+    }
+}
@@ -8,11 +8,12 @@ import address.parser.expr.Expr;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -86,6 +87,132 @@ public class ParserTest {
         assertTrue(expr.satisfies(personFive));
     }
 
+    @Test
+    public void parser_sameInput_cachedExprReturned() throws ParseException {
+        Expr expr = parser.parse("name:Mueller tag:friends");
+
+        assertSame(expr, parser.parse("name:Mueller tag:friends"));
+        assertNotSame(expr, parser.parse("name:Mueller"));
+    }
+
+    @Test
+    public void compile_allQualifiersAndNegations_sameResultsAsExpr() throws ParseException {
+        ReadOnlyViewablePerson[] persons = {
+                getRovPersonMock(1, "John", "Tan", "", "Singapore", "friends"),
+                getRovPersonMock(2, "John", "MUELLER", "Victoria Street", "singapore", "Friends"),
+                getRovPersonMock(5, "Martin", "Mueller", "Victoria Street", "Singapore", "colleagues", "friends"),
+                getRovPersonMock(6, "Mull", "Lee", null, "Malaysia")};
+        String[] filterStrings = {"", "name:mueller", "!tag:FRIEND city:sing", "!!street:toria id:5",
+                                  "firstName:jo lastName:an !city:Malaysia"};
+
+        for (String filterString : filterStrings) {
+            Expr expr = parser.parse(filterString);
+            Predicate<ReadOnlyViewablePerson> compiled = expr.compile();
+            for (ReadOnlyViewablePerson person : persons) {
+                assertEquals(filterString, expr.satisfies(person), compiled.test(person));
+            }
+        }
+    }
+
+    @Test
+    public void parser_orAndParentheses_andBindsTighter() throws ParseException {
+        ReadOnlyViewablePerson personOne = getRovPersonMock(1, "John", "Mueller", "", "Singapore", "friends");
+        ReadOnlyViewablePerson personTwo = getRovPersonMock(2, "John", "Tan", "", "Malaysia", "friends");
+        ReadOnlyViewablePerson personThree = getRovPersonMock(3, "Mull", "Lee", "", "Singapore", "colleagues");
+
+        Expr withoutParentheses = parser.parse("name:Mueller OR city:Malaysia tag:colleagues");
+        assertTrue(withoutParentheses.satisfies(personOne));
+        assertFalse(withoutParentheses.satisfies(personTwo));
+        assertFalse(withoutParentheses.satisfies(personThree));
+
+        Expr withParentheses = parser.parse("(name:Mueller or city:Malaysia) AND !tag:colleagues");
+        assertTrue(withParentheses.satisfies(personOne));
+        assertTrue(withParentheses.satisfies(personTwo));
+        assertFalse(withParentheses.satisfies(personThree));
+
+        Expr negatedGroup = parser.parse("!(tag:friends OR name:lee)");
+        assertFalse(negatedGroup.satisfies(personOne));
+        assertFalse(negatedGroup.satisfies(personThree));
+    }
+
+    @Test
+    public void parser_quotedValue_matchedAsPhrase() throws ParseException {
+        ReadOnlyViewablePerson personOne = getRovPersonMock(1, "John", "Tan", "12 Victoria Street", "Kuala Lumpur");
+        ReadOnlyViewablePerson personTwo = getRovPersonMock(2, "John", "Lee", "Kuala Street", "Lumpur City");
+
+        assertTrue(parser.parse("city:\"kuala lumpur\"").satisfies(personOne));
+        assertFalse(parser.parse("city:\"kuala lumpur\"").satisfies(personTwo));
+        assertTrue(parser.parse("street:\"12 Victoria\" OR street:\"a St\"").satisfies(personTwo));
+    }
+
+    @Test
+    public void parser_idAndBirthdayRanges_boundsIncluded() throws ParseException {
+        ReadOnlyViewablePerson personOne = getRovPersonMock(5, LocalDate.of(1990, 1, 1));
+        ReadOnlyViewablePerson personTwo = getRovPersonMock(12, LocalDate.of(1990, 12, 31));
+        ReadOnlyViewablePerson personThree = getRovPersonMock(20, null);
+
+        Expr ids = parser.parse("id:5..12");
+        assertTrue(ids.satisfies(personOne));
+        assertTrue(ids.satisfies(personTwo));
+        assertFalse(ids.satisfies(personThree));
+        assertTrue(parser.parse("id:13..").satisfies(personThree));
+        assertFalse(parser.parse("id:..4").satisfies(personOne));
+
+        Expr year = parser.parse("birthday:01.01.1990..31.12.1990");
+        assertTrue(year.satisfies(personOne));
+        assertTrue(year.satisfies(personTwo));
+        assertFalse(year.satisfies(personThree)); // no birthday
+        assertFalse(parser.parse("birthday:02.01.1990..").satisfies(personOne));
+        assertTrue(parser.parse("birthday:31.12.1990").satisfies(personTwo));
+        assertTrue(parser.parse("!birthday:..31.12.1989").satisfies(personThree));
+    }
+
+    @Test
+    public void parser_invalidGroupingOrRange_parseExceptionThrown() {
+        assertTrue(isParseExceptionThrown("(name:John"));
+        assertTrue(isParseExceptionThrown("name:John)"));
+        assertTrue(isParseExceptionThrown("name:John OR"));
+        assertTrue(isParseExceptionThrown("OR name:John"));
+        assertTrue(isParseExceptionThrown("name:\"John"));
+        assertTrue(isParseExceptionThrown("name:\"\""));
+        assertTrue(isParseExceptionThrown("id:12..5"));
+        assertTrue(isParseExceptionThrown("birthday:1990"));
+        assertTrue(isParseExceptionThrown("birthday:31.12.1990..01.01.1990"));
+    }
+
+    @Test
+    public void narrows_orAndRanges() throws ParseException {
+        assertTrue(parser.parse("id:6..8").narrows(parser.parse("id:5..10")));
+        assertTrue(parser.parse("id:6").narrows(parser.parse("id:..10")));
+        assertFalse(parser.parse("id:4..8").narrows(parser.parse("id:5..10")));
+        assertTrue(parser.parse("birthday:01.06.1990").narrows(parser.parse("birthday:01.01.1990..")));
+        assertFalse(parser.parse("birthday:..01.06.1990").narrows(parser.parse("birthday:01.01.1990..")));
+        assertTrue(parser.parse("name:alice OR city:sing").narrows(parser.parse("city:sin OR name:ali")));
+        assertFalse(parser.parse("name:alice OR tag:x").narrows(parser.parse("city:sin OR name:ali")));
+    }
+
+    @Test
+    public void narrows_refinedFilters_true() throws ParseException {
+        assertTrue(parser.parse("name:al").narrows(parser.parse("")));
+        assertTrue(parser.parse("name:ali").narrows(parser.parse("name:al")));
+        assertTrue(parser.parse("name:ALICE").narrows(parser.parse("name:lic")));
+        assertTrue(parser.parse("name:ali tag:friends").narrows(parser.parse("name:al")));
+        assertTrue(parser.parse("city:sing id:5").narrows(parser.parse("id:5 city:Sin")));
+        assertTrue(parser.parse("!tag:friend").narrows(parser.parse("!tag:friends")));
+        assertTrue(parser.parse("!name:al !city:x").narrows(parser.parse("!name:ali")));
+    }
+
+    @Test
+    public void narrows_widenedOrUnrelatedFilters_false() throws ParseException {
+        assertFalse(parser.parse("").narrows(parser.parse("name:al")));
+        assertFalse(parser.parse("name:al").narrows(parser.parse("name:ali")));
+        assertFalse(parser.parse("name:ali").narrows(parser.parse("name:ali tag:friends")));
+        assertFalse(parser.parse("firstName:ali").narrows(parser.parse("lastName:al")));
+        assertFalse(parser.parse("id:5").narrows(parser.parse("id:6")));
+        assertFalse(parser.parse("!name:ali").narrows(parser.parse("!name:al")));
+        assertFalse(parser.parse("name:ali").narrows(parser.parse("!name:al")));
+    }
+
     @Test
     public void parser_invalidFilterString_parseExceptionThrown() {
         // tag should not have s
@@ -119,6 +246,12 @@ public class ParserTest {
         }
     }
 
+    private ReadOnlyViewablePerson getRovPersonMock(int id, LocalDate birthday) {
+        ReadOnlyViewablePerson readOnlyViewablePersonMock = getRovPersonMock(id, "John", "Tan", "", "");
+        when(readOnlyViewablePersonMock.getBirthday()).thenReturn(birthday);
+        return readOnlyViewablePersonMock;
+    }
+
     private ReadOnlyViewablePerson getRovPersonMock(int id, String firstName, String lastName, String street,
                                                     String city, String... tags) {
         ReadOnlyViewablePerson readOnlyViewablePersonMock = mock(ReadOnlyViewablePerson.class);
@@ -0,0 +1,145 @@
+package address.parser.expr;
+
+import address.model.datatypes.person.Person;
+import address.model.datatypes.person.ReadOnlyViewablePerson;
+import address.model.datatypes.person.SearchIndexes;
+import address.model.datatypes.person.ViewablePerson;
+import address.model.datatypes.tag.Tag;
+import address.parser.ParseException;
+import address.parser.Parser;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static address.parser.expr.Planner.DEFAULT_SELECTIVITY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PlannerTest {
+    private static final int SIZE = 20;
+
+    private Parser parser;
+    private ObservableList<ReadOnlyViewablePerson> persons;
+    private SearchIndexes<ReadOnlyViewablePerson> indexes;
+
+    @Before
+    public void setup() {
+        parser = new Parser();
+        persons = FXCollections.observableArrayList();
+        for (int i = 0; i < SIZE; i++) {
+            final Person person = new Person("First" + i, i % 5 == 0 ? "Alison" : "Last", i);
+            person.setCity(i % 2 == 0 ? "Singapore" : "Bangkok");
+            person.setBirthday(LocalDate.of(1980 + i, 1, 1));
+            person.setTags(i == 3 ? Arrays.asList(new Tag("rare"), new Tag("common"))
+                                  : Arrays.asList(new Tag("common")));
+            persons.add(ViewablePerson.fromBacking(person));
+        }
+        indexes = new SearchIndexes<>(persons);
+    }
+
+    private List<String> orderedConditions(Planner planner, String filter, SearchIndexes<?> indexes)
+            throws ParseException {
+        return planner.orderConditions(AndExpr.conditionsOf(parser.parse(filter)), indexes).stream()
+                .map(Expr::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    public void orderConditions_noIndexes_comparisonsBeforeSubstringSearches() throws ParseException {
+        assertEquals(Arrays.asList("lastName=son", "id=5"),
+                     orderedConditions(Planner.IN_ORDER, "lastName:son id:5", null));
+        assertEquals(Arrays.asList("id=5", "lastName=son"),
+                     orderedConditions(Planner.BY_ESTIMATE, "lastName:son id:5", null));
+        assertEquals(Arrays.asList("birthday=01.01.1990", "firstName=ali OR lastName=ali"),
+                     orderedConditions(Planner.BY_ESTIMATE, "name:ali birthday:01.01.1990", null));
+    }
+
+    @Test
+    public void orderConditions_withIndexes_mostSelectiveFirst() throws ParseException {
+        assertEquals(Arrays.asList("tag=rare", "city=singapore"),
+                     orderedConditions(Planner.BY_ESTIMATE, "city:singapore tag:rare", indexes));
+        assertEquals(Arrays.asList("lastName=alison", "tag=common"),
+                     orderedConditions(Planner.BY_ESTIMATE, "tag:common lastName:alison", indexes));
+        // an id range matching every person decides nothing, so it goes last despite being cheap
+        assertEquals(Arrays.asList("lastName=alison", "id=0..100"),
+                     orderedConditions(Planner.BY_ESTIMATE, "id:0..100 lastName:alison", indexes));
+
+        final List<Expr> alternatives = Planner.BY_ESTIMATE.orderAlternatives(
+                OrExpr.alternativesOf(parser.parse("tag:rare OR city:singapore")), indexes);
+        assertEquals("city=singapore", alternatives.get(0).toString());
+    }
+
+    @Test
+    public void orderConditions_manyConditions_eachEstimatedOnce() {
+        final AtomicInteger estimates = new AtomicInteger(0);
+        final List<Expr> conditions = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            final double cost = (i * 7) % 50;
+            conditions.add(new Expr() {
+                @Override
+                public boolean satisfies(ReadOnlyViewablePerson person) {
+                    return true;
+                }
+
+                @Override
+                public Predicate<ReadOnlyViewablePerson> compile(SearchIndexes<?> indexes, Planner planner) {
+                    return person -> true;
+                }
+
+                @Override
+                public double estimateCost(SearchIndexes<?> indexes) {
+                    estimates.incrementAndGet();
+                    return cost;
+                }
+
+                @Override
+                public double estimateSelectivity(SearchIndexes<?> indexes) {
+                    return DEFAULT_SELECTIVITY;
+                }
+            });
+        }
+
+        final List<Expr> ordered = Planner.BY_ESTIMATE.orderConditions(conditions, indexes);
+
+        assertEquals(conditions.size(), estimates.get());
+        for (int i = 1; i < ordered.size(); i++) {
+            assertTrue(ordered.get(i - 1).estimateCost(indexes) <= ordered.get(i).estimateCost(indexes));
+        }
+    }
+
+    @Test
+    public void estimateSelectivity_withIndexes_fractionOfCandidates() throws ParseException {
+        assertEquals(1.0 / SIZE, parser.parse("tag:rare").estimateSelectivity(indexes), 1e-9);
+        assertEquals(0.5, parser.parse("city:singapore").estimateSelectivity(indexes), 1e-9);
+        assertEquals(0.5 / SIZE, parser.parse("tag:rare city:singapore").estimateSelectivity(indexes), 1e-9);
+        assertEquals(1 - 0.5 * 0.5, parser.parse("city:singapore OR city:bangkok").estimateSelectivity(indexes),
+                     1e-9);
+        assertEquals(0.5, parser.parse("!city:singapore").estimateSelectivity(indexes), 1e-9);
+        assertEquals(6.0 / SIZE, parser.parse("id:4..9").estimateSelectivity(indexes), 1e-9);
+    }
+
+    @Test
+    public void compile_anyPlanner_sameResultsAsExpr() throws ParseException {
+        final String[] filterStrings = {"", "tag:rare city:sing", "(tag:rare OR name:alison) !city:bangkok",
+                                        "id:2..15 birthday:01.01.1985.. OR firstName:\"first1\"",
+                                        "!(lastName:last OR id:..3) tag:common"};
+        for (String filterString : filterStrings) {
+            final Expr expr = parser.parse(filterString);
+            final List<ReadOnlyViewablePerson> expected = new ArrayList<>(persons);
+            expected.removeIf(person -> !expr.satisfies(person));
+            for (Planner planner : Planner.values()) {
+                final List<ReadOnlyViewablePerson> actual = new ArrayList<>(persons);
+                actual.removeIf(expr.compile(indexes, planner).negate());
+                assertEquals(filterString + " " + planner, expected, actual);
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package address.storage;
+
+import address.exceptions.DataConversionException;
+import address.model.datatypes.AddressBook;
+import address.model.datatypes.ReadOnlyAddressBook;
+import address.model.datatypes.person.Person;
+import address.model.datatypes.person.ReadOnlyPerson;
+import address.model.datatypes.tag.Tag;
+import address.testutil.AddressBookBuilder;
+import address.testutil.TestUtil;
+import commons.FileUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BinaryFileStorageTest {
+    private static final File TEMP_FILE = new File(TestUtil.appendToSandboxPath("binaryAddressBook.dat"));
+    private static final File XML_FILE = new File(TestUtil.appendToSandboxPath("binaryTestAddressBook.xml"));
+    private static final File MISSING_FILE = new File(TestUtil.appendToSandboxPath("missingAddressBook.dat"));
+
+    private AddressBook addressBook;
+
+    @Before
+    public void setup() throws Exception {
+        FileUtil.deleteFileIfExists(TEMP_FILE);
+        FileUtil.createIfMissing(TEMP_FILE);
+        addressBook = new AddressBookBuilder()
+                .withPerson("John", "Doe").withPerson("Mary", "Jane").withPerson("Peter", "Pan")
+                .withPerson("Alice", "Liddell").withPerson("Bob", "Builder")
+                .withTag("Friends").withTag("Colleagues")
+                .build();
+    }
+
+    private static void assertSameData(ReadOnlyAddressBook expected, ReadOnlyAddressBook actual) {
+        assertEquals(expected.getPersonList().size(), actual.getPersonList().size());
+        for (int i = 0; i < expected.getPersonList().size(); i++) {
+            final ReadOnlyPerson e = expected.getPersonList().get(i);
+            final ReadOnlyPerson a = actual.getPersonList().get(i);
+            assertEquals(e.getId(), a.getId());
+            assertEquals(e.getFirstName(), a.getFirstName());
+            assertEquals(e.getLastName(), a.getLastName());
+            assertEquals(e.getGithubUsername(), a.getGithubUsername());
+            assertEquals(e.getStreet(), a.getStreet());
+            assertEquals(e.getPostalCode(), a.getPostalCode());
+            assertEquals(e.getCity(), a.getCity());
+            assertEquals(e.getBirthday(), a.getBirthday());
+            assertEquals(e.getTagList(), a.getTagList());
+            assertEquals(e.getRank(), a.getRank());
+        }
+        assertEquals(expected.getTagList(), actual.getTagList());
+    }
+
+    private static void assertNotLoadable(File file) throws FileNotFoundException {
+        try {
+            BinaryFileStorage.loadDataFromSaveFile(file);
+            fail("Expected DataConversionException");
+        } catch (DataConversionException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void saveDataToFile_allFields_loadedUnchanged() throws Exception {
+        final Person full = TestUtil.generateSamplePersonWithAllData(42);
+        full.setFirstName("Zoë \"quoted\" 名前");
+        full.setBirthday(LocalDate.of(1901, 2, 3));
+        final Person negativeId = new Person("Neg", "Ative", -7);
+        negativeId.setBirthday(LocalDate.of(1969, 12, 31));
+        addressBook.addPerson(full);
+        addressBook.addPerson(negativeId);
+
+        BinaryFileStorage.saveDataToFile(TEMP_FILE, addressBook);
+
+        assertTrue(BinaryFileStorage.isBinaryFile(TEMP_FILE));
+        assertSameData(addressBook, BinaryFileStorage.loadDataFromSaveFile(TEMP_FILE));
+    }
+
+    @Test
+    public void saveDataToFile_manyPersons_spansBlocksAndKeepsOrder() throws Exception {
+        final AddressBook large = new AddressBook(TestUtil.generateSamplePersonData(), Arrays.asList(new Tag("a")));
+        for (int i = 100; i < 3100; i++) {
+            final Person person = new Person("first" + i, "last" + i, i);
+            person.setCity("city" + i % 10);
+            person.setPostalCode(Integer.toString(i % 50));
+            person.setTags(Arrays.asList(new Tag("tag" + i % 3)));
+            large.addPerson(person);
+        }
+
+        BinaryFileStorage.saveDataToFile(TEMP_FILE, large);
+        assertSameData(large, BinaryFileStorage.loadDataFromSaveFile(TEMP_FILE));
+    }
+
+    @Test
+    public void saveDataToFile_repeatedValues_smallerThanXml() throws Exception {
+        for (int i = 100; i < 1100; i++) {
+            final Person person = new Person("first" + i, "last" + i, i);
+            person.setCity("Springfield");
+            person.setPostalCode("123456");
+            person.setTags(Arrays.asList(new Tag("Friends")));
+            addressBook.addPerson(person);
+        }
+        FileUtil.createIfMissing(XML_FILE);
+
+        BinaryFileStorage.saveDataToFile(TEMP_FILE, addressBook);
+        XmlFileStorage.streamDataToFile(XML_FILE, addressBook);
+
+        assertTrue(TEMP_FILE.length() * 4 < XML_FILE.length());
+    }
+
+    @Test
+    public void loadDataFromSaveFile_chunked_allRecordsInOrder() throws Exception {
+        BinaryFileStorage.saveDataToFile(TEMP_FILE, addressBook);
+
+        List<ReadOnlyAddressBook> chunks = new ArrayList<>();
+        BinaryFileStorage.loadDataFromSaveFile(TEMP_FILE, 2, chunks::add);
+
+        assertEquals(3, chunks.size());
+        assertEquals(2, chunks.get(0).getPersonList().size());
+        assertEquals(0, chunks.get(0).getTagList().size());
+        assertEquals(1, chunks.get(2).getPersonList().size());
+        assertEquals(2, chunks.get(2).getTagList().size());
+
+        AddressBook loaded = new AddressBook(chunks.get(0));
+        chunks.subList(1, chunks.size()).forEach(loaded::appendData);
+        assertSameData(addressBook, loaded);
+    }
+
+    @Test
+    public void loadDataFromSaveFile_emptyAddressBook_singleEmptyChunk() throws Exception {
+        BinaryFileStorage.saveDataToFile(TEMP_FILE, new AddressBook());
+
+        List<ReadOnlyAddressBook> chunks = new ArrayList<>();
+        BinaryFileStorage.loadDataFromSaveFile(TEMP_FILE, 2, chunks::add);
+
+        assertEquals(1, chunks.size());
+        assertEquals(0, chunks.get(0).getPersonList().size());
+        assertEquals(0, chunks.get(0).getTagList().size());
+    }
+
+    @Test
+    public void loadDataFromSaveFile_truncated_dataConversionException() throws Exception {
+        BinaryFileStorage.saveDataToFile(TEMP_FILE, addressBook);
+        final long length = TEMP_FILE.length();
+
+        for (long cut = length - 1; cut > 0; cut -= 7) {
+            try (RandomAccessFile file = new RandomAccessFile(TEMP_FILE, "rw")) {
+                file.setLength(cut);
+            }
+            assertNotLoadable(TEMP_FILE);
+        }
+    }
+
+    @Test
+    public void loadDataFromSaveFile_corruptedByte_dataConversionException() throws Exception {
+        BinaryFileStorage.saveDataToFile(TEMP_FILE, addressBook);
+        final byte[] bytes = Files.readAllBytes(TEMP_FILE.toPath());
+
+        for (int i = 8; i < bytes.length; i += 5) {
+            final byte[] corrupted = bytes.clone();
+            corrupted[i] ^= 0x10;
+            Files.write(TEMP_FILE.toPath(), corrupted);
+            assertNotLoadable(TEMP_FILE);
+        }
+    }
+
+    @Test(expected = DataConversionException.class)
+    public void loadDataFromSaveFile_newerVersion_dataConversionException() throws Exception {
+        BinaryFileStorage.saveDataToFile(TEMP_FILE, addressBook);
+        final byte[] bytes = Files.readAllBytes(TEMP_FILE.toPath());
+        ByteBuffer.wrap(bytes).putInt(4, BinaryFileStorage.VERSION + 1);
+        Files.write(TEMP_FILE.toPath(), bytes);
+
+        BinaryFileStorage.loadDataFromSaveFile(TEMP_FILE);
+    }
+
+    @Test(expected = DataConversionException.class)
+    public void loadDataFromSaveFile_xmlFile_dataConversionException() throws Exception {
+        XmlFileStorage.streamDataToFile(TEMP_FILE, addressBook);
+        assertFalse(BinaryFileStorage.isBinaryFile(TEMP_FILE));
+
+        BinaryFileStorage.loadDataFromSaveFile(TEMP_FILE);
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void loadDataFromSaveFile_missingFile_fileNotFoundException() throws Exception {
+        BinaryFileStorage.loadDataFromSaveFile(MISSING_FILE, 2, chunk -> {});
+    }
+
+    @Test
+    public void convert_xmlToBinaryAndBack_sameData() throws Exception {
+        final File convertedXml = new File(TestUtil.appendToSandboxPath("convertedAddressBook.xml"));
+        FileUtil.deleteFileIfExists(convertedXml);
+        FileUtil.createIfMissing(XML_FILE);
+        addressBook.addPerson(TestUtil.generateSamplePersonWithAllData(99));
+        XmlFileStorage.streamDataToFile(XML_FILE, addressBook);
+
+        DataFileConverter.convert(XML_FILE, TEMP_FILE, DataFileFormat.BINARY);
+        assertEquals(DataFileFormat.BINARY, DataFileFormat.of(TEMP_FILE));
+        assertSameData(addressBook, BinaryFileStorage.loadDataFromSaveFile(TEMP_FILE));
+
+        DataFileConverter.convert(TEMP_FILE, convertedXml, DataFileFormat.XML);
+        assertEquals(DataFileFormat.XML, DataFileFormat.of(convertedXml));
+        assertSameData(addressBook, XmlFileStorage.loadDataFromSaveFile(convertedXml));
+    }
+}
@@ -0,0 +1,141 @@
+package address.storage;
+
+import address.model.datatypes.person.Person;
+import address.model.datatypes.tag.Tag;
+import address.testutil.TestUtil;
+import commons.FileUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ChangeJournalTest {
+    private static final File DATA_FILE = new File(TestUtil.appendToSandboxPath("journalledAddressBook.xml"));
+
+    private ChangeJournal journal;
+
+    @Before
+    public void setup() throws IOException {
+        journal = new ChangeJournal(DATA_FILE);
+        journal.clear();
+        FileUtil.createParentDirsOfFile(journal.getFile());
+    }
+
+    private List<ChangeJournal.Entry> generateEntries(int count) {
+        final List<ChangeJournal.Entry> entries = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            final Person person = TestUtil.generateSamplePersonWithAllData(i);
+            person.setFirstName("first \"quoted\"\nname " + i);
+            entries.add(ChangeJournal.Entry.putPerson(person));
+            if (i % 3 == 0) entries.add(ChangeJournal.Entry.removePerson(i - 1));
+            if (i % 4 == 0) entries.add(ChangeJournal.Entry.putTag(new Tag("tag" + i)));
+            if (i % 8 == 0) entries.add(ChangeJournal.Entry.removeTag(new Tag("tag" + (i - 4))));
+        }
+        return entries;
+    }
+
+    private static void assertSameEntries(List<ChangeJournal.Entry> expected, List<ChangeJournal.Entry> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            final ChangeJournal.Entry e = expected.get(i);
+            final ChangeJournal.Entry a = actual.get(i);
+            assertEquals(e.getType(), a.getType());
+            assertEquals(e.getPersonId(), a.getPersonId());
+            assertEquals(e.getTag(), a.getTag());
+            if (e.getPerson() != null) {
+                assertTrue(e.getPerson().dataFieldsEqual(a.getPerson()));
+                assertEquals(e.getPerson().getId(), a.getPerson().getId());
+            }
+        }
+    }
+
+    @Test
+    public void readEntries_afterAppends_entriesInWriteOrder() throws IOException {
+        final List<ChangeJournal.Entry> entries = generateEntries(20);
+        journal.append(entries.subList(0, 10));
+        journal.append(entries.subList(10, entries.size()));
+
+        assertSameEntries(entries, journal.readEntries());
+    }
+
+    @Test
+    public void readEntries_noJournal_noEntries() throws IOException {
+        assertEquals(0, journal.readEntries().size());
+        assertEquals(0, journal.size());
+    }
+
+    @Test
+    public void readEntries_truncatedAtRandomOffsets_completeEntriesRecovered() throws IOException {
+        final List<ChangeJournal.Entry> entries = generateEntries(30);
+        final Random random = new Random(42);
+
+        for (int run = 0; run < 50; run++) {
+            journal.clear();
+            journal.append(entries);
+            final byte[] written = Files.readAllBytes(journal.getFile().toPath());
+            final int cutOffset = random.nextInt(written.length + 1);
+            try (RandomAccessFile file = new RandomAccessFile(journal.getFile(), "rw")) {
+                file.setLength(cutOffset);
+            }
+
+            int completeEntries = 0;
+            for (int i = 0; i < cutOffset; i++) {
+                if (written[i] == '\n') completeEntries++;
+            }
+            final List<ChangeJournal.Entry> recovered = journal.readEntries();
+            assertSameEntries(entries.subList(0, completeEntries), recovered);
+
+            // the incomplete tail is dropped, so appending after recovery does not corrupt the journal
+            journal.append(entries.subList(completeEntries, entries.size()));
+            assertSameEntries(entries, journal.readEntries());
+        }
+    }
+
+    @Test
+    public void readEntries_garbageInMiddle_entriesBeforeGarbageRecovered() throws IOException {
+        final List<ChangeJournal.Entry> entries = generateEntries(5);
+        journal.append(entries.subList(0, 3));
+        Files.write(journal.getFile().toPath(), "{not json\n".getBytes(), StandardOpenOption.APPEND);
+        journal.append(entries.subList(3, 5));
+
+        assertSameEntries(entries.subList(0, 3), journal.readEntries());
+    }
+
+    @Test
+    public void startCompaction_newEntriesAppendedSeparately_allEntriesReadInOrder() throws IOException {
+        final List<ChangeJournal.Entry> entries = generateEntries(12);
+        journal.append(entries.subList(0, 4));
+        journal.startCompaction();
+        assertEquals(0, journal.size());
+        assertEquals(0, journal.age());
+
+        journal.append(entries.subList(4, 8));
+        journal.startCompaction(); // earlier compaction did not finish, entries are kept in order
+        journal.append(entries.subList(8, entries.size()));
+        assertSameEntries(entries, journal.readEntries());
+
+        journal.finishCompaction();
+        assertSameEntries(entries.subList(8, entries.size()), journal.readEntries());
+    }
+
+    @Test
+    public void clear_allEntriesDiscarded() throws IOException {
+        journal.append(generateEntries(4));
+        journal.startCompaction();
+        journal.append(generateEntries(2));
+
+        journal.clear();
+        assertEquals(Arrays.asList(), journal.readEntries());
+    }
+}
@@ -0,0 +1,136 @@
+package address.storage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CoalescingWriterTest {
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private CoalescingWriter writer;
+    private List<String> written;
+    private CountDownLatch writerBlocked;
+    private CountDownLatch releaseWriter;
+
+    @Before
+    public void setup() {
+        writer = new CoalescingWriter("Test writer");
+        written = Collections.synchronizedList(new ArrayList<>());
+        writerBlocked = new CountDownLatch(1);
+        releaseWriter = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        releaseWriter.countDown();
+        writer.shutdown(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private Runnable record(String value) {
+        return () -> written.add(value);
+    }
+
+    /**
+     * Keeps the writer thread busy until {@code releaseWriter} is counted down
+     */
+    private void blockWriter() throws InterruptedException {
+        writer.submit("blocker", () -> {
+            writerBlocked.countDown();
+            try {
+                releaseWriter.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(writerBlocked.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void submit_burstForSameKey_onlyLatestWritten() throws InterruptedException {
+        blockWriter();
+        for (int i = 1; i <= 5; i++) {
+            writer.submit("file", record("v" + i));
+        }
+        assertEquals(1, writer.getStatistics().getQueueDepth());
+
+        releaseWriter.countDown();
+        assertTrue(writer.flush(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList("v5"), written);
+        final CoalescingWriter.Statistics statistics = writer.getStatistics();
+        assertEquals(4, statistics.getCoalescedCount());
+        assertEquals(2, statistics.getCompletedCount());
+        assertEquals(0, statistics.getQueueDepth());
+    }
+
+    @Test
+    public void submit_differentKeys_writtenInOrderOfFirstSubmission() throws InterruptedException {
+        blockWriter();
+        writer.submit("a", record("a1"));
+        writer.submit("b", record("b1"));
+        writer.submit("a", record("a2"));
+        writer.submit("c", record("c1"));
+
+        releaseWriter.countDown();
+        assertTrue(writer.flush(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList("a2", "b1", "c1"), written);
+    }
+
+    @Test
+    public void submit_writeThrows_laterWritesStillRun() throws InterruptedException {
+        writer.submit("a", () -> {
+            throw new IllegalStateException("dummy exception");
+        });
+        writer.submit("b", record("b"));
+        assertTrue(writer.flush(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList("b"), written);
+        assertEquals(1, writer.getStatistics().getFailedCount());
+        assertEquals(1, writer.getStatistics().getCompletedCount());
+    }
+
+    @Test
+    public void flush_writerBusy_timesOut() throws InterruptedException {
+        blockWriter();
+        writer.submit("a", record("a"));
+
+        assertFalse(writer.flush(50, TimeUnit.MILLISECONDS));
+        assertTrue(written.isEmpty());
+    }
+
+    @Test
+    public void shutdown_pendingWrites_completedBeforeReturning() throws InterruptedException {
+        blockWriter();
+        writer.submit("a", record("a"));
+        writer.submit("b", record("b"));
+        releaseWriter.countDown();
+
+        assertTrue(writer.shutdown(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("a", "b"), written);
+
+        writer.submit("c", record("c")); // runs on this thread after shutdown
+        assertEquals(Arrays.asList("a", "b", "c"), written);
+    }
+
+    @Test
+    public void getStatistics_latencyIncludesTimeQueued() throws InterruptedException {
+        blockWriter();
+        writer.submit("a", record("a"));
+        Thread.sleep(100);
+        releaseWriter.countDown();
+        assertTrue(writer.flush(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertTrue(writer.getStatistics().getLastLatencyMillis() >= 100);
+        assertTrue(writer.getStatistics().getMaxLatencyMillis() >= 100);
+    }
+}
@@ -0,0 +1,148 @@
+package address.storage;
+
+import address.model.datatypes.AddressBook;
+import address.model.datatypes.ReadOnlyAddressBook;
+import address.model.datatypes.person.Person;
+import address.model.datatypes.person.ReadOnlyPerson;
+import address.model.datatypes.tag.Tag;
+import address.testutil.TestUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class JournalReplayTest {
+
+    private AddressBook persisted;
+    private AddressBook current;
+    private PersistedStateTracker tracker;
+
+    @Before
+    public void setup() {
+        persisted = TestUtil.generateSampleAddressBook();
+        current = new AddressBook(persisted);
+        tracker = new PersistedStateTracker();
+        tracker.set(persisted);
+    }
+
+    private static Map<Integer, String> describePersons(ReadOnlyAddressBook data) {
+        return data.getPersonList().stream()
+                .collect(Collectors.toMap(ReadOnlyPerson::getId, p -> new Person(p).toString()));
+    }
+
+    private static Set<Tag> tagSet(ReadOnlyAddressBook data) {
+        return new HashSet<>(data.getTagList());
+    }
+
+    /**
+     * Replays {@code entries} on {@code persisted} split into chunks of {@code chunkSize}
+     */
+    private AddressBook replay(List<ChangeJournal.Entry> entries, int chunkSize) {
+        final AddressBook loaded = new AddressBook();
+        final JournalReplay replay = new JournalReplay(entries, loaded::appendData);
+        final List<ReadOnlyPerson> persons = persisted.getPersonList();
+        for (int i = 0; i < persons.size(); i += chunkSize) {
+            final List<ReadOnlyPerson> chunkPersons = persons.subList(i, Math.min(i + chunkSize, persons.size()));
+            final boolean isLast = i + chunkSize >= persons.size();
+            replay.accept(new AddressBook(chunkPersons, isLast ? persisted.getTagList() : new ArrayList<>()));
+        }
+        replay.finish();
+        return loaded;
+    }
+
+    @Test
+    public void collectChanges_noChanges_noEntries() {
+        assertTrue(tracker.collectChanges(current).isEmpty());
+    }
+
+    @Test
+    public void collectChanges_onlyChangedPersonsAndTagsJournalled() {
+        current.findPerson(3).get().setCity("Springfield");
+        current.removePerson(5);
+        current.addPerson(new Person("New", "Comer", 100));
+        current.addTag(new Tag("colleagues"));
+        current.removeTag(new Tag("friends"));
+
+        final List<ChangeJournal.Entry> changes = tracker.collectChanges(current);
+
+        assertEquals(5, changes.size());
+        assertTrue(tracker.collectChanges(current).isEmpty());
+    }
+
+    @Test
+    public void replay_changesFromTracker_resultMatchesCurrent() {
+        current.findPerson(3).get().setCity("Springfield");
+        current.findPerson(1).get().setTags(Arrays.asList(new Tag("friends")));
+        current.removePerson(5);
+        current.removePerson(9);
+        current.addPerson(new Person("New", "Comer", 100));
+        current.addTag(new Tag("colleagues"));
+        current.removeTag(new Tag("relatives"));
+
+        final List<ChangeJournal.Entry> changes = tracker.collectChanges(current);
+
+        for (int chunkSize : new int[] {1, 2, 4, 100}) {
+            final AddressBook loaded = replay(changes, chunkSize);
+            assertEquals(describePersons(current), describePersons(loaded));
+            assertEquals(tagSet(current), tagSet(loaded));
+        }
+    }
+
+    @Test
+    public void replay_laterEntriesWin() {
+        final Person person = new Person(persisted.findPerson(2).get());
+        person.setStreet("first street");
+        final ChangeJournal.Entry firstEdit = ChangeJournal.Entry.putPerson(person);
+        person.setStreet("second street");
+        final ChangeJournal.Entry secondEdit = ChangeJournal.Entry.putPerson(person);
+
+        AddressBook loaded = replay(Arrays.asList(firstEdit, ChangeJournal.Entry.removePerson(2), secondEdit), 3);
+        assertEquals("second street", loaded.findPerson(2).get().getStreet());
+
+        loaded = replay(Arrays.asList(firstEdit, secondEdit, ChangeJournal.Entry.removePerson(2)), 3);
+        assertFalse(loaded.containsPerson(2));
+    }
+
+    @Test
+    public void replay_sameEntriesTwice_sameResult() {
+        current.findPerson(4).get().setLastName("Twice");
+        current.removePerson(6);
+        final List<ChangeJournal.Entry> changes = new ArrayList<>(tracker.collectChanges(current));
+        changes.addAll(new ArrayList<>(changes));
+
+        final AddressBook loaded = replay(changes, 2);
+        assertEquals(describePersons(current), describePersons(loaded));
+    }
+
+    @Test
+    public void acceptLeadingChunk_passedOnBeforeFinish() {
+        current.findPerson(1).get().setCity("Springfield");
+        current.addPerson(new Person("New", "Comer", 100));
+        final List<ReadOnlyAddressBook> received = new ArrayList<>();
+        final JournalReplay replay = new JournalReplay(tracker.collectChanges(current), received::add);
+        final List<ReadOnlyPerson> persons = persisted.getPersonList();
+
+        replay.acceptLeadingChunk(new AddressBook(persons.subList(0, 2), new ArrayList<>()));
+        assertEquals(1, received.size());
+        replay.accept(new AddressBook(persons.subList(2, persons.size()), persisted.getTagList()));
+        replay.finish();
+
+        final AddressBook loaded = new AddressBook();
+        received.forEach(loaded::appendData);
+        assertEquals(describePersons(current), describePersons(loaded));
+    }
+
+    @Test
+    public void replay_noEntries_chunksPassedOnUnchanged() {
+        final List<ReadOnlyAddressBook> received = new ArrayList<>();
+        final JournalReplay replay = new JournalReplay(new ArrayList<>(), received::add);
+        replay.accept(persisted);
+        replay.finish();
+
+        assertEquals(1, received.size());
+        assertSame(persisted, received.get(0));
+    }
+}
@@ -0,0 +1,134 @@
+package address.storage;
+
+import address.exceptions.DataConversionException;
+import address.model.datatypes.AddressBook;
+import address.model.datatypes.ReadOnlyAddressBook;
+import address.model.datatypes.person.Person;
+import address.model.datatypes.tag.Tag;
+import address.testutil.TestUtil;
+import commons.FileUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PersonIndexTest {
+    private static final File DATA_FILE = new File(TestUtil.appendToSandboxPath("indexedAddressBook.dat"));
+    private static final File INDEX_FILE = PersonIndex.getIndexFile(DATA_FILE);
+    private static final int PERSON_COUNT = 2500; // spans several PERSONS blocks
+
+    private AddressBook addressBook;
+
+    @Before
+    public void setup() throws Exception {
+        FileUtil.deleteFileIfExists(INDEX_FILE);
+        FileUtil.deleteFileIfExists(DATA_FILE);
+        FileUtil.createIfMissing(DATA_FILE);
+        addressBook = new AddressBook(new ArrayList<>(), Arrays.asList(new Tag("tag0"), new Tag("tag1")));
+        for (int i = 0; i < PERSON_COUNT; i++) {
+            final Person person = new Person("first" + i, "last" + i, i * 3 - 100);
+            person.setCity("city" + i % 7);
+            person.setTags(Arrays.asList(new Tag("tag" + i % 2)));
+            addressBook.addPerson(person);
+        }
+        BinaryFileStorage.saveDataToFile(DATA_FILE, addressBook);
+    }
+
+    private static ByteBuffer map() throws Exception {
+        return BinaryFileStorage.mapFile(DATA_FILE);
+    }
+
+    private void assertPersonsFrom(int first, List<StoragePerson> persons) {
+        for (int i = 0; i < persons.size(); i++) {
+            final Person expected = (Person) addressBook.getPersonList().get(first + i);
+            assertEquals(expected.getId(), persons.get(i).getId());
+            assertEquals(expected.getFirstName(), persons.get(i).getFirstName());
+            assertEquals(expected.getCity(), persons.get(i).getCity());
+            assertEquals(expected.getTagList(), persons.get(i).getTagList());
+        }
+    }
+
+    @Test
+    public void build_savedAndOpened_sameEntries() throws Exception {
+        final PersonIndex built = PersonIndex.build(map());
+        built.save(INDEX_FILE);
+        final PersonIndex opened = PersonIndex.open(INDEX_FILE);
+
+        assertNotNull(opened);
+        assertEquals(PERSON_COUNT, opened.getPersonCount());
+        assertEquals(3, opened.getPersonsBlockCount());
+        assertEquals(1024, opened.getFirstPersonOfBlock(1));
+        for (int i = 0; i < PERSON_COUNT; i++) {
+            assertEquals(i * 3 - 100, opened.getId(i));
+            assertEquals(built.getRecordOffset(i), opened.getRecordOffset(i));
+        }
+        assertTrue(opened.matches(map()));
+    }
+
+    @Test
+    public void loadPersons_range_matchesSavedPersons() throws Exception {
+        final PersonIndex index = PersonIndex.build(map());
+
+        assertPersonsFrom(0, BinaryFileStorage.loadPersons(map(), index, 0, 200));
+        assertPersonsFrom(1000, BinaryFileStorage.loadPersons(map(), index, 1000, 1100));
+        assertPersonsFrom(PERSON_COUNT - 1, BinaryFileStorage.loadPersons(map(), index, PERSON_COUNT - 1,
+                                                                          PERSON_COUNT));
+    }
+
+    @Test
+    public void loadTags_afterAllPersons_matchesSavedTags() throws Exception {
+        final PersonIndex index = PersonIndex.build(map());
+
+        assertEquals(addressBook.getTagList(), BinaryFileStorage.loadTags(map(), index));
+    }
+
+    @Test
+    public void matches_dataChanged_false() throws Exception {
+        final PersonIndex index = PersonIndex.build(map());
+        addressBook.findPerson(5 * 3 - 100).get().setCity("Elsewhere");
+        BinaryFileStorage.saveDataToFile(DATA_FILE, addressBook);
+
+        assertFalse(index.matches(map()));
+    }
+
+    @Test(expected = DataConversionException.class)
+    public void loadPersons_corruptedRecord_dataConversionException() throws Exception {
+        final PersonIndex index = PersonIndex.build(map());
+        final byte[] bytes = Files.readAllBytes(DATA_FILE.toPath());
+        bytes[index.getRecordOffset(10) + 3] ^= 0x10;
+
+        BinaryFileStorage.loadPersons(ByteBuffer.wrap(bytes), index, 0, 20);
+    }
+
+    @Test
+    public void open_corruptedOrMissing_null() throws Exception {
+        assertNull(PersonIndex.open(INDEX_FILE));
+
+        PersonIndex.build(map()).save(INDEX_FILE);
+        final byte[] bytes = Files.readAllBytes(INDEX_FILE.toPath());
+        bytes[bytes.length / 2] ^= 0x01;
+        Files.write(INDEX_FILE.toPath(), bytes);
+
+        assertNull(PersonIndex.open(INDEX_FILE));
+    }
+
+    @Test
+    public void loadData_skippedPersons_restInChunks() throws Exception {
+        final List<ReadOnlyAddressBook> chunks = new ArrayList<>();
+        BinaryFileStorage.loadData(map(), 1000, chunks::add, 200);
+
+        assertEquals(3, chunks.size());
+        assertEquals(2, chunks.get(2).getTagList().size());
+        final List<StoragePerson> rest = new ArrayList<>();
+        chunks.forEach(chunk -> chunk.getPersonList().forEach(p -> rest.add((StoragePerson) p)));
+        assertEquals(PERSON_COUNT - 200, rest.size());
+        assertPersonsFrom(200, rest);
+    }
+}
@@ -0,0 +1,173 @@
+package address.storage;
+
+import address.events.EventManager;
+import address.events.storage.FileOpeningExceptionEvent;
+import address.model.UserPrefs;
+import address.model.datatypes.AddressBook;
+import address.model.datatypes.ReadOnlyAddressBook;
+import address.model.datatypes.person.Person;
+import address.model.datatypes.tag.Tag;
+import address.testutil.TestUtil;
+import address.util.Config;
+import commons.FileUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * Loads real data files through a {@link StorageManager} that passes them on in chunks
+ */
+public class StorageManagerLoadTest {
+    private static final File DATA_FILE = new File(TestUtil.appendToSandboxPath("chunkedAddressBook.xml"));
+    private static final File BINARY_FILE = new File(TestUtil.appendToSandboxPath("chunkedAddressBook.dat"));
+    private static final File OTHER_FILE = new File(TestUtil.appendToSandboxPath("otherChunkedAddressBook.xml"));
+    private static final File PREFS_FILE = new File(TestUtil.appendToSandboxPath("chunkedUserPrefs.json"));
+    private static final int PERSON_COUNT = 3500; // several chunks
+
+    private List<ReadOnlyAddressBook> loadedChunks;
+    private EventManager eventManagerMock;
+    private StorageManager storageManager;
+
+    @Before
+    public void setup() throws Exception {
+        FileUtil.deleteFileIfExists(DATA_FILE);
+        FileUtil.deleteFileIfExists(OTHER_FILE);
+        FileUtil.deleteFileIfExists(BINARY_FILE);
+        FileUtil.deleteFileIfExists(PersonIndex.getIndexFile(BINARY_FILE));
+        loadedChunks = new ArrayList<>();
+        eventManagerMock = mock(EventManager.class);
+        storageManager = createStorageManager(DATA_FILE, DataFileFormat.XML, data -> {
+            loadedChunks.clear();
+            loadedChunks.add(data);
+        }, loadedChunks::add);
+    }
+
+    @After
+    public void tearDown() {
+        storageManager.stop();
+    }
+
+    private StorageManager createStorageManager(File dataFile, DataFileFormat format,
+                                                Consumer<ReadOnlyAddressBook> loadedDataCallback,
+                                                Consumer<ReadOnlyAddressBook> loadedDataChunkCallback) {
+        final Config config = new Config();
+        config.setLocalDataFilePath(dataFile.getPath());
+        config.setLocalDataFileFormat(format.name());
+        config.setPrefsFileLocation(PREFS_FILE);
+        final StorageManager created = new StorageManager(loadedDataCallback, loadedDataChunkCallback, Runnable::run,
+                                                          AddressBook::new, config, new UserPrefs());
+        created.setEventManager(eventManagerMock);
+        return created;
+    }
+
+    private static AddressBook createAddressBook(String firstNamePrefix) {
+        final AddressBook addressBook = new AddressBook(new ArrayList<>(), Arrays.asList(new Tag("tag")));
+        for (int i = 0; i < PERSON_COUNT; i++) {
+            addressBook.addPerson(new Person(firstNamePrefix + i, "last" + i, i + 1));
+        }
+        return addressBook;
+    }
+
+    private int countLoadedPersons() {
+        return loadedChunks.stream().mapToInt(chunk -> chunk.getPersonList().size()).sum();
+    }
+
+    private static long getUsedHeapAfterGc() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Test
+    public void loadDataFile_corruptedPartway_loadedDataUntouched() throws Exception {
+        StorageManager.saveAddressBook(DATA_FILE, createAddressBook("first"));
+        storageManager.start();
+        assertEquals(PERSON_COUNT, countLoadedPersons());
+        final ReadOnlyAddressBook firstChunk = loadedChunks.get(0);
+
+        StorageManager.saveAddressBook(OTHER_FILE, createAddressBook("other"));
+        try (RandomAccessFile file = new RandomAccessFile(OTHER_FILE, "rw")) {
+            file.setLength(file.length() * 3 / 4); // past the first two chunks
+        }
+        storageManager.loadDataFile(OTHER_FILE);
+
+        verify(eventManagerMock).post(any(FileOpeningExceptionEvent.class));
+        assertSame(firstChunk, loadedChunks.get(0));
+        assertEquals(PERSON_COUNT, countLoadedPersons());
+        assertEquals("first0", loadedChunks.get(0).getPersonList().get(0).getFirstName());
+    }
+
+    @Test
+    public void loadDataFile_largeFile_heldDataBoundedByChunks() throws Exception {
+        final AddressBook addressBook = new AddressBook();
+        for (int i = 0; i < PERSON_COUNT * 6; i++) {
+            addressBook.addPerson(new Person("first" + i, "last" + i, i + 1));
+        }
+        StorageManager.saveAddressBook(OTHER_FILE, addressBook);
+        final long baseline = getUsedHeapAfterGc();
+        ReadOnlyAddressBook wholeFile = DataFileFormat.XML.load(OTHER_FILE);
+        final long wholeFileBytes = getUsedHeapAfterGc() - baseline;
+        assertEquals(PERSON_COUNT * 6, wholeFile.getPersonList().size());
+        wholeFile = null;
+
+        final List<Long> heldBytesAtFirstChunk = new ArrayList<>();
+        final int[] loadedPersons = {0};
+        storageManager = createStorageManager(DATA_FILE, DataFileFormat.XML, chunk -> {
+            heldBytesAtFirstChunk.add(getUsedHeapAfterGc() - baseline);
+            loadedPersons[0] = chunk.getPersonList().size();
+        }, chunk -> loadedPersons[0] += chunk.getPersonList().size()); // the chunks are not kept
+        storageManager.loadDataFile(OTHER_FILE);
+
+        assertEquals(PERSON_COUNT * 6, loadedPersons[0]);
+        assertTrue(heldBytesAtFirstChunk + " of " + wholeFileBytes,
+                   heldBytesAtFirstChunk.get(0) < wholeFileBytes / 4);
+    }
+
+    @Test
+    public void start_modelChangedWhileBinaryFileLoading_savedOnceFullyLoaded() throws Exception {
+        StorageManager.saveAddressBook(BINARY_FILE, createAddressBook("first"), DataFileFormat.BINARY);
+        PersonIndex.build(BinaryFileStorage.mapFile(BINARY_FILE)).save(PersonIndex.getIndexFile(BINARY_FILE));
+        final AddressBook model = new AddressBook();
+        final List<Integer> tagCountsWhileLoading = new ArrayList<>();
+        storageManager = createStorageManager(BINARY_FILE, DataFileFormat.BINARY, model::resetData, chunk -> {
+            model.appendData(chunk);
+            if (!tagCountsWhileLoading.isEmpty()) return;
+            // the rest of the file is still loading on the writer thread
+            tagCountsWhileLoading.add(model.getTagList().size());
+            model.getPersons().get(0).setFirstName("changed");
+            storageManager.saveChangesToJournal(model);
+            storageManager.saveDataToFile(OTHER_FILE, model);
+        });
+        storageManager.start();
+        storageManager.stop();
+
+        assertEquals(Arrays.asList(1), tagCountsWhileLoading);
+        assertEquals(PERSON_COUNT, model.getPersonList().size());
+        assertEquals(1, model.getTagList().size());
+        for (File savedFile : Arrays.asList(BINARY_FILE, OTHER_FILE)) {
+            final AddressBook reloaded = new AddressBook();
+            storageManager = createStorageManager(savedFile, DataFileFormat.of(savedFile), reloaded::resetData,
+                                                  reloaded::appendData);
+            storageManager.start();
+            storageManager.stop();
+            assertEquals(PERSON_COUNT, reloaded.getPersonList().size());
+            assertEquals(1, reloaded.getTagList().size());
+            assertEquals("changed", reloaded.getPersonList().get(0).getFirstName());
+        }
+        verify(eventManagerMock, never()).post(any(FileOpeningExceptionEvent.class));
+    }
+}
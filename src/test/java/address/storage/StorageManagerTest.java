@@ -157,11 +157,11 @@ public class StorageManagerTest {
     public void handleLocalModelChangedEvent(){
 
         //mock dependent method of same object (that method is tested elsewhere)
+        doNothing().when(storageManagerSpy).saveChangesToJournal(EMPTY_ADDRESSBOOK);
         storageManagerSpy.handleLocalModelChangedEvent(new LocalModelChangedEvent(EMPTY_ADDRESSBOOK));
 
         //verify that method is called correctly
-        verify(storageManagerSpy, times(1)).saveDataToFile(any(File.class), any(AddressBook.class));
-        //TODO: make the above verification stronger by comparing actual parameters instead of 'any'
+        verify(storageManagerSpy, times(1)).saveChangesToJournal(EMPTY_ADDRESSBOOK);
     }
 
     @Test
@@ -0,0 +1,101 @@
+package address.storage;
+
+import address.exceptions.DataConversionException;
+import address.model.datatypes.AddressBook;
+import address.model.datatypes.ReadOnlyAddressBook;
+import address.testutil.AddressBookBuilder;
+import address.testutil.TestUtil;
+import commons.FileUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class XmlFileStorageStreamTest {
+    private static final File TEMP_FILE = new File(TestUtil.appendToSandboxPath("streamedAddressBook.xml"));
+    private static final File MISSING_FILE = new File(TestUtil.appendToSandboxPath("missingStreamedAddressBook.xml"));
+
+    private AddressBook addressBook;
+
+    @Before
+    public void setup() throws Exception {
+        FileUtil.deleteFileIfExists(TEMP_FILE);
+        FileUtil.createIfMissing(TEMP_FILE);
+        addressBook = new AddressBookBuilder()
+                .withPerson("John", "Doe").withPerson("Mary", "Jane").withPerson("Peter", "Pan")
+                .withPerson("Alice", "Liddell").withPerson("Bob", "Builder")
+                .withTag("Friends").withTag("Colleagues")
+                .build();
+    }
+
+    @Test
+    public void streamDataToFile_readableAsWholeFile() throws Exception {
+        XmlFileStorage.streamDataToFile(TEMP_FILE, addressBook);
+
+        StorageAddressBook dataFromFile = XmlFileStorage.loadDataFromSaveFile(TEMP_FILE);
+        assertEquals(addressBook.toString(), new AddressBook(dataFromFile).toString());
+        assertEquals(addressBook.getPersonList().get(3).fullName(), dataFromFile.getPersonList().get(3).fullName());
+        assertEquals(addressBook.getTagList(), dataFromFile.getTagList());
+    }
+
+    @Test
+    public void loadDataFromSaveFile_chunked_allRecordsInOrder() throws Exception {
+        XmlFileStorage.saveDataToFile(TEMP_FILE, new StorageAddressBook(addressBook));
+
+        List<ReadOnlyAddressBook> chunks = new ArrayList<>();
+        XmlFileStorage.loadDataFromSaveFile(TEMP_FILE, 2, chunks::add);
+
+        assertEquals(3, chunks.size());
+        assertEquals(2, chunks.get(0).getPersonList().size());
+        assertEquals(2, chunks.get(1).getPersonList().size());
+        assertEquals(1, chunks.get(2).getPersonList().size());
+        assertEquals(2, chunks.get(2).getTagList().size());
+
+        AddressBook loaded = new AddressBook(chunks.get(0));
+        chunks.subList(1, chunks.size()).forEach(loaded::appendData);
+        assertEquals(addressBook.toString(), loaded.toString());
+        for (int i = 0; i < addressBook.getPersonList().size(); i++) {
+            assertEquals(addressBook.getPersonList().get(i).getId(), loaded.getPersonList().get(i).getId());
+        }
+    }
+
+    @Test
+    public void loadDataFromSaveFile_chunkSizeDividesPersons_tagsInSeparateChunk() throws Exception {
+        addressBook.removePerson(5);
+        XmlFileStorage.streamDataToFile(TEMP_FILE, addressBook);
+
+        List<ReadOnlyAddressBook> chunks = new ArrayList<>();
+        XmlFileStorage.loadDataFromSaveFile(TEMP_FILE, 2, chunks::add);
+
+        assertEquals(3, chunks.size());
+        assertEquals(0, chunks.get(2).getPersonList().size());
+        assertEquals(2, chunks.get(2).getTagList().size());
+    }
+
+    @Test
+    public void loadDataFromSaveFile_emptyAddressBook_singleEmptyChunk() throws Exception {
+        XmlFileStorage.streamDataToFile(TEMP_FILE, new AddressBook());
+
+        List<ReadOnlyAddressBook> chunks = new ArrayList<>();
+        XmlFileStorage.loadDataFromSaveFile(TEMP_FILE, 2, chunks::add);
+
+        assertEquals(1, chunks.size());
+        assertEquals(0, chunks.get(0).getPersonList().size());
+        assertEquals(0, chunks.get(0).getTagList().size());
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void loadDataFromSaveFile_missingFile_fileNotFoundException() throws Exception {
+        XmlFileStorage.loadDataFromSaveFile(MISSING_FILE, 2, chunk -> {});
+    }
+
+    @Test(expected = DataConversionException.class)
+    public void loadDataFromSaveFile_emptyFile_dataConversionException() throws Exception {
+        XmlFileStorage.loadDataFromSaveFile(TEMP_FILE, 2, chunk -> {});
+    }
+}
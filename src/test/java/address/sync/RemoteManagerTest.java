@@ -13,12 +13,12 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.*;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 public class RemoteManagerTest {
     private static final int RESOURCES_PER_PAGE = 100;
@@ -91,6 +91,105 @@ public class RemoteManagerTest {
     }
 
 
+    private ExtractedRemoteResponse<List<Person>> getPersonsPage(List<Person> persons, int pageNumber,
+                                                                 int quotaRemaining) {
+        int lastPage = (persons.size() + RESOURCES_PER_PAGE - 1) / RESOURCES_PER_PAGE;
+        List<Person> page = persons.subList((pageNumber - 1) * RESOURCES_PER_PAGE,
+                                            Math.min(pageNumber * RESOURCES_PER_PAGE, persons.size()));
+        ExtractedRemoteResponse<List<Person>> remoteResponse = new ExtractedRemoteResponse<>(HttpURLConnection.HTTP_OK,
+                "eTag", 5000, quotaRemaining, getResetTime(), new ArrayList<>(page));
+        remoteResponse.setFirstPage(1);
+        remoteResponse.setLastPage(lastPage);
+        if (pageNumber < lastPage) remoteResponse.setNextPage(pageNumber + 1);
+        if (pageNumber > 1) remoteResponse.setPrevPage(pageNumber - 1);
+        return remoteResponse;
+    }
+
+    private List<Person> getPersons(int noOfPersons) {
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < noOfPersons; i++) {
+            persons.add(new Person("firstName" + i, "lastName" + i, i));
+        }
+        return persons;
+    }
+
+    @Test
+    public void getUpdatedPersons_failedPage_retriedAndInOrder() throws IOException {
+        List<Person> personsToReturn = getPersons(950);
+        AtomicInteger pageThreeRequests = new AtomicInteger(0);
+        AtomicInteger pageFiveRequests = new AtomicInteger(0);
+        when(remoteService.getPersons(anyString(), anyInt())).thenAnswer((invocation) -> {
+            int pageNumber = (int) invocation.getArguments()[1];
+            if (pageNumber == 3 && pageThreeRequests.incrementAndGet() == 1) {
+                return new ExtractedRemoteResponse<>(HttpURLConnection.HTTP_CLIENT_TIMEOUT);
+            }
+            if (pageNumber == 5 && pageFiveRequests.incrementAndGet() == 1) {
+                throw new IOException("Connection reset");
+            }
+            return getPersonsPage(personsToReturn, pageNumber, 100);
+        });
+
+        Optional<List<Person>> result = remoteManager.getUpdatedPersons("Test");
+
+        assertTrue(result.isPresent());
+        assertEquals(personsToReturn, result.get());
+        verify(remoteService, times(2)).getPersons("Test", 3);
+        verify(remoteService, times(2)).getPersons("Test", 5);
+        verify(remoteService, times(1)).getPersons("Test", 10);
+    }
+
+    @Test
+    public void getUpdatedPersons_lowQuota_concurrentRequestsLimitedByQuota() throws IOException {
+        List<Person> personsToReturn = getPersons(2000);
+        AtomicInteger inFlight = new AtomicInteger(0);
+        AtomicInteger maxInFlight = new AtomicInteger(0);
+        when(remoteService.getPersons(anyString(), anyInt())).thenAnswer((invocation) -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return getPersonsPage(personsToReturn, (int) invocation.getArguments()[1], 3);
+        });
+
+        Optional<List<Person>> result = remoteManager.getUpdatedPersons("Test");
+
+        assertTrue(result.isPresent());
+        assertEquals(personsToReturn, result.get());
+        assertTrue(maxInFlight.get() > 1);
+        assertTrue(maxInFlight.get() <= 3);
+    }
+
+    @Test
+    public void getUpdatedPersons_unchangedPages_requestedWithETagAndSkipped() throws IOException {
+        List<Person> personsToReturn = getPersons(250);
+        when(remoteService.getPersons(anyString(), anyInt())).thenAnswer((invocation) ->
+                getPersonsPage(personsToReturn, (int) invocation.getArguments()[1], 100));
+        assertEquals(personsToReturn, remoteManager.getUpdatedPersons("Test").get());
+        long responseCount = remoteManager.getResponseCount();
+
+        List<Person> updatedPage = new ArrayList<>(personsToReturn.subList(100, 200));
+        updatedPage.set(0, new Person("updatedFirstName", "updatedLastName", 100));
+        when(remoteService.getUpdatedPersonsSince(anyString(), anyInt(), any(LocalDateTime.class), anyString()))
+                .thenAnswer((invocation) -> {
+                    if ((int) invocation.getArguments()[1] != 2) {
+                        return new ExtractedRemoteResponse<>(HttpURLConnection.HTTP_NOT_MODIFIED, null, 5000, 100,
+                                                             getResetTime());
+                    }
+                    return new ExtractedRemoteResponse<>(HttpURLConnection.HTTP_OK, "newETag", 5000, 99,
+                                                         getResetTime(), updatedPage);
+                });
+
+        Optional<List<Person>> result = remoteManager.getUpdatedPersons("Test");
+
+        assertTrue(result.isPresent());
+        assertEquals(updatedPage, result.get());
+        for (int page = 1; page <= 3; page++) {
+            verify(remoteService).getUpdatedPersonsSince(eq("Test"), eq(page), any(LocalDateTime.class), eq("eTag"));
+        }
+        assertEquals(responseCount + 1, remoteManager.getResponseCount());
+        assertEquals(2, remoteManager.getNotModifiedCount());
+    }
+
+
     @Test
     public void getTags_multiplePages_successfulGet() throws IOException {
         int quotaLimit = 10;
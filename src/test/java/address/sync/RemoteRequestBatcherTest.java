@@ -0,0 +1,160 @@
+package address.sync;
+
+import address.model.datatypes.person.Person;
+import address.model.datatypes.person.ReadOnlyPerson;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+public class RemoteRequestBatcherTest {
+    private static final String ADDRESS_BOOK_NAME = "Test";
+
+    private RemoteManager remoteManager;
+    private Deque<Runnable> submittedTasks;
+    private RemoteRequestBatcher batcher;
+
+    @Before
+    public void setup() {
+        remoteManager = mock(RemoteManager.class);
+        submittedTasks = new ArrayDeque<>();
+        batcher = new RemoteRequestBatcher(remoteManager, submittedTasks::add);
+    }
+
+    private void runSubmittedTasks() {
+        while (!submittedTasks.isEmpty()) {
+            submittedTasks.poll().run();
+        }
+    }
+
+    @Test
+    public void updatePerson_sameAndOtherPersons_coalescedIntoOneRequest() throws Exception {
+        Person update1 = new Person("first", "last", 1);
+        Person update2 = new Person("second", "last", 1);
+        Person update3 = new Person("first", "other", 2);
+        Map<Integer, Person> resultingPersons = new HashMap<>();
+        resultingPersons.put(1, update2);
+        resultingPersons.put(2, update3);
+        when(remoteManager.updatePersons(anyString(), anyMapOf(Integer.class, ReadOnlyPerson.class)))
+                .thenReturn(Optional.of(resultingPersons));
+
+        CompletableFuture<ReadOnlyPerson> result1 = new CompletableFuture<>();
+        CompletableFuture<ReadOnlyPerson> result2 = new CompletableFuture<>();
+        CompletableFuture<ReadOnlyPerson> result3 = new CompletableFuture<>();
+        batcher.updatePerson(ADDRESS_BOOK_NAME, 1, update1, result1);
+        batcher.updatePerson(ADDRESS_BOOK_NAME, 1, update2, result2);
+        batcher.updatePerson(ADDRESS_BOOK_NAME, 2, update3, result3);
+        assertEquals(1, submittedTasks.size());
+        runSubmittedTasks();
+
+        Map<Integer, ReadOnlyPerson> expectedUpdates = new HashMap<>();
+        expectedUpdates.put(1, update2);
+        expectedUpdates.put(2, update3);
+        verify(remoteManager).updatePersons(ADDRESS_BOOK_NAME, expectedUpdates);
+        verify(remoteManager, never()).updatePerson(anyString(), anyInt(), any());
+        assertEquals(update2, result1.get());
+        assertEquals(update2, result2.get());
+        assertEquals(update3, result3.get());
+
+        RemoteRequestBatcher.Statistics statistics = batcher.getStatistics();
+        assertEquals(3, statistics.getRequestedCount());
+        assertEquals(1, statistics.getCoalescedCount());
+        assertEquals(1, statistics.getRemoteCallCount());
+        assertEquals(0, statistics.getPendingCount());
+    }
+
+    @Test
+    public void createPerson_onePerson_sentAsSingleRequest() throws Exception {
+        Person person = new Person("first", "last", 1);
+        when(remoteManager.createPerson(ADDRESS_BOOK_NAME, person)).thenReturn(Optional.of(person));
+
+        CompletableFuture<ReadOnlyPerson> result = new CompletableFuture<>();
+        batcher.createPerson(ADDRESS_BOOK_NAME, person, result);
+        runSubmittedTasks();
+
+        assertEquals(person, result.get());
+        verify(remoteManager, never()).createPersons(anyString(), anyListOf(ReadOnlyPerson.class));
+    }
+
+    @Test
+    public void createPerson_somePersonsRejected_onlyTheirResultsFailed() throws Exception {
+        Person person1 = new Person("first", "last", 0);
+        Person person2 = new Person("second", "last", 0);
+        Person createdPerson2 = new Person("second", "last", 7);
+        when(remoteManager.createPersons(ADDRESS_BOOK_NAME, Arrays.asList(person1, person2)))
+                .thenReturn(Optional.of(Arrays.asList(null, createdPerson2)));
+
+        CompletableFuture<ReadOnlyPerson> result1 = new CompletableFuture<>();
+        CompletableFuture<ReadOnlyPerson> result2 = new CompletableFuture<>();
+        batcher.createPerson(ADDRESS_BOOK_NAME, person1, result1);
+        batcher.createPerson(ADDRESS_BOOK_NAME, person2, result2);
+        runSubmittedTasks();
+
+        assertTrue(result1.isCompletedExceptionally());
+        assertEquals(createdPerson2, result2.get());
+    }
+
+    @Test
+    public void deletePerson_requestFailed_allResultsFailed() throws Exception {
+        when(remoteManager.deletePersons(anyString(), anyListOf(Integer.class))).thenThrow(new IOException());
+
+        CompletableFuture<Boolean> result1 = new CompletableFuture<>();
+        CompletableFuture<Boolean> result2 = new CompletableFuture<>();
+        batcher.deletePerson(ADDRESS_BOOK_NAME, 1, result1);
+        batcher.deletePerson(ADDRESS_BOOK_NAME, 2, result2);
+        runSubmittedTasks();
+
+        assertTrue(result1.isCompletedExceptionally());
+        assertTrue(result2.isCompletedExceptionally());
+    }
+
+    @Test
+    public void updatePerson_afterDeletionOfSamePerson_sentAfterDeletion() throws Exception {
+        Person update = new Person("first", "last", 1);
+        when(remoteManager.deletePerson(ADDRESS_BOOK_NAME, 1)).thenReturn(true);
+        when(remoteManager.updatePerson(ADDRESS_BOOK_NAME, 1, update)).thenReturn(Optional.empty());
+
+        CompletableFuture<Boolean> deletionResult = new CompletableFuture<>();
+        CompletableFuture<ReadOnlyPerson> updateResult = new CompletableFuture<>();
+        batcher.deletePerson(ADDRESS_BOOK_NAME, 1, deletionResult);
+        batcher.updatePerson(ADDRESS_BOOK_NAME, 1, update, updateResult);
+        runSubmittedTasks();
+
+        InOrder inOrder = inOrder(remoteManager);
+        inOrder.verify(remoteManager).deletePerson(ADDRESS_BOOK_NAME, 1);
+        inOrder.verify(remoteManager).updatePerson(ADDRESS_BOOK_NAME, 1, update);
+        assertTrue(deletionResult.get());
+        assertTrue(updateResult.isCompletedExceptionally());
+    }
+
+    @Test
+    public void createPerson_moreThanMaxBatchSize_sentInSeveralRequests() throws Exception {
+        when(remoteManager.createPersons(anyString(), anyListOf(ReadOnlyPerson.class))).thenAnswer(invocation -> {
+            List<Person> createdPersons = new ArrayList<>();
+            for (Object person : (List<?>) invocation.getArguments()[1]) {
+                createdPersons.add(new Person((ReadOnlyPerson) person));
+            }
+            return Optional.of(createdPersons);
+        });
+
+        List<CompletableFuture<ReadOnlyPerson>> results = new ArrayList<>();
+        for (int i = 0; i < RemoteRequestBatcher.MAX_BATCH_SIZE + 1; i++) {
+            CompletableFuture<ReadOnlyPerson> result = new CompletableFuture<>();
+            results.add(result);
+            batcher.createPerson(ADDRESS_BOOK_NAME, new Person("first" + i, "last", 0), result);
+        }
+        runSubmittedTasks();
+
+        verify(remoteManager, times(2)).createPersons(anyString(), anyListOf(ReadOnlyPerson.class));
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals("first" + i, results.get(i).get().getFirstName());
+        }
+    }
+}
@@ -16,6 +16,7 @@ import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.util.Optional;
 import java.util.concurrent.*;
 
 import static java.lang.Thread.sleep;
@@ -27,7 +28,7 @@ import static org.mockito.Mockito.*;
 import static org.powermock.api.mockito.PowerMockito.whenNew;
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({CreatePersonOnRemoteTask.class, SyncManager.class})
+@PrepareForTest({CreatePersonOnRemoteTask.class, SyncManager.class, RemoteRequestBatcher.class})
 @PowerMockIgnore({"javax.management.*"})// Defer loading of javax.management.* in log4j to system class loader
 public class SyncManagerTest {
     RemoteManager remoteManager;
@@ -48,6 +49,7 @@ public class SyncManagerTest {
         EventManager.getInstance().registerHandler(this);
         syncFailedEventCount = 0;
         remoteManager = mock(RemoteManager.class);
+        when(remoteManager.getLastQuotaResponse()).thenReturn(Optional.empty());
         executorService = spy(Executors.newCachedThreadPool());
         scheduledExecutorService = mock(ScheduledExecutorService.class);
         config = new Config();
@@ -73,14 +75,17 @@ public class SyncManagerTest {
 
     @Test
     public void getUpdates_noActiveAddressBook_syncFailed() {
-        when(scheduledExecutorService.scheduleWithFixedDelay(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class))).thenAnswer(invocation -> {
-            Object[] args = invocation.getArguments();
-            Runnable task = (Runnable) args[0];
-            task.run();
-            return null;
-        });
+        when(scheduledExecutorService.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class)))
+                .thenAnswer(invocation -> {
+                    Object[] args = invocation.getArguments();
+                    Runnable task = (Runnable) args[0];
+                    task.run();
+                    return null;
+                })
+                .thenReturn(null);
         syncManager.start();
         assertEquals(1, syncFailedEventCount);
+        verify(scheduledExecutorService, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
     }
 
     @After
@@ -0,0 +1,75 @@
+package address.sync;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SyncSchedulerTest {
+    private static final long INTERVAL = 10000;
+    private static final long NOW = 1_000_000_000L;
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Test
+    public void scheduleNext_unknownQuota_shortenedForChangesThenBackToConfigured() {
+        SyncScheduler scheduler = new SyncScheduler(INTERVAL);
+
+        assertTrue(scheduler.shouldPoll(NOW));
+        assertEquals(5000, scheduler.scheduleNext(true, 2, NOW));
+        assertEquals(SyncScheduler.Decision.SHORTENED_FOR_CHANGES, scheduler.getStatistics().getDecision());
+        assertEquals(2500, scheduler.scheduleNext(true, 2, NOW));
+        assertEquals(2500, scheduler.scheduleNext(true, 2, NOW));
+
+        assertEquals(3750, scheduler.scheduleNext(false, 2, NOW));
+        assertEquals(5625, scheduler.scheduleNext(false, 2, NOW));
+        assertEquals(8437, scheduler.scheduleNext(false, 2, NOW));
+        assertEquals(INTERVAL, scheduler.scheduleNext(false, 2, NOW));
+        assertEquals(SyncScheduler.Decision.CONFIGURED_INTERVAL, scheduler.getStatistics().getDecision());
+        assertEquals(7, scheduler.getStatistics().getPollCount());
+        assertEquals(6, scheduler.getStatistics().getShortenedCount());
+    }
+
+    @Test
+    public void scheduleNext_scarceQuota_stretchedToLastUntilReset() {
+        SyncScheduler scheduler = new SyncScheduler(INTERVAL);
+        scheduler.updateQuota(5000, 4900, NOW + HOUR);
+        assertEquals(INTERVAL / 2, scheduler.scheduleNext(true, 1, NOW));
+        assertEquals(SyncScheduler.Decision.SHORTENED_FOR_CHANGES, scheduler.getStatistics().getDecision());
+
+        // 500 reserved, leaving 500 requests for polls of 100 requests each in the hour left
+        scheduler.updateQuota(5000, 1000, NOW + HOUR);
+        assertTrue(scheduler.shouldPoll(NOW));
+        assertEquals(HOUR / 5, scheduler.scheduleNext(false, 100, NOW));
+        SyncScheduler.Statistics statistics = scheduler.getStatistics();
+        assertEquals(SyncScheduler.Decision.STRETCHED_FOR_QUOTA, statistics.getDecision());
+        assertEquals(500, statistics.getUserRequestReserve());
+        assertEquals(100, statistics.getLastPollCost());
+        assertEquals(1, statistics.getStretchedCount());
+    }
+
+    @Test
+    public void shouldPoll_onlyReserveLeft_skippedUntilReset() {
+        SyncScheduler scheduler = new SyncScheduler(INTERVAL);
+        scheduler.updateQuota(5000, 1000, NOW + HOUR);
+        scheduler.scheduleNext(false, 100, NOW);
+
+        scheduler.updateQuota(5000, 550, NOW + HOUR);
+        assertFalse(scheduler.shouldPoll(NOW));
+        assertEquals(HOUR, scheduler.scheduleNext(false, 0, NOW));
+        assertEquals(SyncScheduler.Decision.WAITING_FOR_QUOTA_RESET, scheduler.getStatistics().getDecision());
+        assertEquals(1, scheduler.getStatistics().getSkippedPollCount());
+
+        assertTrue(scheduler.shouldPoll(NOW + HOUR));
+    }
+
+    @Test
+    public void shouldPoll_pollCostingMoreThanQuota_polledOnceQuotaResets() {
+        SyncScheduler scheduler = new SyncScheduler(INTERVAL);
+        scheduler.updateQuota(5000, 0, NOW + HOUR);
+        scheduler.scheduleNext(false, 6000, NOW);
+
+        assertFalse(scheduler.shouldPoll(NOW));
+        assertTrue(scheduler.shouldPoll(NOW + HOUR));
+    }
+}
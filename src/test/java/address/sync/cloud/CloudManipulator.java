@@ -440,6 +440,30 @@ public class CloudManipulator extends CloudSimulator {
         return actualResponse;
     }
 
+    @Override
+    public RemoteResponse createPersons(String addressBookName, List<CloudPerson> newPersons) {
+        if (shouldDelayNext.get()) delayRandomAmount();
+        if (shouldFail(true)) return getNetworkFailedResponse();
+        RemoteResponse actualResponse = super.createPersons(addressBookName, newPersons);
+        return actualResponse;
+    }
+
+    @Override
+    public RemoteResponse updatePersons(String addressBookName, List<CloudPerson> updatedPersons) {
+        if (shouldDelayNext.get()) delayRandomAmount();
+        if (shouldFail(true)) return getNetworkFailedResponse();
+        RemoteResponse actualResponse = super.updatePersons(addressBookName, updatedPersons);
+        return actualResponse;
+    }
+
+    @Override
+    public RemoteResponse deletePersons(String addressBookName, List<Integer> personIds) {
+        if (shouldDelayNext.get()) delayRandomAmount();
+        if (shouldFail(true)) return getNetworkFailedResponse();
+        RemoteResponse actualResponse = super.deletePersons(addressBookName, personIds);
+        return actualResponse;
+    }
+
     @Override
     public RemoteResponse createTag(String addressBookName, CloudTag newTag, String previousETag) {
         if (shouldDelayNext.get()) delayRandomAmount();
@@ -0,0 +1,137 @@
+package address.sync.cloud;
+
+import address.exceptions.DataConversionException;
+import address.sync.cloud.model.CloudAddressBook;
+import address.sync.cloud.model.CloudPerson;
+import address.sync.cloud.model.CloudTag;
+import commons.JsonUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class InMemoryCloudSimulatorTest {
+    private static final int STARTING_API_COUNT = 100;
+    private static final int API_RESET_DELAY = 30000;
+
+    private CloudFileHandler cloudFileHandler;
+    private CloudRateLimitStatus cloudRateLimitStatus;
+    private InMemoryCloudSimulator cloudSimulator;
+
+    @Before
+    public void setup() throws FileNotFoundException, DataConversionException {
+        final long resetTime = System.currentTimeMillis() / 1000 + API_RESET_DELAY;
+        cloudFileHandler = mock(CloudFileHandler.class);
+        cloudRateLimitStatus = new CloudRateLimitStatus(STARTING_API_COUNT, resetTime);
+        cloudSimulator = new InMemoryCloudSimulator(cloudFileHandler, cloudRateLimitStatus);
+
+        stub(cloudFileHandler.readCloudAddressBook("Test")).toReturn(getDummyAddressBook());
+    }
+
+    @After
+    public void tearDown() {
+        cloudSimulator.stop();
+    }
+
+    private CloudAddressBook getDummyAddressBook() {
+        List<CloudPerson> personList = new ArrayList<>();
+        CloudPerson person = new CloudPerson("firstName", "lastName", 1);
+        person.setTags(Collections.singletonList(new CloudTag("tag")));
+        personList.add(person);
+        List<CloudTag> tagList = new ArrayList<>();
+        tagList.add(new CloudTag("tag"));
+        tagList.add(new CloudTag("otherTag"));
+        return new CloudAddressBook("Test", personList, tagList);
+    }
+
+    private CloudAddressBook getWrittenAddressBook() throws FileNotFoundException, DataConversionException {
+        ArgumentCaptor<CloudAddressBook> captor = ArgumentCaptor.forClass(CloudAddressBook.class);
+        verify(cloudFileHandler).writeCloudAddressBook(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    public void createPerson_manyChanges_readOnceAndWrittenOnceOnFlush() throws IOException, DataConversionException {
+        for (int i = 0; i < 10; i++) {
+            RemoteResponse remoteResponse = cloudSimulator.createPerson("Test", new CloudPerson("first" + i, "last"),
+                                                                        null);
+            assertEquals(HttpURLConnection.HTTP_CREATED, remoteResponse.getResponseCode());
+            CloudPerson createdPerson = JsonUtil.fromJsonStream(remoteResponse.getBody(), CloudPerson.class);
+            assertEquals(i + 2, createdPerson.getId());
+        }
+        verify(cloudFileHandler, never()).writeCloudAddressBook(any(CloudAddressBook.class));
+
+        cloudSimulator.flush();
+
+        verify(cloudFileHandler, times(1)).readCloudAddressBook("Test");
+        assertEquals(11, getWrittenAddressBook().getAllPersons().size());
+        assertEquals(1, cloudSimulator.getWriteCount());
+        assertEquals(STARTING_API_COUNT - 10, cloudRateLimitStatus.getQuotaRemaining());
+
+        // Nothing left to write
+        cloudSimulator.flush();
+        assertEquals(1, cloudSimulator.getWriteCount());
+    }
+
+    @Test
+    public void updatePerson_existingAndMissingPersons_updatedById() throws IOException, DataConversionException {
+        CloudPerson updatedPerson = new CloudPerson("newFirstName", "newLastName");
+        updatedPerson.setTags(Collections.singletonList(new CloudTag("newTag")));
+
+        RemoteResponse remoteResponse = cloudSimulator.updatePerson("Test", 1, updatedPerson, null);
+        assertEquals(HttpURLConnection.HTTP_OK, remoteResponse.getResponseCode());
+        assertEquals(HttpURLConnection.HTTP_BAD_REQUEST,
+                     cloudSimulator.updatePerson("Test", 2, updatedPerson, null).getResponseCode());
+
+        cloudSimulator.flush();
+
+        CloudAddressBook writtenAddressBook = getWrittenAddressBook();
+        CloudPerson writtenPerson = writtenAddressBook.getAllPersons().get(0);
+        assertEquals(1, writtenPerson.getId());
+        assertEquals("newFirstName", writtenPerson.getFirstName());
+        assertEquals(3, writtenAddressBook.getAllTags().size());
+        assertEquals("newTag", writtenAddressBook.getAllTags().get(2).getName());
+    }
+
+    @Test
+    public void editTag_existingTag_renamedInPlaceAndOnPersons() throws IOException, DataConversionException {
+        RemoteResponse remoteResponse = cloudSimulator.editTag("Test", "tag", new CloudTag("renamedTag"), null);
+        assertEquals(HttpURLConnection.HTTP_OK, remoteResponse.getResponseCode());
+        assertEquals(HttpURLConnection.HTTP_BAD_REQUEST,
+                     cloudSimulator.editTag("Test", "tag", new CloudTag("otherName"), null).getResponseCode());
+        assertEquals(HttpURLConnection.HTTP_BAD_REQUEST,
+                     cloudSimulator.createTag("Test", new CloudTag("otherTag"), null).getResponseCode());
+
+        cloudSimulator.flush();
+
+        CloudAddressBook writtenAddressBook = getWrittenAddressBook();
+        assertEquals("renamedTag", writtenAddressBook.getAllTags().get(0).getName());
+        assertEquals("otherTag", writtenAddressBook.getAllTags().get(1).getName());
+        assertEquals("renamedTag", writtenAddressBook.getAllPersons().get(0).getTags().get(0).getName());
+    }
+
+    @Test
+    public void getPersons_noSuchAddressBook_notFoundAndNotKept() throws IOException, DataConversionException {
+        when(cloudFileHandler.readCloudAddressBook("Missing")).thenThrow(new FileNotFoundException());
+
+        assertEquals(HttpURLConnection.HTTP_NOT_FOUND,
+                     cloudSimulator.getPersons("Missing", 1, 10, null).getResponseCode());
+        assertEquals(HttpURLConnection.HTTP_NOT_FOUND,
+                     cloudSimulator.getPersons("Missing", 1, 10, null).getResponseCode());
+        verify(cloudFileHandler, times(2)).readCloudAddressBook("Missing");
+
+        RemoteResponse remoteResponse = cloudSimulator.getPersons("Test", 1, 10, null);
+        assertEquals(HttpURLConnection.HTTP_OK, remoteResponse.getResponseCode());
+        assertEquals(1, JsonUtil.fromJsonStream(remoteResponse.getBody(), CloudPerson[].class).length);
+    }
+}
@@ -7,11 +7,15 @@ import commons.StringUtil;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
 import javafx.collections.transformation.TransformationList;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -95,10 +99,16 @@ public class FilteredListTest {
         assertEquals("Martin", filteredList.get(1).getFirstName());
         // a change has been added
         assertEquals(1, changeList.size());
-        ListChangeListener.Change firstChange = changeList.get(0);
+        ListChangeListener.Change<? extends Person> firstChange = changeList.get(0);
+        // removal of the 7 other persons, as one range before Ruth and one between Ruth and Martin
         assertTrue(firstChange.next());
-        // inspect removal of 7 items
-        assertEquals(7, firstChange.getRemovedSize());
+        assertEquals(0, firstChange.getFrom());
+        assertEquals(Arrays.asList("Hans"), firstNames(firstChange.getRemoved()));
+        assertEquals(0, firstChange.getAddedSize());
+        assertTrue(firstChange.next());
+        assertEquals(1, firstChange.getFrom());
+        assertEquals(6, firstChange.getRemovedSize());
+        assertFalse(firstNames(firstChange.getRemoved()).contains("Martin"));
         assertEquals(0, firstChange.getAddedSize());
         assertFalse(firstChange.next());
 
@@ -110,15 +120,131 @@ public class FilteredListTest {
         assertEquals("Lydia", filteredList.get(1).getFirstName());
         // a change has been added
         assertEquals(2, changeList.size());
-        ListChangeListener.Change secondChange = changeList.get(1);
-        assertTrue(secondChange.next());
-        // inspect removal of 2 items
-        assertEquals(2, secondChange.getRemovedSize());
-        assertEquals(0, secondChange.getAddedSize());
+        ListChangeListener.Change<? extends Person> secondChange = changeList.get(1);
+        // Ruth and Martin replaced by Heinz and Lydia
         assertTrue(secondChange.next());
-        // inspect addition of 2 items
-        assertEquals(0, secondChange.getRemovedSize());
-        assertEquals(2, secondChange.getAddedSize());
+        assertEquals(0, secondChange.getFrom());
+        assertEquals(2, secondChange.getTo());
+        assertEquals(Arrays.asList("Ruth", "Martin"), firstNames(secondChange.getRemoved()));
+        assertEquals(Arrays.asList("Heinz", "Lydia"), firstNames(secondChange.getAddedSubList()));
         assertFalse(secondChange.next());
     }
+
+    @Test
+    public void stringList_changeSource_matchingElementsKeptInSourceOrder() {
+        ObservableList<String> listOfStrings = FXCollections.observableArrayList();
+        listOfStrings.addAll("Apple", "Orange", "Pear", "Watermelon", "Strawberry", "Blueberry", "Cranberry");
+        FilteredList<String> filteredList = new FilteredList<>(listOfStrings);
+        filteredList.setPredicate(string -> StringUtil.containsIgnoreCase(string, "berry"));
+        Observer<String> observer = new Observer<>(filteredList);
+
+        listOfStrings.add(1, "Raspberry");
+        listOfStrings.add(2, "Kiwi");
+        assertEquals(Arrays.asList("Raspberry", "Strawberry", "Blueberry", "Cranberry"), filteredList);
+        assertEquals(1, observer.getChangeList().size());
+
+        listOfStrings.removeAll("Apple", "Blueberry");
+        assertEquals(Arrays.asList("Raspberry", "Strawberry", "Cranberry"), filteredList);
+        assertEquals(listOfStrings.indexOf("Strawberry"), filteredList.getSourceIndex(1));
+
+        listOfStrings.set(0, "Blackberry");
+        listOfStrings.set(1, "Gooseberry");
+        assertEquals(Arrays.asList("Blackberry", "Gooseberry", "Strawberry", "Cranberry"), filteredList);
+
+        FXCollections.sort(listOfStrings);
+        assertEquals(Arrays.asList("Blackberry", "Cranberry", "Gooseberry", "Strawberry"), filteredList);
+        ListChangeListener.Change<? extends String> sortChange = observer.getChangeList().get(4);
+        assertTrue(sortChange.next());
+        assertTrue(sortChange.wasPermutated());
+        for (int i = 0; i < filteredList.size(); i++) {
+            assertEquals(listOfStrings.get(filteredList.getSourceIndex(i)), filteredList.get(i));
+        }
+    }
+
+    // source list that can reverse a range of its elements, reported as a permutation of just that range
+    private class ReversibleList<T> extends ObservableListBase<T> {
+        private final List<T> elements;
+
+        ReversibleList(List<T> elements) {
+            this.elements = new ArrayList<>(elements);
+        }
+
+        void reverse(int from, int to) {
+            Collections.reverse(elements.subList(from, to));
+            final int[] permutation = new int[to - from];
+            for (int i = from; i < to; i++) {
+                permutation[i - from] = from + to - 1 - i;
+            }
+            beginChange();
+            nextPermutation(from, to, permutation);
+            endChange();
+        }
+
+        @Override
+        public T get(int index) {
+            return elements.get(index);
+        }
+
+        @Override
+        public int size() {
+            return elements.size();
+        }
+    }
+
+    @Test
+    public void stringList_permutationAfterFirstMatch_permutationRelativeToRange() {
+        ReversibleList<String> listOfStrings = new ReversibleList<>(
+                Arrays.asList("Apple", "Kiwi", "Apricot", "Avocado", "Acerola"));
+        FilteredList<String> filteredList = new FilteredList<>(listOfStrings);
+        filteredList.setPredicate(string -> string.startsWith("A"));
+        Observer<String> observer = new Observer<>(filteredList);
+
+        listOfStrings.reverse(2, 5);
+
+        assertEquals(Arrays.asList("Apple", "Acerola", "Avocado", "Apricot"), filteredList);
+        ListChangeListener.Change<? extends String> change = observer.getChangeList().get(0);
+        assertTrue(change.next());
+        assertTrue(change.wasPermutated());
+        assertEquals(1, change.getFrom());
+        assertEquals(4, change.getTo());
+        assertEquals(3, change.getPermutation(1));
+        assertEquals(2, change.getPermutation(2));
+        assertEquals(1, change.getPermutation(3));
+        assertFalse(change.next());
+    }
+
+    @Test
+    public void stringList_refineFilter_onlyFilteredElementsTested() {
+        ObservableList<String> listOfStrings = FXCollections.observableArrayList();
+        listOfStrings.addAll("Apple", "Orange", "Pear", "Watermelon", "Strawberry", "Blueberry", "Cranberry");
+        FilteredList<String> filteredList = new FilteredList<>(listOfStrings);
+        filteredList.setPredicate(string -> StringUtil.containsIgnoreCase(string, "r"));
+        assertEquals(Arrays.asList("Orange", "Pear", "Watermelon", "Strawberry", "Blueberry", "Cranberry"),
+                     filteredList);
+        Observer<String> observer = new Observer<>(filteredList);
+        List<String> tested = new ArrayList<>();
+
+        filteredList.refinePredicate(string -> tested.add(string) && StringUtil.containsIgnoreCase(string, "rr"));
+
+        assertEquals(Arrays.asList("Strawberry", "Blueberry", "Cranberry"), filteredList);
+        assertEquals(6, tested.size());
+        assertFalse(tested.contains("Apple"));
+        // Orange, Pear and Watermelon removed as one range
+        ListChangeListener.Change<? extends String> change = observer.getChangeList().get(0);
+        assertTrue(change.next());
+        assertEquals(0, change.getFrom());
+        assertEquals(Arrays.asList("Orange", "Pear", "Watermelon"), change.getRemoved());
+        assertFalse(change.next());
+
+        // the match bitmap follows, so a later predicate change only reports what changed
+        filteredList.setPredicate(string -> string.endsWith("y") || string.equals("Pear"));
+        assertEquals(Arrays.asList("Pear", "Strawberry", "Blueberry", "Cranberry"), filteredList);
+        assertEquals(1, filteredList.getStatistics().getRefinements());
+        assertEquals(2, filteredList.getStatistics().getFullEvaluations());
+        assertEquals(7 + 6 + 7, filteredList.getStatistics().getElementsTested());
+    }
+
+    private static List<String> firstNames(List<? extends Person> persons) {
+        return persons.stream().map(Person::getFirstName).collect(Collectors.toList());
+    }
 }
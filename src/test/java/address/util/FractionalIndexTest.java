@@ -0,0 +1,68 @@
+package address.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FractionalIndexTest {
+
+    private static void assertAscending(List<String> keys) {
+        for (int i = 1; i < keys.size(); i++) {
+            assertTrue(keys.get(i - 1) + " < " + keys.get(i), keys.get(i - 1).compareTo(keys.get(i)) < 0);
+        }
+    }
+
+    @Test
+    public void keyBetween_bounds_keyInBetween() {
+        assertEquals("a0", FractionalIndex.keyBetween(null, null));
+        assertEquals("a1", FractionalIndex.keyBetween("a0", null));
+        assertEquals("Zz", FractionalIndex.keyBetween(null, "a0"));
+        assertEquals("b00", FractionalIndex.keyBetween("az", null));
+        assertEquals("a0V", FractionalIndex.keyBetween("a0", "a1"));
+        assertEquals("a0G", FractionalIndex.keyBetween("a0", "a0V"));
+        assertEquals("a1", FractionalIndex.keyBetween("a0", "a5"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void keyBetween_wrongOrder_throws() {
+        FractionalIndex.keyBetween("a1", "a0");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void keyBetween_fractionEndingInZero_throws() {
+        FractionalIndex.keyBetween("a10", null);
+    }
+
+    @Test
+    public void keysBetween_manyAppended_shortKeys() {
+        final List<String> appended = FractionalIndex.keysBetween(null, null, 100000);
+        assertAscending(appended);
+        assertTrue(appended.get(appended.size() - 1).length() <= 4);
+
+        final List<String> prepended = FractionalIndex.keysBetween(null, "a0", 1000);
+        assertAscending(prepended);
+        assertTrue(prepended.get(prepended.size() - 1).compareTo("a0") < 0);
+
+        final List<String> between = FractionalIndex.keysBetween("a0", "a1", 1000);
+        assertAscending(between);
+        assertTrue(between.get(0).compareTo("a0") > 0 && between.get(999).compareTo("a1") < 0);
+        assertTrue(between.stream().allMatch(key -> key.length() <= 4));
+    }
+
+    @Test
+    public void keyBetween_randomInsertions_keepOrder() {
+        final Random random = new Random(7);
+        final List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            final int index = random.nextInt(keys.size() + 1);
+            keys.add(index, FractionalIndex.keyBetween(index > 0 ? keys.get(index - 1) : null,
+                                                       index < keys.size() ? keys.get(index) : null));
+        }
+        assertAscending(keys);
+    }
+}
@@ -0,0 +1,113 @@
+package address.util.collections;
+
+import javafx.collections.ListChangeListener;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ArrayObservableListTest {
+    private ArrayObservableList<Integer> list;
+    private List<Integer> replayed; // the list rebuilt from the changes fired
+    private int changes;
+    private int removedRuns;
+
+    @Before
+    public void setup() {
+        list = new ArrayObservableList<>();
+        list.addAll(IntStream.range(0, 10).boxed().collect(Collectors.toList()));
+        replayed = new ArrayList<>(list);
+        list.addListener((ListChangeListener<Integer>) change -> {
+            changes++;
+            while (change.next()) {
+                if (change.wasRemoved()) {
+                    removedRuns++;
+                    assertEquals(replayed.subList(change.getFrom(), change.getFrom() + change.getRemovedSize()),
+                                 change.getRemoved());
+                }
+                replayed.subList(change.getFrom(), change.getFrom() + change.getRemovedSize()).clear();
+                replayed.addAll(change.getFrom(), change.getAddedSubList());
+            }
+        });
+    }
+
+    @Test
+    public void removeAll_scattered_oneChangeWithARunPerGap() {
+        assertTrue(list.removeAll(Arrays.asList(0, 1, 4, 7, 8, 9)));
+
+        assertEquals(Arrays.asList(2, 3, 5, 6), list);
+        assertEquals(list, replayed);
+        assertEquals(1, changes);
+        assertEquals(3, removedRuns);
+    }
+
+    @Test
+    public void removeAll_nothingMatches_noChange() {
+        assertFalse(list.removeAll(Arrays.asList(10, 11)));
+
+        assertEquals(10, list.size());
+        assertEquals(0, changes);
+    }
+
+    @Test
+    public void retainAll_keepsOnlyGiven() {
+        assertTrue(list.retainAll(Arrays.asList(3, 5, 42)));
+
+        assertEquals(Arrays.asList(3, 5), list);
+        assertEquals(list, replayed);
+        assertEquals(1, changes);
+    }
+
+    @Test
+    public void removeIf_everything_emptiesList() {
+        assertTrue(list.removeIf(element -> true));
+
+        assertTrue(list.isEmpty());
+        assertEquals(list, replayed);
+        assertEquals(1, removedRuns);
+    }
+
+    @Test
+    public void removeIf_testFailsPartway_keepsUncheckedElements() {
+        try {
+            list.removeIf(element -> {
+                if (element == 6) throw new IllegalStateException();
+                return element % 2 == 0;
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            // the elements checked before the failure are still removed
+        }
+
+        assertEquals(Arrays.asList(1, 3, 5, 6, 7, 8, 9), list);
+        assertEquals(list, replayed);
+    }
+
+    @Test
+    public void removeAll_large_matchesRemovingOneByOne() {
+        list.addAll(IntStream.range(10, 20_000).boxed().collect(Collectors.toList()));
+        final List<Integer> toRemove = IntStream.range(0, 20_000).filter(i -> i % 7 < 3).boxed()
+                                                .collect(Collectors.toList());
+        Collections.shuffle(toRemove);
+        final Set<Integer> removed = new HashSet<>(toRemove);
+        final List<Integer> expected = new ArrayList<>(list);
+        expected.removeIf(removed::contains);
+
+        list.removeAll(removed);
+
+        assertEquals(expected, list);
+        assertEquals(list, replayed);
+    }
+}
@@ -0,0 +1,196 @@
+package address.util.collections;
+
+import javafx.beans.Observable;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncFilterTest {
+    private static final int SIZE = 20_000;
+    private static final int MIN_ASYNC_ELEMENTS = 1_000;
+
+    private ForkJoinPool pool;
+    private List<Runnable> fxQueue;
+    private ObservableList<Integer> source;
+    private FilteredList<Integer> filteredList;
+    private AsyncFilter<Integer> asyncFilter;
+
+    @Before
+    public void setup() {
+        pool = new ForkJoinPool(2);
+        fxQueue = Collections.synchronizedList(new ArrayList<>());
+        source = FXCollections.observableArrayList(IntStream.range(0, SIZE).boxed().collect(Collectors.toList()));
+        filteredList = new FilteredList<>(source);
+        asyncFilter = new AsyncFilter<>(filteredList, pool, i -> new Observable[0], fxQueue::add, MIN_ASYNC_ELEMENTS);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Waits for the background evaluations without helping run them, as awaitQuiescence would on this thread
+     */
+    private void awaitPool() {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!pool.isQuiescent() && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Waits for the background evaluations, then runs what they handed over to the FX thread
+     */
+    private void runFxQueue() {
+        awaitPool();
+        final List<Runnable> queued;
+        synchronized (fxQueue) {
+            queued = new ArrayList<>(fxQueue);
+            fxQueue.clear();
+        }
+        queued.forEach(Runnable::run);
+    }
+
+    private static <T> List<T> filter(List<T> list, Predicate<T> predicate) {
+        return list.stream().filter(predicate).collect(Collectors.toList());
+    }
+
+    @Test
+    public void setPredicate_manyElements_appliedOnceEvaluated() {
+        final Predicate<Integer> multipleOfThree = i -> i % 3 == 0;
+        asyncFilter.setPredicate(multipleOfThree, false);
+        assertEquals(SIZE, filteredList.size()); // not applied yet
+        assertTrue(asyncFilter.filteringProperty().get());
+
+        runFxQueue();
+        assertFalse(asyncFilter.filteringProperty().get());
+        assertEquals(filter(source, multipleOfThree), filteredList);
+
+        final Predicate<Integer> multipleOfThirty = i -> i % 30 == 0;
+        asyncFilter.setPredicate(multipleOfThirty, true);
+        runFxQueue();
+        assertEquals(filter(source, multipleOfThirty), filteredList);
+
+        final Predicate<Integer> multipleOfNinety = i -> i % 90 == 0;
+        asyncFilter.setPredicate(multipleOfNinety, true); // few enough elements left to test right away
+        assertEquals(filter(source, multipleOfNinety), filteredList);
+        assertEquals(2, asyncFilter.getStatistics().getAsyncEvaluations());
+        assertEquals(1, asyncFilter.getStatistics().getSyncEvaluations());
+    }
+
+    @Test
+    public void setPredicate_newerPredicate_olderOneDropped() {
+        asyncFilter.setPredicate(i -> i % 2 == 0, false);
+        final Predicate<Integer> odd = i -> i % 2 == 1;
+        asyncFilter.setPredicate(odd, true); // not a refinement of the list, which still has no predicate
+
+        runFxQueue();
+        assertEquals(filter(source, odd), filteredList);
+        assertEquals(1, asyncFilter.getStatistics().getCancelledEvaluations());
+        assertEquals(1, asyncFilter.getStatistics().getAsyncEvaluations());
+    }
+
+    @Test
+    public void setPredicate_sourceChangedDuringEvaluation_evaluatedAgainInBackground() {
+        final Predicate<Integer> even = i -> i % 2 == 0;
+        asyncFilter.setPredicate(even, false);
+        awaitPool();
+        source.remove(0, 5);
+        source.add(0, -2);
+
+        runFxQueue();
+        assertTrue(asyncFilter.filteringProperty().get());
+        assertEquals(SIZE - 4, filteredList.size()); // not applied yet
+        runFxQueue();
+        assertEquals(filter(source, even), filteredList);
+        assertEquals(1, asyncFilter.getStatistics().getRetriedEvaluations());
+        assertEquals(1, asyncFilter.getStatistics().getAsyncEvaluations());
+        assertEquals(0, asyncFilter.getStatistics().getSyncEvaluations());
+    }
+
+    @Test
+    public void setPredicate_elementChangedDuringEvaluation_evaluatedAgain() {
+        final ObservableList<IntegerProperty> values = FXCollections.observableArrayList();
+        IntStream.range(0, SIZE).forEach(i -> values.add(new SimpleIntegerProperty(i)));
+        final FilteredList<IntegerProperty> filteredValues = new FilteredList<>(values);
+        final AsyncFilter<IntegerProperty> valueFilter = new AsyncFilter<>(filteredValues, pool,
+                value -> new Observable[] {value}, fxQueue::add, MIN_ASYNC_ELEMENTS);
+        final Predicate<IntegerProperty> even = value -> value.get() % 2 == 0;
+        valueFilter.setPredicate(even, false);
+        awaitPool();
+        values.get(0).set(1);
+        values.get(1).set(2);
+
+        runFxQueue();
+        runFxQueue();
+        assertEquals(filter(values, even), filteredValues);
+        assertEquals(1, valueFilter.getStatistics().getRetriedEvaluations());
+
+        final IntegerProperty removed = values.remove(2);
+        valueFilter.setPredicate(even, false);
+        awaitPool();
+        removed.set(3); // no longer in the list
+        runFxQueue();
+        assertEquals(filter(values, even), filteredValues);
+        assertEquals(1, valueFilter.getStatistics().getRetriedEvaluations());
+    }
+
+    @Test
+    public void setPredicate_onApplied_runOnlyOnceShown() {
+        final List<Integer> sizesWhenApplied = new ArrayList<>();
+        asyncFilter.setPredicate(i -> i < 10, false, () -> sizesWhenApplied.add(-1)); // cancelled below
+        asyncFilter.setPredicate(i -> i < 100, false, () -> sizesWhenApplied.add(filteredList.size()));
+        assertTrue(sizesWhenApplied.isEmpty());
+        runFxQueue();
+        asyncFilter.setPredicate(i -> i < 50, true, () -> sizesWhenApplied.add(filteredList.size()));
+        assertEquals(Arrays.asList(100, 50), sizesWhenApplied);
+    }
+
+    @Test
+    public void setPredicateOf_sourceChanged_madeAgainInBackground() {
+        final List<Thread> makingThreads = Collections.synchronizedList(new ArrayList<>());
+        final List<Integer> sizesWhenApplied = new ArrayList<>();
+        // the 100 smallest elements, which depend on all of them
+        asyncFilter.setPredicateOf(() -> {
+            makingThreads.add(Thread.currentThread());
+            final int min = Collections.min(source);
+            return i -> i < min + 100;
+        }, () -> sizesWhenApplied.add(filteredList.size()));
+        runFxQueue();
+        assertEquals(filter(source, i -> i < 100), filteredList);
+
+        source.add(-1000);
+        runFxQueue(); // the predicate is made again
+        runFxQueue();
+        assertEquals(Arrays.asList(-1000), filteredList);
+        assertEquals(Arrays.asList(100), sizesWhenApplied); // not run again
+        assertEquals(2, makingThreads.size());
+        assertFalse(makingThreads.contains(Thread.currentThread()));
+
+        asyncFilter.setPredicate(i -> i < 0, false);
+        source.add(-2000);
+        runFxQueue();
+        runFxQueue();
+        assertEquals(Arrays.asList(-1000, -2000), filteredList);
+        assertEquals(2, makingThreads.size());
+    }
+}
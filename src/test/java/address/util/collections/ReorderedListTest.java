@@ -0,0 +1,147 @@
+package address.util.collections;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReorderedListTest {
+    private ObservableList<String> source;
+    private ReorderedList<String> reorderedList;
+    private List<String> replayed; // the list rebuilt from the changes fired
+    private int permutations;
+
+    @Before
+    public void setup() {
+        source = FXCollections.observableArrayList(IntStream.range(0, 10).mapToObj(Integer::toString)
+                                                            .collect(Collectors.toList()));
+        watch(new ReorderedList<>(source));
+    }
+
+    private void watch(ReorderedList<String> list) {
+        reorderedList = list;
+        replayed = new ArrayList<>(reorderedList);
+        list.addListener((ListChangeListener<String>) change -> {
+            if (list != reorderedList) return; // replaced by a later one
+            while (change.next()) {
+                if (change.wasPermutated()) {
+                    permutations++;
+                    final List<String> permuted = new ArrayList<>(replayed);
+                    for (int i = change.getFrom(); i < change.getTo(); i++) {
+                        permuted.set(change.getPermutation(i), replayed.get(i));
+                    }
+                    replayed = permuted;
+                } else if (!change.wasUpdated()) {
+                    replayed.subList(change.getFrom(), change.getFrom() + change.getRemovedSize()).clear();
+                    replayed.addAll(change.getFrom(), change.getAddedSubList());
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the elements of the source equal to the values, which are moved by identity
+     */
+    private List<String> elements(String... values) {
+        return Arrays.stream(values).map(value -> source.get(source.indexOf(value))).collect(Collectors.toList());
+    }
+
+    private void assertOrder(List<String> expected) {
+        assertEquals(expected, reorderedList);
+        assertEquals(expected, replayed);
+        for (int i = 0; i < reorderedList.size(); i++) {
+            assertEquals(reorderedList.get(i), source.get(reorderedList.getSourceIndex(i)));
+            assertEquals(i, reorderedList.getViewIndex(reorderedList.getSourceIndex(i)));
+        }
+    }
+
+    @Test
+    public void moveElements_forwardAndBackward_permutationFired() {
+        assertEquals(Arrays.asList(5, 6), reorderedList.moveElements(elements("7", "2"), 6));
+        assertOrder(Arrays.asList("0", "1", "3", "4", "5", "7", "2", "6", "8", "9"));
+
+        assertEquals(Arrays.asList(1, 2), reorderedList.moveElements(elements("8", "3"), 1));
+        assertOrder(Arrays.asList("0", "8", "3", "1", "4", "5", "7", "2", "6", "9"));
+
+        assertEquals(Arrays.asList(8, 9), reorderedList.moveElements(elements("0", "1"), 10));
+        assertOrder(Arrays.asList("8", "3", "4", "5", "7", "2", "6", "9", "0", "1"));
+        assertEquals(3, permutations);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void moveElements_destinationMoved_exceptionThrown() {
+        reorderedList.moveElements(elements("2", "3"), 3);
+    }
+
+    @Test
+    public void sourceChanges_viewOrderKept() {
+        reorderedList.moveElements(elements("9", "5"), 0);
+        source.removeAll("0", "5", "6", "7");
+        source.addAll(2, Arrays.asList("a", "b"));
+        source.set(0, "c");
+        assertOrder(Arrays.asList("9", "2", "3", "4", "8", "a", "b", "c"));
+
+        FXCollections.sort(source); // the view order does not follow the source
+        assertOrder(Arrays.asList("9", "2", "3", "4", "8", "a", "b", "c"));
+        assertEquals(Arrays.asList(0), reorderedList.moveElements(elements("c"), 0));
+        assertOrder(Arrays.asList("c", "9", "2", "3", "4", "8", "a", "b"));
+    }
+
+    @Test
+    public void withOrder_sortedAndAddedInPlace() {
+        source.setAll("b3", "a1", "c2", "a2");
+        watch(new ReorderedList<>(source, Comparator.comparing(element -> element.charAt(0))));
+        assertOrder(Arrays.asList("a1", "a2", "b3", "c2"));
+
+        source.addAll(1, Arrays.asList("c1", "a3", "d1", "b1"));
+        source.remove("a2");
+        assertOrder(Arrays.asList("a1", "a3", "b3", "b1", "c2", "c1", "d1"));
+
+        // a moved element stays where it is moved to, while added ones go to their place among the kept ones
+        reorderedList.moveElements(elements("a1"), 7);
+        source.addAll("b2", "e1");
+        assertOrder(Arrays.asList("a3", "b3", "b1", "b2", "c2", "c1", "d1", "a1", "e1"));
+    }
+
+    @Test
+    public void randomChangesAndMoves_sameAsMovingInAList() {
+        final Random random = new Random(18);
+        final List<String> expected = new ArrayList<>(source);
+        int nextElement = source.size();
+        for (int step = 0; step < 500; step++) {
+            if (random.nextBoolean() && !source.isEmpty()) {
+                final int from = random.nextInt(source.size());
+                final List<String> removed = new ArrayList<>(source.subList(from, Math.min(source.size(),
+                                                                                           from + 3)));
+                source.removeAll(removed);
+                expected.removeAll(removed);
+            } else {
+                final String added = Integer.toString(nextElement++);
+                source.add(random.nextInt(source.size() + 1), added);
+                expected.add(added);
+            }
+            if (expected.size() > 2) {
+                final List<String> toMove = new ArrayList<>(expected.subList(0, 2));
+                final int destination = 2 + random.nextInt(expected.size() - 1);
+                final String atDestination = destination < expected.size() ? expected.get(destination) : null;
+                reorderedList.moveElements(toMove, destination);
+                expected.removeAll(toMove);
+                expected.addAll(atDestination == null ? expected.size() : expected.indexOf(atDestination), toMove);
+            }
+            assertOrder(expected);
+        }
+        assertTrue(permutations > 0);
+    }
+}
@@ -0,0 +1,61 @@
+package address.util.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TopKTest {
+
+    @Test
+    public void offer_moreThanK_greatestKeptInOrder() {
+        final TopK<Integer> topK = new TopK<>(3, Comparator.naturalOrder());
+        assertTrue(topK.offer(5));
+        assertTrue(topK.offer(1));
+        assertTrue(topK.offer(9));
+        assertTrue(topK.offer(7)); // drops 1
+        assertFalse(topK.offer(2));
+        assertFalse(topK.offer(5)); // not greater than the least kept
+        assertEquals(3, topK.size());
+        assertEquals(Arrays.asList(9, 7, 5), topK.toList());
+    }
+
+    @Test
+    public void offer_randomElements_sameAsSorting() {
+        final Random random = new Random(17);
+        final List<Integer> elements = new ArrayList<>();
+        final TopK<Integer> topK = new TopK<>(10, Comparator.naturalOrder());
+        for (int i = 0; i < 1000; i++) {
+            final int element = random.nextInt();
+            elements.add(element);
+            topK.offer(element);
+        }
+        elements.sort(Collections.reverseOrder());
+        assertEquals(elements.subList(0, 10), topK.toList());
+    }
+
+    @Test
+    public void offer_fewerThanKOrZeroK_allOrNoneKept() {
+        final TopK<String> longest = new TopK<>(5, Comparator.comparingInt(String::length));
+        longest.offer("ab");
+        longest.offer("abc");
+        assertEquals(Arrays.asList("abc", "ab"), longest.toList());
+
+        final TopK<String> none = new TopK<>(0, Comparator.naturalOrder());
+        assertFalse(none.offer("a"));
+        assertEquals(0, none.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_negativeK_exceptionThrown() {
+        new TopK<>(-1, Comparator.<Integer>naturalOrder());
+    }
+}
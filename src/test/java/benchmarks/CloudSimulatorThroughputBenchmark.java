@@ -0,0 +1,120 @@
+package benchmarks;
+
+import address.sync.cloud.CloudFileHandler;
+import address.sync.cloud.CloudRateLimitStatus;
+import address.sync.cloud.CloudSimulator;
+import address.sync.cloud.InMemoryCloudSimulator;
+import address.sync.cloud.RemoteResponse;
+import address.sync.cloud.model.CloudAddressBook;
+import address.sync.cloud.model.CloudPerson;
+import commons.XmlUtil;
+
+import java.io.File;
+import java.net.HttpURLConnection;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the requests per second served by a cloud simulator to several threads making requests at once, a fifth of
+ * them updates of persons and the rest requests for pages of persons: as before, with the file-based simulator
+ * reading and writing its cloud file on each request, and with the in-memory simulator.
+ *
+ * Run with {@code gradle benchmark -PbenchmarkClass=CloudSimulatorThroughputBenchmark [-PbenchmarkArgs="8 1000 5"]}.
+ * The arguments are the number of threads, the number of persons and the duration of each measurement in seconds.
+ */
+public class CloudSimulatorThroughputBenchmark {
+    private static final int DEFAULT_THREADS = 8;
+    private static final int DEFAULT_SIZE = 1_000;
+    private static final int DEFAULT_DURATION_SECONDS = 5;
+    private static final int RESOURCES_PER_PAGE = 100;
+    private static final int UPDATE_PERCENTAGE = 20;
+
+    private static CloudRateLimitStatus getUnlimitedRateLimitStatus() {
+        return new CloudRateLimitStatus(Integer.MAX_VALUE,
+                                        LocalDateTime.now().plusHours(1).toEpochSecond(ZoneOffset.UTC));
+    }
+
+    public static void main(String[] args) throws Exception {
+        final int threads = args.length == 0 ? DEFAULT_THREADS : Integer.parseInt(args[0]);
+        final int size = args.length < 2 ? DEFAULT_SIZE : Integer.parseInt(args[1]);
+        final int durationSeconds = args.length < 3 ? DEFAULT_DURATION_SECONDS : Integer.parseInt(args[2]);
+        System.out.printf("%d threads, %d persons, %d s per measurement%n", threads, size, durationSeconds);
+
+        createCloudFile("fileThroughputBenchmark", size);
+        final CloudSimulator fileSimulator = new CloudSimulator(new CloudFileHandler(),
+                                                                getUnlimitedRateLimitStatus()) {};
+        final double fileRate = measure(fileSimulator, "fileThroughputBenchmark", threads, size, durationSeconds);
+        System.out.printf("file-based: %.0f requests/s, cloud file written on each update%n", fileRate);
+
+        createCloudFile("inMemoryThroughputBenchmark", size);
+        final InMemoryCloudSimulator inMemorySimulator = new InMemoryCloudSimulator(new CloudFileHandler(),
+                getUnlimitedRateLimitStatus()) {};
+        final double inMemoryRate = measure(inMemorySimulator, "inMemoryThroughputBenchmark", threads, size,
+                                            durationSeconds);
+        inMemorySimulator.stop();
+        System.out.printf("in-memory: %.0f requests/s, cloud file written %d times%n", inMemoryRate,
+                          inMemorySimulator.getWriteCount());
+    }
+
+    private static void createCloudFile(String addressBookName, int size) throws Exception {
+        final List<CloudPerson> persons = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            persons.add(new CloudPerson("First" + i, "Last" + i, i));
+        }
+        final File cloudFile = new File("cloud/" + addressBookName);
+        cloudFile.getParentFile().mkdirs();
+        cloudFile.createNewFile();
+        cloudFile.deleteOnExit();
+        XmlUtil.saveDataToFile(cloudFile, new CloudAddressBook(addressBookName, persons, new ArrayList<>()));
+    }
+
+    /**
+     * @return the requests per second served to the given number of threads
+     */
+    private static double measure(CloudSimulator simulator, String addressBookName, int threads, int size,
+                                  int durationSeconds) throws InterruptedException {
+        final AtomicBoolean isRunning = new AtomicBoolean(true);
+        final AtomicLong requestCount = new AtomicLong(0);
+        final List<Thread> requesters = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread requester = new Thread(() -> {
+                while (isRunning.get()) {
+                    makeRequest(simulator, addressBookName, size);
+                    requestCount.incrementAndGet();
+                }
+            });
+            requesters.add(requester);
+            requester.start();
+        }
+
+        final long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        isRunning.set(false);
+        for (Thread requester : requesters) {
+            requester.join();
+        }
+        return requestCount.get() / ((System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static void makeRequest(CloudSimulator simulator, String addressBookName, int size) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final RemoteResponse response;
+        if (random.nextInt(100) < UPDATE_PERCENTAGE) {
+            int personId = random.nextInt(size) + 1;
+            CloudPerson updatedPerson = new CloudPerson("Updated" + personId, "Last" + personId);
+            response = simulator.updatePerson(addressBookName, personId, updatedPerson, null);
+        } else {
+            int lastPage = (size + RESOURCES_PER_PAGE - 1) / RESOURCES_PER_PAGE;
+            response = simulator.getPersons(addressBookName, random.nextInt(lastPage) + 1, RESOURCES_PER_PAGE, null);
+        }
+        if (response.getResponseCode() != HttpURLConnection.HTTP_OK) {
+            throw new AssertionError("Got response code " + response.getResponseCode());
+        }
+    }
+}
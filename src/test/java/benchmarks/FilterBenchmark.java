@@ -0,0 +1,148 @@
+package benchmarks;
+
+import address.model.datatypes.person.Person;
+import address.model.datatypes.person.ReadOnlyViewablePerson;
+import address.model.datatypes.person.SearchIndexes;
+import address.model.datatypes.person.ViewablePerson;
+import address.model.datatypes.tag.Tag;
+import address.parser.ParseException;
+import address.parser.Parser;
+import address.parser.expr.Expr;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Measures evaluating filters over the person list, comparing a filter that lowercases both strings on every
+ * comparison (as the qualifiers used to), the parsed expression tree, its compiled predicate and the compiled
+ * predicate narrowed down by the {@link SearchIndexes} (including the index lookups).
+ * Also reports the memory allocated per evaluation, which is garbage the FX thread has to collect.
+ *
+ * Run with {@code gradle benchmark -PbenchmarkClass=FilterBenchmark [-PbenchmarkArgs="100000"]}.
+ * The argument is the number of persons.
+ */
+public class FilterBenchmark {
+    private static final int DEFAULT_SIZE = 100_000;
+    private static final int WARMUP_RUNS = 10;
+    private static final int RUNS = 20;
+    private static final String[] FILTERS = {"name:ali", "tag:friends", "city:port", "name:ali tag:friends !city:port",
+                                             "name:alison7", "tag:family"};
+    private static final String[] CITIES = {"Singapore", "Kuala Lumpur", "Jakarta", "Port Dickson", "Bangkok"};
+
+    public static void main(String[] args) throws ParseException {
+        final int size = args.length == 0 ? DEFAULT_SIZE : Integer.parseInt(args[0]);
+        final ObservableList<ReadOnlyViewablePerson> persons = generatePersons(size);
+        final SearchIndexes<ReadOnlyViewablePerson> indexes = new SearchIndexes<>(persons);
+        final Parser parser = new Parser();
+
+        System.out.printf("%d persons, trigram index: %s%n", size, indexes.getTrigramIndex().getStatistics());
+        System.out.printf("%-32s %8s %16s %12s %14s %13s %18s %18s%n", "filter", "matches", "lowercasing (ms)",
+                          "tree (ms)", "compiled (ms)", "indexed (ms)", "lowercasing (KB)", "compiled (KB)");
+        for (String filter : FILTERS) {
+            final Expr expr = parser.parse(filter);
+            final Predicate<ReadOnlyViewablePerson> lowercasing = lowercasingFilter(filter);
+            final Predicate<ReadOnlyViewablePerson> compiled = expr.compile();
+            final int matches = count(persons, compiled);
+            assert matches == count(persons, expr::satisfies) && matches == count(persons, lowercasing);
+            assert matches == count(persons, expr.compile(indexes));
+
+            System.out.printf("%-32s %8d %16.2f %12.2f %14.2f %13.2f %18d %18d%n", filter, matches,
+                              measure(persons, lowercasing), measure(persons, expr::satisfies),
+                              measure(persons, compiled), measure(persons, () -> expr.compile(indexes)),
+                              allocatedKb(persons, lowercasing), allocatedKb(persons, compiled));
+        }
+    }
+
+    private static double measure(List<ReadOnlyViewablePerson> persons, Predicate<ReadOnlyViewablePerson> filter) {
+        return measure(persons, () -> filter);
+    }
+
+    /**
+     * @param compile creates the filter, timed together with the run
+     */
+    private static double measure(List<ReadOnlyViewablePerson> persons,
+                                  Supplier<Predicate<ReadOnlyViewablePerson>> compile) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            count(persons, compile.get());
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            final long start = System.nanoTime();
+            count(persons, compile.get());
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return memory allocated by one run of the filter, as reported by the JVM
+     */
+    private static long allocatedKb(List<ReadOnlyViewablePerson> persons, Predicate<ReadOnlyViewablePerson> filter) {
+        final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        count(persons, filter);
+        return (threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before) / 1024;
+    }
+
+    private static int count(List<ReadOnlyViewablePerson> persons, Predicate<ReadOnlyViewablePerson> filter) {
+        int matches = 0;
+        for (ReadOnlyViewablePerson person : persons) {
+            if (filter.test(person)) matches++;
+        }
+        return matches;
+    }
+
+    /**
+     * The filter as evaluated before expressions were compiled, for comparison.
+     * Conditions are checked in the order written, like the parsed expression.
+     */
+    private static Predicate<ReadOnlyViewablePerson> lowercasingFilter(String filter) {
+        Predicate<ReadOnlyViewablePerson> result = person -> true;
+        for (String part : filter.split(" ")) {
+            final boolean isNegated = part.startsWith("!");
+            final String[] qualifier = part.substring(isNegated ? 1 : 0).split(":");
+            final String value = qualifier[1];
+            Predicate<ReadOnlyViewablePerson> condition;
+            switch (qualifier[0]) {
+                case "name":
+                    condition = p -> p.getFirstName().toLowerCase().contains(value.toLowerCase())
+                            || p.getLastName().toLowerCase().contains(value.toLowerCase());
+                    break;
+                case "tag":
+                    condition = p -> p.getTagList().stream()
+                            .anyMatch(tag -> tag.getName().toLowerCase().contains(value.toLowerCase()));
+                    break;
+                default:
+                    condition = p -> p.getCity().toLowerCase().contains(value.toLowerCase());
+            }
+            result = result.and(isNegated ? condition.negate() : condition);
+        }
+        return result;
+    }
+
+    static ObservableList<ReadOnlyViewablePerson> generatePersons(int size) {
+        final List<Tag> friends = Arrays.asList(new Tag("friends"));
+        final List<Tag> colleagues = Arrays.asList(new Tag("colleagues"), new Tag("close friends"));
+        final List<Tag> family = Arrays.asList(new Tag("family"));
+        final ObservableList<ReadOnlyViewablePerson> persons = FXCollections.observableArrayList();
+        for (int i = 1; i <= size; i++) {
+            final Person person = new Person("First" + Integer.toString(i, 36), (i % 13 == 0 ? "Alison" : "Last") + i,
+                                             i);
+            person.setCity(CITIES[i % CITIES.length]);
+            person.setStreet(i + " Main Street");
+            person.setBirthday(LocalDate.of(1950 + i % 50, 1 + i % 12, 1 + i % 28));
+            person.setTags(i % 50 == 0 ? family : i % 3 == 0 ? friends : i % 3 == 1 ? colleagues : new ArrayList<>());
+            persons.add(ViewablePerson.fromBacking(person));
+        }
+        return persons;
+    }
+}
@@ -0,0 +1,89 @@
+package benchmarks;
+
+import address.util.collections.FilteredList;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Measures changing the predicate of a filtered list, narrowing it as when typing a filter, and changing its source,
+ * with a listener attached as the person list view has.
+ *
+ * Run with {@code gradle benchmark -PbenchmarkClass=FilteredListBenchmark [-PbenchmarkArgs="50000"]}.
+ * The argument is the number of elements.
+ */
+public class FilteredListBenchmark {
+    private static final int DEFAULT_SIZE = 50_000;
+    private static final int RUNS = 10;
+    private static final int SOURCE_CHANGES = 1_000;
+    private static final int REFINE_STEPS = 3;
+
+    public static void main(String[] args) {
+        final int size = args.length == 0 ? DEFAULT_SIZE : Integer.parseInt(args[0]);
+        final ObservableList<Integer> source = FXCollections.observableArrayList();
+        for (int i = 0; i < size; i++) {
+            source.add(i);
+        }
+        final FilteredList<Integer> filteredList = new FilteredList<>(source);
+        final int[] changeCount = {0};
+        filteredList.addListener((ListChangeListener<Integer>) c -> {
+            while (c.next()) {
+                changeCount[0]++;
+            }
+        });
+
+        System.out.printf("%d elements%n", size);
+        final Predicate<Integer> even = i -> i % 2 == 0;
+        final Predicate<Integer> firstHalf = i -> i < size / 2;
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            final long start = System.nanoTime();
+            filteredList.setPredicate(run % 2 == 0 ? even : firstHalf);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("predicate change: %.2f ms, %d sub-changes sent%n", toMillis(best), changeCount[0]);
+
+        // each step keeps a tenth of the elements of the previous one, like typing one more character
+        final long[] setTimes = new long[REFINE_STEPS];
+        final long[] refineTimes = new long[REFINE_STEPS];
+        for (int run = 0; run < RUNS; run++) {
+            for (boolean refine : new boolean[]{false, true}) {
+                filteredList.setPredicate(even);
+                for (int step = 0; step < REFINE_STEPS; step++) {
+                    final int modulus = 2 * (int) Math.pow(10, step + 1);
+                    final Predicate<Integer> narrower = i -> i % modulus == 0;
+                    final long start = System.nanoTime();
+                    if (refine) {
+                        filteredList.refinePredicate(narrower);
+                    } else {
+                        filteredList.setPredicate(narrower);
+                    }
+                    final long[] times = refine ? refineTimes : setTimes;
+                    times[step] = run == 0 ? System.nanoTime() - start
+                                           : Math.min(times[step], System.nanoTime() - start);
+                }
+            }
+        }
+        for (int step = 0; step < REFINE_STEPS; step++) {
+            System.out.printf("narrowing step %d: set %.2f ms, refine %.2f ms%n", step + 1, toMillis(setTimes[step]),
+                              toMillis(refineTimes[step]));
+        }
+        System.out.println(filteredList.getStatistics());
+
+        filteredList.setPredicate(even);
+        changeCount[0] = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < SOURCE_CHANGES; i++) {
+            source.set(i * (size / SOURCE_CHANGES), -i);
+        }
+        System.out.printf("%d source changes: %.2f ms, %d sub-changes sent%n", SOURCE_CHANGES,
+                          toMillis(System.nanoTime() - start), changeCount[0]);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,63 @@
+package benchmarks;
+
+import address.model.datatypes.person.FuzzyIndex;
+import address.model.datatypes.person.ReadOnlyViewablePerson;
+import javafx.collections.ObservableList;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ranked fuzzy searches over the person list with {@link FuzzyIndex}: building the index, then searching for
+ * misspelt and partial words, keeping the top matches as the person list panel does, and keeping every match.
+ *
+ * Run with {@code gradle benchmark -PbenchmarkClass=FuzzySearchBenchmark [-PbenchmarkArgs="100000"]}.
+ * The argument is the number of persons.
+ */
+public class FuzzySearchBenchmark {
+    private static final int DEFAULT_SIZE = 100_000;
+    private static final int LIMIT = 100;
+    private static final int WARMUP_RUNS = 10;
+    private static final int RUNS = 20;
+    private static final String[] QUERIES = {"alsion13", "frist2s", "singapor", "lsat4567", "famly", "las",
+                                             "kuala lumpr alison26", "jakrta colleages frends", "fist1 last1"};
+
+    public static void main(String[] args) {
+        final int size = args.length == 0 ? DEFAULT_SIZE : Integer.parseInt(args[0]);
+        final ObservableList<ReadOnlyViewablePerson> persons = FilterBenchmark.generatePersons(size);
+        final long start = System.nanoTime();
+        final FuzzyIndex<ReadOnlyViewablePerson> index = new FuzzyIndex<>(persons);
+        System.out.printf("%d persons, %d distinct words, index built in %.0f ms%n", size, index.getTermCount(),
+                          toMillis(System.nanoTime() - start));
+
+        System.out.printf("%-26s %8s %-40s %12s %14s%n", "query", "matches", "best match", "top " + LIMIT + " (ms)",
+                          "all (ms)");
+        for (String query : QUERIES) {
+            final List<FuzzyIndex.Match<ReadOnlyViewablePerson>> all = index.search(query, Integer.MAX_VALUE);
+            final List<FuzzyIndex.Match<ReadOnlyViewablePerson>> top = index.search(query, LIMIT);
+            for (int i = 0; i < top.size(); i++) {
+                assert top.get(i).getScore() == all.get(i).getScore();
+            }
+            System.out.printf("%-26s %8d %-40.40s %12.2f %14.2f%n", query, all.size(),
+                              top.isEmpty() ? "" : top.get(0), measure(index, query, LIMIT),
+                              measure(index, query, Integer.MAX_VALUE));
+        }
+    }
+
+    private static double measure(FuzzyIndex<ReadOnlyViewablePerson> index, String query, int limit) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            index.search(query, limit);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            final long start = System.nanoTime();
+            index.search(query, limit);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return toMillis(best);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,127 @@
+package benchmarks;
+
+import address.model.ModelManager;
+import address.model.datatypes.AddressBook;
+import address.model.datatypes.ViewableAddressBook;
+import address.model.datatypes.person.Person;
+import address.model.datatypes.person.ReadOnlyPerson;
+import address.model.datatypes.tag.Tag;
+import address.util.Config;
+import commons.PlatformExecUtil;
+import org.testfx.api.FxToolkit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Measures bulk retagging and deletion by id, which should grow linearly with the address book size.
+ *
+ * Deletion is measured the way the UI deletes many selected persons: one command per person, each finishing on a
+ * command thread and removing its person from the model. "one by one" removes each person in its own task on the
+ * FX thread, as the delete commands used to; "delete" goes through {@link ModelManager}, which batches them.
+ * "one by one" grows quadratically, so it is only measured up to {@value #MAX_ONE_BY_ONE_SIZE} persons.
+ *
+ * Run with {@code gradle benchmark -PbenchmarkClass=PersonLookupBenchmark [-PbenchmarkArgs="25000 50000 100000"]}.
+ * Arguments are the address book sizes to measure; a tenth of the persons is retagged and then deleted.
+ */
+public class PersonLookupBenchmark {
+    private static final int[] DEFAULT_SIZES = {25_000, 50_000, 100_000};
+    private static final int RUNS = 3;
+    private static final int COMMAND_THREADS = 4;
+    private static final int MAX_ONE_BY_ONE_SIZE = 50_000;
+    private static final List<Tag> NEW_TAGS = Arrays.asList(new Tag("retagged"));
+
+    public static void main(String[] args) throws TimeoutException, InterruptedException {
+        final int[] sizes = args.length == 0 ? DEFAULT_SIZES
+                                             : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        FxToolkit.registerPrimaryStage();
+        final ExecutorService commandThreads = Executors.newFixedThreadPool(COMMAND_THREADS);
+        final ModelManager model = new ModelManager(new Config()); // reused, as it stays registered for events
+        System.out.printf("%10s %10s %12s %18s %12s%n", "persons", "changed", "retag (ms)", "one by one (ms)",
+                          "delete (ms)");
+        for (int size : sizes) {
+            measure(size, commandThreads, model);
+        }
+        commandThreads.shutdown();
+        System.exit(0);
+    }
+
+    private static void measure(int size, ExecutorService commandThreads, ModelManager model)
+            throws InterruptedException {
+        long bestRetag = Long.MAX_VALUE;
+        long bestOneByOne = Long.MAX_VALUE;
+        long bestDelete = Long.MAX_VALUE;
+        final List<Integer> ids = new ArrayList<>();
+        for (int i = 1; i <= size; i += 10) {
+            ids.add(i);
+        }
+        Collections.shuffle(ids, new Random(size));
+        final Set<Integer> idsToDelete = new HashSet<>(ids);
+        for (int run = 0; run < RUNS; run++) {
+            final AddressBook addressBook = generateAddressBook(size);
+            final ViewableAddressBook viewable = addressBook.createVisibleAddressBook();
+
+            System.gc(); // so that collecting the garbage left by the setup is not timed
+            long start = System.nanoTime();
+            ids.forEach(id -> addressBook.findPerson(id).get().setTags(NEW_TAGS));
+            bestRetag = Math.min(bestRetag, System.nanoTime() - start);
+
+            if (size <= MAX_ONE_BY_ONE_SIZE) {
+                System.gc();
+                start = System.nanoTime();
+                runCommands(commandThreads, ids,
+                            id -> PlatformExecUtil.runAndWait(() -> addressBook.removePerson(id)));
+                bestOneByOne = Math.min(bestOneByOne, System.nanoTime() - start);
+                assert viewable.getPersons().size() == size - ids.size();
+            }
+
+            PlatformExecUtil.runAndWait(() -> model.resetData(generateAddressBook(size)));
+            final List<ReadOnlyPerson> targets = model.getAllViewablePersonsReadOnly().stream()
+                    .filter(person -> idsToDelete.contains(person.getId()))
+                    .collect(Collectors.toList());
+            Collections.shuffle(targets, new Random(size));
+
+            System.gc();
+            start = System.nanoTime();
+            runCommands(commandThreads, targets, model::removePersonFromBackingModel);
+            PlatformExecUtil.waitOnFxThread();
+            bestDelete = Math.min(bestDelete, System.nanoTime() - start);
+            assert model.getAllViewablePersonsReadOnly().size() == size - ids.size();
+        }
+        final String oneByOne = size <= MAX_ONE_BY_ONE_SIZE
+                ? Long.toString(TimeUnit.NANOSECONDS.toMillis(bestOneByOne)) : "-";
+        System.out.printf("%10d %10d %12d %18s %12d%n", size, ids.size(), TimeUnit.NANOSECONDS.toMillis(bestRetag),
+                          oneByOne, TimeUnit.NANOSECONDS.toMillis(bestDelete));
+    }
+
+    /**
+     * Runs the action for each target as a separate task on the command threads, returning once all have finished
+     */
+    private static <T> void runCommands(ExecutorService commandThreads, List<T> targets, Consumer<T> action)
+            throws InterruptedException {
+        final List<Callable<Object>> commands = targets.stream()
+                .map(target -> Executors.callable(() -> action.accept(target)))
+                .collect(Collectors.toList());
+        commandThreads.invokeAll(commands);
+    }
+
+    private static AddressBook generateAddressBook(int size) {
+        final List<Person> persons = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            persons.add(new Person("First" + i, "Last" + i, i));
+        }
+        return new AddressBook(persons, new ArrayList<>());
+    }
+}
@@ -0,0 +1,81 @@
+package benchmarks;
+
+import address.model.datatypes.person.ReadOnlyViewablePerson;
+import address.model.datatypes.person.SearchIndexes;
+import address.parser.ParseException;
+import address.parser.Parser;
+import address.parser.expr.Expr;
+import address.parser.expr.Planner;
+import javafx.collections.ObservableList;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Measures evaluating filters that mix cheap and expensive, selective and unselective conditions over the person list,
+ * comparing the parsed expression tree and its compiled predicate evaluated in the order written with the compiled
+ * predicate in the order chosen by {@link Planner#BY_ESTIMATE} (planning included).
+ *
+ * Run with {@code gradle benchmark -PbenchmarkClass=PlannerBenchmark [-PbenchmarkArgs="100000"]}.
+ * The argument is the number of persons.
+ */
+public class PlannerBenchmark {
+    private static final int DEFAULT_SIZE = 100_000;
+    private static final int WARMUP_RUNS = 10;
+    private static final int RUNS = 20;
+    private static final String[] FILTERS = {"name:ali tag:family", "street:main city:port id:1000..2000",
+                                             "tag:friends name:alison7 !city:bangkok",
+                                             "(city:sing OR city:jakarta) birthday:01.01.1960..31.12.1960 tag:fri",
+                                             "street:\"main street\" (id:..500 OR tag:family)",
+                                             "!tag:colleagues OR name:\"last4\""};
+
+    public static void main(String[] args) throws ParseException {
+        final int size = args.length == 0 ? DEFAULT_SIZE : Integer.parseInt(args[0]);
+        final ObservableList<ReadOnlyViewablePerson> persons = FilterBenchmark.generatePersons(size);
+        final SearchIndexes<ReadOnlyViewablePerson> indexes = new SearchIndexes<>(persons);
+        final Parser parser = new Parser();
+
+        System.out.printf("%d persons%n", size);
+        System.out.printf("%-72s %8s %12s %15s %14s%n", "filter", "matches", "tree (ms)", "in order (ms)",
+                          "planned (ms)");
+        for (String filter : FILTERS) {
+            final Expr expr = parser.parse(filter);
+            final int matches = count(persons, expr::satisfies);
+            assert matches == count(persons, expr.compile(indexes, Planner.IN_ORDER));
+            assert matches == count(persons, expr.compile(indexes, Planner.BY_ESTIMATE));
+
+            System.out.printf("%-72s %8d %12.2f %15.2f %14.2f%n", filter, matches,
+                              measure(persons, expr::satisfies, null),
+                              measure(persons, null, () -> expr.compile(indexes, Planner.IN_ORDER)),
+                              measure(persons, null, () -> expr.compile(indexes, Planner.BY_ESTIMATE)));
+        }
+    }
+
+    /**
+     * @param filter run as is if not null
+     * @param compile otherwise creates the filter, timed together with the run
+     */
+    private static double measure(List<ReadOnlyViewablePerson> persons, Predicate<ReadOnlyViewablePerson> filter,
+                                  Supplier<Predicate<ReadOnlyViewablePerson>> compile) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            count(persons, filter != null ? filter : compile.get());
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            final long start = System.nanoTime();
+            count(persons, filter != null ? filter : compile.get());
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static int count(List<ReadOnlyViewablePerson> persons, Predicate<ReadOnlyViewablePerson> filter) {
+        int matches = 0;
+        for (ReadOnlyViewablePerson person : persons) {
+            if (filter.test(person)) matches++;
+        }
+        return matches;
+    }
+}
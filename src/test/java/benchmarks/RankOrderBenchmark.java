@@ -0,0 +1,116 @@
+package benchmarks;
+
+import address.model.datatypes.AddressBook;
+import address.model.datatypes.person.Person;
+import address.model.datatypes.person.ReadOnlyPerson;
+import address.storage.BinaryFileStorage;
+import address.storage.DataFileFormat;
+import address.storage.PersistedStateTracker;
+import address.storage.StorageManager;
+import address.util.collections.ReorderedList;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures restoring the user-defined order of a large address book whose persons have been moved around: loading
+ * the binary data file in chunks, as the storage manager does, into a list shown in rank order. Compares with a file
+ * not saved in rank order, and with loading without ordering. Also measures a drop of dragged persons, and counts the
+ * journal entries it needs.
+ *
+ * Run with {@code gradle benchmark -PbenchmarkClass=RankOrderBenchmark [-PbenchmarkArgs="100000 1000"]}.
+ * The arguments are the number of persons and the number of them dragged.
+ */
+public class RankOrderBenchmark {
+    private static final int DEFAULT_SIZE = 100_000;
+    private static final int DEFAULT_DRAGGED = 1_000;
+    private static final int CHUNK_SIZE = 1000;
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) throws Exception {
+        final int size = args.length == 0 ? DEFAULT_SIZE : Integer.parseInt(args[0]);
+        final int dragged = args.length < 2 ? DEFAULT_DRAGGED : Integer.parseInt(args[1]);
+        final AddressBook addressBook = new AddressBook();
+        for (int i = 1; i <= size; i++) {
+            addressBook.addPerson(new Person("First" + i, "Last" + i, i));
+        }
+        shuffleRanks(addressBook, new Random(19));
+
+        final File file = File.createTempFile("rankOrderBenchmark", ".dat");
+        file.deleteOnExit();
+        StorageManager.saveAddressBook(file, addressBook, DataFileFormat.BINARY);
+        final File unorderedFile = File.createTempFile("rankOrderBenchmark", ".dat");
+        unorderedFile.deleteOnExit();
+        BinaryFileStorage.saveDataToFile(unorderedFile, addressBook);
+        System.out.printf("%d persons, %d dragged%n", size, dragged);
+
+        System.out.printf("chunked load in file order: %.2f ms%n", measureLoad(file, false));
+        System.out.printf("chunked load in rank order, saved in rank order: %.2f ms%n", measureLoad(file, true));
+        System.out.printf("chunked load in rank order, saved in another order: %.2f ms%n",
+                          measureLoad(unorderedFile, true));
+
+        final ObservableList<Person> persons = addressBook.getPersons();
+        final ReorderedList<Person> view = new ReorderedList<>(persons, ReadOnlyPerson.RANK_ORDER);
+        final PersistedStateTracker tracker = new PersistedStateTracker();
+        tracker.set(addressBook);
+        final List<Person> toMove = new ArrayList<>(dragged);
+        for (int i = 0; i < dragged; i++) {
+            toMove.add(view.get(i * (size / dragged)));
+        }
+        final long start = System.nanoTime();
+        final List<Integer> movedIndices = new ArrayList<>(view.moveElements(toMove, size));
+        final int from = Collections.min(movedIndices);
+        addressBook.rankBetween(toMove, view.get(from - 1).getRank(), null);
+        System.out.printf("drop and ranking: %.2f ms%n", toMillis(System.nanoTime() - start));
+        System.out.printf("journal entries for the drop: %d%n", tracker.collectChanges(addressBook).size());
+        assertRankOrder(view);
+    }
+
+    /**
+     * Loads the file in chunks as the storage manager does, into a list shown in rank order if {@code inRankOrder}
+     * @return the best time in milliseconds
+     */
+    private static double measureLoad(File file, boolean inRankOrder) throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            final long start = System.nanoTime();
+            final ObservableList<ReadOnlyPerson> persons = FXCollections.observableArrayList();
+            final ReorderedList<ReadOnlyPerson> shown = inRankOrder
+                    ? new ReorderedList<>(persons, ReadOnlyPerson.RANK_ORDER) : null;
+            BinaryFileStorage.loadDataFromSaveFile(file, CHUNK_SIZE, chunk -> persons.addAll(chunk.getPersonList()));
+            best = Math.min(best, System.nanoTime() - start);
+            if (shown != null) assertRankOrder(shown);
+        }
+        return toMillis(best);
+    }
+
+    /**
+     * Gives the persons ranks in a random order, as many moves would
+     */
+    private static void shuffleRanks(AddressBook addressBook, Random random) {
+        final List<String> ranks = new ArrayList<>();
+        addressBook.getPersons().forEach(person -> ranks.add(person.getRank()));
+        Collections.shuffle(ranks, random);
+        for (int i = 0; i < ranks.size(); i++) {
+            addressBook.getPersons().get(i).setRank(ranks.get(i));
+        }
+    }
+
+    private static void assertRankOrder(List<? extends ReadOnlyPerson> persons) {
+        for (int i = 1; i < persons.size(); i++) {
+            if (ReadOnlyPerson.RANK_ORDER.compare(persons.get(i - 1), persons.get(i)) > 0) {
+                throw new AssertionError("Not in rank order at " + i);
+            }
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
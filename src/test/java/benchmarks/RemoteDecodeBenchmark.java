@@ -0,0 +1,147 @@
+package benchmarks;
+
+import address.model.datatypes.person.Person;
+import address.model.datatypes.tag.Tag;
+import address.sync.RemoteService;
+import address.sync.cloud.CloudFileHandler;
+import address.sync.cloud.CloudRateLimitStatus;
+import address.sync.cloud.CloudSimulator;
+import address.sync.cloud.RemoteResponse;
+import address.sync.cloud.model.CloudPerson;
+import address.sync.cloud.model.CloudTag;
+import commons.JsonUtil;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the memory allocated to get a page of persons from the remote, from making the response to having the
+ * list of persons: as before, with the body serialized twice as pretty-printed JSON strings, read back into a string
+ * and parsed into a list of cloud persons before conversion, and now, with the body serialized once as compact JSON
+ * bytes and each person converted as it is parsed from the stream.
+ *
+ * Run with {@code gradle benchmark -PbenchmarkClass=RemoteDecodeBenchmark [-PbenchmarkArgs="100"]}.
+ * The argument is the number of persons in the page.
+ */
+public class RemoteDecodeBenchmark {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int WARMUP_RUNS = 2_000;
+    private static final int RUNS = 1_000;
+
+    /**
+     * A cloud simulator that responds to requests for persons with a fixed page, without reading its file
+     */
+    private static class PageCloudSimulator extends CloudSimulator {
+        private final CloudRateLimitStatus rateLimitStatus;
+        private final List<CloudPerson> page;
+
+        PageCloudSimulator(CloudRateLimitStatus rateLimitStatus, List<CloudPerson> page) {
+            super(new CloudFileHandler(), rateLimitStatus);
+            this.rateLimitStatus = rateLimitStatus;
+            this.page = page;
+        }
+
+        @Override
+        public RemoteResponse getPersons(String addressBookName, int pageNumber, int resourcesPerPage,
+                                         String previousETag) {
+            return new RemoteResponse(HttpURLConnection.HTTP_OK, page, rateLimitStatus, previousETag);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        final int pageSize = args.length == 0 ? DEFAULT_PAGE_SIZE : Integer.parseInt(args[0]);
+        final List<CloudPerson> page = new ArrayList<>(pageSize);
+        for (int i = 1; i <= pageSize; i++) {
+            CloudPerson person = new CloudPerson("First" + i, "Last" + i, i);
+            person.setStreet(i + " Street");
+            person.setCity("City");
+            person.setPostalCode("12345" + i);
+            person.setGithubUsername("user" + i);
+            person.setBirthday(LocalDate.of(1990, 1, 1).plusDays(i));
+            person.setLastUpdatedAt(LocalDateTime.now());
+            person.setTags(Collections.singletonList(new CloudTag("friends")));
+            page.add(person);
+        }
+        final CloudRateLimitStatus rateLimitStatus = new CloudRateLimitStatus(Integer.MAX_VALUE,
+                LocalDateTime.now().plusHours(1).toEpochSecond(ZoneOffset.UTC));
+        final RemoteService remoteService = new RemoteService(new PageCloudSimulator(rateLimitStatus, page));
+        System.out.printf("%d persons per page%n", pageSize);
+        System.out.printf("pretty-printed body: %d bytes, compact body: %d bytes%n",
+                          JsonUtil.toJsonString(page).getBytes().length, JsonUtil.toCompactJsonBytes(page).length);
+
+        final com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            check(getPageAsBefore(page, rateLimitStatus), pageSize);
+            check(remoteService.getPersons("benchmark", 1).getData().get(), pageSize);
+        }
+
+        long start = threadBean.getThreadAllocatedBytes(threadId);
+        for (int run = 0; run < RUNS; run++) {
+            check(getPageAsBefore(page, rateLimitStatus), pageSize);
+        }
+        final long before = (threadBean.getThreadAllocatedBytes(threadId) - start) / RUNS;
+
+        start = threadBean.getThreadAllocatedBytes(threadId);
+        for (int run = 0; run < RUNS; run++) {
+            check(remoteService.getPersons("benchmark", 1).getData().get(), pageSize);
+        }
+        final long after = (threadBean.getThreadAllocatedBytes(threadId) - start) / RUNS;
+
+        System.out.printf("allocated per page before: %d KB%n", before / 1024);
+        System.out.printf("allocated per page now: %d KB%n", after / 1024);
+    }
+
+    /**
+     * Makes and decodes a response as the remote response and remote service did before
+     */
+    private static List<Person> getPageAsBefore(List<CloudPerson> page, CloudRateLimitStatus rateLimitStatus)
+            throws Exception {
+        sha1(new ByteArrayInputStream(JsonUtil.toJsonString(page).getBytes()));
+        rateLimitStatus.useQuota(1);
+        InputStream body = new ByteArrayInputStream(JsonUtil.toJsonString(page).getBytes());
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body));
+        StringBuilder json = new StringBuilder();
+        while (reader.ready()) {
+            json.append(reader.readLine());
+        }
+        List<CloudPerson> cloudPersons = JsonUtil.fromJsonStringToList(json.toString(), CloudPerson.class);
+        return cloudPersons.stream().map(RemoteDecodeBenchmark::convertToPerson).collect(Collectors.toList());
+    }
+
+    private static void sha1(InputStream stream) throws Exception {
+        DigestInputStream digestStream = new DigestInputStream(new BufferedInputStream(stream),
+                                                               MessageDigest.getInstance("SHA-1"));
+        while (digestStream.read() != -1) {}
+        digestStream.getMessageDigest().digest();
+    }
+
+    private static Person convertToPerson(CloudPerson cloudPerson) {
+        Person person = new Person(cloudPerson.getFirstName(), cloudPerson.getLastName(), cloudPerson.getId());
+        person.setStreet(cloudPerson.getStreet());
+        person.setCity(cloudPerson.getCity());
+        person.setPostalCode(cloudPerson.getPostalCode());
+        person.setGithubUsername(cloudPerson.getGithubUsername());
+        person.setTags(cloudPerson.getTags().stream()
+                               .map(cloudTag -> new Tag(cloudTag.getName())).collect(Collectors.toList()));
+        person.setBirthday(cloudPerson.getBirthday());
+        person.setIsDeleted(cloudPerson.isDeleted());
+        return person;
+    }
+
+    private static void check(List<Person> persons, int pageSize) {
+        if (persons.size() != pageSize) throw new AssertionError("Got " + persons.size() + " persons");
+    }
+}
@@ -0,0 +1,119 @@
+package benchmarks;
+
+import address.model.datatypes.person.Person;
+import address.sync.ExtractedRemoteResponse;
+import address.sync.RemoteManager;
+import address.sync.RemoteService;
+import address.sync.cloud.CloudFileHandler;
+import address.sync.cloud.CloudRateLimitStatus;
+import address.sync.cloud.CloudSimulator;
+import address.sync.cloud.RemoteResponse;
+import address.sync.cloud.model.CloudAddressBook;
+import address.sync.cloud.model.CloudPerson;
+import commons.XmlUtil;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures getting all persons of a remote address book, page by page one after another as before, and with the
+ * remote manager requesting pages concurrently. The remote is a cloud simulator that takes a fixed time to respond to
+ * each request, as a remote over the network would.
+ *
+ * Run with {@code gradle benchmark -PbenchmarkClass=RemotePagingBenchmark [-PbenchmarkArgs="5000 50"]}.
+ * The arguments are the number of persons and the latency of a request in milliseconds.
+ */
+public class RemotePagingBenchmark {
+    private static final int DEFAULT_SIZE = 5_000;
+    private static final int DEFAULT_LATENCY_MILLIS = 50;
+    private static final String ADDRESS_BOOK_NAME = "remotePagingBenchmark";
+    private static final int RUNS = 3;
+
+    /**
+     * A cloud simulator that waits before responding to requests for pages, outside its lock
+     */
+    private static class LatentCloudSimulator extends CloudSimulator {
+        private final int latencyMillis;
+
+        LatentCloudSimulator(int latencyMillis) {
+            super(new CloudFileHandler(), new CloudRateLimitStatus(Integer.MAX_VALUE,
+                    LocalDateTime.now().plusHours(1).toEpochSecond(ZoneOffset.UTC)));
+            this.latencyMillis = latencyMillis;
+        }
+
+        private void waitForLatency() {
+            try {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public RemoteResponse getPersons(String addressBookName, int pageNumber, int resourcesPerPage,
+                                         String previousETag) {
+            waitForLatency();
+            return super.getPersons(addressBookName, pageNumber, resourcesPerPage, previousETag);
+        }
+
+        @Override
+        public RemoteResponse getTags(String addressBookName, int pageNumber, int resourcesPerPage,
+                                      String previousETag) {
+            waitForLatency();
+            return super.getTags(addressBookName, pageNumber, resourcesPerPage, previousETag);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        final int size = args.length == 0 ? DEFAULT_SIZE : Integer.parseInt(args[0]);
+        final int latencyMillis = args.length < 2 ? DEFAULT_LATENCY_MILLIS : Integer.parseInt(args[1]);
+        final List<CloudPerson> persons = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            persons.add(new CloudPerson("First" + i, "Last" + i, i));
+        }
+        final File cloudFile = new File("cloud/" + ADDRESS_BOOK_NAME);
+        cloudFile.getParentFile().mkdirs();
+        cloudFile.createNewFile();
+        cloudFile.deleteOnExit();
+        XmlUtil.saveDataToFile(cloudFile, new CloudAddressBook(ADDRESS_BOOK_NAME, persons, new ArrayList<>()));
+        final RemoteService remoteService = new RemoteService(new LatentCloudSimulator(latencyMillis));
+        System.out.printf("%d persons, %d ms latency%n", size, latencyMillis);
+
+        long sequential = Long.MAX_VALUE;
+        long concurrent = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            final int sequentialCount = getPersonsSequentially(remoteService).size();
+            sequential = Math.min(sequential, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            final int concurrentCount = new RemoteManager(remoteService).getUpdatedPersons(ADDRESS_BOOK_NAME).get()
+                    .size();
+            concurrent = Math.min(concurrent, System.nanoTime() - start);
+            if (sequentialCount != size || concurrentCount != size) {
+                throw new AssertionError("Got " + sequentialCount + " and " + concurrentCount + " persons");
+            }
+        }
+        System.out.printf("pages one after another: %.2f ms%n", toMillis(sequential));
+        System.out.printf("pages requested concurrently: %.2f ms%n", toMillis(concurrent));
+    }
+
+    private static List<Person> getPersonsSequentially(RemoteService remoteService) throws Exception {
+        final List<Person> persons = new ArrayList<>();
+        ExtractedRemoteResponse<List<Person>> response;
+        int page = 1;
+        do {
+            response = remoteService.getPersons(ADDRESS_BOOK_NAME, page++);
+            persons.addAll(response.getData().get());
+        } while (response.getNextPage() != 0);
+        return persons;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,92 @@
+package benchmarks;
+
+import address.model.datatypes.person.ReadOnlyViewablePerson;
+import address.util.collections.ReorderedList;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures dragging selected persons in the reordered person list, as a drop does: finding the dragged persons by id,
+ * moving them and looking up their new indices, with a listener attached as the person list view has. Also measures
+ * getting the elements of a screenful of cells at the end of the list. Compares with the previous implementation,
+ * which looked up every index with {@code indexOf} and moved elements with {@code removeAll} and {@code addAll}.
+ *
+ * Run with {@code gradle benchmark -PbenchmarkClass=ReorderedListBenchmark [-PbenchmarkArgs="100000 1000"]}.
+ * The arguments are the number of persons and the number of them dragged.
+ */
+public class ReorderedListBenchmark {
+    private static final int DEFAULT_SIZE = 100_000;
+    private static final int DEFAULT_DRAGGED = 1_000;
+    private static final int RUNS = 10;
+    private static final int CELLS = 30;
+
+    public static void main(String[] args) {
+        final int size = args.length == 0 ? DEFAULT_SIZE : Integer.parseInt(args[0]);
+        final int dragged = args.length < 2 ? DEFAULT_DRAGGED : Integer.parseInt(args[1]);
+        final ObservableList<ReadOnlyViewablePerson> persons = FilterBenchmark.generatePersons(size);
+        final ReorderedList<ReadOnlyViewablePerson> reorderedList = new ReorderedList<>(persons);
+        final int[] changeCount = {0};
+        reorderedList.addListener((ListChangeListener<ReadOnlyViewablePerson>) c -> {
+            while (c.next()) {
+                changeCount[0]++;
+            }
+        });
+        final Set<Integer> draggedIds = new HashSet<>();
+        for (int i = 0; i < dragged; i++) {
+            draggedIds.add(persons.get(i * (size / dragged)).getId());
+        }
+
+        System.out.printf("%d persons, %d dragged%n", size, dragged);
+        // alternately to the end and to the middle, so that the dragged persons move every time
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            final long start = System.nanoTime();
+            final List<ReadOnlyViewablePerson> toMove = reorderedList.stream()
+                    .filter(p -> draggedIds.contains(p.getId())).collect(Collectors.toList());
+            reorderedList.moveElements(toMove, run % 2 == 0 ? size : size / 2);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("drop: %.2f ms, %d sub-changes sent%n", toMillis(best), changeCount[0]);
+        System.out.printf("getting %d cells: %.3f ms%n", CELLS, measureCells(reorderedList));
+
+        final ObservableList<ReadOnlyViewablePerson> mappingList = FXCollections.observableArrayList(persons);
+        final long start = System.nanoTime();
+        final List<ReadOnlyViewablePerson> toMove = mappingList.stream()
+                .filter(p -> draggedIds.contains(p.getId())).collect(Collectors.toList());
+        mappingList.removeAll(toMove);
+        mappingList.addAll(size / 2 - dragged, toMove);
+        final List<Integer> movedIndices = toMove.stream().map(mappingList::indexOf).collect(Collectors.toList());
+        System.out.printf("previous drop: %.2f ms (%d moved)%n", toMillis(System.nanoTime() - start),
+                          movedIndices.size());
+        final long cellsStart = System.nanoTime();
+        for (int i = size - CELLS; i < size; i++) {
+            persons.get(persons.indexOf(mappingList.get(i)));
+        }
+        System.out.printf("previous getting %d cells: %.3f ms%n", CELLS, toMillis(System.nanoTime() - cellsStart));
+    }
+
+    private static double measureCells(List<ReadOnlyViewablePerson> list) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            final long start = System.nanoTime();
+            final List<ReadOnlyViewablePerson> cells = new ArrayList<>(CELLS);
+            for (int i = list.size() - CELLS; i < list.size(); i++) {
+                cells.add(list.get(i));
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return toMillis(best);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,90 @@
+package benchmarks;
+
+import address.model.datatypes.AddressBook;
+import address.model.datatypes.person.Person;
+import address.model.datatypes.tag.Tag;
+import address.storage.DataFileFormat;
+import commons.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares save time, load time and file size of the data file formats.
+ *
+ * Run with {@code gradle benchmark -PbenchmarkClass=StorageFormatBenchmark [-PbenchmarkArgs="10000 100000"]}.
+ * Arguments are the address book sizes to measure, 10k, 100k and 1M persons by default.
+ */
+public class StorageFormatBenchmark {
+    private static final int[] DEFAULT_SIZES = {10_000, 100_000, 1_000_000};
+    private static final int RUNS = 3;
+    private static final String[] CITIES = {"Singapore", "Kuala Lumpur", "Jakarta", "Bangkok", "Manila", "Hanoi"};
+    private static final String[] TAGS = {"friends", "colleagues", "family", "neighbours", "club"};
+
+    public static void main(String[] args) throws Exception {
+        final int[] sizes = args.length == 0 ? DEFAULT_SIZES
+                                             : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        System.out.printf("%10s %8s %12s %12s %14s%n", "persons", "format", "save (ms)", "load (ms)", "size (bytes)");
+        for (int size : sizes) {
+            final AddressBook data = generateAddressBook(size);
+            for (DataFileFormat format : DataFileFormat.values()) {
+                measure(data, format);
+            }
+        }
+    }
+
+    private static void measure(AddressBook data, DataFileFormat format) throws Exception {
+        final File file = File.createTempFile("benchmark", "." + format.name().toLowerCase());
+        file.deleteOnExit();
+
+        long bestSave = Long.MAX_VALUE;
+        long bestLoad = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            format.save(file, data);
+            bestSave = Math.min(bestSave, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            final int[] loaded = {0};
+            format.load(file, 1000, chunk -> loaded[0] += chunk.getPersonList().size());
+            bestLoad = Math.min(bestLoad, System.nanoTime() - start);
+            assert loaded[0] == data.getPersonList().size();
+        }
+        System.out.printf("%10d %8s %12d %12d %14d%n", data.getPersonList().size(), format,
+                          TimeUnit.NANOSECONDS.toMillis(bestSave), TimeUnit.NANOSECONDS.toMillis(bestLoad),
+                          file.length());
+        deleteQuietly(file);
+    }
+
+    private static AddressBook generateAddressBook(int size) {
+        final Random random = new Random(size);
+        final List<Person> persons = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            final Person person = new Person("First" + i, "Last" + random.nextInt(size), i);
+            person.setStreet(random.nextInt(1000) + " Some Street");
+            person.setCity(CITIES[random.nextInt(CITIES.length)]);
+            person.setPostalCode(Integer.toString(100000 + random.nextInt(500)));
+            person.setGithubUsername("user" + i);
+            person.setBirthday(LocalDate.ofEpochDay(random.nextInt(20000)));
+            person.setTags(Arrays.asList(new Tag(TAGS[random.nextInt(TAGS.length)])));
+            persons.add(person);
+        }
+        final List<Tag> tags = new ArrayList<>();
+        Arrays.stream(TAGS).forEach(name -> tags.add(new Tag(name)));
+        return new AddressBook(persons, tags);
+    }
+
+    private static void deleteQuietly(File file) {
+        try {
+            FileUtil.deleteFileIfExists(file);
+        } catch (IOException e) {
+            file.deleteOnExit();
+        }
+    }
+}
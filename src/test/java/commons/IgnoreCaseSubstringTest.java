@@ -0,0 +1,38 @@
+package commons;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IgnoreCaseSubstringTest {
+
+    @Test
+    public void isFoundIn_differentCase_found() {
+        final IgnoreCaseSubstring substring = new IgnoreCaseSubstring("M\u00fcLl");
+
+        assertTrue(substring.isFoundIn("Mueller, M\u00fcller"));
+        assertTrue(substring.isFoundIn("M\u00dcLLER"));
+        assertTrue(substring.isFoundIn("m\u00fcll"));
+        assertFalse(substring.isFoundIn("Mueller"));
+        assertFalse(substring.isFoundIn("m\u00fcl"));
+    }
+
+    @Test
+    public void isFoundIn_emptyOrNull() {
+        assertTrue(new IgnoreCaseSubstring("").isFoundIn(""));
+        assertTrue(new IgnoreCaseSubstring("").isFoundIn("anything"));
+        assertFalse(new IgnoreCaseSubstring("a").isFoundIn(""));
+        assertFalse(new IgnoreCaseSubstring("a").isFoundIn(null));
+    }
+
+    @Test
+    public void containsIgnoreCase_sameAsLowerCasedContains() {
+        final String[] strings = {"Singapore", "SING", "apore", "x", "", "Victoria Street", "STREET"};
+        for (String source : strings) {
+            for (String query : strings) {
+                assertEquals(source + "/" + query, source.toLowerCase().contains(query.toLowerCase()),
+                             StringUtil.containsIgnoreCase(source, query));
+            }
+        }
+    }
+}
@@ -8,6 +8,7 @@ import address.model.datatypes.person.Person;
 import address.storage.StorageAddressBook;
 import commons.JsonUtil;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -16,6 +17,7 @@ import java.util.List;
 
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * Tests JSON Read and Write
@@ -98,4 +100,23 @@ public class JsonUtilTest {
         assertEquals(LocalDate.of(1980, 3, 18), person.getBirthday());
         assertEquals("FirstLast", person.getGithubUsername());
     }
+
+    @Test
+    public void forEachInJsonArray_compactArrayWithNull_elementsInOrder() throws IOException {
+        List<Tag> tags = Arrays.asList(new Tag("First"), null, new Tag("Third"));
+        byte[] json = JsonUtil.toCompactJsonBytes(tags);
+        assertEquals(-1, new String(json).indexOf(' '));
+
+        List<Tag> tagsRead = new ArrayList<>();
+        JsonUtil.forEachInJsonArray(new ByteArrayInputStream(json), Tag.class, tagsRead::add);
+        assertEquals(3, tagsRead.size());
+        assertEquals("First", tagsRead.get(0).getName());
+        assertNull(tagsRead.get(1));
+        assertEquals("Third", tagsRead.get(2).getName());
+    }
+
+    @Test(expected = IOException.class)
+    public void forEachInJsonArray_notAnArray_exceptionThrown() throws IOException {
+        JsonUtil.forEachInJsonArray(new ByteArrayInputStream("{\"name\":\"Tag\"}".getBytes()), Tag.class, tag -> {});
+    }
 }